@@ -0,0 +1,123 @@
+package com.edutest.benchmarks;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Compares two JMH JSON result files ({@code -rf json}) benchmark by benchmark.
+ *
+ * <p>Compared per benchmark, mode and parameter set: throughput (ops/s, higher is better),
+ * average or sampled time (us/op, lower is better), the sampled p99, and the normalized
+ * allocation {@code gc.alloc.rate.norm} (B/op) when the GC profiler ran. Scores are
+ * converted to those units first, so runs with different {@code -tu} still compare.
+ * A metric regressed when it got worse by more than the threshold; allocation changes
+ * under one byte per op are noise from escape analysis and never count. Benchmarks only
+ * present on one side are skipped.
+ */
+final class BaselineComparison {
+
+    private static final String ALLOC_NORM = "gc.alloc.rate.norm";
+    private static final Map<String, Double> SECONDS = Map.of(
+            "ns", 1e-9, "us", 1e-6, "ms", 1e-3, "s", 1.0, "min", 60.0, "hr", 3_600.0);
+
+    private BaselineComparison() {
+    }
+
+    record Delta(String benchmark, String metric, String unit, double baseline, double current,
+                 boolean regressed) {
+
+        double changePercent() {
+            return baseline == 0 ? 0 : (current - baseline) / baseline * 100;
+        }
+    }
+
+    /** @param thresholdPercent how much worse a metric may get before it counts as a regression */
+    static List<Delta> compare(JsonNode baseline, JsonNode current, double thresholdPercent) {
+        Map<String, JsonNode> before = new HashMap<>();
+        baseline.forEach(run -> before.put(key(run), run));
+
+        List<Delta> deltas = new ArrayList<>();
+        double threshold = thresholdPercent / 100;
+        for (JsonNode now : current) {
+            JsonNode then = before.get(key(now));
+            if (then == null) {
+                continue;
+            }
+            String name = label(now);
+            JsonNode primaryThen = then.path("primaryMetric");
+            JsonNode primaryNow = now.path("primaryMetric");
+            String unit = primaryNow.path("scoreUnit").asText();
+            if ("thrpt".equals(now.path("mode").asText())) {
+                double a = opsPerSecond(primaryThen.path("score").asDouble(), primaryThen.path("scoreUnit").asText());
+                double b = opsPerSecond(primaryNow.path("score").asDouble(), unit);
+                deltas.add(new Delta(name, "thrpt", "ops/s", a, b, b < a * (1 - threshold)));
+            } else {
+                double a = microsPerOp(primaryThen.path("score").asDouble(), primaryThen.path("scoreUnit").asText());
+                double b = microsPerOp(primaryNow.path("score").asDouble(), unit);
+                deltas.add(new Delta(name, now.path("mode").asText(), "us/op", a, b, b > a * (1 + threshold)));
+                JsonNode p99Then = primaryThen.path("scorePercentiles").path("99.0");
+                JsonNode p99Now = primaryNow.path("scorePercentiles").path("99.0");
+                if (p99Then.isNumber() && p99Now.isNumber()) {
+                    double c = microsPerOp(p99Then.asDouble(), primaryThen.path("scoreUnit").asText());
+                    double d = microsPerOp(p99Now.asDouble(), unit);
+                    deltas.add(new Delta(name, "p99", "us/op", c, d, d > c * (1 + threshold)));
+                }
+            }
+            JsonNode allocThen = then.path("secondaryMetrics").path(ALLOC_NORM).path("score");
+            JsonNode allocNow = now.path("secondaryMetrics").path(ALLOC_NORM).path("score");
+            if (allocThen.isNumber() && allocNow.isNumber()) {
+                double a = allocThen.asDouble();
+                double b = allocNow.asDouble();
+                deltas.add(new Delta(name, "alloc", "B/op", a, b, b > a * (1 + threshold) && b - a >= 1));
+            }
+        }
+        return deltas;
+    }
+
+    static String format(List<Delta> deltas) {
+        int width = deltas.stream().mapToInt(d -> d.benchmark().length()).max().orElse(9);
+        StringBuilder out = new StringBuilder(String.format(Locale.ROOT, "%-" + width + "s  %-6s %-6s %14s %14s %9s%n",
+                "Benchmark", "Metric", "Unit", "Baseline", "Current", "Change"));
+        for (Delta d : deltas) {
+            out.append(String.format(Locale.ROOT, "%-" + width + "s  %-6s %-6s %14.3f %14.3f %+8.1f%%%s%n",
+                    d.benchmark(), d.metric(), d.unit(), d.baseline(), d.current(), d.changePercent(),
+                    d.regressed() ? "  REGRESSED" : ""));
+        }
+        return out.toString();
+    }
+
+    private static String key(JsonNode run) {
+        return label(run) + "|" + run.path("mode").asText();
+    }
+
+    /** {@code PreviewDtoBenchmark.preview [progress=true, testCases=100]}, params sorted. */
+    private static String label(JsonNode run) {
+        String benchmark = run.path("benchmark").asText();
+        String name = benchmark.substring(benchmark.lastIndexOf('.', benchmark.lastIndexOf('.') - 1) + 1);
+        Map<String, String> params = new TreeMap<>();
+        run.path("params").properties().forEach(p -> params.put(p.getKey(), p.getValue().asText()));
+        return params.isEmpty() ? name : name + " " + params.toString().replace('{', '[').replace('}', ']');
+    }
+
+    private static double opsPerSecond(double score, String unit) {
+        return score / seconds(unit.substring(unit.indexOf('/') + 1));
+    }
+
+    private static double microsPerOp(double score, String unit) {
+        return score * seconds(unit.substring(0, unit.indexOf('/'))) / 1e-6;
+    }
+
+    private static double seconds(String unit) {
+        Double seconds = SECONDS.get(unit);
+        if (seconds == null) {
+            throw new IllegalArgumentException("Unknown time unit in JMH result: " + unit);
+        }
+        return seconds;
+    }
+}
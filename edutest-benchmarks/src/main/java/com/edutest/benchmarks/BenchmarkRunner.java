@@ -0,0 +1,88 @@
+package com.edutest.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.Main;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Entry point of {@code benchmarks.jar}. Takes the usual JMH command line and adds:
+ * <ul>
+ *   <li>the GC profiler unless other profilers are chosen, for the allocation rate;</li>
+ *   <li>a result file, {@code jmh-result.json} unless {@code -rff} says otherwise, in JSON
+ *       unless {@code -rf} says otherwise — keep one from before an upgrade as the baseline;</li>
+ *   <li>{@code -baseline <file>}: after the run, compare with that earlier result file and
+ *       exit with status 1 if anything regressed by more than {@code -threshold <percent>}
+ *       (default 10). See {@link BaselineComparison}.</li>
+ * </ul>
+ * Listing and help options ({@code -l}, {@code -h}, ...) go straight to JMH.
+ */
+public final class BenchmarkRunner {
+
+    private static final String DEFAULT_RESULT = "jmh-result.json";
+    private static final double DEFAULT_THRESHOLD_PERCENT = 10;
+
+    private BenchmarkRunner() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        File baseline = null;
+        double threshold = DEFAULT_THRESHOLD_PERCENT;
+        List<String> jmhArgs = new ArrayList<>();
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "-baseline" -> baseline = new File(value(args, ++i, "-baseline"));
+                case "-threshold" -> threshold = Double.parseDouble(value(args, ++i, "-threshold"));
+                default -> jmhArgs.add(args[i]);
+            }
+        }
+
+        CommandLineOptions cli = new CommandLineOptions(jmhArgs.toArray(String[]::new));
+        if (cli.shouldHelp() || cli.shouldList() || cli.shouldListWithParams()
+                || cli.shouldListProfilers() || cli.shouldListResultFormats()) {
+            Main.main(jmhArgs.toArray(String[]::new));
+            return;
+        }
+
+        ChainedOptionsBuilder options = new OptionsBuilder().parent(cli);
+        if (cli.getProfilers().isEmpty()) {
+            options.addProfiler(GCProfiler.class);
+        }
+        if (baseline != null || !cli.getResultFormat().hasValue()) {
+            options.resultFormat(ResultFormatType.JSON);
+        }
+        String result = cli.getResult().orElse(DEFAULT_RESULT);
+        options.result(result);
+
+        new Runner(options.build()).run();
+
+        if (baseline != null) {
+            ObjectMapper json = new ObjectMapper();
+            List<BaselineComparison.Delta> deltas = BaselineComparison.compare(
+                    json.readTree(baseline), json.readTree(new File(result)), threshold);
+            System.out.println();
+            System.out.println("Compared with " + baseline + ":");
+            System.out.print(BaselineComparison.format(deltas));
+            long regressed = deltas.stream().filter(BaselineComparison.Delta::regressed).count();
+            System.out.printf("%d of %d metrics regressed by more than %.1f%%%n", regressed, deltas.size(), threshold);
+            if (regressed > 0) {
+                System.exit(1);
+            }
+        }
+    }
+
+    private static String value(String[] args, int index, String option) {
+        if (index >= args.length) {
+            throw new IllegalArgumentException(option + " needs a value");
+        }
+        return args[index];
+    }
+}
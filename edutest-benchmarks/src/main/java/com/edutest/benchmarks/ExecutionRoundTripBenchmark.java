@@ -0,0 +1,70 @@
+package com.edutest.benchmarks;
+
+import com.edutest.codeexecution.CodeSubmissionResultMapper;
+import com.edutest.codeexecution.DockerCodeExecutionService;
+import com.edutest.codeexecution.cache.CompiledArtifactCache;
+import com.edutest.codeexecution.cache.ExecutionResultCache;
+import com.edutest.codeexecution.config.CodeExecutionProperties;
+import com.edutest.codeexecution.runners.LanguageRunnerRegistry;
+import com.edutest.codeexecution.runners.PythonRunner;
+import com.edutest.codeexecution.sandbox.SandboxCodeExecutor;
+import com.edutest.dto.AnswerDto;
+import com.edutest.persistance.entity.assigment.coding.CodingAssignmentEntity;
+import com.edutest.persistance.entity.assigment.coding.OutputCheckerEnum;
+import com.edutest.persistance.entity.code.CodeSubmissionEntity;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+
+/**
+ * The whole pipeline from {@link DockerCodeExecutionService} down to the sandbox, with a
+ * {@link StubSandboxBackend} in place of Docker: staging, the batch harness's output parsed
+ * and checked, the report built, then the preview DTOs or the persisted results.
+ *
+ * <p>With {@code resultCache} on, every run after the first is served from memoized
+ * verdicts, as when a student previews the same code again.
+ */
+@State(Scope.Thread)
+public class ExecutionRoundTripBenchmark extends BenchmarkDefaults {
+
+    @Param({"10", "100"})
+    public int testCases;
+
+    @Param({"false", "true"})
+    public boolean resultCache;
+
+    private DockerCodeExecutionService service;
+    private CodeSubmissionEntity submission;
+
+    @Setup
+    public void setUp() {
+        CodingAssignmentEntity assignment = Fixtures.assignment(testCases, OutputCheckerEnum.TOKENS);
+        submission = Fixtures.submission(assignment);
+
+        CodeExecutionProperties properties = new CodeExecutionProperties();
+        properties.getArtifactCache().setEnabled(false);
+        properties.getResultCache().setEnabled(resultCache);
+        SandboxCodeExecutor executor = new SandboxCodeExecutor(
+                new StubSandboxBackend(Fixtures.harnessOutput(assignment.getTestCases())),
+                new LanguageRunnerRegistry(List.of(new PythonRunner())),
+                properties, new CompiledArtifactCache(properties));
+        service = new DockerCodeExecutionService(executor, new CodeSubmissionResultMapper(),
+                new ExecutionResultCache(properties));
+    }
+
+    @Benchmark
+    public AnswerDto preview(Blackhole blackhole) {
+        return service.runPreview(submission, blackhole::consume);
+    }
+
+    @Benchmark
+    public Float executeAndPersist() {
+        service.executeAndPersist(submission);
+        return submission.getTotalScore();
+    }
+}
@@ -0,0 +1,101 @@
+package com.edutest.benchmarks;
+
+import com.edutest.codeexecution.ExecutionReport;
+import com.edutest.codeexecution.TestCaseRunResult;
+import com.edutest.persistance.entity.assigment.coding.CodingAssignmentEntity;
+import com.edutest.persistance.entity.assigment.coding.OutputCheckerEnum;
+import com.edutest.persistance.entity.assigment.coding.TestCaseEntity;
+import com.edutest.persistance.entity.code.CodeSubmissionEntity;
+import com.edutest.persistance.entity.code.CompilationStatusEnum;
+import com.edutest.persistance.entity.code.ExecutionStatusEnum;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Deterministic inputs shared by the suites: an assignment whose test cases double a
+ * number, a Python submission for it, and the verdicts / harness output such a run yields.
+ */
+final class Fixtures {
+
+    static final String SOURCE = "print(int(input()) * 2)";
+    static final String LANGUAGE = "python";
+
+    private Fixtures() {
+    }
+
+    /** {@code count} public test cases, each expecting its input doubled. */
+    static CodingAssignmentEntity assignment(int count, OutputCheckerEnum checkerMode) {
+        CodingAssignmentEntity assignment = new CodingAssignmentEntity();
+        assignment.setId(1L);
+        assignment.setPoints(10);
+        assignment.setTimeLimitMs(2_000);
+        assignment.setMemoryLimitMb(128);
+        List<TestCaseEntity> testCases = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            TestCaseEntity tc = new TestCaseEntity();
+            tc.setId((long) i + 1);
+            tc.setAssignment(assignment);
+            tc.setInputData(String.valueOf(i));
+            tc.setExpectedOutput(String.valueOf(i * 2));
+            tc.setDescription("doubles " + i);
+            tc.setIsPublic(true);
+            tc.setWeight(1);
+            tc.setCheckerMode(checkerMode);
+            testCases.add(tc);
+        }
+        assignment.setTestCases(testCases);
+        return assignment;
+    }
+
+    static CodeSubmissionEntity submission(CodingAssignmentEntity assignment) {
+        CodeSubmissionEntity submission = CodeSubmissionEntity.builder()
+                .assignment(assignment)
+                .sourceCode(SOURCE)
+                .programmingLanguage(LANGUAGE)
+                .testCaseResults(new ArrayList<>())
+                .build();
+        submission.setId(1L);
+        return submission;
+    }
+
+    /** Every case passes except each tenth, which prints a wrong answer. */
+    static boolean passes(int index) {
+        return index % 10 != 9;
+    }
+
+    static ExecutionReport report(List<TestCaseEntity> testCases) {
+        List<TestCaseRunResult> results = new ArrayList<>(testCases.size());
+        for (int i = 0; i < testCases.size(); i++) {
+            TestCaseEntity tc = testCases.get(i);
+            results.add(TestCaseRunResult.builder()
+                    .testCaseId(tc.getId())
+                    .passed(passes(i))
+                    .actualOutput(passes(i) ? tc.getExpectedOutput() : "-1")
+                    .executionTimeMs(30)
+                    .cpuTimeMs(20L)
+                    .memoryUsedMb(2)
+                    .build());
+        }
+        return ExecutionReport.builder()
+                .compilationStatus(CompilationStatusEnum.SUCCESS)
+                .executionStatus(ExecutionStatusEnum.SUCCESS)
+                .testCaseResults(results)
+                .maxExecutionTimeMs(30L)
+                .maxMemoryUsedMb(2)
+                .build();
+    }
+
+    /** What the batch harness prints for {@link #report}'s verdicts. */
+    static byte[] harnessOutput(List<TestCaseEntity> testCases) {
+        StringBuilder out = new StringBuilder();
+        for (int i = 0; i < testCases.size(); i++) {
+            String stdout = (passes(i) ? testCases.get(i).getExpectedOutput() : "-1") + "\n";
+            out.append("@@EDUTEST-CASE ").append(i).append(" 0 30 0m0.02s 0m0.00s 2048 ")
+                    .append(stdout.getBytes(StandardCharsets.UTF_8).length).append(" 0\n")
+                    .append(stdout);
+        }
+        return out.toString().getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,53 @@
+package com.edutest.benchmarks;
+
+import com.edutest.codeexecution.checker.OutputChecker;
+import com.edutest.codeexecution.checker.OutputCheckers;
+import com.edutest.persistance.entity.assigment.coding.OutputCheckerEnum;
+import com.edutest.persistance.entity.assigment.coding.TestCaseEntity;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Output comparison: streaming a program's stdout through each checker mode, for a short
+ * answer and for a large one. The output matches, so every byte is looked at.
+ */
+@State(Scope.Benchmark)
+public class OutputCheckerBenchmark extends BenchmarkDefaults {
+
+    private static final int CHUNK = 8 * 1024;
+
+    @Param({"EXACT", "TOKENS", "FLOAT_TOLERANCE", "UNORDERED_LINES"})
+    public OutputCheckerEnum mode;
+
+    @Param({"10", "10000"})
+    public int lines;
+
+    private TestCaseEntity testCase;
+    private byte[] output;
+
+    @Setup
+    public void setUp() {
+        StringBuilder expected = new StringBuilder();
+        for (int i = 0; i < lines; i++) {
+            expected.append(i).append(' ').append(i * 0.5).append('\n');
+        }
+        testCase = new TestCaseEntity();
+        testCase.setExpectedOutput(expected.toString());
+        testCase.setCheckerMode(mode);
+        output = expected.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public boolean check() {
+        OutputChecker checker = OutputCheckers.forTestCase(testCase);
+        for (int off = 0; off < output.length && !checker.failed(); off += CHUNK) {
+            checker.write(output, off, Math.min(CHUNK, output.length - off));
+        }
+        return checker.matches();
+    }
+}
@@ -0,0 +1,78 @@
+package com.edutest.benchmarks;
+
+import com.edutest.codeexecution.CodeSubmissionResultMapper;
+import com.edutest.codeexecution.DockerCodeExecutionService;
+import com.edutest.codeexecution.ExecutionReport;
+import com.edutest.codeexecution.TestCaseRunResult;
+import com.edutest.codeexecution.cache.ExecutionResultCache;
+import com.edutest.codeexecution.config.CodeExecutionProperties;
+import com.edutest.codeexecution.sandbox.SandboxCodeExecutor;
+import com.edutest.dto.AnswerDto;
+import com.edutest.persistance.entity.assigment.coding.OutputCheckerEnum;
+import com.edutest.persistance.entity.assigment.coding.TestCaseEntity;
+import com.edutest.persistance.entity.code.CodeSubmissionEntity;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Preview DTO building in {@link DockerCodeExecutionService#runPreview}: the executor hands
+ * back a finished report at once, so what's measured is the DTOs — the final one and, with
+ * {@code progress}, the one re-published after every test case.
+ */
+@State(Scope.Thread)
+public class PreviewDtoBenchmark extends BenchmarkDefaults {
+
+    @Param({"10", "100", "1000"})
+    public int testCases;
+
+    @Param({"false", "true"})
+    public boolean progress;
+
+    private DockerCodeExecutionService service;
+    private CodeSubmissionEntity submission;
+
+    @Setup
+    public void setUp() {
+        submission = Fixtures.submission(Fixtures.assignment(testCases, OutputCheckerEnum.EXACT));
+        ExecutionReport report = Fixtures.report(submission.getAssignment().getTestCases());
+
+        CodeExecutionProperties properties = new CodeExecutionProperties();
+        properties.getResultCache().setEnabled(false);
+        service = new DockerCodeExecutionService(new CannedExecutor(properties, report, progress),
+                new CodeSubmissionResultMapper(), new ExecutionResultCache(properties));
+    }
+
+    @Benchmark
+    public AnswerDto preview(Blackhole blackhole) {
+        return service.runPreview(submission, blackhole::consume);
+    }
+
+    /** Returns the same report for every run, reporting its verdicts one by one if asked to. */
+    private static final class CannedExecutor extends SandboxCodeExecutor {
+        private final ExecutionReport report;
+        private final boolean progress;
+
+        CannedExecutor(CodeExecutionProperties properties, ExecutionReport report, boolean progress) {
+            super(null, null, properties, null);
+            this.report = report;
+            this.progress = progress;
+        }
+
+        @Override
+        public ExecutionReport execute(String sourceCode, String language, List<TestCaseEntity> testCases,
+                                       Integer timeLimitMs, Integer memoryLimitMb,
+                                       Consumer<TestCaseRunResult> onResult, boolean stopOnFailure) {
+            if (progress) {
+                report.getTestCaseResults().forEach(onResult);
+            }
+            return report;
+        }
+    }
+}
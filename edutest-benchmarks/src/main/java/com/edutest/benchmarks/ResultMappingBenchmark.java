@@ -0,0 +1,41 @@
+package com.edutest.benchmarks;
+
+import com.edutest.codeexecution.CodeSubmissionResultMapper;
+import com.edutest.codeexecution.ExecutionReport;
+import com.edutest.persistance.entity.assigment.coding.CodingAssignmentEntity;
+import com.edutest.persistance.entity.assigment.coding.OutputCheckerEnum;
+import com.edutest.persistance.entity.code.CodeSubmissionEntity;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * {@link CodeSubmissionResultMapper}: turning a finished run into the submission's result
+ * entities and score, up to test-case counts far above what assignments have today.
+ */
+@State(Scope.Thread)
+public class ResultMappingBenchmark extends BenchmarkDefaults {
+
+    @Param({"10", "100", "1000"})
+    public int testCases;
+
+    private final CodeSubmissionResultMapper mapper = new CodeSubmissionResultMapper();
+    private CodingAssignmentEntity assignment;
+    private CodeSubmissionEntity submission;
+    private ExecutionReport report;
+
+    @Setup
+    public void setUp() {
+        assignment = Fixtures.assignment(testCases, OutputCheckerEnum.EXACT);
+        submission = Fixtures.submission(assignment);
+        report = Fixtures.report(assignment.getTestCases());
+    }
+
+    @Benchmark
+    public Float apply() {
+        mapper.apply(submission, assignment, report);
+        return submission.getTotalScore();
+    }
+}
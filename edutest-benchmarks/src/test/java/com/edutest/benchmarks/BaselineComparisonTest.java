@@ -0,0 +1,70 @@
+package com.edutest.benchmarks;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BaselineComparisonTest {
+
+    private final ObjectMapper json = new ObjectMapper();
+
+    @Test
+    @DisplayName("Throughput, latency, p99 and allocation are compared in common units")
+    void comparesMetrics() throws Exception {
+        JsonNode baseline = json.readTree("""
+                [{"benchmark": "com.edutest.benchmarks.ResultMappingBenchmark.apply", "mode": "thrpt",
+                  "params": {"testCases": "100"},
+                  "primaryMetric": {"score": 2.0, "scoreUnit": "ops/us"},
+                  "secondaryMetrics": {"gc.alloc.rate.norm": {"score": 1000.0, "scoreUnit": "B/op"}}},
+                 {"benchmark": "com.edutest.benchmarks.ResultMappingBenchmark.apply", "mode": "sample",
+                  "params": {"testCases": "100"},
+                  "primaryMetric": {"score": 0.5, "scoreUnit": "us/op", "scorePercentiles": {"99.0": 1.0}}}]
+                """);
+        JsonNode current = json.readTree("""
+                [{"benchmark": "com.edutest.benchmarks.ResultMappingBenchmark.apply", "mode": "thrpt",
+                  "params": {"testCases": "100"},
+                  "primaryMetric": {"score": 1900.0, "scoreUnit": "ops/ms"},
+                  "secondaryMetrics": {"gc.alloc.rate.norm": {"score": 1200.0, "scoreUnit": "B/op"}}},
+                 {"benchmark": "com.edutest.benchmarks.ResultMappingBenchmark.apply", "mode": "sample",
+                  "params": {"testCases": "100"},
+                  "primaryMetric": {"score": 500.0, "scoreUnit": "ns/op", "scorePercentiles": {"99.0": 1500.0}}}]
+                """);
+
+        List<BaselineComparison.Delta> deltas = BaselineComparison.compare(baseline, current, 10);
+
+        assertThat(deltas).extracting(BaselineComparison.Delta::metric)
+                .containsExactly("thrpt", "alloc", "sample", "p99");
+        assertThat(deltas).extracting(BaselineComparison.Delta::regressed)
+                .containsExactly(false, true, false, true);
+        assertThat(deltas.get(0).baseline()).isEqualTo(2_000_000.0);
+        assertThat(deltas.get(0).current()).isEqualTo(1_900_000.0);
+        assertThat(deltas.get(0).benchmark()).isEqualTo("ResultMappingBenchmark.apply [testCases=100]");
+        assertThat(BaselineComparison.format(deltas)).contains("REGRESSED").contains("+50.0%");
+    }
+
+    @Test
+    @DisplayName("Tiny allocation changes and benchmarks missing from the baseline don't count")
+    void ignoresNoise() throws Exception {
+        JsonNode baseline = json.readTree("""
+                [{"benchmark": "a.B.c", "mode": "avgt", "params": {},
+                  "primaryMetric": {"score": 1.0, "scoreUnit": "us/op"},
+                  "secondaryMetrics": {"gc.alloc.rate.norm": {"score": 0.001, "scoreUnit": "B/op"}}}]
+                """);
+        JsonNode current = json.readTree("""
+                [{"benchmark": "a.B.c", "mode": "avgt", "params": {},
+                  "primaryMetric": {"score": 1.05, "scoreUnit": "us/op"},
+                  "secondaryMetrics": {"gc.alloc.rate.norm": {"score": 0.5, "scoreUnit": "B/op"}}},
+                 {"benchmark": "a.B.d", "mode": "avgt", "params": {},
+                  "primaryMetric": {"score": 9.0, "scoreUnit": "us/op"}}]
+                """);
+
+        List<BaselineComparison.Delta> deltas = BaselineComparison.compare(baseline, current, 10);
+
+        assertThat(deltas).hasSize(2).noneMatch(BaselineComparison.Delta::regressed);
+    }
+}
@@ -43,6 +43,7 @@ public class CodeSubmissionResultMapper {
                     .actualOutput(run.getActualOutput())
                     .passed(run.isPassed())
                     .executionTimeMs(run.getExecutionTimeMs())
+                    .cpuTimeMs(run.getCpuTimeMs())
                     .memoryUsedMb(run.getMemoryUsedMb())
                     .errorMessage(run.getErrorMessage())
                     .build();
@@ -1,20 +1,28 @@
 package com.edutest.codeexecution;
 
-import com.edutest.codeexecution.docker.DockerCodeExecutor;
+import com.edutest.codeexecution.cache.ExecutionResultCache;
+import com.edutest.codeexecution.sandbox.SandboxCodeExecutor;
 import com.edutest.dto.AnswerDto;
 import com.edutest.dto.TestCaseResultDto;
 import com.edutest.persistance.entity.assigment.AssignmentType;
 import com.edutest.persistance.entity.assigment.coding.CodingAssignmentEntity;
 import com.edutest.persistance.entity.assigment.coding.TestCaseEntity;
 import com.edutest.persistance.entity.code.CodeSubmissionEntity;
+import com.edutest.persistance.entity.code.CompilationStatusEnum;
+import com.edutest.persistance.entity.code.ExecutionStatusEnum;
 import com.edutest.service.codeexecution.CodeExecutionService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 @Slf4j
@@ -22,20 +30,15 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 public class DockerCodeExecutionService implements CodeExecutionService {
 
-    private final DockerCodeExecutor executor;
+    private final SandboxCodeExecutor executor;
     private final CodeSubmissionResultMapper mapper;
+    private final ExecutionResultCache resultCache;
 
     @Override
     public void executeAndPersist(CodeSubmissionEntity submission) {
         CodingAssignmentEntity assignment = submission.getAssignment();
 
-        ExecutionReport report = executor.execute(
-                submission.getSourceCode(),
-                submission.getProgrammingLanguage(),
-                assignment.getTestCases(),
-                assignment.getTimeLimitMs(),
-                assignment.getMemoryLimitMb()
-        );
+        ExecutionReport report = execute(submission, assignment.getTestCases(), run -> { }, false);
 
         mapper.apply(submission, assignment, report);
         log.debug("Execution finished for submission {}: {} / {} test cases passed",
@@ -45,7 +48,7 @@ public class DockerCodeExecutionService implements CodeExecutionService {
     }
 
     @Override
-    public AnswerDto runPreview(CodeSubmissionEntity submission) {
+    public AnswerDto runPreview(CodeSubmissionEntity submission, Consumer<AnswerDto> progress) {
         CodingAssignmentEntity assignment = submission.getAssignment();
 
         List<TestCaseEntity> publicTestCases = assignment.getTestCases().stream()
@@ -56,26 +59,185 @@ public class DockerCodeExecutionService implements CodeExecutionService {
             log.warn("Preview requested for submission {} but no public test cases configured", submission.getId());
         }
 
-        ExecutionReport report = executor.execute(
-                submission.getSourceCode(),
-                submission.getProgrammingLanguage(),
-                publicTestCases,
-                assignment.getTimeLimitMs(),
-                assignment.getMemoryLimitMb()
-        );
+        // Verdicts arrive in test case order (see execute); each one re-publishes everything known so far.
+        Map<Long, TestCaseRunResult> finished = new ConcurrentHashMap<>();
+        Consumer<TestCaseRunResult> onResult = run -> {
+            finished.put(run.getTestCaseId(), run);
+            List<TestCaseRunResult> sofar = publicTestCases.stream()
+                    .map(tc -> finished.get(tc.getId()))
+                    .filter(Objects::nonNull)
+                    .toList();
+            progress.accept(buildPreviewDto(submission, publicTestCases, sofar, null));
+        };
 
-        return buildPreviewDto(submission, publicTestCases, report);
+        ExecutionReport report = execute(submission, publicTestCases, onResult,
+                Boolean.TRUE.equals(assignment.getStopOnFirstFailure()));
+
+        return buildPreviewDto(submission, publicTestCases, report.getTestCaseResults(), report);
+    }
+
+    /**
+     * Runs only the test cases without a memoized verdict and merges the rest from
+     * {@link ExecutionResultCache}. A submit of an unchanged, already previewed solution
+     * executes just the hidden test cases; a fully memoized run never touches the sandbox.
+     *
+     * <p>{@code onResult} gets the verdicts in test case order, memoized and fresh interleaved:
+     * a memoized verdict is passed on once every case before it has been, so one after a case
+     * still to run waits for the fresh run to get there. With {@code stopOnFailure} nothing after
+     * the first failing case (in test case order) is run or reported.
+     */
+    private ExecutionReport execute(CodeSubmissionEntity submission, List<TestCaseEntity> testCases,
+                                    Consumer<TestCaseRunResult> onResult, boolean stopOnFailure) {
+        CodingAssignmentEntity assignment = submission.getAssignment();
+        if (!resultCache.isEnabled()) {
+            return executor.execute(submission.getSourceCode(), submission.getProgrammingLanguage(),
+                    testCases, assignment.getTimeLimitMs(), assignment.getMemoryLimitMb(),
+                    onResult, stopOnFailure);
+        }
+
+        ExecutionResultCache.SourceKey sourceKey = ExecutionResultCache.sourceKey(
+                submission.getProgrammingLanguage(), submission.getSourceCode(),
+                assignment.getTimeLimitMs(), assignment.getMemoryLimitMb());
+
+        Optional<ExecutionReport> compileFailure = resultCache.getCompileFailure(sourceKey);
+        if (compileFailure.isPresent()) {
+            return compileFailure.get();
+        }
+
+        OrderedResults ordered = new OrderedResults(testCases, onResult, stopOnFailure);
+        Map<Long, TestCaseRunResult> memoized = new HashMap<>();
+        CompilationStatusEnum compilationStatus = null;
+        List<TestCaseEntity> missing = new ArrayList<>();
+        for (TestCaseEntity tc : testCases) {
+            Optional<ExecutionResultCache.CachedRun> cached = resultCache.get(sourceKey, tc);
+            if (cached.isPresent()) {
+                TestCaseRunResult run = cached.get().result();
+                memoized.put(tc.getId(), run);
+                compilationStatus = cached.get().compilationStatus();
+                ordered.accept(run);
+                if (stopOnFailure && !run.isPassed()) {
+                    break;
+                }
+            } else {
+                missing.add(tc);
+            }
+        }
+
+        ExecutionReport fresh = null;
+        if (!missing.isEmpty() || memoized.isEmpty()) {
+            fresh = executor.execute(submission.getSourceCode(), submission.getProgrammingLanguage(),
+                    missing, assignment.getTimeLimitMs(), assignment.getMemoryLimitMb(),
+                    ordered, stopOnFailure);
+            if (fresh.getCompilationStatus() == CompilationStatusEnum.ERROR) {
+                resultCache.putCompileFailure(sourceKey, fresh);
+                return fresh;
+            }
+            if (fresh.getExecutionStatus() != ExecutionStatusEnum.SYSTEM_ERROR) {
+                Map<Long, TestCaseEntity> byId = new HashMap<>();
+                missing.forEach(tc -> byId.put(tc.getId(), tc));
+                for (TestCaseRunResult run : fresh.getTestCaseResults()) {
+                    TestCaseEntity tc = byId.get(run.getTestCaseId());
+                    if (tc != null) {
+                        resultCache.put(sourceKey, tc, run, fresh.getCompilationStatus());
+                    }
+                }
+            }
+            if (memoized.isEmpty() || fresh.getTestCaseResults().isEmpty()) {
+                return fresh;
+            }
+        }
+
+        return merge(testCases, memoized, fresh, compilationStatus, stopOnFailure);
+    }
+
+    /** Passes verdicts on in test case order, holding each back until all cases before it have been. */
+    private static final class OrderedResults implements Consumer<TestCaseRunResult> {
+        private final List<TestCaseEntity> testCases;
+        private final Consumer<TestCaseRunResult> target;
+        private final boolean stopOnFailure;
+        private final Map<Long, TestCaseRunResult> held = new HashMap<>();
+        private int next;
+        private boolean stopped;
+
+        private OrderedResults(List<TestCaseEntity> testCases, Consumer<TestCaseRunResult> target,
+                               boolean stopOnFailure) {
+            this.testCases = testCases;
+            this.target = target;
+            this.stopOnFailure = stopOnFailure;
+        }
+
+        @Override
+        public synchronized void accept(TestCaseRunResult run) {
+            held.put(run.getTestCaseId(), run);
+            while (!stopped && next < testCases.size()) {
+                TestCaseRunResult ready = held.remove(testCases.get(next).getId());
+                if (ready == null) {
+                    return;
+                }
+                next++;
+                target.accept(ready);
+                stopped = stopOnFailure && !ready.isPassed();
+            }
+        }
+    }
+
+    /** Rebuilds the report in test case order; the overall status follows the executor's first-failure rule. */
+    private static ExecutionReport merge(List<TestCaseEntity> testCases,
+                                         Map<Long, TestCaseRunResult> memoized,
+                                         ExecutionReport fresh,
+                                         CompilationStatusEnum memoizedCompilationStatus,
+                                         boolean stopOnFailure) {
+        Map<Long, TestCaseRunResult> all = new HashMap<>(memoized);
+        if (fresh != null) {
+            fresh.getTestCaseResults().forEach(r -> all.put(r.getTestCaseId(), r));
+        }
+
+        List<TestCaseRunResult> results = new ArrayList<>();
+        ExecutionStatusEnum overall = ExecutionStatusEnum.SUCCESS;
+        long maxExecMs = 0L;
+        int maxMemMb = 0;
+        for (TestCaseEntity tc : testCases) {
+            TestCaseRunResult run = all.get(tc.getId());
+            if (run == null) continue;
+            results.add(run);
+            if (overall == ExecutionStatusEnum.SUCCESS) {
+                overall = run.failureStatus();
+            }
+            maxExecMs = Math.max(maxExecMs, run.getExecutionTimeMs());
+            maxMemMb = Math.max(maxMemMb, run.getMemoryUsedMb());
+            if (stopOnFailure && !run.isPassed()) {
+                break;
+            }
+        }
+        if (fresh != null && fresh.getExecutionStatus() == ExecutionStatusEnum.SYSTEM_ERROR) {
+            overall = ExecutionStatusEnum.SYSTEM_ERROR;
+        }
+
+        return ExecutionReport.builder()
+                .compilationStatus(fresh != null ? fresh.getCompilationStatus() : memoizedCompilationStatus)
+                .compilationError(fresh != null ? fresh.getCompilationError() : null)
+                .executionStatus(overall)
+                .testCaseResults(results)
+                .maxExecutionTimeMs(maxExecMs)
+                .maxMemoryUsedMb(maxMemMb)
+                .build();
     }
 
+    /**
+     * @param results the verdicts so far, in test case order; fewer than {@code publicTestCases}
+     *                while running or when the run stopped at a failure
+     * @param report  the finished run, or {@code null} for a progress update
+     */
     private AnswerDto buildPreviewDto(CodeSubmissionEntity submission,
                                        List<TestCaseEntity> publicTestCases,
+                                       List<TestCaseRunResult> results,
                                        ExecutionReport report) {
         Map<Long, TestCaseEntity> byId = new HashMap<>();
         for (TestCaseEntity tc : publicTestCases) {
             byId.put(tc.getId(), tc);
         }
 
-        List<TestCaseResultDto> resultDtos = report.getTestCaseResults().stream()
+        List<TestCaseResultDto> resultDtos = results.stream()
                 .map(run -> {
                     TestCaseEntity tc = byId.get(run.getTestCaseId());
                     return TestCaseResultDto.builder()
@@ -93,7 +255,7 @@ public class DockerCodeExecutionService implements CodeExecutionService {
                 })
                 .collect(Collectors.toList());
 
-        int passed = (int) report.getTestCaseResults().stream()
+        int passed = (int) results.stream()
                 .filter(TestCaseRunResult::isPassed)
                 .count();
 
@@ -104,14 +266,15 @@ public class DockerCodeExecutionService implements CodeExecutionService {
                 .answeredAt(submission.getSubmittedAt())
                 .sourceCode(submission.getSourceCode())
                 .programmingLanguage(submission.getProgrammingLanguage())
-                .compilationStatus(report.getCompilationStatus() != null
+                .compilationStatus(report != null && report.getCompilationStatus() != null
                         ? report.getCompilationStatus().name() : null)
-                .compilationError(report.getCompilationError())
-                .executionStatus(report.getExecutionStatus() != null
+                .compilationError(report != null ? report.getCompilationError() : null)
+                .executionStatus(report != null && report.getExecutionStatus() != null
                         ? report.getExecutionStatus().name() : null)
                 .testCaseResults(resultDtos)
                 .testCasesPassed(passed)
-                .testCasesTotal(resultDtos.size())
+                // A run that never got to the test cases (compile error, sandbox failure) has none.
+                .testCasesTotal(report != null && resultDtos.isEmpty() ? 0 : publicTestCases.size())
                 .isGraded(false)
                 .build();
     }
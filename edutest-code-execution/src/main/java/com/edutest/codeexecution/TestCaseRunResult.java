@@ -1,5 +1,6 @@
 package com.edutest.codeexecution;
 
+import com.edutest.persistance.entity.code.ExecutionStatusEnum;
 import lombok.Builder;
 import lombok.Getter;
 
@@ -12,7 +13,22 @@ public class TestCaseRunResult {
     private final String actualOutput;
     private final String errorMessage;
     private final long executionTimeMs;
+    /** User + system CPU of the test case's process tree; {@code null} when not measured. */
+    private final Long cpuTimeMs;
     private final int memoryUsedMb;
     private final boolean timedOut;
     private final boolean outOfMemory;
+    private final boolean outputLimitExceeded;
+
+    /**
+     * What this case makes the whole run's status when it is the first to go wrong —
+     * {@code SUCCESS} for a pass and for a plain wrong answer.
+     */
+    public ExecutionStatusEnum failureStatus() {
+        if (outputLimitExceeded) return ExecutionStatusEnum.OUTPUT_LIMIT_EXCEEDED;
+        if (timedOut) return ExecutionStatusEnum.TIME_LIMIT_EXCEEDED;
+        if (outOfMemory) return ExecutionStatusEnum.MEMORY_LIMIT_EXCEEDED;
+        if (errorMessage != null) return ExecutionStatusEnum.RUNTIME_ERROR;
+        return ExecutionStatusEnum.SUCCESS;
+    }
 }
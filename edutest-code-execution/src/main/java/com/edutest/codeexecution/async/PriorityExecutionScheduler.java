@@ -0,0 +1,437 @@
+package com.edutest.codeexecution.async;
+
+import com.edutest.codeexecution.config.CodeExecutionProperties;
+import com.edutest.service.codeexecution.CodeExecutionScheduler;
+import com.edutest.service.codeexecution.ExecutionPriority;
+import com.edutest.service.codeexecution.ExecutionQueueFullException;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Single entry point for everything that runs student code, replacing the former
+ * {@code codeRunExecutor} / {@code submitGradingExecutor} thread pools.
+ *
+ * <p>Why not two {@code ThreadPoolTaskExecutor}s? Their combined size was not a Docker
+ * budget (4–8 previews plus 2–4 submits could all hit the daemon at once), there was no
+ * ordering between them, and {@code CallerRunsPolicy} ran overflow on Tomcat request
+ * threads — exactly during a deadline burst, stalling the whole API.
+ *
+ * <p>Here a fixed set of {@code max-concurrent-executions} workers is the Docker budget.
+ * A worker always takes the highest {@link ExecutionPriority} with queued work; within a
+ * class, students are served round-robin (one queue per student, rotated after each
+ * task). Each class has a bounded queue, previews additionally a per-student cap, and a
+ * full queue throws {@link ExecutionQueueFullException} on the caller's thread without
+ * running anything there.
+ */
+@Slf4j
+@Component
+public class PriorityExecutionScheduler implements CodeExecutionScheduler {
+
+    private final CodeExecutionProperties.Scheduler config;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition workAvailable = lock.newCondition();
+    private final Condition slotFree = lock.newCondition();
+    private final Map<ExecutionPriority, ClassQueue> queues = new EnumMap<>(ExecutionPriority.class);
+    private final List<Thread> workers = new ArrayList<>();
+    /** Tasks running, on workers or inline; never more than {@code max-concurrent-executions}. */
+    private int active;
+    private volatile boolean shuttingDown;
+
+    /** Snapshot of one priority class; wait = time from submit until a worker picked the task up. */
+    public record ClassStats(int queued, long submitted, long rejected, long completed, long failed,
+                             long totalWaitMs, long maxWaitMs, long avgWaitMs) {
+    }
+
+    public record SchedulerStats(int maxConcurrentExecutions, int active,
+                                 Map<ExecutionPriority, ClassStats> classes) {
+    }
+
+    public PriorityExecutionScheduler(CodeExecutionProperties properties) {
+        this.config = properties.getScheduler();
+        for (ExecutionPriority priority : ExecutionPriority.values()) {
+            queues.put(priority, new ClassQueue(capacityOf(priority)));
+        }
+        for (int i = 0; i < config.getMaxConcurrentExecutions(); i++) {
+            Thread worker = new Thread(this::workLoop, "code-exec-" + i);
+            worker.setDaemon(true);
+            workers.add(worker);
+            worker.start();
+        }
+    }
+
+    @Override
+    public <T> CompletableFuture<T> submit(ExecutionPriority priority, Long studentId, Callable<T> task) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        Task queued = newTask(studentId, future, task);
+
+        lock.lock();
+        try {
+            enqueue(priority, queued);
+        } finally {
+            lock.unlock();
+        }
+        future.whenComplete((result, failure) -> {
+            if (future.isCancelled()) {
+                withdraw(priority, queued);
+            }
+        });
+        return future;
+    }
+
+    /**
+     * Tasks are queued like {@link #submit}; then the caller takes back every task no worker
+     * has picked up yet and runs it itself. A submit job that fans out its CODING answers
+     * already occupies a worker, so waiting passively could deadlock once every worker is
+     * such a job — helping keeps the job progressing on its own slot, and Docker concurrency
+     * stays within the worker count. A task that doesn't fit the queue also runs inline.
+     *
+     * <p>A worker that helps keeps the one slot it already holds. Any other caller (a request
+     * or background thread) takes a slot for each task it runs, waiting until one is free,
+     * so helping never pushes Docker past {@code max-concurrent-executions} and every run
+     * shows up in {@link #stats()}'s {@code active}.
+     *
+     * <p>Helping must not let a low-priority fan-out sit on its slot while more urgent work
+     * waits: on a worker thread, queued tasks of a higher class are run first, before each of
+     * the caller's own tasks. A TEACHER_RERUN job thus delays submits and previews by at most
+     * the one run it has in progress.
+     */
+    @Override
+    public <T> List<CompletableFuture<T>> invokeAll(ExecutionPriority priority, Long studentId,
+                                                   List<Callable<T>> tasks) {
+        List<CompletableFuture<T>> futures = new ArrayList<>();
+        List<Task> owned = new ArrayList<>();
+        List<Task> rejected = new ArrayList<>();
+        lock.lock();
+        try {
+            for (Callable<T> callable : tasks) {
+                CompletableFuture<T> future = new CompletableFuture<>();
+                Task task = newTask(studentId, future, callable);
+                futures.add(future);
+                owned.add(task);
+                try {
+                    enqueue(priority, task);
+                } catch (ExecutionQueueFullException e) {
+                    log.debug("Queue {} full, running fan-out task inline", priority);
+                    rejected.add(task);
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        boolean onWorker = workers.contains(Thread.currentThread());
+        for (Task task : owned) {
+            if (onWorker) {
+                runQueuedAbove(priority);
+            }
+            boolean mine;
+            lock.lock();
+            try {
+                ClassQueue queue = queues.get(priority);
+                if (!onWorker) {
+                    // Wait for a slot, unless a worker takes the task meanwhile.
+                    while (active >= config.getMaxConcurrentExecutions()
+                            && (rejected.contains(task) || queue.contains(task))) {
+                        slotFree.awaitUninterruptibly();
+                    }
+                }
+                mine = rejected.contains(task) || queue.remove(task);
+                if (mine) {
+                    queue.recordStart(task);
+                    if (!onWorker) {
+                        active++;
+                    }
+                }
+            } finally {
+                lock.unlock();
+            }
+            if (mine) {
+                boolean succeeded = task.body.getAsBoolean();
+                if (!onWorker) {
+                    releaseSlot();
+                }
+                recordEnd(priority, succeeded);
+            }
+        }
+
+        for (CompletableFuture<T> future : futures) {
+            try {
+                future.join();
+            } catch (RuntimeException ignore) {
+                // outcome stays on the future; the caller inspects each one
+            }
+        }
+        return futures;
+    }
+
+    public SchedulerStats stats() {
+        lock.lock();
+        try {
+            Map<ExecutionPriority, ClassStats> classes = new EnumMap<>(ExecutionPriority.class);
+            queues.forEach((priority, q) -> classes.put(priority, new ClassStats(
+                    q.size, q.submitted, q.rejected, q.completed, q.failed, q.totalWaitMs, q.maxWaitMs,
+                    q.started == 0 ? 0 : q.totalWaitMs / q.started)));
+            return new SchedulerStats(config.getMaxConcurrentExecutions(), active, classes);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        lock.lock();
+        try {
+            shuttingDown = true;
+            workAvailable.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(config.getShutdownAwaitSeconds());
+        for (Thread worker : workers) {
+            worker.join(Math.max(1, deadline - System.currentTimeMillis()));
+        }
+    }
+
+    private void workLoop() {
+        while (true) {
+            ExecutionPriority priority;
+            Task task;
+            lock.lock();
+            try {
+                Map.Entry<ExecutionPriority, Task> next = null;
+                // Inline fan-out runs take slots too: with all of them in use, idle workers wait.
+                while (active >= config.getMaxConcurrentExecutions() || (next = pollNext(null)) == null) {
+                    if (shuttingDown && active < config.getMaxConcurrentExecutions()) {
+                        return;
+                    }
+                    workAvailable.await();
+                }
+                priority = next.getKey();
+                task = next.getValue();
+                queues.get(priority).recordStart(task);
+                active++;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                lock.unlock();
+            }
+
+            boolean succeeded = task.body.getAsBoolean();
+
+            releaseSlot();
+            recordEnd(priority, succeeded);
+        }
+    }
+
+    private void releaseSlot() {
+        lock.lock();
+        try {
+            active--;
+            workAvailable.signal();
+            slotFree.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Runs queued tasks of classes more urgent than {@code priority} until there are none. */
+    private void runQueuedAbove(ExecutionPriority priority) {
+        while (true) {
+            Map.Entry<ExecutionPriority, Task> next;
+            lock.lock();
+            try {
+                next = pollNext(priority);
+                if (next == null) {
+                    return;
+                }
+                queues.get(next.getKey()).recordStart(next.getValue());
+            } finally {
+                lock.unlock();
+            }
+            recordEnd(next.getKey(), next.getValue().body.getAsBoolean());
+        }
+    }
+
+    /** Must hold {@link #lock}. */
+    private void enqueue(ExecutionPriority priority, Task task) {
+        if (shuttingDown) {
+            throw new ExecutionQueueFullException(priority,
+                    "Code execution is shutting down", config.getRetryAfterSeconds());
+        }
+        ClassQueue queue = queues.get(priority);
+        if (queue.size >= queue.capacity) {
+            queue.rejected++;
+            throw new ExecutionQueueFullException(priority,
+                    "Too many code executions queued, try again shortly", config.getRetryAfterSeconds());
+        }
+        if (priority == ExecutionPriority.PREVIEW
+                && queue.queuedOf(task.studentId()) >= config.getMaxQueuedPreviewsPerStudent()) {
+            queue.rejected++;
+            throw new ExecutionQueueFullException(priority,
+                    "Previous runs are still queued, wait for them to finish", config.getRetryAfterSeconds());
+        }
+        queue.add(task);
+        queue.submitted++;
+        workAvailable.signal();
+    }
+
+    /** A cancelled task gives its queue slot back, unless a worker already took it. */
+    private void withdraw(ExecutionPriority priority, Task task) {
+        lock.lock();
+        try {
+            queues.get(priority).remove(task);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void recordEnd(ExecutionPriority priority, boolean succeeded) {
+        lock.lock();
+        try {
+            if (succeeded) {
+                queues.get(priority).completed++;
+            } else {
+                queues.get(priority).failed++;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static <T> Task newTask(Long studentId, CompletableFuture<T> future, Callable<T> task) {
+        return new Task(studentId, System.currentTimeMillis(), () -> {
+            if (future.isCancelled()) {
+                return true;
+            }
+            try {
+                future.complete(task.call());
+                return true;
+            } catch (Throwable t) {
+                log.error("Code execution task failed", t);
+                future.completeExceptionally(t);
+                return false;
+            }
+        });
+    }
+
+    /**
+     * Must hold {@link #lock}. The most urgent queued task, of a class above {@code below} if
+     * given. Drains queued work even while shutting down.
+     */
+    private Map.Entry<ExecutionPriority, Task> pollNext(ExecutionPriority below) {
+        for (ExecutionPriority priority : ExecutionPriority.values()) {
+            if (priority == below) {
+                break;
+            }
+            Task task = queues.get(priority).poll();
+            if (task != null) {
+                return Map.entry(priority, task);
+            }
+        }
+        return null;
+    }
+
+    private int capacityOf(ExecutionPriority priority) {
+        return switch (priority) {
+            case SUBMIT -> config.getSubmitQueueCapacity();
+            case PREVIEW -> config.getPreviewQueueCapacity();
+            case TEACHER_RERUN -> config.getRerunQueueCapacity();
+        };
+    }
+
+    /** {@code body} completes the caller's future and reports whether the task succeeded. */
+    private record Task(Long studentId, long enqueuedAtMillis, BooleanSupplier body) {
+    }
+
+    /**
+     * One priority class: a FIFO per student plus the rotation order of students that
+     * have queued work. Not thread-safe — guarded by the scheduler's lock.
+     */
+    private static final class ClassQueue {
+        private final int capacity;
+        private final Map<Long, ArrayDeque<Task>> byStudent = new HashMap<>();
+        private final ArrayDeque<Long> rotation = new ArrayDeque<>();
+        private int size;
+        private long submitted, rejected, started, completed, failed, totalWaitMs, maxWaitMs;
+
+        ClassQueue(int capacity) {
+            this.capacity = capacity;
+        }
+
+        void recordStart(Task task) {
+            long waitMs = System.currentTimeMillis() - task.enqueuedAtMillis();
+            started++;
+            totalWaitMs += waitMs;
+            maxWaitMs = Math.max(maxWaitMs, waitMs);
+        }
+
+        boolean contains(Task task) {
+            ArrayDeque<Task> tasks = byStudent.get(key(task.studentId()));
+            return tasks != null && tasks.contains(task);
+        }
+
+        /** Takes a not-yet-started task back out of the queue; false if a worker already has it. */
+        boolean remove(Task task) {
+            Long key = key(task.studentId());
+            ArrayDeque<Task> tasks = byStudent.get(key);
+            if (tasks == null || !tasks.removeFirstOccurrence(task)) {
+                return false;
+            }
+            size--;
+            if (tasks.isEmpty()) {
+                byStudent.remove(key);
+                rotation.remove(key);
+            }
+            return true;
+        }
+
+        int queuedOf(Long studentId) {
+            ArrayDeque<Task> tasks = byStudent.get(key(studentId));
+            return tasks == null ? 0 : tasks.size();
+        }
+
+        void add(Task task) {
+            byStudent.computeIfAbsent(key(task.studentId()), k -> {
+                rotation.addLast(k);
+                return new ArrayDeque<>();
+            }).addLast(task);
+            size++;
+        }
+
+        Task poll() {
+            Long next = rotation.pollFirst();
+            if (next == null) {
+                return null;
+            }
+            ArrayDeque<Task> tasks = byStudent.get(next);
+            Task task = tasks.pollFirst();
+            if (tasks.isEmpty()) {
+                byStudent.remove(next);
+            } else {
+                rotation.addLast(next);
+            }
+            size--;
+            return task;
+        }
+
+        /** ArrayDeque rejects nulls; system work without a student rotates under this key. */
+        private static Long key(Long studentId) {
+            return studentId != null ? studentId : Long.MIN_VALUE;
+        }
+    }
+}
@@ -0,0 +1,186 @@
+package com.edutest.codeexecution.cache;
+
+import com.edutest.codeexecution.config.CodeExecutionProperties;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * Local-disk, content-addressed cache of compile output.
+ *
+ * <p>Students often re-run unchanged code, and submit-time grading recompiles what the
+ * preview already compiled. Each entry is the tar of the sandbox's {@code /tmp} right
+ * after a successful compile, stored as {@code <directory>/<sha256 key>.tar}. The key
+ * covers everything that determines the compiler's output: language, the sandbox backend's
+ * toolchain ID (compiler image ID, local compiler binary), the compile command line and
+ * the source itself.
+ *
+ * <p>Eviction is LRU by total bytes. The in-memory index is rebuilt from the directory on
+ * startup (ordered by modification time), so the cache survives restarts.
+ */
+@Slf4j
+@Component
+public class CompiledArtifactCache {
+
+    private static final String SUFFIX = ".tar";
+
+    private final CodeExecutionProperties.ArtifactCache config;
+    private final Path directory;
+
+    /** key → size in bytes; access-ordered, eldest = least recently used. */
+    private final LinkedHashMap<String, Long> index = new LinkedHashMap<>(64, 0.75f, true);
+    private long totalBytes;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    public record CacheStats(long hits, long misses, long evictions, int entries, long bytes, long maxBytes) {
+    }
+
+    public CompiledArtifactCache(CodeExecutionProperties properties) {
+        this.config = properties.getArtifactCache();
+        this.directory = Path.of(config.getDirectory());
+        if (config.isEnabled()) {
+            loadIndex();
+        }
+    }
+
+    public static String key(String language, String toolchainId, String[] compileCmd, String sourceCode) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(language.getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+            digest.update(String.valueOf(toolchainId).getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+            digest.update(String.join("\u0001", compileCmd).getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+            digest.update(sourceCode.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    public boolean isEnabled() {
+        return config.isEnabled();
+    }
+
+    public synchronized Optional<byte[]> get(String key) {
+        if (!config.isEnabled()) {
+            return Optional.empty();
+        }
+        if (index.get(key) == null) {
+            misses.incrementAndGet();
+            return Optional.empty();
+        }
+        try {
+            byte[] artifact = Files.readAllBytes(pathFor(key));
+            hits.incrementAndGet();
+            return Optional.of(artifact);
+        } catch (IOException e) {
+            log.warn("Dropping unreadable artifact {}: {}", key, e.getMessage());
+            dropEntry(key);
+            misses.incrementAndGet();
+            return Optional.empty();
+        }
+    }
+
+    public synchronized void put(String key, byte[] artifact) {
+        if (!config.isEnabled() || artifact.length > config.getMaxArtifactBytes() || index.containsKey(key)) {
+            return;
+        }
+        try {
+            Files.createDirectories(directory);
+            Path tmp = Files.createTempFile(directory, key, ".part");
+            Files.write(tmp, artifact);
+            Files.move(tmp, pathFor(key), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            log.warn("Failed to store compiled artifact {}: {}", key, e.getMessage());
+            return;
+        }
+        index.put(key, (long) artifact.length);
+        totalBytes += artifact.length;
+        evictOverflow();
+    }
+
+    public synchronized CacheStats stats() {
+        return new CacheStats(hits.get(), misses.get(), evictions.get(), index.size(), totalBytes, config.getMaxBytes());
+    }
+
+    private void evictOverflow() {
+        Iterator<Map.Entry<String, Long>> it = index.entrySet().iterator();
+        while (totalBytes > config.getMaxBytes() && it.hasNext()) {
+            Map.Entry<String, Long> eldest = it.next();
+            it.remove();
+            totalBytes -= eldest.getValue();
+            evictions.incrementAndGet();
+            deleteQuietly(pathFor(eldest.getKey()));
+        }
+    }
+
+    private void dropEntry(String key) {
+        Long size = index.remove(key);
+        if (size != null) {
+            totalBytes -= size;
+        }
+        deleteQuietly(pathFor(key));
+    }
+
+    private void loadIndex() {
+        if (!Files.isDirectory(directory)) {
+            return;
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            List<Path> artifacts = files
+                    .filter(p -> p.getFileName().toString().endsWith(SUFFIX))
+                    .sorted(Comparator.comparing(CompiledArtifactCache::lastModified))
+                    .toList();
+            for (Path p : artifacts) {
+                String name = p.getFileName().toString();
+                long size = Files.size(p);
+                index.put(name.substring(0, name.length() - SUFFIX.length()), size);
+                totalBytes += size;
+            }
+            evictOverflow();
+            log.info("Compiled artifact cache: {} entries, {} bytes in {}", index.size(), totalBytes, directory);
+        } catch (IOException e) {
+            log.warn("Failed to index artifact cache directory {}: {}", directory, e.getMessage());
+        }
+    }
+
+    private Path pathFor(String key) {
+        return directory.resolve(key + SUFFIX);
+    }
+
+    private static long lastModified(Path p) {
+        try {
+            return Files.getLastModifiedTime(p).toMillis();
+        } catch (IOException e) {
+            return 0L;
+        }
+    }
+
+    private static void deleteQuietly(Path p) {
+        try {
+            Files.deleteIfExists(p);
+        } catch (IOException ignore) {
+        }
+    }
+}
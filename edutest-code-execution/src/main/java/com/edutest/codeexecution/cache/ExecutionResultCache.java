@@ -0,0 +1,184 @@
+package com.edutest.codeexecution.cache;
+
+import com.edutest.codeexecution.ExecutionReport;
+import com.edutest.codeexecution.TestCaseRunResult;
+import com.edutest.codeexecution.config.CodeExecutionProperties;
+import com.edutest.event.TestCaseChangedEvent;
+import com.edutest.persistance.entity.assigment.coding.TestCaseEntity;
+import com.edutest.persistance.entity.code.CompilationStatusEnum;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Memoizes execution results of identical (source, test case) pairs.
+ *
+ * <p>Running the same program on the same input under the same limits yields the same
+ * verdict, so a submit right after an unchanged preview only has to execute the hidden
+ * test cases. Entries are keyed by SHA-256 of language + source, the test case ID plus a
+ * hash of its input, expected output and checker, and the time/memory limits. Compile failures are
+ * memoized per source and limits as a whole report.
+ *
+ * <p>Only verdicts that do not depend on machine load are stored: passed, wrong answer,
+ * runtime errors and output limit exceeded. Time-limit, memory-limit and system errors are always re-executed.
+ *
+ * <p>Bounded by entry count (LRU) and TTL. When a test case is edited or removed the
+ * {@link TestCaseChangedEvent} drops its entries; the content hash in the key already
+ * guarantees an edited case never matches, eviction just frees the memory early.
+ */
+@Slf4j
+@Component
+public class ExecutionResultCache {
+
+    private final CodeExecutionProperties.ResultCache config;
+    private final LongSupplier clock;
+
+    /** Access-ordered, eldest = least recently used. */
+    private final LinkedHashMap<Key, Entry> entries = new LinkedHashMap<>(256, 0.75f, true);
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    private final AtomicLong invalidations = new AtomicLong();
+
+    /** Identifies one source program under given limits; computed once per execution. */
+    public record SourceKey(String sourceHash, int timeLimitMs, int memoryLimitMb) {
+    }
+
+    /** A memoized test case verdict together with the compile status of its run. */
+    public record CachedRun(TestCaseRunResult result, CompilationStatusEnum compilationStatus) {
+    }
+
+    public record CacheStats(long hits, long misses, long evictions, long invalidations, int entries, int maxEntries) {
+    }
+
+    /** {@code testCaseId == null} marks the compile-failure entry of a source. */
+    private record Key(SourceKey source, Long testCaseId, String testCaseHash) {
+    }
+
+    private record Entry(Object value, long expiresAtMillis) {
+    }
+
+    @Autowired
+    public ExecutionResultCache(CodeExecutionProperties properties) {
+        this(properties, System::currentTimeMillis);
+    }
+
+    ExecutionResultCache(CodeExecutionProperties properties, LongSupplier clock) {
+        this.config = properties.getResultCache();
+        this.clock = clock;
+    }
+
+    public static SourceKey sourceKey(String language, String sourceCode, Integer timeLimitMs, Integer memoryLimitMb) {
+        return new SourceKey(
+                sha256(String.valueOf(language).toLowerCase(Locale.ROOT), sourceCode),
+                timeLimitMs != null ? timeLimitMs : 0,
+                memoryLimitMb != null ? memoryLimitMb : 0);
+    }
+
+    public boolean isEnabled() {
+        return config.isEnabled();
+    }
+
+    public Optional<CachedRun> get(SourceKey source, TestCaseEntity testCase) {
+        return lookup(testCaseKey(source, testCase), CachedRun.class);
+    }
+
+    public void put(SourceKey source, TestCaseEntity testCase, TestCaseRunResult result,
+                    CompilationStatusEnum compilationStatus) {
+        if (result.isTimedOut() || result.isOutOfMemory()) {
+            return;
+        }
+        store(testCaseKey(source, testCase), new CachedRun(result, compilationStatus));
+    }
+
+    public Optional<ExecutionReport> getCompileFailure(SourceKey source) {
+        return lookup(new Key(source, null, ""), ExecutionReport.class);
+    }
+
+    public void putCompileFailure(SourceKey source, ExecutionReport report) {
+        if (report.getCompilationStatus() != CompilationStatusEnum.ERROR) {
+            return;
+        }
+        store(new Key(source, null, ""), report);
+    }
+
+    @EventListener
+    public void onTestCaseChanged(TestCaseChangedEvent event) {
+        invalidateTestCase(event.testCaseId());
+    }
+
+    public synchronized void invalidateTestCase(Long testCaseId) {
+        int before = entries.size();
+        entries.keySet().removeIf(k -> testCaseId != null && testCaseId.equals(k.testCaseId()));
+        int removed = before - entries.size();
+        if (removed > 0) {
+            invalidations.addAndGet(removed);
+            log.debug("Dropped {} memoized results of test case {}", removed, testCaseId);
+        }
+    }
+
+    public synchronized CacheStats stats() {
+        return new CacheStats(hits.get(), misses.get(), evictions.get(), invalidations.get(),
+                entries.size(), config.getMaxEntries());
+    }
+
+    private synchronized <T> Optional<T> lookup(Key key, Class<T> type) {
+        if (!config.isEnabled()) {
+            return Optional.empty();
+        }
+        Entry entry = entries.get(key);
+        if (entry == null || entry.expiresAtMillis() <= clock.getAsLong()) {
+            if (entry != null) {
+                entries.remove(key);
+                evictions.incrementAndGet();
+            }
+            misses.incrementAndGet();
+            return Optional.empty();
+        }
+        hits.incrementAndGet();
+        return Optional.of(type.cast(entry.value()));
+    }
+
+    private synchronized void store(Key key, Object value) {
+        if (!config.isEnabled()) {
+            return;
+        }
+        entries.put(key, new Entry(value, clock.getAsLong() + config.getTtlMs()));
+        var it = entries.entrySet().iterator();
+        while (entries.size() > config.getMaxEntries() && it.hasNext()) {
+            it.next();
+            it.remove();
+            evictions.incrementAndGet();
+        }
+    }
+
+    private static Key testCaseKey(SourceKey source, TestCaseEntity testCase) {
+        return new Key(source, testCase.getId(), sha256(testCase.getInputData(), testCase.getExpectedOutput(),
+                String.valueOf(testCase.getCheckerMode()), String.valueOf(testCase.getFloatTolerance())));
+    }
+
+    private static String sha256(String... parts) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            for (String part : parts) {
+                digest.update(String.valueOf(part).getBytes(StandardCharsets.UTF_8));
+                digest.update((byte) 0);
+            }
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
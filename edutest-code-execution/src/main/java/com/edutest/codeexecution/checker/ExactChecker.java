@@ -0,0 +1,68 @@
+package com.edutest.codeexecution.checker;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * {@code EXACT} mode: compares program output against the expected output byte by byte as
+ * it streams in, with the same semantics as {@code expected.trim().equals(actual.trim())}.
+ *
+ * <p>Why not decode and compare Strings? The full output would have to be buffered and
+ * decoded (twice the bytes as UTF-16) only to learn it mismatched in the first line. Equal
+ * UTF-8 bytes are equal strings, and {@link String#trim()} only strips chars {@code <= ' '},
+ * which are single bytes in UTF-8 — so trimming works on bytes as well. State is constant
+ * size no matter how much the program prints.
+ */
+final class ExactChecker implements OutputChecker {
+
+    private final byte[] expected;
+    private int matched;
+    private boolean leading = true;
+    /** Saw whitespace the expected output doesn't have here — only more whitespace may follow. */
+    private boolean trailing;
+    private boolean mismatch;
+
+    ExactChecker(String expected) {
+        this.expected = expected != null ? expected.trim().getBytes(StandardCharsets.UTF_8) : null;
+        this.mismatch = expected == null;
+    }
+
+    @Override
+    public void write(byte[] buf, int off, int len) {
+        for (int i = off; i < off + len && !mismatch; i++) {
+            accept(buf[i]);
+        }
+    }
+
+    @Override
+    public boolean failed() {
+        return mismatch;
+    }
+
+    @Override
+    public boolean matches() {
+        return !mismatch && matched == expected.length;
+    }
+
+    private void accept(byte b) {
+        boolean whitespace = (b & 0xff) <= ' ';
+        if (leading) {
+            if (whitespace) {
+                return;
+            }
+            leading = false;
+        }
+        if (trailing) {
+            mismatch = !whitespace;
+            return;
+        }
+        if (matched < expected.length && expected[matched] == b) {
+            matched++;
+        } else if (whitespace) {
+            // The trimmed expected output never ends in whitespace, so this is either
+            // trailing output whitespace or a mismatch — decided by what comes next.
+            trailing = true;
+        } else {
+            mismatch = true;
+        }
+    }
+}
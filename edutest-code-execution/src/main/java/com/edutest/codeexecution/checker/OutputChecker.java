@@ -0,0 +1,22 @@
+package com.edutest.codeexecution.checker;
+
+/**
+ * Verifies one test case's program output while it streams in.
+ *
+ * <p>Implementations keep state bounded by the expected output, never by what the program
+ * prints, and decide a mismatch as early as the output allows — once {@link #failed()} is
+ * true further bytes are ignored. Not thread-safe; one instance per test case run.
+ *
+ * @see OutputCheckers#forTestCase
+ */
+public interface OutputChecker {
+
+    /** Feeds the next chunk of stdout; chunk boundaries may fall anywhere, even inside a UTF-8 char. */
+    void write(byte[] buf, int off, int len);
+
+    /** True as soon as no continuation of the output seen so far can match. */
+    boolean failed();
+
+    /** Final verdict once the whole output has been written. */
+    boolean matches();
+}
@@ -0,0 +1,29 @@
+package com.edutest.codeexecution.checker;
+
+import com.edutest.persistance.entity.assigment.coding.OutputCheckerEnum;
+import com.edutest.persistance.entity.assigment.coding.TestCaseEntity;
+
+/**
+ * Creates the {@link OutputChecker} configured on a test case.
+ */
+public final class OutputCheckers {
+
+    /** Used in {@code FLOAT_TOLERANCE} mode when the test case doesn't set one. */
+    public static final double DEFAULT_FLOAT_TOLERANCE = 1e-6;
+
+    private OutputCheckers() {
+    }
+
+    public static OutputChecker forTestCase(TestCaseEntity testCase) {
+        OutputCheckerEnum mode = testCase.getCheckerMode() != null
+                ? testCase.getCheckerMode() : OutputCheckerEnum.EXACT;
+        String expected = testCase.getExpectedOutput();
+        return switch (mode) {
+            case EXACT -> new ExactChecker(expected);
+            case TOKENS -> new TokenChecker(expected, null);
+            case FLOAT_TOLERANCE -> new TokenChecker(expected, testCase.getFloatTolerance() != null
+                    ? Math.abs(testCase.getFloatTolerance()) : DEFAULT_FLOAT_TOLERANCE);
+            case UNORDERED_LINES -> new UnorderedLinesChecker(expected);
+        };
+    }
+}
@@ -0,0 +1,112 @@
+package com.edutest.codeexecution.checker;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.regex.Pattern;
+
+/**
+ * {@code TOKENS} and {@code FLOAT_TOLERANCE} modes: the output must consist of the same
+ * whitespace-separated tokens as the expected output, however they are spaced or split
+ * across lines.
+ *
+ * <p>Each token is compared as soon as the whitespace after it arrives, so a wrong first
+ * number fails without reading the rest. Only the current token is buffered, and no
+ * longer than the longest expected token could need — anything longer is a mismatch.
+ *
+ * <p>With a tolerance, an expected decimal number matches any actual decimal number within
+ * {@code tolerance} absolutely or relative to the expected value ({@code 0.333333} vs
+ * {@code 0.3333333333}). Other tokens still compare exactly.
+ */
+final class TokenChecker implements OutputChecker {
+
+    /** Plain decimals only — {@link Double#parseDouble} would also accept "NaN", "1f" or hex floats. */
+    private static final Pattern DECIMAL = Pattern.compile("[-+]?(\\d+\\.?\\d*|\\.\\d+)([eE][-+]?\\d+)?");
+    /** Room for a numeric token printed with more digits than the expected one. */
+    private static final int MAX_NUMBER_BYTES = 128;
+
+    private final byte[][] expected;
+    private final Double[] expectedNumbers;
+    private final Double tolerance;
+    private final int maxTokenBytes;
+
+    private final ByteArrayOutputStream token = new ByteArrayOutputStream();
+    private int next;
+    private boolean mismatch;
+
+    /**
+     * @param tolerance {@code null} compares every token exactly
+     */
+    TokenChecker(String expectedOutput, Double tolerance) {
+        String[] tokens = expectedOutput == null || expectedOutput.isBlank()
+                ? new String[0] : expectedOutput.trim().split("[\\x00-\\x20]+");
+        this.expected = new byte[tokens.length][];
+        this.expectedNumbers = new Double[tokens.length];
+        this.tolerance = tolerance;
+        int longest = 0;
+        for (int i = 0; i < tokens.length; i++) {
+            expected[i] = tokens[i].getBytes(StandardCharsets.UTF_8);
+            longest = Math.max(longest, expected[i].length);
+            if (tolerance != null && DECIMAL.matcher(tokens[i]).matches()) {
+                expectedNumbers[i] = Double.parseDouble(tokens[i]);
+                longest = Math.max(longest, MAX_NUMBER_BYTES);
+            }
+        }
+        this.maxTokenBytes = longest;
+        this.mismatch = expectedOutput == null;
+    }
+
+    @Override
+    public void write(byte[] buf, int off, int len) {
+        for (int i = off; i < off + len && !mismatch; i++) {
+            byte b = buf[i];
+            if ((b & 0xff) <= ' ') {
+                endToken();
+            } else if (token.size() >= maxTokenBytes) {
+                mismatch = true;
+            } else {
+                token.write(b);
+            }
+        }
+    }
+
+    @Override
+    public boolean failed() {
+        return mismatch;
+    }
+
+    @Override
+    public boolean matches() {
+        if (!mismatch) {
+            endToken();
+        }
+        return !mismatch && next == expected.length;
+    }
+
+    private void endToken() {
+        if (token.size() == 0) {
+            return;
+        }
+        if (next >= expected.length || !tokenMatches(token.toByteArray(), next)) {
+            mismatch = true;
+        }
+        next++;
+        token.reset();
+    }
+
+    private boolean tokenMatches(byte[] actual, int index) {
+        if (Arrays.equals(actual, expected[index])) {
+            return true;
+        }
+        Double want = expectedNumbers[index];
+        if (want == null) {
+            return false;
+        }
+        String text = new String(actual, StandardCharsets.US_ASCII);
+        if (!DECIMAL.matcher(text).matches()) {
+            return false;
+        }
+        double diff = Math.abs(Double.parseDouble(text) - want);
+        return diff <= tolerance || diff <= tolerance * Math.abs(want);
+    }
+}
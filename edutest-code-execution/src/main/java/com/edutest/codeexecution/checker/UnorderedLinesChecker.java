@@ -0,0 +1,108 @@
+package com.edutest.codeexecution.checker;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * {@code UNORDERED_LINES} mode: the output must contain the same non-blank lines as the
+ * expected output, in any order, each line trimmed and duplicates counted — for tasks
+ * like "print all pairs" where any order is correct.
+ *
+ * <p>The expected lines form a multiset; every completed output line is taken out of it,
+ * and a line that is not (or no longer) in it fails immediately. A line is buffered only
+ * up to the longest expected line — leading whitespace is skipped and trailing whitespace
+ * only counted until something non-blank follows it.
+ */
+final class UnorderedLinesChecker implements OutputChecker {
+
+    private final Map<String, Integer> remaining = new HashMap<>();
+    private final int maxLineBytes;
+    private int remainingLines;
+
+    private final ByteArrayOutputStream line = new ByteArrayOutputStream();
+    /** Whitespace after the last non-blank byte of the line; kept only if more text follows. */
+    private final ByteArrayOutputStream pendingWhitespace = new ByteArrayOutputStream();
+    private long pendingWhitespaceBytes;
+    private boolean mismatch;
+
+    UnorderedLinesChecker(String expectedOutput) {
+        int longest = 0;
+        if (expectedOutput != null) {
+            for (String expectedLine : expectedOutput.split("\n")) {
+                String trimmed = expectedLine.trim();
+                if (!trimmed.isEmpty()) {
+                    remaining.merge(trimmed, 1, Integer::sum);
+                    remainingLines++;
+                    longest = Math.max(longest, trimmed.getBytes(StandardCharsets.UTF_8).length);
+                }
+            }
+        }
+        this.maxLineBytes = longest;
+        this.mismatch = expectedOutput == null;
+    }
+
+    @Override
+    public void write(byte[] buf, int off, int len) {
+        for (int i = off; i < off + len && !mismatch; i++) {
+            byte b = buf[i];
+            if (b == '\n') {
+                endLine();
+            } else if ((b & 0xff) <= ' ') {
+                if (line.size() > 0) {
+                    pendingWhitespaceBytes++;
+                    if (pendingWhitespace.size() < maxLineBytes) {
+                        pendingWhitespace.write(b);
+                    }
+                }
+            } else {
+                append(b);
+            }
+        }
+    }
+
+    @Override
+    public boolean failed() {
+        return mismatch;
+    }
+
+    @Override
+    public boolean matches() {
+        if (!mismatch) {
+            endLine();
+        }
+        return !mismatch && remainingLines == 0;
+    }
+
+    private void append(byte b) {
+        if (line.size() + pendingWhitespaceBytes + 1 > maxLineBytes) {
+            mismatch = true;
+            return;
+        }
+        line.writeBytes(pendingWhitespace.toByteArray());
+        line.write(b);
+        pendingWhitespace.reset();
+        pendingWhitespaceBytes = 0;
+    }
+
+    private void endLine() {
+        pendingWhitespace.reset();
+        pendingWhitespaceBytes = 0;
+        if (line.size() == 0) {
+            return;
+        }
+        String key = line.toString(StandardCharsets.UTF_8);
+        line.reset();
+        Integer count = remaining.get(key);
+        if (count == null) {
+            mismatch = true;
+        } else if (count == 1) {
+            remaining.remove(key);
+            remainingLines--;
+        } else {
+            remaining.put(key, count - 1);
+            remainingLines--;
+        }
+    }
+}
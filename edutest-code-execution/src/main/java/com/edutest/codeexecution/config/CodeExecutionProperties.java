@@ -10,10 +10,22 @@ import java.util.List;
 public class CodeExecutionProperties {
 
     private boolean enabled = true;
+    /**
+     * Where student code runs: {@code docker} (pooled containers) or {@code local}
+     * (bubblewrap-confined processes on this host, see {@link Local}). {@code echo} runs
+     * nothing at all (see {@link Echo}) and is only for load tests.
+     */
+    private String backend = "docker";
     private long globalTimeoutMs = 60_000L;
     private long defaultTimeMs = 5_000L;
     private int defaultMemoryMb = 256;
     private int outputLimitChars = 2_000;
+    /**
+     * Largest stdout or stderr a single test case may produce; more is the "output limit
+     * exceeded" verdict and the program is killed as soon as it passes the limit. Also caps
+     * how much compiler / exec output is buffered before the exec is aborted.
+     */
+    private int outputLimitBytes = 1_048_576;
     /**
      * Read-only rootfs hardening for sandbox containers. Production keeps this true.
      *
@@ -23,9 +35,42 @@ public class CodeExecutionProperties {
      * limitation that does not occur on real Linux Docker daemons (CI / prod).
      */
     private boolean readonlyRootfs = true;
+    /**
+     * Stage source and test inputs as one tar archive over the exec's stdin. When off, or
+     * when the daemon doesn't deliver exec stdin, files are written by base64 shell commands.
+     */
+    private boolean tarStaging = true;
+    /**
+     * Enforce the per-test time limit on the CPU time of the program instead of wall time,
+     * so a verdict doesn't depend on how loaded the host is. The wall clock still kills at
+     * twice the limit (programs that sleep or block). CPU time sums all threads — a
+     * multithreaded program (including the JVM's GC/JIT threads) can use it faster than
+     * wall time.
+     */
+    private boolean cpuTimeLimits = true;
+    /**
+     * Run the test cases of languages with a warm worker (Java, Python) in one long-lived
+     * process per submission instead of starting the runtime once per case. Each case still
+     * gets fresh program state (a new class loader / a forked interpreter), redirected
+     * stdin/stdout and its own time limit. Per-case CPU time is that of the main thread on
+     * Java, and Java cases report no peak memory.
+     */
+    private boolean warmRuntimes = false;
 
     private Docker docker = new Docker();
 
+    private Local local = new Local();
+
+    private Echo echo = new Echo();
+
+    private Pool pool = new Pool();
+
+    private ArtifactCache artifactCache = new ArtifactCache();
+
+    private ResultCache resultCache = new ResultCache();
+
+    private Scheduler scheduler = new Scheduler();
+
     @Data
     public static class Docker {
         private String host = "npipe:////./pipe/docker_engine";
@@ -35,5 +80,134 @@ public class CodeExecutionProperties {
                 "eclipse-temurin:21-jdk-alpine",
                 "gcc:13"
         );
+        /** Images pulled, resolved and warmed up at the same time at startup and on refresh. */
+        private int pullParallelism = 3;
+        /**
+         * {@code always}: pull tags at startup and on every refresh, so a tag moved in the
+         * registry is picked up; {@code if-missing}: pull only images that aren't local.
+         * References pinned by digest ({@code name@sha256:...}) are never pulled again.
+         */
+        private PullPolicy pullPolicy = PullPolicy.ALWAYS;
+        /** How often the images are checked for moved tags; 0 disables the refresh. */
+        private long imageRefreshMs = 3_600_000L;
+        private long pullTimeoutMs = 600_000L;
+        /**
+         * How long a run waits for its image to finish the startup pull and warm-up before it
+         * fails with a system error.
+         */
+        private long readinessTimeoutMs = 60_000L;
+
+        public enum PullPolicy {
+            ALWAYS, IF_MISSING
+        }
+    }
+
+    /**
+     * Local process backend. Every compile/run command is started through bubblewrap in
+     * fresh user, pid, network, ipc and uts namespaces, as uid 65534, seeing only the
+     * read-only host paths below plus its own {@code /workspace} and {@code /tmp}. The
+     * runners' commands ({@code python}, {@code javac}, ...) must be installed on the host.
+     */
+    @Data
+    public static class Local {
+        private String bwrapPath = "bwrap";
+        /** Host paths bound read-only into the sandbox (skipped when missing). */
+        private List<String> readOnlyPaths = List.of("/usr", "/bin", "/sbin", "/lib", "/lib64", "/etc");
+        /**
+         * Parent of the per-run workspace directories. Put it on a size-limited filesystem
+         * (e.g. a tmpfs) — disk written by a program is not otherwise bounded.
+         */
+        private String workDirectory = System.getProperty("java.io.tmpdir") + "/edutest-sandboxes";
+        /**
+         * A cgroup v2 directory delegated to the application user. Every run gets a child
+         * cgroup enforcing the memory limit (no swap) and {@link #pidsLimit}, and its
+         * {@code oom_kill} count becomes the MLE verdict. Empty: memory is not limited
+         * beyond what the runner's own flags (e.g. {@code -Xmx}) do.
+         */
+        private String cgroupRoot = "";
+        private int pidsLimit = 64;
+        /** Compiled seccomp BPF program handed to {@code bwrap --seccomp}; empty for none. */
+        private String seccompProfile = "";
+    }
+
+    /**
+     * Echo backend, for load-testing everything around the sandbox: no code runs, each test
+     * case "prints" its own input after {@link #caseLatencyMs}, so a case passes exactly when
+     * its expected output equals its input.
+     */
+    @Data
+    public static class Echo {
+        /** Simulated wall time per test case; compiling is free. */
+        private long caseLatencyMs = 20;
+    }
+
+    /**
+     * Warm sandbox container pool. Containers are keyed by (image, memory limit) —
+     * both are baked into the container at create time, so only runs with the same
+     * pair can share one.
+     */
+    @Data
+    public static class Pool {
+        private boolean enabled = true;
+        /** Idle containers kept ready per key once that key has been seen (or prewarmed at startup). */
+        private int minIdle = 1;
+        /** Upper bound of idle containers per key; extra released containers are removed. */
+        private int maxIdle = 4;
+        /** Upper bound of idle containers across all keys; neither top-ups nor releases go beyond it. */
+        private int maxIdleTotal = 16;
+        /**
+         * Pooled containers run {@code sleep <max-age>} as PID 1 and are retired before that
+         * expires, so an abandoned container never outlives this window.
+         */
+        private long maxContainerAgeMs = 600_000L;
+        /**
+         * How often idle containers about to reach max age are replaced, and every key is
+         * topped up to {@code minIdle} again; 0 disables the reaper.
+         */
+        private long reapIntervalMs = 60_000L;
+        /** Worker threads recycling released containers and topping up idle containers. */
+        private int maintenanceThreads = 2;
+    }
+
+    /**
+     * Content-addressed cache of compile output (.class files, native binaries, .exe),
+     * keyed by language, compiler image ID, compile command and SHA-256 of the source.
+     */
+    @Data
+    public static class ArtifactCache {
+        private boolean enabled = true;
+        private String directory = System.getProperty("java.io.tmpdir") + "/edutest-artifacts";
+        /** Total size on disk; least recently used artifacts are evicted beyond this. */
+        private long maxBytes = 256L * 1024 * 1024;
+        /** Artifacts larger than this are not cached (they would evict too much). */
+        private long maxArtifactBytes = 16L * 1024 * 1024;
+    }
+
+    /**
+     * In-memory memoization of per-test-case results, keyed by source, test case content
+     * and limits. Entries of an edited test case are dropped on {@code TestCaseChangedEvent}.
+     */
+    @Data
+    public static class ResultCache {
+        private boolean enabled = true;
+        private int maxEntries = 20_000;
+        private long ttlMs = 1_800_000L;
+    }
+
+    /**
+     * Priority scheduler for everything that runs student code (submit grading, previews,
+     * teacher re-runs). The worker count is the global Docker concurrency budget.
+     */
+    @Data
+    public static class Scheduler {
+        private int maxConcurrentExecutions = 6;
+        private int submitQueueCapacity = 500;
+        private int previewQueueCapacity = 100;
+        private int rerunQueueCapacity = 1_000;
+        /** Queued (not yet running) previews one student may have; more "Run" clicks are rejected. */
+        private int maxQueuedPreviewsPerStudent = 2;
+        /** Sent as {@code Retry-After} when a queue is full. */
+        private long retryAfterSeconds = 5;
+        private long shutdownAwaitSeconds = 120;
     }
 }
@@ -0,0 +1,407 @@
+package com.edutest.codeexecution.docker;
+
+import com.edutest.codeexecution.ExecutionReport;
+import com.edutest.codeexecution.TestCaseRunResult;
+import com.edutest.codeexecution.config.CodeExecutionProperties;
+import com.edutest.codeexecution.runners.LanguageRunner;
+import com.edutest.codeexecution.sandbox.SandboxCodeExecutor;
+import com.edutest.persistance.entity.assigment.coding.TestCaseEntity;
+import com.edutest.persistance.entity.code.ExecutionStatusEnum;
+import com.github.dockerjava.api.DockerClient;
+import com.github.dockerjava.api.command.InspectImageResponse;
+import com.github.dockerjava.api.command.PullImageResultCallback;
+import com.github.dockerjava.api.exception.NotFoundException;
+import com.github.dockerjava.api.model.PullResponseItem;
+import com.github.dockerjava.api.model.ResponseItem;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Gets the sandbox images ready before the first run and keeps them current. Every image of
+ * {@code coding.execution.docker.images-preload} and of every runner is, in parallel
+ * ({@code pull-parallelism}):
+ * <ol>
+ *   <li>pulled according to {@code pull-policy}, with per-layer download progress;</li>
+ *   <li>pinned to the image ID its tag resolved to — sandbox containers are created from
+ *       that ID, so a tag that moves later never swaps the toolchain under running
+ *       submissions or the compiled artifact cache key;</li>
+ *   <li>warmed up by compiling and running a trivial program of each runner using it
+ *       through the real executor, which pages the compiler and runtime in and proves the
+ *       image works, and then gets its idle pool containers.</li>
+ * </ol>
+ * Runs wait in {@link #awaitImage} until their image has settled — ready, or failed, in
+ * which case the run goes ahead and reports its own error. Every {@code image-refresh-ms}
+ * the tags are checked again; a moved tag is warmed up under its new ID while runs keep
+ * the old one, and the pin switches only once the warm-up passed. The idle pool containers
+ * of the old ID are drained then.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "coding.execution.backend", havingValue = "docker", matchIfMissing = true)
+public class DockerImageManager {
+
+    private static final String WARM_UP_TOKEN_PREFIX = "edutest-warm-up-";
+
+    /** Set while a thread runs a warm-up: its runs use the candidate ID and skip the gate. */
+    private static final ThreadLocal<WarmUp> WARM_UP = new ThreadLocal<>();
+
+    private final DockerClient dockerClient;
+    private final CodeExecutionProperties properties;
+    private final SandboxContainerPool containerPool;
+    private final List<LanguageRunner> runners;
+    private final SandboxCodeExecutor executor;
+
+    /** By image reference in registration order; replaced once at {@link #start()}. */
+    private volatile Map<String, ManagedImage> images = Map.of();
+    private ExecutorService workers;
+    private ScheduledExecutorService refresher;
+
+    /** The executor is lazy: its backend depends on this manager for the pinned images. */
+    public DockerImageManager(DockerClient dockerClient,
+                              CodeExecutionProperties properties,
+                              SandboxContainerPool containerPool,
+                              List<LanguageRunner> runners,
+                              @Lazy SandboxCodeExecutor executor) {
+        this.dockerClient = dockerClient;
+        this.properties = properties;
+        this.containerPool = containerPool;
+        this.runners = runners;
+        this.executor = executor;
+    }
+
+    public enum ImageStatus {
+        PENDING, PULLING, WARMING, READY, FAILED
+    }
+
+    /**
+     * {@code pinnedId} is what runs use; {@code imageId} is what the tag resolved to last —
+     * they differ while a moved tag is being warmed up. {@code error} is the last problem,
+     * also when an older pin is still served.
+     */
+    public record ImageHealth(String image, ImageStatus status, String digest, String imageId, String pinnedId,
+                              long pulledBytes, long totalBytes, Instant readySince, String error) {
+    }
+
+    /** {@code ready} once every image has settled, i.e. no run waits any more. */
+    public record ImagesReport(boolean ready, List<ImageHealth> images) {
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onReady() {
+        if (properties.isEnabled()) {
+            start();
+        }
+    }
+
+    /** Registers the images and starts preparing all of them in the background. */
+    void start() {
+        CodeExecutionProperties.Docker docker = properties.getDocker();
+        Map<String, ManagedImage> registered = new LinkedHashMap<>();
+        for (String image : docker.getImagesPreload()) {
+            registered.put(image, new ManagedImage(image));
+        }
+        int memMb = properties.getDefaultMemoryMb();
+        for (LanguageRunner runner : runners) {
+            registered.computeIfAbsent(runner.buildRunCommand(memMb).getImage(), ManagedImage::new);
+        }
+        images = Collections.unmodifiableMap(registered);
+
+        AtomicInteger threadNo = new AtomicInteger();
+        workers = Executors.newFixedThreadPool(Math.max(1, docker.getPullParallelism()), r -> {
+            Thread t = new Thread(r, "docker-images-" + threadNo.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        registered.values().forEach(this::schedulePrepare);
+
+        if (docker.getImageRefreshMs() > 0) {
+            refresher = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread t = new Thread(r, "docker-images-refresh");
+                t.setDaemon(true);
+                return t;
+            });
+            refresher.scheduleWithFixedDelay(this::refresh,
+                    docker.getImageRefreshMs(), docker.getImageRefreshMs(), TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /** Re-checks every tag (not digest-pinned references) for a moved image. */
+    void refresh() {
+        for (ManagedImage image : images.values()) {
+            if (!isDigestReference(image.image)) {
+                schedulePrepare(image);
+            }
+        }
+    }
+
+    /**
+     * Blocks until {@code image} has settled, then returns the reference to create its
+     * containers from: the pinned image ID, or the tag itself when the image isn't managed
+     * or failed to get ready.
+     *
+     * @throws IllegalStateException if the image isn't settled within {@code readiness-timeout-ms}
+     */
+    public String awaitImage(String image) {
+        ManagedImage managed = images.get(image);
+        if (managed != null && WARM_UP.get() == null && !managed.settled.isDone()) {
+            try {
+                managed.settled.get(properties.getDocker().getReadinessTimeoutMs(), TimeUnit.MILLISECONDS);
+            } catch (TimeoutException e) {
+                throw new IllegalStateException(
+                        "Sandbox image " + image + " is not ready yet (" + managed.status + ")");
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while waiting for sandbox image " + image);
+            } catch (ExecutionException e) {
+                // never completed exceptionally
+            }
+        }
+        return pinnedImage(image);
+    }
+
+    /** Non-blocking {@link #awaitImage}: the reference runs of {@code image} use right now. */
+    public String pinnedImage(String image) {
+        WarmUp warmUp = WARM_UP.get();
+        if (warmUp != null && warmUp.image().equals(image)) {
+            return warmUp.imageId();
+        }
+        ManagedImage managed = images.get(image);
+        String pinned = managed != null ? managed.pinnedId : null;
+        return pinned != null ? pinned : image;
+    }
+
+    public ImagesReport report() {
+        List<ImageHealth> health = images.values().stream().map(ManagedImage::health).toList();
+        boolean ready = images.values().stream().allMatch(image -> image.settled.isDone());
+        return new ImagesReport(ready, health);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (refresher != null) {
+            refresher.shutdownNow();
+        }
+        if (workers != null) {
+            workers.shutdownNow();
+        }
+    }
+
+    private void schedulePrepare(ManagedImage image) {
+        try {
+            workers.execute(() -> prepare(image));
+        } catch (RejectedExecutionException ignore) {
+        }
+    }
+
+    private void prepare(ManagedImage image) {
+        if (!image.busy.compareAndSet(false, true)) {
+            return;
+        }
+        image.error = null;
+        try {
+            String imageId = resolve(image);
+            if (imageId.equals(image.pinnedId)) {
+                image.status = ImageStatus.READY;
+                return;
+            }
+            image.status = ImageStatus.WARMING;
+            warmUp(image.image, imageId);
+            String previousId = image.pinnedId;
+            if (previousId != null) {
+                log.info("Image {} moved from {} to {}", image.image, previousId, imageId);
+            }
+            image.pinnedId = imageId;
+            image.readySince = Instant.now();
+            image.status = ImageStatus.READY;
+            log.info("Image {} ready as {}", image.image, imageId);
+            containerPool.prewarm(imageId);
+            if (previousId != null) {
+                containerPool.drain(previousId);
+            }
+        } catch (Exception e) {
+            image.error = e.getMessage();
+            // A failed refresh keeps serving the image pinned before.
+            image.status = image.pinnedId != null ? ImageStatus.READY : ImageStatus.FAILED;
+            log.warn("Preparing image {} failed: {}", image.image, e.getMessage());
+        } finally {
+            // Released first, so a refresh right after a waiter wakes up isn't skipped as busy.
+            image.busy.set(false);
+            image.settled.complete(null);
+        }
+    }
+
+    /** Pulls as the policy says and returns the ID the reference now points at. */
+    private String resolve(ManagedImage image) throws InterruptedException {
+        InspectImageResponse local = inspect(image.image);
+        boolean pull = local == null || (!isDigestReference(image.image)
+                && properties.getDocker().getPullPolicy() == CodeExecutionProperties.Docker.PullPolicy.ALWAYS);
+        if (pull) {
+            image.status = ImageStatus.PULLING;
+            try {
+                pull(image);
+                local = dockerClient.inspectImageCmd(image.image).exec();
+            } catch (RuntimeException e) {
+                if (local == null) {
+                    throw e;
+                }
+                log.warn("Pulling image {} failed, using the local copy: {}", image.image, e.getMessage());
+            }
+        }
+        image.imageId = local.getId();
+        image.digest = repoDigest(image.image, local.getRepoDigests());
+        return local.getId();
+    }
+
+    private InspectImageResponse inspect(String image) {
+        try {
+            return dockerClient.inspectImageCmd(image).exec();
+        } catch (NotFoundException e) {
+            return null;
+        }
+    }
+
+    private void pull(ManagedImage image) throws InterruptedException {
+        image.layers.clear();
+        boolean finished = dockerClient.pullImageCmd(image.image)
+                .exec(new PullImageResultCallback() {
+                    @Override
+                    public void onNext(PullResponseItem item) {
+                        super.onNext(item);
+                        image.progress(item);
+                    }
+                })
+                .awaitCompletion(properties.getDocker().getPullTimeoutMs(), TimeUnit.MILLISECONDS);
+        if (!finished) {
+            throw new IllegalStateException("Pull timed out");
+        }
+    }
+
+    /** Compiles and runs every runner's trivial program on {@code imageId}; throws if any fails. */
+    private void warmUp(String image, String imageId) {
+        int memMb = properties.getDefaultMemoryMb();
+        WARM_UP.set(new WarmUp(image, imageId));
+        try {
+            for (LanguageRunner runner : runners) {
+                if (!image.equals(runner.buildRunCommand(memMb).getImage())) {
+                    continue;
+                }
+                String token = WARM_UP_TOKEN_PREFIX + UUID.randomUUID();
+                TestCaseEntity testCase = new TestCaseEntity();
+                testCase.setInputData("");
+                testCase.setExpectedOutput(token);
+                testCase.setIsPublic(true);
+                testCase.setWeight(1);
+                ExecutionReport report = executor.execute(runner.warmUpSource(token), runner.language(),
+                        List.of(testCase), null, null);
+                if (report.getExecutionStatus() != ExecutionStatusEnum.SUCCESS) {
+                    throw new IllegalStateException("Warm-up run of " + runner.language() + " failed: "
+                            + describe(report));
+                }
+            }
+        } finally {
+            WARM_UP.remove();
+        }
+    }
+
+    private static String describe(ExecutionReport report) {
+        if (report.getCompilationError() != null) {
+            return report.getCompilationError();
+        }
+        return report.getTestCaseResults().stream()
+                .map(TestCaseRunResult::getErrorMessage)
+                .filter(message -> message != null && !message.isBlank())
+                .findFirst()
+                .orElse(String.valueOf(report.getExecutionStatus()));
+    }
+
+    private static boolean isDigestReference(String image) {
+        return image.contains("@sha256:");
+    }
+
+    /** The registry digest of {@code image}'s repository, e.g. {@code python@sha256:...}. */
+    private static String repoDigest(String image, List<String> repoDigests) {
+        if (repoDigests == null || repoDigests.isEmpty()) {
+            return null;
+        }
+        String repository = image.contains("@") ? image.substring(0, image.indexOf('@')) : image;
+        int tag = repository.lastIndexOf(':');
+        if (tag > repository.lastIndexOf('/')) {
+            repository = repository.substring(0, tag);
+        }
+        for (String digest : repoDigests) {
+            if (digest.startsWith(repository + "@")) {
+                return digest;
+            }
+        }
+        return repoDigests.get(0);
+    }
+
+    private record WarmUp(String image, String imageId) {
+    }
+
+    private static final class ManagedImage {
+
+        private final String image;
+        private final CompletableFuture<Void> settled = new CompletableFuture<>();
+        private final AtomicBoolean busy = new AtomicBoolean();
+        /** Layer ID → {downloaded, total} bytes of the current pull. */
+        private final Map<String, long[]> layers = new ConcurrentHashMap<>();
+
+        private volatile ImageStatus status = ImageStatus.PENDING;
+        private volatile String digest;
+        private volatile String imageId;
+        private volatile String pinnedId;
+        private volatile Instant readySince;
+        private volatile String error;
+
+        private ManagedImage(String image) {
+            this.image = image;
+        }
+
+        private void progress(PullResponseItem item) {
+            ResponseItem.ProgressDetail detail = item.getProgressDetail();
+            if (item.getId() == null) {
+                return;
+            }
+            if ("Downloading".equals(item.getStatus()) && detail != null
+                    && detail.getCurrent() != null && detail.getTotal() != null && detail.getTotal() > 0) {
+                layers.put(item.getId(), new long[]{detail.getCurrent(), detail.getTotal()});
+            } else if ("Download complete".equals(item.getStatus())) {
+                layers.computeIfPresent(item.getId(), (id, bytes) -> new long[]{bytes[1], bytes[1]});
+            }
+        }
+
+        private ImageHealth health() {
+            long pulled = 0;
+            long total = 0;
+            for (long[] bytes : layers.values()) {
+                pulled += bytes[0];
+                total += bytes[1];
+            }
+            return new ImageHealth(image, status, digest, imageId, pinnedId, pulled, total, readySince, error);
+        }
+    }
+}
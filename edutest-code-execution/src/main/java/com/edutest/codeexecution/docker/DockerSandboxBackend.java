@@ -0,0 +1,255 @@
+package com.edutest.codeexecution.docker;
+
+import com.edutest.codeexecution.config.CodeExecutionProperties;
+import com.edutest.codeexecution.runners.RunCommand;
+import com.edutest.codeexecution.sandbox.BoundedOutputBuffer;
+import com.edutest.codeexecution.sandbox.SandboxBackend;
+import com.github.dockerjava.api.DockerClient;
+import com.github.dockerjava.api.command.ExecCreateCmdResponse;
+import com.github.dockerjava.api.command.InspectContainerResponse;
+import com.github.dockerjava.api.model.Frame;
+import com.github.dockerjava.api.model.StreamType;
+import com.github.dockerjava.core.command.ExecStartResultCallback;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs sandboxes as pooled Docker containers ({@link SandboxContainerPool}): staging and
+ * compile/run commands are execs in the container, the toolchain is the runner's image as
+ * pinned by {@link DockerImageManager}, which also holds runs back until it is warmed up.
+ */
+@Slf4j
+@Service
+@ConditionalOnProperty(name = "coding.execution.backend", havingValue = "docker", matchIfMissing = true)
+@RequiredArgsConstructor
+public class DockerSandboxBackend implements SandboxBackend {
+
+    private static final long IMAGE_ID_TTL_MS = 10 * 60_000L;
+    private static final long TAR_STAGING_TIMEOUT_MS = 10_000L;
+
+    private final DockerClient dockerClient;
+    private final CodeExecutionProperties properties;
+    private final SandboxContainerPool containerPool;
+    private final DockerImageManager imageManager;
+    /** Images not pinned (yet): image → (ID, resolved at), refreshed so a re-pulled tag gets a new cache key. */
+    private final Map<String, ResolvedImage> imageIds = new ConcurrentHashMap<>();
+
+    /** Cleared after a tar staging exec hangs; from then on every run uses shell staging. */
+    private volatile boolean tarStagingAvailable = true;
+
+    @Override
+    public Sandbox acquire(RunCommand runCommand, int memoryLimitMb) {
+        String image = imageManager.awaitImage(runCommand.getImage());
+        return new ContainerSandbox(containerPool.acquire(image, memoryLimitMb));
+    }
+
+    @Override
+    public void release(Sandbox sandbox, boolean reusable) {
+        SandboxContainerPool.PooledContainer container = ((ContainerSandbox) sandbox).container;
+        if (reusable) {
+            containerPool.release(container);
+        } else {
+            containerPool.discard(container);
+        }
+    }
+
+    @Override
+    public String toolchainId(RunCommand runCommand) {
+        String image = imageManager.pinnedImage(runCommand.getImage());
+        if (image.startsWith("sha256:")) {
+            return image;
+        }
+        ResolvedImage cached = imageIds.get(image);
+        if (cached != null && System.currentTimeMillis() - cached.resolvedAtMillis() < IMAGE_ID_TTL_MS) {
+            return cached.id();
+        }
+        try {
+            String id = dockerClient.inspectImageCmd(image).exec().getId();
+            imageIds.put(image, new ResolvedImage(id, System.currentTimeMillis()));
+            return id;
+        } catch (Exception e) {
+            log.debug("Cannot resolve image ID for {}, compiling without artifact cache: {}", image, e.getMessage());
+            return null;
+        }
+    }
+
+    private final class ContainerSandbox implements Sandbox {
+
+        private final SandboxContainerPool.PooledContainer container;
+
+        private ContainerSandbox(SandboxContainerPool.PooledContainer container) {
+            this.container = container;
+        }
+
+        @Override
+        public void stage(String sourcePath, String sourceCode, List<String> inputs,
+                          Map<String, byte[]> supportFiles, byte[] compiledArtifact) {
+            // Run as root because Docker mounts tmpfs at /workspace with default 0755 owned by
+            // root; the container's default user (`nobody`) cannot write there. Compile/run still
+            // execute as nobody — student code itself stays unprivileged.
+            String containerId = container.id();
+
+            // Preferred: one tar archive over the exec's stdin (see StagingArchive).
+            if (properties.isTarStaging() && tarStagingAvailable) {
+                byte[] archive = StagingArchive.build(sourcePath, sourceCode, inputs, supportFiles,
+                        compiledArtifact);
+                ExecResult result = execInContainer(containerId, StagingArchive.extractCommand(archive.length),
+                        new ByteArrayInputStream(archive), null, TAR_STAGING_TIMEOUT_MS, "root");
+                if (result.exitCode() == 0) {
+                    return;
+                }
+                if (result.timedOut()) {
+                    // The archive never arrived — this daemon / transport doesn't pass exec stdin through.
+                    tarStagingAvailable = false;
+                    log.warn("Tar staging over exec stdin timed out, using shell staging from now on");
+                } else {
+                    log.warn("Tar staging failed (exit {}), falling back to shell staging: {}",
+                            result.exitCode(), result.stderr());
+                }
+            }
+
+            // Fallback: base64 embedded in shell arguments. The chars are shell-safe
+            // ([A-Za-z0-9+/=]) inside single quotes; large files are split across execs.
+            for (String[] script : ShellStaging.stagingCommands(
+                    sourcePath, sourceCode, inputs, supportFiles, compiledArtifact)) {
+                ExecResult result = execInContainer(containerId, script, null, null,
+                        properties.getGlobalTimeoutMs(), "root");
+                if (result.exitCode() != 0) {
+                    throw new IllegalStateException(
+                            "Failed to stage workspace (exit " + result.exitCode() + "): " + result.stderr());
+                }
+            }
+        }
+
+        @Override
+        public ExecResult exec(String[] cmd, OutputStream stdoutSink, long timeoutMs) {
+            return execInContainer(container.id(), cmd, null, stdoutSink, timeoutMs, null);
+        }
+    }
+
+    /**
+     * @param stdin      attached as the exec's stdin when non-null; it is never closed from
+     *                   this side, so the command must stop reading on its own
+     * @param stdoutSink receives stdout as it streams in; when {@code null} it is collected
+     *                   into {@link ExecResult#stdout}. Collected stdout and stderr keep at
+     *                   most {@code output-limit-bytes} each; past that, or once the sink
+     *                   throws an {@link IOException}, the exec is aborted. So is it when the
+     *                   calling thread is interrupted, which stays set on return.
+     */
+    private ExecResult execInContainer(String containerId, String[] cmd, InputStream stdin,
+                                       OutputStream stdoutSink, long timeoutMs, String userOverride) {
+        var execCmd = dockerClient.execCreateCmd(containerId)
+                .withCmd(cmd)
+                .withAttachStdin(stdin != null)
+                .withAttachStdout(true)
+                .withAttachStderr(true);
+        if (userOverride != null) {
+            execCmd = execCmd.withUser(userOverride);
+        }
+        ExecCreateCmdResponse exec = execCmd.exec();
+
+        BoundedOutputBuffer collected = new BoundedOutputBuffer(properties.getOutputLimitBytes());
+        OutputStream stdout = stdoutSink != null ? stdoutSink : collected;
+        BoundedOutputBuffer stderr = new BoundedOutputBuffer(properties.getOutputLimitBytes());
+
+        long start = System.currentTimeMillis();
+        boolean finished;
+        boolean timedOut = false;
+        boolean oom = false;
+
+        ExecStartResultCallback callback = new ExecStartResultCallback(stdout, stderr) {
+            @Override
+            public void onNext(Frame frame) {
+                boolean refused = false;
+                try {
+                    if (frame.getStreamType() == StreamType.STDERR) {
+                        stderr.write(frame.getPayload());
+                    } else {
+                        stdout.write(frame.getPayload());
+                    }
+                } catch (IOException e) {
+                    refused = true;
+                } catch (Exception ignore) {
+                }
+                if (refused || collected.overflowed() || stderr.overflowed()) {
+                    // Nothing past the limit (or past a sink that wants no more) is kept;
+                    // closing makes the daemon kill the exec.
+                    try {
+                        close();
+                    } catch (Exception ignore) {
+                    }
+                }
+            }
+        };
+
+        try {
+            dockerClient.execStartCmd(exec.getId())
+                    .withStdIn(stdin)
+                    .exec(callback);
+
+            finished = callback.awaitCompletion(timeoutMs, TimeUnit.MILLISECONDS);
+            if (!finished) {
+                timedOut = true;
+                // Closing the callback closes the response stream; the daemon then SIGKILLs
+                // the exec process. The container itself is left running — the pool's reset
+                // kills any stragglers before it is reused.
+                try {
+                    callback.close();
+                } catch (Exception ignore) {
+                }
+            }
+        } catch (InterruptedException e) {
+            // The run was cancelled: kill the exec like on a timeout and keep the interrupt
+            // for the caller, which discards whatever came back.
+            try {
+                callback.close();
+            } catch (Exception ignore) {
+            }
+            Thread.currentThread().interrupt();
+            return new ExecResult(collected.toString(), stderr.toString(),
+                    -1, System.currentTimeMillis() - start, false, false);
+        } catch (Exception e) {
+            return new ExecResult(collected.toString(), stderr.toString(),
+                    -1, System.currentTimeMillis() - start, false, false);
+        }
+
+        long duration = System.currentTimeMillis() - start;
+        Long exitCode = null;
+
+        if (!timedOut) {
+            try {
+                exitCode = dockerClient.inspectExecCmd(exec.getId()).exec().getExitCodeLong();
+            } catch (Exception ignore) {
+            }
+        }
+
+        try {
+            InspectContainerResponse.ContainerState state =
+                    dockerClient.inspectContainerCmd(containerId).exec().getState();
+            if (Boolean.TRUE.equals(state.getOOMKilled())) {
+                oom = true;
+            }
+        } catch (Exception ignore) {
+        }
+
+        return new ExecResult(
+                collected.toString(),
+                stderr.toString(),
+                exitCode != null ? exitCode.intValue() : -1,
+                duration, timedOut, oom);
+    }
+
+    private record ResolvedImage(String id, long resolvedAtMillis) {
+    }
+}
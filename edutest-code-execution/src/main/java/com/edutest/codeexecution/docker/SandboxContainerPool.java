@@ -0,0 +1,423 @@
+package com.edutest.codeexecution.docker;
+
+import com.edutest.codeexecution.config.CodeExecutionProperties;
+import com.github.dockerjava.api.DockerClient;
+import com.github.dockerjava.api.command.CreateContainerResponse;
+import com.github.dockerjava.api.command.ExecCreateCmdResponse;
+import com.github.dockerjava.api.command.InspectContainerResponse;
+import com.github.dockerjava.api.exception.NotFoundException;
+import com.github.dockerjava.api.model.HostConfig;
+import com.github.dockerjava.core.command.ExecStartResultCallback;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.edutest.codeexecution.sandbox.BatchTestHarness.WORKSPACE_DIR;
+
+/**
+ * Pool of pre-started sandbox containers, keyed by (image, memory limit). The image is the
+ * ID {@link DockerImageManager} pinned the runner's tag to, so containers of a moved tag are
+ * never handed out for the new one; once the pin moves, the old ID is {@link #drain drained}.
+ *
+ * <p>Creating, starting and force-removing a container costs three daemon round-trips
+ * plus container start-up on every run; with the pool, a run normally pays only a
+ * single inspect (health check) on acquire. Released containers are recycled on a
+ * background thread — leftover processes are killed and {@code /workspace} and
+ * {@code /tmp} are wiped as root — so the caller never waits for the reset.
+ *
+ * <p>A container is discarded instead of reused when it is no longer running, when
+ * the kernel OOM-killed anything inside it (Docker's {@code OOMKilled} flag is sticky
+ * and would mark every later run as MLE), when the reset fails, or when it is close
+ * to {@link CodeExecutionProperties.Pool#getMaxContainerAgeMs() max age}.
+ *
+ * <p>Each key is topped up to {@code min-idle}; containers still being started count
+ * towards it, so concurrent top-ups of a key don't overshoot. All keys together hold at
+ * most {@code max-idle-total} idle containers. Every {@code reap-interval-ms} idle
+ * containers that would reach max age before the next round are replaced, and keys
+ * that lost containers are topped up again.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "coding.execution.backend", havingValue = "docker", matchIfMissing = true)
+public class SandboxContainerPool {
+
+    private static final String CONTAINER_LABEL_KEY = "edutest";
+    private static final String CONTAINER_LABEL_VALUE = "code-submission";
+
+    /**
+     * Run as root: kill everything except PID 1 (the {@code sleep} keeping the container
+     * alive — the kernel never delivers signals to PID 1 from inside its namespace) and
+     * the calling shell, then wipe both writable tmpfs mounts including dotfiles.
+     */
+    private static final String[] RESET_CMD = {"sh", "-c",
+            "kill -9 -1 2>/dev/null; "
+                    + "rm -rf " + WORKSPACE_DIR + "/* " + WORKSPACE_DIR + "/.[!.]* /tmp/* /tmp/.[!.]* 2>/dev/null; "
+                    + "true"};
+
+    private static final long RESET_TIMEOUT_MS = 10_000L;
+
+    private final DockerClient dockerClient;
+    private final CodeExecutionProperties properties;
+
+    private final Map<PoolKey, Deque<PooledContainer>> idle = new ConcurrentHashMap<>();
+    /** Containers being created by top-ups, per key. */
+    private final Map<PoolKey, AtomicInteger> starting = new ConcurrentHashMap<>();
+    /** Idle containers of all keys, plus the ones top-ups and recycling are about to add. */
+    private final AtomicInteger idleTotal = new AtomicInteger();
+    /** Images no run is started on any more: their containers are removed instead of pooled. */
+    private final Set<String> drained = ConcurrentHashMap.newKeySet();
+    private final ExecutorService maintenance;
+    private final ScheduledExecutorService reaper;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong created = new AtomicLong();
+    private final AtomicLong recycled = new AtomicLong();
+    private final AtomicLong discarded = new AtomicLong();
+
+    public SandboxContainerPool(DockerClient dockerClient, CodeExecutionProperties properties) {
+        this.dockerClient = dockerClient;
+        this.properties = properties;
+        AtomicInteger threadNo = new AtomicInteger();
+        this.maintenance = Executors.newFixedThreadPool(
+                Math.max(1, properties.getPool().getMaintenanceThreads()), r -> {
+                    Thread t = new Thread(r, "sandbox-pool-" + threadNo.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                });
+        long reapIntervalMs = properties.getPool().getReapIntervalMs();
+        if (reapIntervalMs > 0) {
+            this.reaper = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread t = new Thread(r, "sandbox-pool-reaper");
+                t.setDaemon(true);
+                return t;
+            });
+            reaper.scheduleWithFixedDelay(this::reap, reapIntervalMs, reapIntervalMs, TimeUnit.MILLISECONDS);
+        } else {
+            this.reaper = null;
+        }
+    }
+
+    public record PoolKey(String image, int memoryLimitMb) {
+    }
+
+    /** A started container owned by exactly one run between acquire and release. */
+    public record PooledContainer(String id, PoolKey key, long createdAtMillis) {
+    }
+
+    public record PoolStats(long hits, long misses, long created, long recycled, long discarded,
+                            Map<String, Integer> idleByKey) {
+    }
+
+    /**
+     * Returns a started, empty container for this run. Falls back to creating one
+     * synchronously when no healthy idle container is available.
+     */
+    public PooledContainer acquire(String image, int memoryLimitMb) {
+        PoolKey key = new PoolKey(image, memoryLimitMb);
+
+        if (properties.getPool().isEnabled()) {
+            Deque<PooledContainer> queue = idle.computeIfAbsent(key, k -> new ConcurrentLinkedDeque<>());
+            PooledContainer candidate;
+            while ((candidate = queue.pollFirst()) != null) {
+                idleTotal.decrementAndGet();
+                if (isHealthy(candidate)) {
+                    hits.incrementAndGet();
+                    scheduleTopUp(key);
+                    return candidate;
+                }
+                discard(candidate);
+            }
+            misses.incrementAndGet();
+            scheduleTopUp(key);
+        }
+
+        return createAndStart(key);
+    }
+
+    /**
+     * Hands the container back after a run. Recycling happens asynchronously; callers
+     * must not touch the container afterwards.
+     */
+    public void release(PooledContainer container) {
+        if (!properties.getPool().isEnabled()) {
+            remove(container.id());
+            return;
+        }
+        try {
+            maintenance.execute(() -> recycle(container));
+        } catch (RejectedExecutionException e) {
+            remove(container.id());
+        }
+    }
+
+    /** Drops the container without attempting to reuse it (e.g. after a Docker error mid-run). */
+    public void discard(PooledContainer container) {
+        discarded.incrementAndGet();
+        remove(container.id());
+    }
+
+    /**
+     * Starts {@code minIdle} containers of {@code image} at the default memory limit. Called
+     * once the image is local, otherwise the create would block on an implicit pull.
+     */
+    public void prewarm(String image) {
+        drained.remove(image);
+        if (!properties.isEnabled() || !properties.getPool().isEnabled()) {
+            return;
+        }
+        topUp(new PoolKey(image, properties.getDefaultMemoryMb()));
+    }
+
+    /**
+     * Removes the idle containers of {@code image}, at every memory limit, once runs moved to
+     * another image. Containers of it still in use are removed on release instead of pooled.
+     */
+    public void drain(String image) {
+        drained.add(image);
+        List<PooledContainer> removed = new ArrayList<>();
+        idle.keySet().removeIf(key -> {
+            if (!key.image().equals(image)) {
+                return false;
+            }
+            Deque<PooledContainer> queue = idle.get(key);
+            if (queue != null) {
+                removed.addAll(queue);
+            }
+            return true;
+        });
+        if (!removed.isEmpty()) {
+            log.info("Draining {} idle sandbox containers of {}", removed.size(), image);
+        }
+        for (PooledContainer container : removed) {
+            idleTotal.decrementAndGet();
+            discard(container);
+        }
+    }
+
+    public PoolStats stats() {
+        Map<String, Integer> idleByKey = new HashMap<>();
+        idle.forEach((key, queue) -> idleByKey.put(key.image() + "/" + key.memoryLimitMb() + "m", queue.size()));
+        return new PoolStats(hits.get(), misses.get(), created.get(), recycled.get(), discarded.get(), idleByKey);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (reaper != null) {
+            reaper.shutdownNow();
+        }
+        maintenance.shutdownNow();
+        List<PooledContainer> all = new ArrayList<>();
+        idle.values().forEach(all::addAll);
+        idle.clear();
+        for (PooledContainer container : all) {
+            remove(container.id());
+        }
+    }
+
+    private void recycle(PooledContainer container) {
+        if (drained.contains(container.key().image())) {
+            discard(container);
+            return;
+        }
+        Deque<PooledContainer> queue = idle.computeIfAbsent(container.key(), k -> new ConcurrentLinkedDeque<>());
+        if (queue.size() >= properties.getPool().getMaxIdle() || !reserveIdle()) {
+            discard(container);
+            return;
+        }
+        boolean reset;
+        try {
+            reset = isHealthy(container) && runAsRoot(container.id(), RESET_CMD) == 0;
+        } catch (Exception e) {
+            log.debug("Reset of container {} failed: {}", container.id(), e.getMessage());
+            reset = false;
+        }
+        if (!reset) {
+            idleTotal.decrementAndGet();
+            discard(container);
+            return;
+        }
+        recycled.incrementAndGet();
+        queue.offerLast(container);
+    }
+
+    /**
+     * Replaces idle containers that would be too old to hand out before the next round and
+     * tops every key up to {@code minIdle}; runs on the reaper thread.
+     */
+    void reap() {
+        if (!properties.getPool().isEnabled()) {
+            return;
+        }
+        long margin = properties.getPool().getReapIntervalMs();
+        idle.forEach((key, queue) -> {
+            for (PooledContainer container : queue) {
+                // remove() is false if an acquire took it meanwhile.
+                if (tooOld(container, margin) && queue.remove(container)) {
+                    idleTotal.decrementAndGet();
+                    discard(container);
+                }
+            }
+            scheduleTopUp(key);
+        });
+    }
+
+    /** Takes one place under {@code maxIdleTotal}; false when all are taken. */
+    private boolean reserveIdle() {
+        int limit = properties.getPool().getMaxIdleTotal();
+        int current;
+        do {
+            current = idleTotal.get();
+            if (current >= limit) {
+                return false;
+            }
+        } while (!idleTotal.compareAndSet(current, current + 1));
+        return true;
+    }
+
+    private void scheduleTopUp(PoolKey key) {
+        try {
+            maintenance.execute(() -> topUp(key));
+        } catch (RejectedExecutionException ignore) {
+        }
+    }
+
+    private void topUp(PoolKey key) {
+        if (drained.contains(key.image())) {
+            return;
+        }
+        Deque<PooledContainer> queue = idle.computeIfAbsent(key, k -> new ConcurrentLinkedDeque<>());
+        AtomicInteger inFlight = starting.computeIfAbsent(key, k -> new AtomicInteger());
+        while (true) {
+            // Claim the container first, so a concurrent top-up of this key counts it.
+            if (inFlight.incrementAndGet() + queue.size() > properties.getPool().getMinIdle()) {
+                inFlight.decrementAndGet();
+                return;
+            }
+            if (!reserveIdle()) {
+                inFlight.decrementAndGet();
+                log.debug("Idle sandbox containers at max-idle-total, not warming more for {}", key);
+                return;
+            }
+            try {
+                queue.offerLast(createAndStart(key));
+            } catch (Exception e) {
+                idleTotal.decrementAndGet();
+                log.warn("Failed to warm sandbox container for {}: {}", key, e.getMessage());
+                return;
+            } finally {
+                inFlight.decrementAndGet();
+            }
+        }
+    }
+
+    /** Whether the container can't take the longest possible run within {@code marginMs} from now. */
+    private boolean tooOld(PooledContainer container, long marginMs) {
+        long age = System.currentTimeMillis() - container.createdAtMillis();
+        // Leave room for the longest possible run before PID 1's sleep expires.
+        return age + marginMs > properties.getPool().getMaxContainerAgeMs() - properties.getGlobalTimeoutMs();
+    }
+
+    private boolean isHealthy(PooledContainer container) {
+        if (tooOld(container, 0)) {
+            return false;
+        }
+        try {
+            InspectContainerResponse.ContainerState state =
+                    dockerClient.inspectContainerCmd(container.id()).exec().getState();
+            return Boolean.TRUE.equals(state.getRunning()) && !Boolean.TRUE.equals(state.getOOMKilled());
+        } catch (Exception e) {
+            return false;
+        }
+    }
+
+    private PooledContainer createAndStart(PoolKey key) {
+        long memBytes = key.memoryLimitMb() * 1024L * 1024L;
+        Map<String, String> tmpfs = new HashMap<>();
+        tmpfs.put("/tmp", "rw,size=64m,exec");
+        tmpfs.put(WORKSPACE_DIR, "rw,size=32m,exec");
+
+        HostConfig hostConfig = HostConfig.newHostConfig()
+                .withMemory(memBytes)
+                .withMemorySwap(memBytes)
+                .withCpuCount(1L)
+                .withPidsLimit(64L)
+                .withNetworkMode("none")
+                .withReadonlyRootfs(properties.isReadonlyRootfs())
+                .withTmpFs(tmpfs)
+                .withAutoRemove(false);
+
+        long lifetimeSeconds = properties.getPool().isEnabled()
+                ? properties.getPool().getMaxContainerAgeMs() / 1000
+                : properties.getGlobalTimeoutMs() / 1000;
+
+        CreateContainerResponse response = dockerClient.createContainerCmd(key.image())
+                .withHostConfig(hostConfig)
+                .withWorkingDir(WORKSPACE_DIR)
+                .withUser("nobody")
+                .withLabels(Map.of(CONTAINER_LABEL_KEY, CONTAINER_LABEL_VALUE))
+                .withName("edutest-exec-" + UUID.randomUUID())
+                .withCmd("sleep", String.valueOf(Math.max(60, lifetimeSeconds)))
+                .withTty(false)
+                .withAttachStdout(true)
+                .withAttachStderr(true)
+                .exec();
+
+        String id = response.getId();
+        try {
+            dockerClient.startContainerCmd(id).exec();
+        } catch (RuntimeException e) {
+            remove(id);
+            throw e;
+        }
+        created.incrementAndGet();
+        return new PooledContainer(id, key, System.currentTimeMillis());
+    }
+
+    private int runAsRoot(String containerId, String[] cmd) throws InterruptedException {
+        ExecCreateCmdResponse exec = dockerClient.execCreateCmd(containerId)
+                .withCmd(cmd)
+                .withUser("root")
+                .withAttachStdout(true)
+                .withAttachStderr(true)
+                .exec();
+        ExecStartResultCallback callback = new ExecStartResultCallback(OutputStream.nullOutputStream(),
+                OutputStream.nullOutputStream());
+        boolean finished = dockerClient.execStartCmd(exec.getId())
+                .exec(callback)
+                .awaitCompletion(RESET_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+        if (!finished) {
+            return -1;
+        }
+        Long exitCode = dockerClient.inspectExecCmd(exec.getId()).exec().getExitCodeLong();
+        return exitCode != null ? exitCode.intValue() : -1;
+    }
+
+    private void remove(String containerId) {
+        try {
+            dockerClient.removeContainerCmd(containerId).withForce(true).exec();
+        } catch (NotFoundException ignore) {
+        } catch (Exception e) {
+            log.warn("Failed to remove container {}: {}", containerId, e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.edutest.codeexecution.docker;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+
+import static com.edutest.codeexecution.sandbox.BatchTestHarness.INPUT_DIR;
+
+/**
+ * Fallback for {@link StagingArchive} when the exec's stdin can't be used: the workspace is
+ * written by shell commands with the content base64-embedded in their arguments.
+ */
+final class ShellStaging {
+
+    /** Generous per-arg budget — Linux caps a single argv string at 128 KiB (MAX_ARG_STRLEN). */
+    private static final int MAX_STAGING_SCRIPT_CHARS = 100_000;
+    private static final int STAGING_CHUNK_CHARS = 64_000;
+
+    private ShellStaging() {
+    }
+
+    /**
+     * Shell scripts (to run as root) writing the source file, every test input and the support
+     * files into the workspace, plus — on an artifact cache hit — unpacking previously compiled output into
+     * {@code /tmp}. Content is base64-embedded for the same reasons as the original source
+     * upload; large files are appended in chunks and scripts are split so no single
+     * {@code sh -c} argument exceeds the kernel's per-argument limit.
+     *
+     * @param compiledArtifact tar of the compile step's {@code /tmp}, or {@code null} to compile
+     */
+    static List<String[]> stagingCommands(String sourcePath, String sourceCode, List<String> inputs,
+                                          Map<String, byte[]> supportFiles, byte[] compiledArtifact) {
+        List<String> statements = new ArrayList<>();
+        statements.add("mkdir -p " + INPUT_DIR);
+        writeFile(statements, sourcePath, utf8(sourceCode));
+        for (int i = 0; i < inputs.size(); i++) {
+            writeFile(statements, INPUT_DIR + "/" + i, utf8(inputs.get(i)));
+        }
+        for (Map.Entry<String, byte[]> file : supportFiles.entrySet()) {
+            statements.add("mkdir -p " + file.getKey().substring(0, file.getKey().lastIndexOf('/')));
+            writeFile(statements, file.getKey(), file.getValue());
+        }
+        if (compiledArtifact != null) {
+            writeFile(statements, StagingArchive.ARTIFACT_TAR, compiledArtifact);
+            // root extraction keeps the archived owner (nobody), exactly as the compiler left it
+            statements.add("tar -xf " + StagingArchive.ARTIFACT_TAR + " -C /tmp");
+            statements.add("rm -f " + StagingArchive.ARTIFACT_TAR);
+        }
+
+        List<String[]> scripts = new ArrayList<>();
+        StringBuilder script = new StringBuilder();
+        for (String statement : statements) {
+            if (!script.isEmpty() && script.length() + statement.length() > MAX_STAGING_SCRIPT_CHARS) {
+                scripts.add(new String[]{"sh", "-c", script.toString()});
+                script = new StringBuilder();
+            }
+            if (!script.isEmpty()) {
+                script.append(" && ");
+            }
+            script.append(statement);
+        }
+        scripts.add(new String[]{"sh", "-c", script.toString()});
+        return scripts;
+    }
+
+    private static void writeFile(List<String> statements, String path, byte[] content) {
+        String b64 = Base64.getEncoder().encodeToString(content);
+        if (b64.length() <= STAGING_CHUNK_CHARS) {
+            statements.add("echo '" + b64 + "' | base64 -d > " + path);
+            return;
+        }
+        String encoded = path + ".b64";
+        statements.add(": > " + encoded);
+        for (int from = 0; from < b64.length(); from += STAGING_CHUNK_CHARS) {
+            String chunk = b64.substring(from, Math.min(b64.length(), from + STAGING_CHUNK_CHARS));
+            statements.add("echo '" + chunk + "' >> " + encoded);
+        }
+        statements.add("base64 -d " + encoded + " > " + path);
+        statements.add("rm -f " + encoded);
+    }
+
+    private static byte[] utf8(String content) {
+        return (content != null ? content : "").getBytes(StandardCharsets.UTF_8);
+    }
+}
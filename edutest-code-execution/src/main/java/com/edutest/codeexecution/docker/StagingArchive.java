@@ -0,0 +1,142 @@
+package com.edutest.codeexecution.docker;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static com.edutest.codeexecution.sandbox.BatchTestHarness.INPUT_DIR;
+
+/**
+ * Everything a run needs in the sandbox — source file, every test input, support files
+ * and, on an artifact cache hit, the compiled output — as one tar archive, streamed into the
+ * container over a single exec's stdin and unpacked there by {@code tar -x} as root.
+ *
+ * <p>Unlike {@link ShellStaging#stagingCommands} nothing is base64-encoded into the
+ * command line, so there is no 33% inflation and no per-argument size limit; inputs of
+ * any size cost one exec per container. {@code copyArchiveToContainerCmd} is no
+ * alternative: the daemon writes into the container's rootfs layer, which is read-only
+ * here and hidden under the {@code /workspace} and {@code /tmp} tmpfs mounts anyway.
+ *
+ * <p>docker-java never half-closes the exec's stdin, so the extract command reads
+ * exactly the archive's length ({@code head -c}) instead of waiting for EOF.
+ *
+ * <p>Written in plain ustar (512-byte header blocks, names up to 100 bytes) — busybox
+ * and GNU tar both read it, and the entries here are short fixed paths.
+ */
+final class StagingArchive {
+
+    /** Where a cached compile artifact is dropped before it is unpacked into {@code /tmp}. */
+    static final String ARTIFACT_TAR = "/tmp/.edutest-artifact.tar";
+
+    private static final int BLOCK = 512;
+    private static final int MAX_NAME_BYTES = 100;
+
+    private static final String EXTRACT = "head -c \"$1\" | tar -xf - -C /"
+            + " && if [ -f " + ARTIFACT_TAR + " ]; then tar -xf " + ARTIFACT_TAR + " -C /tmp"
+            + " && rm -f " + ARTIFACT_TAR + "; fi";
+
+    private StagingArchive() {
+    }
+
+    /**
+     * @param sourcePath       absolute path of the source file in the container
+     * @param supportFiles     further files by absolute container path; missing parent
+     *                         directories get entries of their own
+     * @param compiledArtifact tar of the compile step's {@code /tmp}, or {@code null} to compile
+     */
+    static byte[] build(String sourcePath, String sourceCode, List<String> inputs,
+                        Map<String, byte[]> supportFiles, byte[] compiledArtifact) {
+        long mtime = System.currentTimeMillis() / 1000;
+        ByteArrayOutputStream tar = new ByteArrayOutputStream();
+        writeEntry(tar, sourcePath, utf8(sourceCode), mtime);
+        writeDirectory(tar, INPUT_DIR, mtime);
+        for (int i = 0; i < inputs.size(); i++) {
+            writeEntry(tar, INPUT_DIR + "/" + i, utf8(inputs.get(i)), mtime);
+        }
+        Set<String> directories = new HashSet<>();
+        for (Map.Entry<String, byte[]> file : supportFiles.entrySet()) {
+            writeParents(tar, file.getKey(), directories, mtime);
+            writeEntry(tar, file.getKey(), file.getValue(), mtime);
+        }
+        if (compiledArtifact != null) {
+            writeEntry(tar, ARTIFACT_TAR, compiledArtifact, mtime);
+        }
+        tar.writeBytes(new byte[2 * BLOCK]);
+        return tar.toByteArray();
+    }
+
+    /** Command (to run as root, stdin attached) unpacking an archive of {@code archiveBytes}. */
+    static String[] extractCommand(int archiveBytes) {
+        return new String[]{"sh", "-c", EXTRACT, "edutest-stage", String.valueOf(archiveBytes)};
+    }
+
+    private static void writeEntry(ByteArrayOutputStream tar, String path, byte[] content, long mtime) {
+        tar.writeBytes(header(path, '0', 0644, content.length, mtime));
+        tar.writeBytes(content);
+        int padding = (BLOCK - content.length % BLOCK) % BLOCK;
+        tar.writeBytes(new byte[padding]);
+    }
+
+    private static void writeDirectory(ByteArrayOutputStream tar, String path, long mtime) {
+        tar.writeBytes(header(path + "/", '5', 0755, 0, mtime));
+    }
+
+    /** Directory entries for the parents below {@code /workspace} and {@code /tmp}, so tar sets their mode. */
+    private static void writeParents(ByteArrayOutputStream tar, String path, Set<String> written, long mtime) {
+        int slash = path.indexOf('/', 1);
+        while ((slash = path.indexOf('/', slash + 1)) > 0) {
+            String directory = path.substring(0, slash);
+            if (written.add(directory)) {
+                writeDirectory(tar, directory, mtime);
+            }
+        }
+    }
+
+    private static byte[] header(String path, char type, int mode, long size, long mtime) {
+        // Entries are relative to "/", where the extract command unpacks them.
+        byte[] name = path.replaceFirst("^/+", "").getBytes(StandardCharsets.UTF_8);
+        if (name.length > MAX_NAME_BYTES) {
+            throw new IllegalArgumentException("Staging path too long for ustar: " + path);
+        }
+        byte[] header = new byte[BLOCK];
+        System.arraycopy(name, 0, header, 0, name.length);
+        octal(header, 100, 8, mode);
+        octal(header, 108, 8, 0);
+        octal(header, 116, 8, 0);
+        octal(header, 124, 12, size);
+        octal(header, 136, 12, mtime);
+        header[156] = (byte) type;
+        ascii(header, 257, "ustar\0");
+        ascii(header, 263, "00");
+
+        // Checksum is computed with its own field filled with spaces.
+        ascii(header, 148, "        ");
+        long sum = 0;
+        for (byte b : header) {
+            sum += b & 0xff;
+        }
+        octal(header, 148, 7, sum);
+        header[155] = ' ';
+        return header;
+    }
+
+    /** Zero-padded octal digits followed by a NUL, filling {@code width} bytes. */
+    private static void octal(byte[] header, int offset, int width, long value) {
+        String digits = Long.toOctalString(value);
+        String padded = "0".repeat(Math.max(0, width - 1 - digits.length())) + digits;
+        ascii(header, offset, padded);
+        header[offset + width - 1] = 0;
+    }
+
+    private static void ascii(byte[] header, int offset, String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.US_ASCII);
+        System.arraycopy(bytes, 0, header, offset, bytes.length);
+    }
+
+    private static byte[] utf8(String content) {
+        return (content != null ? content : "").getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,106 @@
+package com.edutest.codeexecution.echo;
+
+import com.edutest.codeexecution.config.CodeExecutionProperties;
+import com.edutest.codeexecution.runners.RunCommand;
+import com.edutest.codeexecution.sandbox.BatchTestHarness;
+import com.edutest.codeexecution.sandbox.SandboxBackend;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Backend that runs no code, for load tests of the application around the sandbox
+ * (scheduler, registries, persistence, the REST flow). Compiling always succeeds; the
+ * batch harness is simulated: case {@code i} takes {@code echo.case-latency-ms} and
+ * prints its staged input, so a test case passes exactly when its expected output equals
+ * its input. The records go through the real {@link com.edutest.codeexecution.sandbox.HarnessOutputParser}
+ * and judging, one at a time as a real harness streams them.
+ *
+ * <p>Never enable it where students submit — every submission would be graded on its
+ * test data alone.
+ */
+@Slf4j
+@Service
+@ConditionalOnProperty(name = "coding.execution.backend", havingValue = "echo")
+@RequiredArgsConstructor
+public class EchoSandboxBackend implements SandboxBackend {
+
+    private final CodeExecutionProperties properties;
+
+    @PostConstruct
+    void warn() {
+        log.warn("coding.execution.backend=echo — student code is NOT executed, test cases echo their input");
+    }
+
+    @Override
+    public Sandbox acquire(RunCommand runCommand, int memoryLimitMb) {
+        return new EchoSandbox();
+    }
+
+    @Override
+    public void release(Sandbox sandbox, boolean reusable) {
+    }
+
+    /** Nothing is compiled, so nothing is worth caching. */
+    @Override
+    public String toolchainId(RunCommand runCommand) {
+        return null;
+    }
+
+    final class EchoSandbox implements Sandbox {
+
+        private List<String> inputs = List.of();
+
+        @Override
+        public void stage(String sourcePath, String sourceCode, List<String> inputs,
+                          Map<String, byte[]> supportFiles, byte[] compiledArtifact) {
+            this.inputs = new ArrayList<>(inputs);
+        }
+
+        @Override
+        public ExecResult exec(String[] cmd, OutputStream stdoutSink, long timeoutMs) {
+            long start = System.currentTimeMillis();
+            int caseCount = BatchTestHarness.caseCount(cmd);
+            ByteArrayOutputStream collected = new ByteArrayOutputStream();
+            OutputStream stdout = stdoutSink != null ? stdoutSink : collected;
+            long latencyMs = properties.getEcho().getCaseLatencyMs();
+            try {
+                for (int i = 0; i < caseCount; i++) {
+                    if (latencyMs > 0) {
+                        Thread.sleep(latencyMs);
+                    }
+                    stdout.write(record(i, i < inputs.size() ? inputs.get(i) : "", latencyMs));
+                    stdout.flush();
+                }
+            } catch (InterruptedException e) {
+                // Aborted like a real command: the interrupt stays set for the caller.
+                Thread.currentThread().interrupt();
+            } catch (IOException e) {
+                // The sink wants no more output.
+            }
+            return new ExecResult(collected.toString(StandardCharsets.UTF_8), "", 0,
+                    System.currentTimeMillis() - start, false, false);
+        }
+    }
+
+    /** One harness record: exit 0, {@code wallMs}, 10 ms of CPU, 2 MiB peak RSS, {@code output} on stdout. */
+    static byte[] record(int index, String output, long wallMs) {
+        byte[] stdout = (output == null ? "" : output).getBytes(StandardCharsets.UTF_8);
+        byte[] header = (BatchTestHarness.RECORD_HEADER + " " + index + " 0 " + wallMs
+                + " 0m0.01s 0m0.00s 2048 " + stdout.length + " 0\n").getBytes(StandardCharsets.UTF_8);
+        byte[] record = new byte[header.length + stdout.length];
+        System.arraycopy(header, 0, record, 0, header.length);
+        System.arraycopy(stdout, 0, record, header.length, stdout.length);
+        return record;
+    }
+}
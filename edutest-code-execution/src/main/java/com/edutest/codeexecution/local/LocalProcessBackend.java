@@ -0,0 +1,370 @@
+package com.edutest.codeexecution.local;
+
+import com.edutest.codeexecution.config.CodeExecutionProperties;
+import com.edutest.codeexecution.runners.RunCommand;
+import com.edutest.codeexecution.sandbox.BoundedOutputBuffer;
+import com.edutest.codeexecution.sandbox.SandboxBackend;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+import java.util.stream.Stream;
+
+import static com.edutest.codeexecution.sandbox.BatchTestHarness.INPUT_DIR;
+import static com.edutest.codeexecution.sandbox.BatchTestHarness.WORKSPACE_DIR;
+
+/**
+ * Runs sandboxes as plain processes on this host, confined by bubblewrap: fresh user, pid,
+ * network, ipc and uts namespaces, uid 65534, only the configured host paths (read-only)
+ * plus a per-run {@code /workspace} and {@code /tmp} bound from a host directory. With
+ * {@code cgroup-root} set, each run also gets its own cgroup v2 for the memory and pids
+ * limits; with {@code seccomp-profile}, a syscall filter.
+ *
+ * <p>No daemon is involved — a command costs one fork/exec of {@code bwrap} (a few
+ * milliseconds), there are no images and no pool to keep warm. The trade-off is that the
+ * runners' toolchains must be installed on the host, and the isolation is only as strong as
+ * the namespaces, cgroup and seccomp setup of the host.
+ *
+ * <p>Sandboxes are not reused: the next run gets fresh directories and a fresh cgroup.
+ */
+@Slf4j
+@Service
+@ConditionalOnProperty(name = "coding.execution.backend", havingValue = "local")
+@RequiredArgsConstructor
+public class LocalProcessBackend implements SandboxBackend {
+
+    /**
+     * Moves itself into the run's cgroup (if any) — so everything it starts is accounted
+     * there from the first instruction — then execs bwrap, with the seccomp program on fd 3
+     * if configured ({@code bwrap --seccomp 3}).
+     */
+    private static final String LAUNCHER =
+            "[ -z \"$1\" ] || echo $$ > \"$1/cgroup.procs\" || exit 91; s=$2; shift 2; "
+                    + "if [ -n \"$s\" ]; then exec \"$@\" 3< \"$s\"; else exec \"$@\"; fi";
+    private static final String SANDBOX_ID = "65534";
+    private static final String SANDBOX_PATH = "/usr/local/bin:/usr/bin:/bin";
+    private static final long STAGING_TIMEOUT_MS = 10_000L;
+    private static final long PUMP_JOIN_MS = 5_000L;
+
+    private final CodeExecutionProperties properties;
+
+    @PostConstruct
+    void checkSetup() {
+        CodeExecutionProperties.Local local = properties.getLocal();
+        if (resolveOnPath(local.getBwrapPath()) == null) {
+            log.warn("bubblewrap not found at '{}' — coding submissions will fail with SYSTEM_ERROR",
+                    local.getBwrapPath());
+        }
+        if (local.getCgroupRoot().isBlank()) {
+            log.warn("coding.execution.local.cgroup-root is empty — memory and process limits are not enforced");
+        }
+    }
+
+    @Override
+    public Sandbox acquire(RunCommand runCommand, int memoryLimitMb) {
+        CodeExecutionProperties.Local local = properties.getLocal();
+        String runId = UUID.randomUUID().toString();
+        Path root = Path.of(local.getWorkDirectory()).resolve(runId);
+        Path cgroup = null;
+        try {
+            Files.createDirectories(root.resolve("workspace"));
+            Files.createDirectories(root.resolve("tmp"));
+            if (!local.getCgroupRoot().isBlank()) {
+                cgroup = Files.createDirectory(Path.of(local.getCgroupRoot()).resolve("edutest-" + runId));
+                Files.writeString(cgroup.resolve("memory.max"), String.valueOf(memoryLimitMb * 1024L * 1024L));
+                // Like Docker's --memory without --memory-swap headroom: the limit is RAM + 0 swap.
+                writeIfPresent(cgroup.resolve("memory.swap.max"), "0");
+                Files.writeString(cgroup.resolve("pids.max"), String.valueOf(local.getPidsLimit()));
+            }
+        } catch (IOException e) {
+            destroy(root, cgroup);
+            throw new IllegalStateException("Failed to create local sandbox: " + e.getMessage(), e);
+        }
+        return new LocalSandbox(root, cgroup);
+    }
+
+    @Override
+    public void release(Sandbox sandbox, boolean reusable) {
+        LocalSandbox local = (LocalSandbox) sandbox;
+        destroy(local.root, local.cgroup);
+    }
+
+    /**
+     * The compiler binary as the sandbox resolves it, with its size and modification time —
+     * a toolchain upgrade on the host changes the ID and so invalidates cached artifacts.
+     */
+    @Override
+    public String toolchainId(RunCommand runCommand) {
+        Path compiler = resolveOnPath(runCommand.getCompileCmd()[0]);
+        if (compiler == null) {
+            return null;
+        }
+        try {
+            Path real = compiler.toRealPath();
+            return "local:" + real + ":" + Files.size(real) + ":" + Files.getLastModifiedTime(real).toMillis();
+        } catch (IOException e) {
+            log.debug("Cannot identify compiler {}, compiling without artifact cache: {}", compiler, e.getMessage());
+            return null;
+        }
+    }
+
+    /** Full command line: launcher, bwrap with its mounts and namespaces, then {@code cmd}. */
+    List<String> command(LocalSandbox sandbox, String[] cmd) {
+        CodeExecutionProperties.Local local = properties.getLocal();
+        List<String> command = new ArrayList<>(List.of("sh", "-c", LAUNCHER, "edutest-sandbox",
+                sandbox.cgroup != null ? sandbox.cgroup.toString() : "",
+                local.getSeccompProfile(),
+                local.getBwrapPath(),
+                "--unshare-all", "--die-with-parent", "--new-session",
+                "--uid", SANDBOX_ID, "--gid", SANDBOX_ID, "--hostname", "edutest"));
+        for (String path : local.getReadOnlyPaths()) {
+            command.addAll(List.of("--ro-bind-try", path, path));
+        }
+        command.addAll(List.of(
+                "--proc", "/proc",
+                "--dev", "/dev",
+                "--bind", sandbox.workspace().toString(), WORKSPACE_DIR,
+                "--bind", sandbox.tmp().toString(), "/tmp",
+                "--chdir", WORKSPACE_DIR,
+                "--clearenv",
+                "--setenv", "PATH", SANDBOX_PATH,
+                "--setenv", "HOME", "/tmp",
+                "--setenv", "LANG", "C.UTF-8"));
+        if (!local.getSeccompProfile().isBlank()) {
+            command.addAll(List.of("--seccomp", "3"));
+        }
+        command.add("--");
+        command.addAll(List.of(cmd));
+        return command;
+    }
+
+    final class LocalSandbox implements Sandbox {
+
+        private final Path root;
+        private final Path cgroup;
+
+        LocalSandbox(Path root, Path cgroup) {
+            this.root = root;
+            this.cgroup = cgroup;
+        }
+
+        Path workspace() {
+            return root.resolve("workspace");
+        }
+
+        Path tmp() {
+            return root.resolve("tmp");
+        }
+
+        /** Host file behind a path under the sandbox's {@code /workspace} or {@code /tmp}. */
+        Path hostPath(String sandboxPath) {
+            Path base;
+            String relative;
+            if (sandboxPath.startsWith(WORKSPACE_DIR + "/")) {
+                base = workspace();
+                relative = sandboxPath.substring(WORKSPACE_DIR.length() + 1);
+            } else if (sandboxPath.startsWith("/tmp/")) {
+                base = tmp();
+                relative = sandboxPath.substring("/tmp/".length());
+            } else {
+                throw new IllegalArgumentException("Not a writable sandbox path: " + sandboxPath);
+            }
+            Path resolved = base.resolve(relative).normalize();
+            if (!resolved.startsWith(base)) {
+                throw new IllegalArgumentException("Not a writable sandbox path: " + sandboxPath);
+            }
+            return resolved;
+        }
+
+        @Override
+        public void stage(String sourcePath, String sourceCode, List<String> inputs,
+                          Map<String, byte[]> supportFiles, byte[] compiledArtifact) {
+            // The directories are bound into the sandbox, so the files are written directly.
+            try {
+                Path source = hostPath(sourcePath);
+                Files.createDirectories(source.getParent());
+                Files.writeString(source, sourceCode != null ? sourceCode : "", StandardCharsets.UTF_8);
+                Path inputDir = Files.createDirectories(hostPath(INPUT_DIR));
+                for (int i = 0; i < inputs.size(); i++) {
+                    String input = inputs.get(i);
+                    Files.writeString(inputDir.resolve(String.valueOf(i)), input != null ? input : "",
+                            StandardCharsets.UTF_8);
+                }
+                for (Map.Entry<String, byte[]> file : supportFiles.entrySet()) {
+                    Path target = hostPath(file.getKey());
+                    Files.createDirectories(target.getParent());
+                    Files.write(target, file.getValue());
+                }
+            } catch (IOException e) {
+                throw new IllegalStateException("Failed to stage workspace: " + e.getMessage(), e);
+            }
+            if (compiledArtifact != null) {
+                // Unpacked inside the sandbox, like any other archive of sandbox-produced files.
+                ExecResult result = run(new String[]{"tar", "-xf", "-", "-C", "/tmp"},
+                        compiledArtifact, null, STAGING_TIMEOUT_MS);
+                if (result.exitCode() != 0) {
+                    throw new IllegalStateException(
+                            "Failed to stage workspace (exit " + result.exitCode() + "): " + result.stderr());
+                }
+            }
+        }
+
+        @Override
+        public ExecResult exec(String[] cmd, OutputStream stdoutSink, long timeoutMs) {
+            return run(cmd, null, stdoutSink, timeoutMs);
+        }
+
+        private ExecResult run(String[] cmd, byte[] stdin, OutputStream stdoutSink, long timeoutMs) {
+            BoundedOutputBuffer collected = new BoundedOutputBuffer(properties.getOutputLimitBytes());
+            OutputStream stdout = stdoutSink != null ? stdoutSink : collected;
+            BoundedOutputBuffer stderr = new BoundedOutputBuffer(properties.getOutputLimitBytes());
+
+            long start = System.currentTimeMillis();
+            Process process;
+            try {
+                process = new ProcessBuilder(command(this, cmd)).start();
+            } catch (IOException e) {
+                return new ExecResult("", e.getMessage(), -1, System.currentTimeMillis() - start, false, false);
+            }
+
+            // Nothing past the limit (or past a sink that refuses more) is kept; killing bwrap
+            // tears down the whole pid namespace.
+            BooleanSupplier overflowed = () -> collected.overflowed() || stderr.overflowed();
+            Thread out = pump(process, process.getInputStream(), stdout, overflowed);
+            Thread err = pump(process, process.getErrorStream(), stderr, overflowed);
+            try (OutputStream in = process.getOutputStream()) {
+                if (stdin != null) {
+                    in.write(stdin);
+                }
+            } catch (IOException ignore) {
+                // The command exited without reading all of it; its exit code tells the rest.
+            }
+
+            boolean timedOut = false;
+            try {
+                if (!process.waitFor(timeoutMs, TimeUnit.MILLISECONDS)) {
+                    timedOut = true;
+                    process.destroyForcibly();
+                    process.waitFor();
+                }
+                out.join(PUMP_JOIN_MS);
+                err.join(PUMP_JOIN_MS);
+            } catch (InterruptedException e) {
+                process.destroyForcibly();
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while running a sandbox command", e);
+            }
+
+            return new ExecResult(
+                    collected.toString(),
+                    stderr.toString(),
+                    timedOut ? -1 : process.exitValue(),
+                    System.currentTimeMillis() - start, timedOut, oomKilled());
+        }
+
+        /** Whether the kernel OOM-killed anything in this sandbox's cgroup so far. */
+        private boolean oomKilled() {
+            if (cgroup == null) {
+                return false;
+            }
+            try (Stream<String> lines = Files.lines(cgroup.resolve("memory.events"))) {
+                return lines.anyMatch(line -> line.startsWith("oom_kill ") && !line.equals("oom_kill 0"));
+            } catch (IOException e) {
+                return false;
+            }
+        }
+    }
+
+    private static Thread pump(Process process, InputStream source, OutputStream sink, BooleanSupplier overflowed) {
+        Thread t = new Thread(() -> {
+            byte[] buf = new byte[8192];
+            int n;
+            boolean refused = false;
+            try (source) {
+                while ((n = source.read(buf)) != -1) {
+                    if (!refused) {
+                        try {
+                            sink.write(buf, 0, n);
+                        } catch (IOException e) {
+                            // The sink wants no more output; drain the rest unread.
+                            refused = true;
+                        }
+                    }
+                    if (refused || overflowed.getAsBoolean()) {
+                        process.destroyForcibly();
+                    }
+                }
+            } catch (IOException ignore) {
+            }
+        }, "local-sandbox-io");
+        t.setDaemon(true);
+        t.start();
+        return t;
+    }
+
+    private static void destroy(Path root, Path cgroup) {
+        if (cgroup != null) {
+            // Kill stragglers (bwrap exiting normally takes its pid namespace along), then remove.
+            writeIfPresent(cgroup.resolve("cgroup.kill"), "1");
+            try {
+                Files.deleteIfExists(cgroup);
+            } catch (IOException e) {
+                log.debug("Could not remove sandbox cgroup {}: {}", cgroup, e.getMessage());
+            }
+        }
+        if (!Files.exists(root)) {
+            return;
+        }
+        try (Stream<Path> paths = Files.walk(root)) {
+            paths.sorted(Comparator.reverseOrder()).forEach(path -> {
+                try {
+                    Files.delete(path);
+                } catch (IOException e) {
+                    log.debug("Could not delete {}: {}", path, e.getMessage());
+                }
+            });
+        } catch (IOException e) {
+            log.warn("Could not clean up local sandbox {}: {}", root, e.getMessage());
+        }
+    }
+
+    private static void writeIfPresent(Path file, String value) {
+        if (Files.exists(file)) {
+            try {
+                Files.writeString(file, value);
+            } catch (IOException e) {
+                log.debug("Could not write {}: {}", file, e.getMessage());
+            }
+        }
+    }
+
+    /** Like the shell's command lookup: paths as given, bare names on the sandbox's PATH. */
+    static Path resolveOnPath(String binary) {
+        if (binary.contains("/")) {
+            Path path = Path.of(binary);
+            return Files.isExecutable(path) ? path : null;
+        }
+        for (String dir : SANDBOX_PATH.split(":")) {
+            Path candidate = Path.of(dir, binary);
+            if (Files.isExecutable(candidate)) {
+                return candidate;
+            }
+        }
+        return null;
+    }
+}
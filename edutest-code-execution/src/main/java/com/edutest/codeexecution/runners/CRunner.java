@@ -19,4 +19,9 @@ public class CRunner implements LanguageRunner {
                 .runCmd(new String[]{"/tmp/sol"})
                 .build();
     }
+
+    @Override
+    public String warmUpSource(String token) {
+        return "#include <stdio.h>\nint main(void) { puts(\"" + token + "\"); return 0; }\n";
+    }
 }
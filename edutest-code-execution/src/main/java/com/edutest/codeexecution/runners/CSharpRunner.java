@@ -31,4 +31,9 @@ public class CSharpRunner implements LanguageRunner {
                 .runCmd(new String[]{"mono", "/tmp/sol.exe"})
                 .build();
     }
+
+    @Override
+    public String warmUpSource(String token) {
+        return "class Program { static void Main() { System.Console.WriteLine(\"" + token + "\"); } }";
+    }
 }
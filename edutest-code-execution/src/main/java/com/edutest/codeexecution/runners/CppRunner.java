@@ -19,4 +19,9 @@ public class CppRunner implements LanguageRunner {
                 .runCmd(new String[]{"/tmp/sol"})
                 .build();
     }
+
+    @Override
+    public String warmUpSource(String token) {
+        return "#include <iostream>\nint main() { std::cout << \"" + token + "\" << std::endl; }\n";
+    }
 }
@@ -1,5 +1,6 @@
 package com.edutest.codeexecution.runners;
 
+import com.edutest.codeexecution.warm.WarmWorkers;
 import org.springframework.stereotype.Component;
 
 @Component
@@ -27,6 +28,16 @@ public class JavaRunner implements LanguageRunner {
                 .sourceFilename("Solution.java")
                 .compileCmd(new String[]{"javac", "/workspace/Solution.java", "-d", "/tmp"})
                 .runCmd(new String[]{"java", "-Xmx" + memoryLimitMb + "m", "-cp", "/tmp", "Solution"})
+                // Same heap limit, shared by every case the worker runs; each case still gets
+                // its own class loader, so statics start fresh.
+                .warmWorkerCmd(new String[]{"java", "-Xmx" + memoryLimitMb + "m", "-XX:-UsePerfData",
+                        "-cp", WarmWorkers.DIR, WarmWorkers.JAVA_WORKER_CLASS, "/tmp", "Solution"})
+                .warmWorkerFiles(WarmWorkers.javaFiles())
                 .build();
     }
+
+    @Override
+    public String warmUpSource(String token) {
+        return "public class Solution { public static void main(String[] args) { System.out.println(\"" + token + "\"); } }";
+    }
 }
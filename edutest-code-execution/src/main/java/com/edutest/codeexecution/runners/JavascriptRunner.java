@@ -18,4 +18,9 @@ public class JavascriptRunner implements LanguageRunner {
                 .runCmd(new String[]{"node", "/workspace/main.js"})
                 .build();
     }
+
+    @Override
+    public String warmUpSource(String token) {
+        return "console.log(\"" + token + "\");";
+    }
 }
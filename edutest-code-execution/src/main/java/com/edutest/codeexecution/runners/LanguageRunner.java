@@ -5,4 +5,11 @@ public interface LanguageRunner {
     String language();
 
     RunCommand buildRunCommand(int memoryLimitMb);
+
+    /**
+     * A minimal program that prints {@code token} and a newline, compiled and run once per
+     * image when it is warmed up. The token makes every warm-up source unique, so the
+     * compiler really runs instead of hitting the compiled artifact cache.
+     */
+    String warmUpSource(String token);
 }
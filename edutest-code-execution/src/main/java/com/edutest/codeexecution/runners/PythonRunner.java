@@ -1,5 +1,6 @@
 package com.edutest.codeexecution.runners;
 
+import com.edutest.codeexecution.warm.WarmWorkers;
 import org.springframework.stereotype.Component;
 
 @Component
@@ -16,6 +17,13 @@ public class PythonRunner implements LanguageRunner {
                 .image("python:3.12-alpine")
                 .sourceFilename("main.py")
                 .runCmd(new String[]{"python", "/workspace/main.py"})
+                .warmWorkerCmd(new String[]{"python", WarmWorkers.PYTHON_WORKER, "/workspace/main.py"})
+                .warmWorkerFiles(WarmWorkers.pythonFiles())
                 .build();
     }
+
+    @Override
+    public String warmUpSource(String token) {
+        return "print(\"" + token + "\")";
+    }
 }
@@ -4,6 +4,8 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Getter;
 
+import java.util.Map;
+
 @Getter
 @Builder
 @AllArgsConstructor
@@ -13,8 +15,20 @@ public class RunCommand {
     private final String sourceFilename;
     private final String[] compileCmd;
     private final String[] runCmd;
+    /**
+     * Optional persistent worker running every test case in one process (see
+     * {@link com.edutest.codeexecution.warm.WarmWorkers}), used instead of {@link #runCmd}
+     * when {@code coding.execution.warm-runtimes} is on.
+     */
+    private final String[] warmWorkerCmd;
+    /** Files the warm worker needs in the sandbox, by absolute sandbox path. */
+    private final Map<String, byte[]> warmWorkerFiles;
 
     public boolean requiresCompilation() {
         return compileCmd != null && compileCmd.length > 0;
     }
+
+    public boolean supportsWarmWorker() {
+        return warmWorkerCmd != null && warmWorkerCmd.length > 0;
+    }
 }
@@ -0,0 +1,189 @@
+package com.edutest.codeexecution.sandbox;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * In-sandbox driver that runs every test case of a submission in a single exec.
+ *
+ * <p>Per-case exec costs four daemon round-trips (create, start, inspect exec, inspect
+ * container); with 30 hidden tests that is ~120 calls per submission. The driver is a
+ * POSIX {@code sh} script (works on busybox/alpine and debian images alike) that runs the
+ * program once per staged input under {@code timeout -s KILL}, measures wall time from
+ * {@code /proc/uptime} (10 ms resolution — unlike {@code date +%N} it exists everywhere),
+ * and streams back one framed record per case:
+ *
+ * <pre>
+ * @@EDUTEST-CASE &lt;index&gt; &lt;exit code&gt; &lt;wall ms&gt; &lt;cpu user&gt; &lt;cpu sys&gt; &lt;peak rss KiB&gt; &lt;stdout bytes&gt; &lt;stderr bytes&gt;\n
+ * &lt;stdout bytes&gt;&lt;stderr bytes&gt;
+ * </pre>
+ *
+ * <p>Resource usage is measured in the container, per case, without daemon latency. Each
+ * case runs in its own {@code sh -c} whose {@code times} builtin reports the user/sys CPU
+ * of exactly that case's process tree (as {@code 0m0.52s}, clock-tick resolution). Peak RSS
+ * comes from {@code time -f %M} (GNU time or the busybox applet) when a probe at startup
+ * shows it works, otherwise it is reported as {@code -}. Neither cgroup file helps here:
+ * {@code memory.peak} and {@code cpu.stat} cover the whole, reused container and can't be
+ * reset from an unprivileged exec.
+ *
+ * Length-prefixed framing keeps arbitrary program output (including lines that look like
+ * headers) unambiguous without base64-encoding it. {@link HarnessOutputParser} decodes it.
+ *
+ * <p>Output is bounded per case and stream: the program runs under {@code ulimit -f}, so a
+ * runaway print loop gets {@code SIGXFSZ} as soon as its capture file passes the limit
+ * instead of filling the tmpfs until the time limit, and at most limit + 1 bytes of each
+ * file are streamed back — the extra byte is how the host tells "exactly at" from "over".
+ *
+ * <p>{@link #warmCommand} swaps the per-case loop for a warm worker (see
+ * {@link com.edutest.codeexecution.warm.WarmWorkers}) that runs the cases itself and writes
+ * the same records. The driver only supervises it: while a case runs the worker keeps
+ * {@code <index> <start ms>} in {@code /tmp/.harness/cur} and after each record it writes
+ * the next index to {@code next}. When the worker exits early the driver reports the case
+ * left in {@code cur} (with the worker's exit status, no CPU or memory figures) and starts a
+ * fresh worker at the following case; a worker that halts on purpose after a timeout
+ * leaves only {@code next}.
+ */
+public final class BatchTestHarness {
+
+    /** Where every backend puts the source file and test inputs; runner commands refer to it. */
+    public static final String WORKSPACE_DIR = "/workspace";
+    /** Staged test inputs, one file per case index. */
+    public static final String INPUT_DIR = WORKSPACE_DIR + "/in";
+
+    /** Starts every case record the driver prints. */
+    public static final String RECORD_HEADER = "@@EDUTEST-CASE";
+    private static final String SCRIPT_NAME = "edutest-harness";
+
+    /** Runs one case and records the CPU time of its process tree via the POSIX {@code times} builtin. */
+    private static final String CASE_WRAPPER =
+            "c=$1; t=$2; shift 2; timeout -s KILL \"$t\" \"$@\"; code=$?; times > \"$c\"; exit $code";
+
+    private static final String DRIVER = """
+            n=$1; t=$2; cap=$(($3 + 1)); shift 3
+            blocks=$((cap / 512 + 1))
+            mkdir -p /tmp/.harness || exit 90
+            run='%s'
+            tm=
+            if command time -f %%M -o /tmp/.harness/probe true 2>/dev/null && [ -s /tmp/.harness/probe ]; then
+              tm=1
+            fi
+            now_ms() {
+              read -r up _ < /proc/uptime
+              s=${up%%.*}; c=${up#*.}; c=${c#0}
+              echo $((s * 1000 + c * 10))
+            }
+            i=0
+            while [ "$i" -lt "$n" ]; do
+              o=/tmp/.harness/$i.out; e=/tmp/.harness/$i.err
+              cf=/tmp/.harness/$i.cpu; mf=/tmp/.harness/$i.mem
+              start=$(now_ms)
+              if [ -n "$tm" ]; then
+                (ulimit -f "$blocks"; exec time -f %%M -o "$mf" sh -c "$run" edutest-case "$cf" "$t" "$@") < %s/$i > "$o" 2> "$e"
+              else
+                (ulimit -f "$blocks"; exec sh -c "$run" edutest-case "$cf" "$t" "$@") < %s/$i > "$o" 2> "$e"
+              fi
+              code=$?
+              end=$(now_ms)
+              cpu=$(sed -n 2p "$cf" 2>/dev/null); [ -n "$cpu" ] || cpu='- -'
+              mem=$(tail -n 1 "$mf" 2>/dev/null); [ -n "$mem" ] || mem=-
+              ob=$(wc -c < "$o"); [ "$ob" -gt "$cap" ] && ob=$cap
+              eb=$(wc -c < "$e"); [ "$eb" -gt "$cap" ] && eb=$cap
+              printf '%s %%s %%s %%s %%s %%s %%s %%s %%s\\n' "$i" "$code" $((end - start)) $cpu "$mem" "$ob" "$eb"
+              head -c "$ob" "$o"; head -c "$eb" "$e"
+              rm -f "$o" "$e" "$cf" "$mf"
+              i=$((i + 1))
+            done
+            """.formatted(CASE_WRAPPER, INPUT_DIR, INPUT_DIR, RECORD_HEADER);
+
+    private static final String WARM_DRIVER = """
+            n=$1; t=$2; cap=$(($3 + 1)); shift 3
+            blocks=$((cap / 512 + 1))
+            h=/tmp/.harness
+            mkdir -p "$h" || exit 90
+            now_ms() {
+              read -r up _ < /proc/uptime
+              s=${up%%.*}; c=${up#*.}; c=${c#0}
+              echo $((s * 1000 + c * 10))
+            }
+            i=0
+            while [ "$i" -lt "$n" ]; do
+              rm -f "$h/cur" "$h/next"
+              (ulimit -f "$blocks"; exec "$@" %s "$h" "$i" "$n" "$t" "$cap") < /dev/null
+              code=$?
+              if [ -f "$h/cur" ]; then
+                read -r k start < "$h/cur"
+                end=$(now_ms)
+                o=$h/$k.out; e=$h/$k.err
+                ob=$(wc -c 2>/dev/null < "$o") || ob=0; [ "$ob" -gt "$cap" ] && ob=$cap
+                eb=$(wc -c 2>/dev/null < "$e") || eb=0; [ "$eb" -gt "$cap" ] && eb=$cap
+                printf '%s %%s %%s %%s - - - %%s %%s\\n' "$k" "$code" $((end - start)) "$ob" "$eb"
+                [ "$ob" -gt 0 ] && head -c "$ob" "$o"; [ "$eb" -gt 0 ] && head -c "$eb" "$e"
+                rm -f "$o" "$e"
+                i=$((k + 1))
+              elif [ -f "$h/next" ] && [ "$(cat "$h/next")" -gt "$i" ]; then
+                i=$(cat "$h/next")
+              else
+                echo "Warm worker exited with code $code before running case $i" >&2
+                exit 90
+              fi
+            done
+            """.formatted(INPUT_DIR, RECORD_HEADER);
+
+    private BatchTestHarness() {
+    }
+
+    /**
+     * Command running the driver over {@code caseCount} staged inputs. The {@code timeout}
+     * kill is a backstop rounded up to whole seconds (busybox {@code timeout} does not
+     * accept fractions); the verdict compares the measured duration against the exact limit.
+     * {@code outputLimitBytes} bounds each of stdout and stderr per case.
+     */
+    static String[] command(String[] runCmd, int caseCount, long perTestTimeoutMs, long outputLimitBytes) {
+        List<String> cmd = new ArrayList<>(List.of(
+                "sh", "-c", DRIVER, SCRIPT_NAME,
+                String.valueOf(caseCount),
+                String.valueOf(killAfterSeconds(perTestTimeoutMs)),
+                String.valueOf(outputLimitBytes)));
+        cmd.addAll(List.of(runCmd));
+        return cmd.toArray(String[]::new);
+    }
+
+    /**
+     * Command running {@code workerCmd} (a runner's warm worker) over {@code caseCount} staged
+     * inputs. The worker enforces {@code wallLimitMs} itself, to the millisecond.
+     */
+    static String[] warmCommand(String[] workerCmd, int caseCount, long wallLimitMs, long outputLimitBytes) {
+        List<String> cmd = new ArrayList<>(List.of(
+                "sh", "-c", WARM_DRIVER, SCRIPT_NAME,
+                String.valueOf(caseCount),
+                String.valueOf(wallLimitMs),
+                String.valueOf(outputLimitBytes)));
+        cmd.addAll(List.of(workerCmd));
+        return cmd.toArray(String[]::new);
+    }
+
+    /**
+     * Number of cases {@code cmd} runs if it is one of the commands above, otherwise -1 —
+     * for backends that simulate the harness instead of running it.
+     */
+    public static int caseCount(String[] cmd) {
+        if (cmd.length < 5 || !SCRIPT_NAME.equals(cmd[3])) {
+            return -1;
+        }
+        return Integer.parseInt(cmd[4]);
+    }
+
+    /** Upper bound for the whole harness exec: every case hitting its kill timeout plus slack. */
+    static long overallTimeoutMs(int caseCount, long perTestTimeoutMs) {
+        return caseCount * (killAfterSeconds(perTestTimeoutMs) * 1000L + 1_000L) + 10_000L;
+    }
+
+    private static long killAfterSeconds(long perTestTimeoutMs) {
+        return Math.max(1, (perTestTimeoutMs + 999) / 1000);
+    }
+
+    /** Command (run as the sandbox user) streaming the compile output in {@code /tmp} as a tar. */
+    static String[] artifactExportCommand() {
+        return new String[]{"tar", "-cf", "-", "-C", "/tmp", "."};
+    }
+}
@@ -0,0 +1,47 @@
+package com.edutest.codeexecution.sandbox;
+
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Exec output sink that keeps at most {@code maxBytes} and only counts the rest.
+ *
+ * <p>Compiler diagnostics and staging errors are read back as Strings, but a template-heavy
+ * C++ error cascade can print megabytes — none of which survives the display truncation.
+ * Once {@link #overflowed()} the caller can stop the exec instead of draining the rest
+ * from the sandbox.
+ */
+public final class BoundedOutputBuffer extends OutputStream {
+
+    private final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+    private final int maxBytes;
+    private long totalBytes;
+
+    public BoundedOutputBuffer(int maxBytes) {
+        this.maxBytes = maxBytes;
+    }
+
+    @Override
+    public void write(int b) {
+        write(new byte[]{(byte) b}, 0, 1);
+    }
+
+    @Override
+    public synchronized void write(byte[] buf, int off, int len) {
+        int room = maxBytes - buffer.size();
+        if (room > 0) {
+            buffer.write(buf, off, Math.min(room, len));
+        }
+        totalBytes += len;
+    }
+
+    public synchronized boolean overflowed() {
+        return totalBytes > maxBytes;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return buffer.toString(StandardCharsets.UTF_8);
+    }
+}
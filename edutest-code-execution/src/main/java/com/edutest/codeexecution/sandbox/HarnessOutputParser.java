@@ -0,0 +1,200 @@
+package com.edutest.codeexecution.sandbox;
+
+import com.edutest.codeexecution.checker.OutputChecker;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Incremental decoder for the record stream written by {@link BatchTestHarness}.
+ *
+ * <p>Used directly as the exec's stdout sink, so records are decoded as Docker frames
+ * arrive — frame boundaries do not need to line up with record boundaries. Bytes outside
+ * a well-formed record header are ignored.
+ *
+ * <p>Memory per case is bounded regardless of what the program prints: stdout is fed to the
+ * case's {@link OutputChecker} while it streams (and no longer once it has failed), and
+ * only the first {@code keepBytes} of each stream are buffered for display. A stream longer
+ * than {@code outputLimitBytes} flags the case as over the output limit (the driver already
+ * truncates there, this is the backstop).
+ *
+ * <p>Each outcome is handed to {@code onCase} as soon as its record is complete. When that
+ * returns false the parser stops: later records are dropped and every further write throws
+ * an {@link IOException}, which the backends take as the signal to kill the exec.
+ */
+class HarnessOutputParser extends OutputStream {
+
+    /** {@code cpuTimeMs} / {@code peakMemoryKb} are -1 when the container couldn't measure them. */
+    record CaseOutcome(int index, int exitCode, long durationMs, long cpuTimeMs, long peakMemoryKb,
+                       String stdout, String stderr, boolean outputMatches, boolean outputLimitExceeded) {
+    }
+
+    private enum State { HEADER, STDOUT, STDERR }
+
+    private static final int MAX_HEADER_BYTES = 256;
+    /** One field of the shell's {@code times} output, e.g. {@code 0m1.52s} or {@code 0m0.010000s}. */
+    private static final Pattern TIMES_FIELD = Pattern.compile("(\\d+)m(\\d+)(?:\\.(\\d+))?s");
+
+    private final List<OutputChecker> checkers;
+    private final int keepBytes;
+    private final long outputLimitBytes;
+    private final Predicate<CaseOutcome> onCase;
+    private final Map<Integer, CaseOutcome> outcomes = new HashMap<>();
+
+    private State state = State.HEADER;
+    private final ByteArrayOutputStream header = new ByteArrayOutputStream();
+    private final ByteArrayOutputStream stdout = new ByteArrayOutputStream();
+    private final ByteArrayOutputStream stderr = new ByteArrayOutputStream();
+    private OutputChecker checker;
+
+    private int index;
+    private int exitCode;
+    private long durationMs;
+    private long cpuTimeMs;
+    private long peakMemoryKb;
+    private long stdoutRemaining;
+    private long stderrRemaining;
+    private boolean overLimit;
+    private boolean stopped;
+
+    HarnessOutputParser(List<OutputChecker> checkers, int keepBytes, long outputLimitBytes) {
+        this(checkers, keepBytes, outputLimitBytes, outcome -> true);
+    }
+
+    /**
+     * @param checkers        verifies stdout, per case index
+     * @param keepBytes       bytes of each stream kept for {@link CaseOutcome#stdout()} / {@link CaseOutcome#stderr()}
+     * @param outputLimitBytes largest stream a case may produce
+     * @param onCase          called with each outcome in stream order; false stops the parser
+     */
+    HarnessOutputParser(List<OutputChecker> checkers, int keepBytes, long outputLimitBytes,
+                        Predicate<CaseOutcome> onCase) {
+        this.checkers = checkers;
+        this.keepBytes = keepBytes;
+        this.outputLimitBytes = outputLimitBytes;
+        this.onCase = onCase;
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        write(new byte[]{(byte) b}, 0, 1);
+    }
+
+    @Override
+    public synchronized void write(byte[] buf, int off, int len) throws IOException {
+        int pos = off;
+        int end = off + len;
+        while (pos < end && !stopped) {
+            switch (state) {
+                case HEADER -> {
+                    byte b = buf[pos++];
+                    if (b == '\n') {
+                        startRecord(header.toString(StandardCharsets.UTF_8));
+                        header.reset();
+                    } else if (header.size() < MAX_HEADER_BYTES) {
+                        header.write(b);
+                    }
+                }
+                case STDOUT -> {
+                    int n = (int) Math.min(stdoutRemaining, end - pos);
+                    keep(stdout, buf, pos, n);
+                    if (checker != null && !checker.failed()) {
+                        checker.write(buf, pos, n);
+                    }
+                    pos += n;
+                    stdoutRemaining -= n;
+                    advanceIfComplete();
+                }
+                case STDERR -> {
+                    int n = (int) Math.min(stderrRemaining, end - pos);
+                    keep(stderr, buf, pos, n);
+                    pos += n;
+                    stderrRemaining -= n;
+                    advanceIfComplete();
+                }
+            }
+        }
+        if (stopped) {
+            throw new IOException("Test run stopped");
+        }
+    }
+
+    synchronized CaseOutcome outcome(int index) {
+        return outcomes.get(index);
+    }
+
+    synchronized int completedCount() {
+        return outcomes.size();
+    }
+
+    /** Whether {@code onCase} stopped the run; cases after that one have no outcome. */
+    synchronized boolean stopped() {
+        return stopped;
+    }
+
+    private void startRecord(String line) {
+        String[] parts = line.trim().split("\\s+");
+        if (parts.length != 9 || !BatchTestHarness.RECORD_HEADER.equals(parts[0])) {
+            return;
+        }
+        try {
+            index = Integer.parseInt(parts[1]);
+            exitCode = Integer.parseInt(parts[2]);
+            durationMs = Long.parseLong(parts[3]);
+            long userMs = timesMillis(parts[4]);
+            long sysMs = timesMillis(parts[5]);
+            cpuTimeMs = userMs < 0 || sysMs < 0 ? -1 : userMs + sysMs;
+            peakMemoryKb = "-".equals(parts[6]) ? -1 : Long.parseLong(parts[6]);
+            stdoutRemaining = Long.parseLong(parts[7]);
+            stderrRemaining = Long.parseLong(parts[8]);
+        } catch (NumberFormatException e) {
+            return;
+        }
+        overLimit = stdoutRemaining > outputLimitBytes || stderrRemaining > outputLimitBytes;
+        checker = index >= 0 && index < checkers.size() ? checkers.get(index) : null;
+        stdout.reset();
+        stderr.reset();
+        state = State.STDOUT;
+        advanceIfComplete();
+    }
+
+    private static long timesMillis(String field) {
+        Matcher m = TIMES_FIELD.matcher(field);
+        if (!m.matches()) {
+            return -1;
+        }
+        String fraction = m.group(3) != null ? (m.group(3) + "000").substring(0, 3) : "0";
+        return Long.parseLong(m.group(1)) * 60_000 + Long.parseLong(m.group(2)) * 1_000 + Long.parseLong(fraction);
+    }
+
+    private void keep(ByteArrayOutputStream target, byte[] buf, int off, int len) {
+        int room = keepBytes - target.size();
+        if (room > 0) {
+            target.write(buf, off, Math.min(room, len));
+        }
+    }
+
+    private void advanceIfComplete() {
+        if (state == State.STDOUT && stdoutRemaining == 0) {
+            state = State.STDERR;
+        }
+        if (state == State.STDERR && stderrRemaining == 0) {
+            CaseOutcome outcome = new CaseOutcome(index, exitCode, durationMs, cpuTimeMs, peakMemoryKb,
+                    stdout.toString(StandardCharsets.UTF_8),
+                    stderr.toString(StandardCharsets.UTF_8),
+                    !overLimit && checker != null && checker.matches(), overLimit);
+            outcomes.put(index, outcome);
+            stopped = !onCase.test(outcome);
+            checker = null;
+            state = State.HEADER;
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.edutest.codeexecution.sandbox;
+
+import com.edutest.codeexecution.runners.RunCommand;
+
+import java.io.OutputStream;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Where student code actually runs. {@link SandboxCodeExecutor} owns the run itself —
+ * staging, compiling, the {@link BatchTestHarness} pass and the verdicts — and asks the
+ * backend only for an isolated {@link Sandbox} with {@link BatchTestHarness#WORKSPACE_DIR}
+ * and {@code /tmp} writable, in which it can run commands.
+ *
+ * <p>Exactly one backend is active, chosen with {@code coding.execution.backend}
+ * ({@code docker} by default, {@code local}, or {@code echo} for load tests).
+ */
+public interface SandboxBackend {
+
+    /**
+     * Returns an empty sandbox for one run of {@code runCommand}, limited to
+     * {@code memoryLimitMb}. Owned by the caller until {@link #release}.
+     */
+    Sandbox acquire(RunCommand runCommand, int memoryLimitMb);
+
+    /**
+     * Hands the sandbox back after a run. {@code reusable} is false when the run broke off
+     * half-way and the sandbox may be in an unknown state.
+     */
+    void release(Sandbox sandbox, boolean reusable);
+
+    /**
+     * Identifies the compiler that {@code runCommand} would use (image ID, binary version...),
+     * for the compiled artifact cache key; {@code null} if it can't be determined, which
+     * skips the cache.
+     */
+    String toolchainId(RunCommand runCommand);
+
+    interface Sandbox {
+
+        /**
+         * Writes the source file, the test inputs ({@link BatchTestHarness#INPUT_DIR}/0..n) and
+         * {@code supportFiles} (sandbox path under the workspace to content, e.g. a warm
+         * worker; parent directories are created) and, when non-null, unpacks
+         * {@code compiledArtifact} (a tar of a previous compile step's {@code /tmp}) into
+         * {@code /tmp}.
+         *
+         * @throws IllegalStateException if the workspace can't be written
+         */
+        void stage(String sourcePath, String sourceCode, List<String> inputs, Map<String, byte[]> supportFiles,
+                   byte[] compiledArtifact);
+
+        /**
+         * Runs {@code cmd} as the unprivileged sandbox user.
+         *
+         * @param stdoutSink receives stdout as it streams in; when {@code null} it is collected
+         *                   into {@link ExecResult#stdout()}. Collected stdout and stderr keep at
+         *                   most {@code output-limit-bytes} each; past that the command is aborted.
+         *                   It is also aborted once {@code stdoutSink} throws an {@link java.io.IOException}
+         *                   — the sink wants no more output — and when the calling thread is
+         *                   interrupted; the interrupt is still set on return (or on the exception).
+         */
+        ExecResult exec(String[] cmd, OutputStream stdoutSink, long timeoutMs);
+    }
+
+    /** {@code oomKilled} reports whether the sandbox's memory limit ever killed a process. */
+    record ExecResult(String stdout, String stderr, int exitCode, long durationMs,
+                      boolean timedOut, boolean oomKilled) {
+    }
+}
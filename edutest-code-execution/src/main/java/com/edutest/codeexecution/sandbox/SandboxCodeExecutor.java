@@ -0,0 +1,331 @@
+package com.edutest.codeexecution.sandbox;
+
+import com.edutest.codeexecution.ExecutionReport;
+import com.edutest.codeexecution.TestCaseRunResult;
+import com.edutest.codeexecution.cache.CompiledArtifactCache;
+import com.edutest.codeexecution.checker.OutputCheckers;
+import com.edutest.codeexecution.config.CodeExecutionProperties;
+import com.edutest.codeexecution.runners.LanguageRunner;
+import com.edutest.codeexecution.runners.LanguageRunnerRegistry;
+import com.edutest.codeexecution.runners.RunCommand;
+import com.edutest.codeexecution.runners.UnsupportedLanguageException;
+import com.edutest.persistance.entity.assigment.coding.TestCaseEntity;
+import com.edutest.persistance.entity.code.CompilationStatusEnum;
+import com.edutest.persistance.entity.code.ExecutionStatusEnum;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+import static com.edutest.codeexecution.sandbox.BatchTestHarness.WORKSPACE_DIR;
+
+/**
+ * Runs a submission against its test cases in a sandbox of the configured
+ * {@link SandboxBackend}: stage, compile (or reuse a cached artifact), run every case in one
+ * {@link BatchTestHarness} pass and turn the harness records into verdicts. None of this
+ * depends on the backend, so Docker and local runs grade identically.
+ *
+ * <p>Verdicts are also handed out one by one while the harness streams its records, and a
+ * run can stop at the first case that fails instead of running the rest.
+ *
+ * <p>Interrupting the calling thread cancels the run: the backend kills the command in
+ * flight, the sandbox goes back to the backend and a "Run cancelled" SYSTEM_ERROR is
+ * returned with the interrupt still set.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class SandboxCodeExecutor {
+
+    /** Wall-clock backstop, as a multiple of the limit, when the limit is enforced on CPU time. */
+    private static final long WALL_LIMIT_FACTOR = 2;
+
+    private final SandboxBackend backend;
+    private final LanguageRunnerRegistry runnerRegistry;
+    private final CodeExecutionProperties properties;
+    private final CompiledArtifactCache artifactCache;
+
+    public ExecutionReport execute(String sourceCode,
+                                   String language,
+                                   List<TestCaseEntity> testCases,
+                                   Integer timeLimitMs,
+                                   Integer memoryLimitMb) {
+        return execute(sourceCode, language, testCases, timeLimitMs, memoryLimitMb, result -> { }, false);
+    }
+
+    /**
+     * @param onResult      gets each case's verdict as soon as the case has finished, in
+     *                      test case order — before the run as a whole is over
+     * @param stopOnFailure stop after the first case that doesn't pass; the cases after it
+     *                      are left out of the report
+     */
+    public ExecutionReport execute(String sourceCode,
+                                   String language,
+                                   List<TestCaseEntity> testCases,
+                                   Integer timeLimitMs,
+                                   Integer memoryLimitMb,
+                                   Consumer<TestCaseRunResult> onResult,
+                                   boolean stopOnFailure) {
+
+        if (!properties.isEnabled()) {
+            return ExecutionReport.systemError("Code execution is disabled by configuration");
+        }
+
+        long perTestTimeout = timeLimitMs != null && timeLimitMs > 0
+                ? timeLimitMs : properties.getDefaultTimeMs();
+        int memMb = memoryLimitMb != null && memoryLimitMb > 0
+                ? memoryLimitMb : properties.getDefaultMemoryMb();
+
+        LanguageRunner runner;
+        try {
+            runner = runnerRegistry.resolve(language);
+        } catch (UnsupportedLanguageException e) {
+            return ExecutionReport.systemError(e.getMessage());
+        }
+
+        RunCommand runCommand = runner.buildRunCommand(memMb);
+        boolean warm = properties.isWarmRuntimes() && runCommand.supportsWarmWorker();
+        SandboxBackend.Sandbox sandbox = null;
+        boolean reusable = false;
+
+        String artifactKey = null;
+        byte[] cachedArtifact = null;
+        if (runCommand.requiresCompilation() && artifactCache.isEnabled()) {
+            String toolchainId = backend.toolchainId(runCommand);
+            if (toolchainId != null) {
+                artifactKey = CompiledArtifactCache.key(
+                        runner.language(), toolchainId, runCommand.getCompileCmd(), sourceCode);
+                cachedArtifact = artifactCache.get(artifactKey).orElse(null);
+            }
+        }
+
+        try {
+            sandbox = backend.acquire(runCommand, memMb);
+            // The source and every test input are written up front, so the batch harness can
+            // run all cases without further uploads. The warm worker, if used, and a cached
+            // compile artifact go in the same pass.
+            sandbox.stage(WORKSPACE_DIR + "/" + runCommand.getSourceFilename(), sourceCode,
+                    testCases.stream().map(TestCaseEntity::getInputData).toList(),
+                    warm ? runCommand.getWarmWorkerFiles() : Map.of(), cachedArtifact);
+
+            if (runCommand.requiresCompilation() && cachedArtifact == null) {
+                SandboxBackend.ExecResult compile = sandbox.exec(
+                        runCommand.getCompileCmd(), null, properties.getGlobalTimeoutMs());
+                if (Thread.currentThread().isInterrupted()) {
+                    reusable = true;
+                    return cancelled();
+                }
+                if (compile.timedOut()) {
+                    reusable = true;
+                    return ExecutionReport.builder()
+                            .compilationStatus(CompilationStatusEnum.TIMEOUT)
+                            .compilationError("Compilation timed out")
+                            .executionStatus(ExecutionStatusEnum.NOT_EXECUTED)
+                            .testCaseResults(List.of())
+                            .maxExecutionTimeMs(0L)
+                            .maxMemoryUsedMb(0)
+                            .build();
+                }
+                if (compile.exitCode() != 0) {
+                    String err = truncate(compile.stderr().isEmpty() ? compile.stdout() : compile.stderr(),
+                            properties.getOutputLimitChars());
+                    reusable = true;
+                    return ExecutionReport.compilationFailed(err);
+                }
+                if (artifactKey != null) {
+                    exportArtifact(sandbox, artifactKey);
+                }
+            }
+
+            ExecutionReport report = runTestCases(sandbox, runCommand, testCases, perTestTimeout, warm,
+                    onResult, stopOnFailure);
+            reusable = true;
+            return Thread.currentThread().isInterrupted() ? cancelled() : report;
+
+        } catch (Exception e) {
+            if (Thread.currentThread().isInterrupted()) {
+                // The backend has already killed the command; the pool's reset cleans up.
+                reusable = sandbox != null;
+                return cancelled();
+            }
+            log.error("Sandbox execution failed", e);
+            return ExecutionReport.systemError("Sandbox error: " + e.getMessage());
+        } finally {
+            if (sandbox != null) {
+                backend.release(sandbox, reusable);
+            }
+        }
+    }
+
+    /**
+     * Report of a run whose thread was interrupted — the caller gave up on it. Nothing in it
+     * is a verdict, so it is a SYSTEM_ERROR, which no cache keeps.
+     */
+    private static ExecutionReport cancelled() {
+        log.debug("Sandbox run cancelled");
+        return ExecutionReport.systemError("Run cancelled");
+    }
+
+    /** Stores the freshly compiled {@code /tmp} so identical source skips compilation next time. */
+    private void exportArtifact(SandboxBackend.Sandbox sandbox, String artifactKey) {
+        ByteArrayOutputStream tar = new ByteArrayOutputStream();
+        SandboxBackend.ExecResult export = sandbox.exec(BatchTestHarness.artifactExportCommand(),
+                tar, properties.getGlobalTimeoutMs());
+        if (export.exitCode() == 0) {
+            artifactCache.put(artifactKey, tar.toByteArray());
+        } else {
+            log.debug("Compile artifact export failed (exit {}): {}", export.exitCode(), export.stderr());
+        }
+    }
+
+    private ExecutionReport runTestCases(SandboxBackend.Sandbox sandbox,
+                                         RunCommand runCommand,
+                                         List<TestCaseEntity> testCases,
+                                         long perTestTimeoutMs,
+                                         boolean warm,
+                                         Consumer<TestCaseRunResult> onResult,
+                                         boolean stopOnFailure) {
+        List<TestCaseRunResult> results = new ArrayList<>();
+        long maxExecMs = 0L;
+        int maxMemMb = 0;
+        ExecutionStatusEnum overall = ExecutionStatusEnum.SUCCESS;
+
+        // With CPU-time limits the wall clock is only a backstop against programs that block
+        // (sleep, read past EOF), so it gets headroom for a busy host.
+        long wallLimitMs = properties.isCpuTimeLimits() ? perTestTimeoutMs * WALL_LIMIT_FACTOR : perTestTimeoutMs;
+        // UTF-8 needs at most 4 bytes per char, so this always covers the displayed prefix.
+        HarnessOutputParser harness = new HarnessOutputParser(
+                testCases.stream().map(OutputCheckers::forTestCase).toList(),
+                properties.getOutputLimitChars() * 4, properties.getOutputLimitBytes(),
+                outcome -> {
+                    if (outcome.index() < 0 || outcome.index() >= testCases.size()) {
+                        return true;
+                    }
+                    // The OOM flag is only known once the batch is over, so until then a
+                    // memory kill reads as a runtime error; the report has the final verdict.
+                    TestCaseRunResult result = judge(testCases.get(outcome.index()), outcome, false,
+                            perTestTimeoutMs, wallLimitMs);
+                    try {
+                        onResult.accept(result);
+                    } catch (RuntimeException e) {
+                        log.warn("Test case progress listener failed: {}", e.getMessage());
+                    }
+                    return result.isPassed() || !stopOnFailure;
+                });
+        SandboxBackend.ExecResult batch = null;
+        if (!testCases.isEmpty()) {
+            String[] cmd = warm
+                    ? BatchTestHarness.warmCommand(runCommand.getWarmWorkerCmd(), testCases.size(), wallLimitMs,
+                            properties.getOutputLimitBytes())
+                    : BatchTestHarness.command(runCommand.getRunCmd(), testCases.size(), wallLimitMs,
+                            properties.getOutputLimitBytes());
+            batch = sandbox.exec(cmd, harness,
+                    BatchTestHarness.overallTimeoutMs(testCases.size(), wallLimitMs));
+        }
+
+        for (int i = 0; i < testCases.size(); i++) {
+            TestCaseEntity tc = testCases.get(i);
+            HarnessOutputParser.CaseOutcome run = harness.outcome(i);
+
+            if (run == null && harness.stopped()) {
+                // Stopped at the first failure: the remaining cases never ran.
+                break;
+            }
+            if (run == null) {
+                // The harness died before reaching this case (killed by the overall timeout,
+                // missing `timeout` binary, ...). Surface whatever the driver itself printed.
+                String reason = batch.stderr().isEmpty() ? "Test harness aborted" : batch.stderr();
+                results.add(TestCaseRunResult.builder()
+                        .testCaseId(tc.getId())
+                        .passed(false)
+                        .errorMessage(truncate(reason, properties.getOutputLimitChars()))
+                        .build());
+                overall = ExecutionStatusEnum.SYSTEM_ERROR;
+                continue;
+            }
+
+            TestCaseRunResult result = judge(tc, run, batch.oomKilled(), perTestTimeoutMs, wallLimitMs);
+            results.add(result);
+            if (overall == ExecutionStatusEnum.SUCCESS) {
+                overall = result.failureStatus();
+            }
+            if (result.getExecutionTimeMs() > maxExecMs) maxExecMs = result.getExecutionTimeMs();
+            if (result.getMemoryUsedMb() > maxMemMb) maxMemMb = result.getMemoryUsedMb();
+        }
+
+        return ExecutionReport.builder()
+                .compilationStatus(runCommand.requiresCompilation()
+                        ? CompilationStatusEnum.SUCCESS : CompilationStatusEnum.NOT_COMPILED)
+                .executionStatus(overall)
+                .testCaseResults(results)
+                .maxExecutionTimeMs(maxExecMs)
+                .maxMemoryUsedMb(maxMemMb)
+                .build();
+    }
+
+    /** Turns one harness record into the case's verdict. */
+    private TestCaseRunResult judge(TestCaseEntity tc,
+                                    HarnessOutputParser.CaseOutcome run,
+                                    boolean oomKilled,
+                                    long perTestTimeoutMs,
+                                    long wallLimitMs) {
+        String stdout = run.stdout();
+        String stderr = run.stderr();
+        int exit = run.exitCode();
+        long execMs = run.durationMs();
+        long cpuMs = run.cpuTimeMs();
+        // `timeout` reports 124 or the KILL status; the kill fires on a whole-second
+        // boundary, so the exact limit is checked against the measured time — CPU time
+        // when enabled and the sandbox could measure it, wall time otherwise.
+        boolean killed = exit == 124 || (exit == 137 && execMs >= wallLimitMs);
+        boolean timedOut = killed
+                || (properties.isCpuTimeLimits() && cpuMs >= 0 ? cpuMs : execMs) >= perTestTimeoutMs;
+        int memMb = run.peakMemoryKb() > 0 ? (int) ((run.peakMemoryKb() + 1023) / 1024) : 0;
+        // The OOM flag is per sandbox (Docker's OOMKilled, the cgroup's oom_kill count),
+        // so attribute it to the SIGKILLed cases.
+        boolean oom = !timedOut && exit == 137 && oomKilled;
+        // Checked first: a print loop is killed by the driver's file size limit, but
+        // without it would fill the tmpfs or run into the time limit instead.
+        boolean outputLimit = run.outputLimitExceeded();
+
+        String actualOutput = truncate(stdout, properties.getOutputLimitChars());
+        String errorMessage = null;
+        boolean passed = false;
+
+        if (outputLimit) {
+            errorMessage = "Output limit exceeded (" + properties.getOutputLimitBytes() + " bytes)";
+        } else if (timedOut) {
+            errorMessage = "Time limit exceeded (" + perTestTimeoutMs + " ms)";
+        } else if (oom) {
+            errorMessage = "Memory limit exceeded";
+        } else if (exit != 0) {
+            errorMessage = truncate(stderr.isEmpty() ? "Exit code " + exit : stderr,
+                    properties.getOutputLimitChars());
+        } else {
+            passed = run.outputMatches();
+        }
+
+        return TestCaseRunResult.builder()
+                .testCaseId(tc.getId())
+                .passed(passed)
+                .actualOutput(actualOutput)
+                .errorMessage(errorMessage)
+                .executionTimeMs(execMs)
+                .cpuTimeMs(cpuMs >= 0 ? cpuMs : null)
+                .memoryUsedMb(memMb)
+                .timedOut(timedOut && !outputLimit)
+                .outOfMemory(oom && !outputLimit)
+                .outputLimitExceeded(outputLimit)
+                .build();
+    }
+
+    private static String truncate(String s, int max) {
+        if (s == null) return null;
+        return s.length() <= max ? s : s.substring(0, max);
+    }
+}
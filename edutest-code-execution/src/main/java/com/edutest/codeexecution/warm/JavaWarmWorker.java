@@ -0,0 +1,223 @@
+package com.edutest.codeexecution.warm;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.FileDescriptor;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+/**
+ * Warm worker for Java test runs: one JVM runs {@code main} of the compiled student class
+ * once per test case, so JVM start-up and JDK class loading are paid once per batch
+ * instead of once per case.
+ *
+ * <p><b>Runs inside the sandbox</b>, on the runner image's JDK — it is staged there as a
+ * class file and must depend on nothing but {@code java.base} and {@code java.management}.
+ * Keep it a single class (no nested, anonymous or record types): only this one class file
+ * is staged.
+ *
+ * <p>Arguments: {@code <class dir> <class name> <input dir> <harness dir> <first case>
+ * <case count> <wall limit ms> <output cap bytes>}. Per case the worker
+ * <ul>
+ *   <li>loads the student class in a fresh class loader (static state never leaks between
+ *       cases) and calls {@code main} on a new thread, in a thread group of its own, with
+ *       {@code System.in/out/err} redirected to the case's files;</li>
+ *   <li>like a cold {@code java} run, which exits only once its non-daemon threads have
+ *       ended, counts the case finished when no non-daemon thread of the group is alive —
+ *       so a thread started by {@code main} still prints into this case's output;</li>
+ *   <li>writes {@code <harness dir>/cur} ({@code <index> <start uptime ms>}) while the case
+ *       runs, then the framed record on its real stdout — the format of
+ *       {@code BatchTestHarness} — and {@code <harness dir>/next};</li>
+ *   <li>on timeout (exit 124 — some non-daemon thread outlived the wall limit), an
+ *       {@link Error}, or daemon threads still running after the case, reports the case and
+ *       halts, because threads can't be stopped, would write into the next case, and the heap
+ *       may be unusable; the harness restarts the worker at {@code next}. If the JVM dies inside a case ({@code System.exit}, output
+ *       file limit), {@code cur} is left behind and the harness reports the case itself.</li>
+ * </ul>
+ * CPU time is that of the {@code main} thread; peak memory is not measured per case.
+ */
+public final class JavaWarmWorker {
+
+    private static final String RECORD_HEADER = "@@EDUTEST-CASE";
+    private static final long MAIN_STACK_BYTES = 8L * 1024 * 1024;
+
+    private static volatile PrintStream caseOut;
+    private static volatile PrintStream caseErr;
+    private static volatile int caseExit;
+    private static volatile boolean caseFatal;
+    private static volatile long caseCpuNanos;
+    private static volatile boolean caseStrayThreads;
+
+    private JavaWarmWorker() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        URL classDir = Path.of(args[0]).toUri().toURL();
+        String className = args[1];
+        Path inputDir = Path.of(args[2]);
+        Path harnessDir = Path.of(args[3]);
+        int first = Integer.parseInt(args[4]);
+        int count = Integer.parseInt(args[5]);
+        long wallLimitMs = Long.parseLong(args[6]);
+        long cap = Long.parseLong(args[7]);
+
+        OutputStream records = new FileOutputStream(FileDescriptor.out);
+        // System.exit() from student code: keep what the case printed for the harness to report.
+        Runtime.getRuntime().addShutdownHook(new Thread(JavaWarmWorker::flushCase));
+
+        for (int i = first; i < count; i++) {
+            Path out = harnessDir.resolve(i + ".out");
+            Path err = harnessDir.resolve(i + ".err");
+            Files.writeString(harnessDir.resolve("cur"), i + " " + uptimeMs());
+
+            long start = System.nanoTime();
+            boolean timedOut = runCase(classDir, className, inputDir.resolve(String.valueOf(i)), out, err,
+                    wallLimitMs);
+            long wallMs = (System.nanoTime() - start) / 1_000_000;
+
+            writeRecord(records, i, timedOut ? 124 : caseExit, wallMs, timedOut ? -1 : caseCpuNanos, out, err, cap);
+            Files.writeString(harnessDir.resolve("next"), String.valueOf(i + 1));
+            Files.delete(harnessDir.resolve("cur"));
+            Files.deleteIfExists(out);
+            Files.deleteIfExists(err);
+            if (timedOut || caseFatal || caseStrayThreads) {
+                Runtime.getRuntime().halt(0);
+            }
+        }
+        // Threads the student left running must not keep the JVM alive.
+        Runtime.getRuntime().halt(0);
+    }
+
+    /** Returns whether the case's non-daemon threads outlived the wall limit. */
+    private static boolean runCase(URL classDir, String className, Path input, Path out, Path err,
+                                   long wallLimitMs) throws Exception {
+        caseExit = 0;
+        caseFatal = false;
+        caseCpuNanos = -1;
+        caseStrayThreads = false;
+        caseOut = new PrintStream(new BufferedOutputStream(new FileOutputStream(out.toFile())), false,
+                StandardCharsets.UTF_8);
+        caseErr = new PrintStream(new FileOutputStream(err.toFile()), true, StandardCharsets.UTF_8);
+        System.setIn(new BufferedInputStream(new FileInputStream(input.toFile())));
+        System.setOut(caseOut);
+        System.setErr(caseErr);
+
+        URLClassLoader loader = new URLClassLoader(new URL[]{classDir}, ClassLoader.getPlatformClassLoader());
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        ThreadGroup group = new ThreadGroup("case");
+        long deadline = System.nanoTime() + wallLimitMs * 1_000_000;
+        Thread main = new Thread(group, () -> {
+            try {
+                Method entry = loader.loadClass(className).getMethod("main", String[].class);
+                entry.invoke(null, (Object) new String[0]);
+            } catch (InvocationTargetException e) {
+                fail(e.getCause());
+            } catch (Throwable e) {
+                fail(e);
+            } finally {
+                caseCpuNanos = threads.isCurrentThreadCpuTimeSupported() ? threads.getCurrentThreadCpuTime() : -1;
+            }
+        }, "main", MAIN_STACK_BYTES);
+        main.setContextClassLoader(loader);
+        main.start();
+        boolean timedOut = !awaitNonDaemonThreads(group, deadline);
+        caseStrayThreads = !timedOut && group.activeCount() > 0;
+
+        flushCase();
+        System.in.close();
+        if (!timedOut) {
+            loader.close();
+        }
+        return timedOut;
+    }
+
+    /** Whether every non-daemon thread of the group ended before {@code deadlineNanos}. */
+    private static boolean awaitNonDaemonThreads(ThreadGroup group, long deadlineNanos) throws InterruptedException {
+        while (true) {
+            Thread[] threads = new Thread[group.activeCount() + 16];
+            int count = group.enumerate(threads, true);
+            Thread pending = null;
+            for (int i = 0; i < count && pending == null; i++) {
+                if (threads[i].isAlive() && !threads[i].isDaemon()) {
+                    pending = threads[i];
+                }
+            }
+            if (pending == null) {
+                return true;
+            }
+            long leftNanos = deadlineNanos - System.nanoTime();
+            if (leftNanos <= 0) {
+                return false;
+            }
+            pending.join((leftNanos + 999_999) / 1_000_000);
+        }
+    }
+
+    /** Reports an uncaught throwable the way the JVM's default handler would. */
+    private static void fail(Throwable e) {
+        // Drop the reflective call and this worker's frames below the student's main.
+        StackTraceElement[] trace = e.getStackTrace();
+        for (int i = 0; i < trace.length; i++) {
+            if (trace[i].getClassName().startsWith("jdk.internal.reflect.")) {
+                e.setStackTrace(Arrays.copyOf(trace, i));
+                break;
+            }
+        }
+        caseErr.print("Exception in thread \"main\" ");
+        e.printStackTrace(caseErr);
+        caseExit = 1;
+        caseFatal = e instanceof Error;
+    }
+
+    private static void flushCase() {
+        PrintStream out = caseOut;
+        PrintStream err = caseErr;
+        if (out != null) {
+            out.flush();
+        }
+        if (err != null) {
+            err.flush();
+        }
+    }
+
+    private static void writeRecord(OutputStream records, int index, int exit, long wallMs, long cpuNanos,
+                                    Path out, Path err, long cap) throws IOException {
+        long outBytes = Math.min(Files.size(out), cap);
+        long errBytes = Math.min(Files.size(err), cap);
+        String cpu = cpuNanos >= 0
+                ? "0m%d.%03ds 0m0.000s".formatted(cpuNanos / 1_000_000_000, cpuNanos / 1_000_000 % 1_000)
+                : "- -";
+        String header = "%s %d %d %d %s - %d %d\n".formatted(
+                RECORD_HEADER, index, exit, wallMs, cpu, outBytes, errBytes);
+        records.write(header.getBytes(StandardCharsets.US_ASCII));
+        copy(out, records, outBytes);
+        copy(err, records, errBytes);
+        records.flush();
+    }
+
+    private static void copy(Path file, OutputStream target, long bytes) throws IOException {
+        try (InputStream in = Files.newInputStream(file)) {
+            target.write(in.readNBytes((int) bytes));
+        }
+    }
+
+    /** Same clock as the harness driver ({@code /proc/uptime}), so it can time a case the JVM died in. */
+    private static long uptimeMs() throws IOException {
+        String uptime = Files.readString(Path.of("/proc/uptime")).split(" ")[0];
+        return Math.round(Double.parseDouble(uptime) * 1000);
+    }
+}
@@ -0,0 +1,181 @@
+package com.edutest.codeexecution.warm;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+/**
+ * Files and entry points of the warm workers, staged under {@link #DIR} next to the source
+ * when {@code coding.execution.warm-runtimes} is on. Each worker runs every remaining test
+ * case in one long-lived process and writes the same framed records as the per-case
+ * driver of {@code BatchTestHarness}, which supervises it. It gets, after its own
+ * arguments: {@code <input dir> <harness dir> <first case> <case count> <wall limit ms>
+ * <output cap bytes>}.
+ */
+public final class WarmWorkers {
+
+    /** Sandbox directory holding the worker files; not on the student's class/module path. */
+    public static final String DIR = "/workspace/.edutest-warm";
+
+    public static final String JAVA_WORKER_CLASS = JavaWarmWorker.class.getName();
+
+    public static final String PYTHON_WORKER = DIR + "/worker.py";
+
+    /**
+     * Compiles the student module once, then forks per case: the child gets the case's files
+     * as fd 0/1/2 and runs the code object as {@code __main__}; the parent waits with the
+     * wall limit (pidfd where available) and takes exit status, CPU time and peak RSS from
+     * {@code wait4}. Imports made by the worker are shared with every child for free.
+     * Before its {@code os._exit} the child joins non-daemon threads, as interpreter shutdown
+     * after {@code python main.py} does, so their output is kept; the wall limit still applies.
+     * A crash of the worker itself leaves {@code cur} behind, like {@link JavaWarmWorker}.
+     */
+    private static final String PYTHON_WORKER_SOURCE = """
+            import os, select, signal, sys, time, traceback
+
+            HEADER = b"@@EDUTEST-CASE"
+
+            def uptime_ms():
+                with open("/proc/uptime") as f:
+                    return int(float(f.read().split()[0]) * 1000)
+
+            def times(seconds):
+                return "%dm%.3fs" % (int(seconds) // 60, seconds - int(seconds) // 60 * 60)
+
+            def wait(pid, wall_ms):
+                deadline = time.monotonic() + wall_ms / 1000.0
+                try:
+                    fd = os.pidfd_open(pid)
+                except (AttributeError, OSError):
+                    fd = None
+                while True:
+                    done, status, usage = os.wait4(pid, os.WNOHANG)
+                    if done:
+                        break
+                    left = deadline - time.monotonic()
+                    if left <= 0:
+                        os.kill(pid, signal.SIGKILL)
+                        _, status, usage = os.wait4(pid, 0)
+                        if fd is not None:
+                            os.close(fd)
+                        return 124, usage
+                    if fd is not None:
+                        select.select([fd], [], [], left)
+                    else:
+                        time.sleep(min(left, 0.002))
+                if fd is not None:
+                    os.close(fd)
+                code = os.waitstatus_to_exitcode(status)
+                return (code if code >= 0 else 128 - code), usage
+
+            def join_threads():
+                threading = sys.modules.get("threading")
+                if threading is not None:
+                    threading._shutdown()
+
+            def run_child(source, code, stdin, out, err):
+                status = 1
+                try:
+                    for fd, path, flags in ((0, stdin, os.O_RDONLY),
+                                            (1, out, os.O_WRONLY | os.O_CREAT | os.O_TRUNC),
+                                            (2, err, os.O_WRONLY | os.O_CREAT | os.O_TRUNC)):
+                        opened = os.open(path, flags, 0o644)
+                        os.dup2(opened, fd)
+                        os.close(opened)
+                    sys.argv = [source]
+                    sys.path[0] = os.path.dirname(source)
+                    if code is None:
+                        code = compile(open(source, "rb").read(), source, "exec")
+                    exec(code, {"__name__": "__main__", "__file__": source, "__builtins__": __builtins__})
+                    status = 0
+                except SystemExit as e:
+                    if e.code is None:
+                        status = 0
+                    elif isinstance(e.code, int):
+                        status = e.code & 0xff
+                    else:
+                        print(e.code, file=sys.stderr)
+                        status = 1
+                except BaseException as e:
+                    # Skip this worker's frame so the traceback looks like `python main.py`'s.
+                    traceback.print_exception(type(e), e, e.__traceback__.tb_next)
+                finally:
+                    try:
+                        join_threads()
+                    finally:
+                        try:
+                            sys.stdout.flush()
+                            sys.stderr.flush()
+                        finally:
+                            os._exit(status)
+
+            def main():
+                source, in_dir, h_dir = sys.argv[1], sys.argv[2], sys.argv[3]
+                first, count, wall_ms, cap = (int(a) for a in sys.argv[4:8])
+                try:
+                    code = compile(open(source, "rb").read(), source, "exec")
+                except SyntaxError:
+                    code = None  # every case reports it, from the child
+                records = sys.stdout.buffer
+                for i in range(first, count):
+                    out = os.path.join(h_dir, "%d.out" % i)
+                    err = os.path.join(h_dir, "%d.err" % i)
+                    with open(os.path.join(h_dir, "cur"), "w") as f:
+                        f.write("%d %d" % (i, uptime_ms()))
+                    records.flush()
+                    start = time.monotonic()
+                    pid = os.fork()
+                    if pid == 0:
+                        run_child(source, code, os.path.join(in_dir, str(i)), out, err)
+                    exit_code, usage = wait(pid, wall_ms)
+                    wall = int((time.monotonic() - start) * 1000)
+                    ob = min(os.path.getsize(out), cap) if os.path.exists(out) else 0
+                    eb = min(os.path.getsize(err), cap) if os.path.exists(err) else 0
+                    records.write(b"%s %d %d %d %s %s %d %d %d\\n" % (
+                        HEADER, i, exit_code, wall, times(usage.ru_utime).encode(),
+                        times(usage.ru_stime).encode(), usage.ru_maxrss, ob, eb))
+                    for path, size in ((out, ob), (err, eb)):
+                        if size:
+                            with open(path, "rb") as f:
+                                records.write(f.read(size))
+                    records.flush()
+                    with open(os.path.join(h_dir, "next"), "w") as f:
+                        f.write(str(i + 1))
+                    os.remove(os.path.join(h_dir, "cur"))
+                    for path in (out, err):
+                        if os.path.exists(path):
+                            os.remove(path)
+
+            main()
+            """;
+
+    private static final Map<String, byte[]> JAVA_FILES = loadJavaFiles();
+    private static final Map<String, byte[]> PYTHON_FILES =
+            Map.of(PYTHON_WORKER, PYTHON_WORKER_SOURCE.getBytes(StandardCharsets.UTF_8));
+
+    private WarmWorkers() {
+    }
+
+    /** Worker files by sandbox path, for the runners' {@code warmWorkerFiles}. */
+    public static Map<String, byte[]> javaFiles() {
+        return JAVA_FILES;
+    }
+
+    public static Map<String, byte[]> pythonFiles() {
+        return PYTHON_FILES;
+    }
+
+    private static Map<String, byte[]> loadJavaFiles() {
+        String classFile = JAVA_WORKER_CLASS.replace('.', '/') + ".class";
+        try (InputStream in = JavaWarmWorker.class.getClassLoader().getResourceAsStream(classFile)) {
+            if (in == null) {
+                throw new IllegalStateException("Warm worker class not found: " + classFile);
+            }
+            return Map.of(DIR + "/" + classFile, in.readAllBytes());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -159,6 +159,7 @@ class CodeSubmissionResultMapperTest {
                 .actualOutput("4")
                 .errorMessage("expected 5")
                 .executionTimeMs(123L)
+                .cpuTimeMs(98L)
                 .memoryUsedMb(42)
                 .timedOut(false)
                 .outOfMemory(false)
@@ -175,6 +176,7 @@ class CodeSubmissionResultMapperTest {
         assertThat(entity.getActualOutput()).isEqualTo("4");
         assertThat(entity.getErrorMessage()).isEqualTo("expected 5");
         assertThat(entity.getExecutionTimeMs()).isEqualTo(123L);
+        assertThat(entity.getCpuTimeMs()).isEqualTo(98L);
         assertThat(entity.getMemoryUsedMb()).isEqualTo(42);
     }
 
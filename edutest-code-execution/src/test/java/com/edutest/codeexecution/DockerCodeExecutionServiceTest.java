@@ -1,6 +1,10 @@
 package com.edutest.codeexecution;
 
-import com.edutest.codeexecution.docker.DockerCodeExecutor;
+import com.edutest.codeexecution.cache.ExecutionResultCache;
+import com.edutest.codeexecution.config.CodeExecutionProperties;
+import com.edutest.codeexecution.sandbox.SandboxCodeExecutor;
+import com.edutest.dto.AnswerDto;
+import com.edutest.dto.TestCaseResultDto;
 import com.edutest.persistance.entity.assigment.coding.CodingAssignmentEntity;
 import com.edutest.persistance.entity.assigment.coding.TestCaseEntity;
 import com.edutest.persistance.entity.code.CodeSubmissionEntity;
@@ -11,16 +15,18 @@ import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Consumer;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -28,22 +34,33 @@ import static org.mockito.Mockito.when;
 class DockerCodeExecutionServiceTest {
 
     @Mock
-    private DockerCodeExecutor executor;
+    private SandboxCodeExecutor executor;
 
     @Mock
     private CodeSubmissionResultMapper mapper;
 
-    @InjectMocks
     private DockerCodeExecutionService service;
 
     private CodingAssignmentEntity assignment;
     private CodeSubmissionEntity submission;
     private TestCaseEntity tc1;
+    private TestCaseEntity tc2;
 
     @BeforeEach
     void setUp() {
+        service = new DockerCodeExecutionService(
+                executor, mapper, new ExecutionResultCache(new CodeExecutionProperties()));
+
         tc1 = new TestCaseEntity();
         tc1.setId(1L);
+        tc1.setIsPublic(true);
+        tc1.setInputData("1");
+        tc1.setExpectedOutput("1");
+        tc2 = new TestCaseEntity();
+        tc2.setId(2L);
+        tc2.setIsPublic(false);
+        tc2.setInputData("2");
+        tc2.setExpectedOutput("2");
 
         assignment = new CodingAssignmentEntity();
         assignment.setPoints(10);
@@ -63,7 +80,7 @@ class DockerCodeExecutionServiceTest {
     @DisplayName("Forwards submission fields and assignment limits to the executor")
     void forwardsArgsToExecutor() {
         ExecutionReport report = stubReport();
-        when(executor.execute(any(), any(), any(), any(), any())).thenReturn(report);
+        when(executor.execute(any(), any(), any(), any(), any(), any(), anyBoolean())).thenReturn(report);
 
         service.executeAndPersist(submission);
 
@@ -72,14 +89,16 @@ class DockerCodeExecutionServiceTest {
                 eq("python"),
                 eq(assignment.getTestCases()),
                 eq(2_000),
-                eq(128));
+                eq(128),
+                any(),
+                eq(false));
     }
 
     @Test
     @DisplayName("Calls mapper with the submission, assignment and executor's report")
     void callsMapperWithReport() {
         ExecutionReport report = stubReport();
-        when(executor.execute(any(), any(), any(), any(), any())).thenReturn(report);
+        when(executor.execute(any(), any(), any(), any(), any(), any(), anyBoolean())).thenReturn(report);
 
         service.executeAndPersist(submission);
 
@@ -93,7 +112,7 @@ class DockerCodeExecutionServiceTest {
     void passesNullLimits() {
         assignment.setTimeLimitMs(null);
         assignment.setMemoryLimitMb(null);
-        when(executor.execute(any(), any(), any(), any(), any())).thenReturn(stubReport());
+        when(executor.execute(any(), any(), any(), any(), any(), any(), anyBoolean())).thenReturn(stubReport());
 
         service.executeAndPersist(submission);
 
@@ -102,7 +121,136 @@ class DockerCodeExecutionServiceTest {
                 eq("python"),
                 eq(assignment.getTestCases()),
                 eq((Integer) null),
-                eq((Integer) null));
+                eq((Integer) null),
+                any(),
+                eq(false));
+    }
+
+    @Test
+    @DisplayName("Submit after an unchanged preview executes only the test cases not run yet")
+    void submitReusesPreviewResults() {
+        assignment.setTestCases(new ArrayList<>(List.of(tc1, tc2)));
+        when(executor.execute(any(), any(), eq(List.of(tc1)), any(), any(), any(), anyBoolean()))
+                .thenReturn(reportOf(passed(1L)));
+        when(executor.execute(any(), any(), eq(List.of(tc2)), any(), any(), any(), anyBoolean()))
+                .thenReturn(reportOf(runtimeError(2L)));
+
+        service.runPreview(submission, partial -> { });
+        service.executeAndPersist(submission);
+
+        ArgumentCaptor<ExecutionReport> reportCaptor = ArgumentCaptor.forClass(ExecutionReport.class);
+        verify(mapper).apply(eq(submission), eq(assignment), reportCaptor.capture());
+        ExecutionReport merged = reportCaptor.getValue();
+        assertThat(merged.getTestCaseResults()).extracting(TestCaseRunResult::getTestCaseId).containsExactly(1L, 2L);
+        assertThat(merged.getExecutionStatus()).isEqualTo(ExecutionStatusEnum.RUNTIME_ERROR);
+        assertThat(merged.getCompilationStatus()).isEqualTo(CompilationStatusEnum.SUCCESS);
+        verify(executor, times(2)).execute(any(), any(), any(), any(), any(), any(), anyBoolean());
+    }
+
+    @Test
+    @DisplayName("Preview reports the results so far and honours the assignment's stop-on-first-failure")
+    void previewProgressAndStop() {
+        tc2.setIsPublic(true);
+        assignment.setTestCases(new ArrayList<>(List.of(tc1, tc2)));
+        assignment.setStopOnFirstFailure(true);
+        when(executor.execute(any(), any(), any(), any(), any(), any(), eq(true))).thenAnswer(invocation -> {
+            Consumer<TestCaseRunResult> onResult = invocation.getArgument(5);
+            onResult.accept(runtimeError(1L));
+            return reportOf(runtimeError(1L));
+        });
+        List<AnswerDto> progress = new ArrayList<>();
+
+        AnswerDto preview = service.runPreview(submission, progress::add);
+
+        assertThat(progress).singleElement().satisfies(partial -> {
+            assertThat(partial.getTestCaseResults()).extracting(TestCaseResultDto::getTestCaseId).containsExactly(1L);
+            assertThat(partial.getTestCasesTotal()).isEqualTo(2);
+            assertThat(partial.getExecutionStatus()).isNull();
+        });
+        assertThat(preview.getTestCaseResults()).hasSize(1);
+        assertThat(preview.getTestCasesTotal()).isEqualTo(2);
+
+        // Memoized now: the failing first case is replayed and the second is never run.
+        progress.clear();
+        service.runPreview(submission, progress::add);
+        assertThat(progress).hasSize(1);
+        verify(executor, times(1)).execute(any(), any(), any(), any(), any(), any(), anyBoolean());
+    }
+
+    @Test
+    @DisplayName("Memoized verdicts after a case still to run are reported only once the fresh run gets there")
+    void previewReportsMemoizedInOrder() {
+        TestCaseEntity tc3 = new TestCaseEntity();
+        tc3.setId(3L);
+        tc3.setIsPublic(true);
+        tc3.setInputData("3");
+        tc3.setExpectedOutput("3");
+        tc2.setIsPublic(true);
+        assignment.setTestCases(new ArrayList<>(List.of(tc1, tc2, tc3)));
+        assignment.setStopOnFirstFailure(true);
+        when(executor.execute(any(), any(), eq(List.of(tc1, tc2, tc3)), any(), any(), any(), eq(true)))
+                .thenReturn(reportOf(passed(1L), passed(2L), passed(3L)));
+        service.runPreview(submission, partial -> { });
+
+        // Only the edited second case runs again, and now fails.
+        tc2.setExpectedOutput("22");
+        when(executor.execute(any(), any(), eq(List.of(tc2)), any(), any(), any(), eq(true))).thenAnswer(invocation -> {
+            Consumer<TestCaseRunResult> onResult = invocation.getArgument(5);
+            onResult.accept(runtimeError(2L));
+            return reportOf(runtimeError(2L));
+        });
+        List<List<Long>> progress = new ArrayList<>();
+
+        AnswerDto preview = service.runPreview(submission, partial -> progress.add(
+                partial.getTestCaseResults().stream().map(TestCaseResultDto::getTestCaseId).toList()));
+
+        assertThat(progress).containsExactly(List.of(1L), List.of(1L, 2L));
+        assertThat(preview.getTestCaseResults()).extracting(TestCaseResultDto::getTestCaseId).containsExactly(1L, 2L);
+        assertThat(preview.getExecutionStatus()).isEqualTo(ExecutionStatusEnum.RUNTIME_ERROR.name());
+    }
+
+    @Test
+    @DisplayName("Fully memoized run does not touch the executor; edited test case is re-run")
+    void memoizedUntilTestCaseChanges() {
+        when(executor.execute(any(), any(), any(), any(), any(), any(), anyBoolean())).thenReturn(reportOf(passed(1L)));
+
+        service.executeAndPersist(submission);
+        service.executeAndPersist(submission);
+        verify(executor, times(1)).execute(any(), any(), any(), any(), any(), any(), anyBoolean());
+
+        tc1.setExpectedOutput("2");
+        service.executeAndPersist(submission);
+        verify(executor, times(2)).execute(any(), any(), any(), any(), any(), any(), anyBoolean());
+    }
+
+    @Test
+    @DisplayName("Compile failures are memoized per source")
+    void compileFailureMemoized() {
+        when(executor.execute(any(), any(), any(), any(), any(), any(), anyBoolean()))
+                .thenReturn(ExecutionReport.compilationFailed("syntax error"));
+
+        service.executeAndPersist(submission);
+        service.executeAndPersist(submission);
+
+        verify(executor, times(1)).execute(any(), any(), any(), any(), any(), any(), anyBoolean());
+    }
+
+    private static TestCaseRunResult passed(Long id) {
+        return TestCaseRunResult.builder().testCaseId(id).passed(true).actualOutput("1").build();
+    }
+
+    private static TestCaseRunResult runtimeError(Long id) {
+        return TestCaseRunResult.builder().testCaseId(id).passed(false).errorMessage("boom").build();
+    }
+
+    private static ExecutionReport reportOf(TestCaseRunResult... results) {
+        return ExecutionReport.builder()
+                .compilationStatus(CompilationStatusEnum.SUCCESS)
+                .executionStatus(ExecutionStatusEnum.SUCCESS)
+                .testCaseResults(List.of(results))
+                .maxExecutionTimeMs(0L)
+                .maxMemoryUsedMb(0)
+                .build();
     }
 
     private static ExecutionReport stubReport() {
@@ -0,0 +1,243 @@
+package com.edutest.codeexecution.async;
+
+import com.edutest.codeexecution.config.CodeExecutionProperties;
+import com.edutest.service.codeexecution.ExecutionPriority;
+import com.edutest.service.codeexecution.ExecutionQueueFullException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PriorityExecutionSchedulerTest {
+
+    private CodeExecutionProperties properties;
+    private PriorityExecutionScheduler scheduler;
+    private final CountDownLatch release = new CountDownLatch(1);
+    private final List<String> order = new CopyOnWriteArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        properties = new CodeExecutionProperties();
+        properties.getScheduler().setMaxConcurrentExecutions(1);
+        properties.getScheduler().setShutdownAwaitSeconds(5);
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        release.countDown();
+        scheduler.shutdown();
+    }
+
+    @Test
+    @DisplayName("Submit grading runs before previews, previews before teacher re-runs")
+    void servesByPriority() throws Exception {
+        scheduler = new PriorityExecutionScheduler(properties);
+        CompletableFuture<Void> blocker = blockWorker();
+
+        scheduler.submit(ExecutionPriority.TEACHER_RERUN, 1L, record("rerun"));
+        scheduler.submit(ExecutionPriority.PREVIEW, 2L, record("preview"));
+        CompletableFuture<String> last = scheduler.submit(ExecutionPriority.SUBMIT, 3L, record("submit"));
+        release.countDown();
+
+        blocker.get(5, TimeUnit.SECONDS);
+        last.get(5, TimeUnit.SECONDS);
+        awaitCompleted(4);
+        assertThat(order).containsExactly("submit", "preview", "rerun");
+    }
+
+    @Test
+    @DisplayName("Within a priority class students are served round-robin")
+    void roundRobinPerStudent() throws Exception {
+        properties.getScheduler().setMaxQueuedPreviewsPerStudent(10);
+        scheduler = new PriorityExecutionScheduler(properties);
+        blockWorker();
+
+        scheduler.submit(ExecutionPriority.PREVIEW, 1L, record("a1"));
+        scheduler.submit(ExecutionPriority.PREVIEW, 1L, record("a2"));
+        scheduler.submit(ExecutionPriority.PREVIEW, 1L, record("a3"));
+        scheduler.submit(ExecutionPriority.PREVIEW, 2L, record("b1"));
+        scheduler.submit(ExecutionPriority.PREVIEW, 3L, record("c1"));
+        release.countDown();
+
+        awaitCompleted(6);
+        assertThat(order).containsExactly("a1", "b1", "c1", "a2", "a3");
+    }
+
+    @Test
+    @DisplayName("Full class queue and per-student preview cap reject on the caller's thread")
+    void rejectsEarly() {
+        properties.getScheduler().setPreviewQueueCapacity(3);
+        properties.getScheduler().setMaxQueuedPreviewsPerStudent(2);
+        scheduler = new PriorityExecutionScheduler(properties);
+        blockWorker();
+
+        scheduler.submit(ExecutionPriority.PREVIEW, 1L, record("a1"));
+        scheduler.submit(ExecutionPriority.PREVIEW, 1L, record("a2"));
+        assertThatThrownBy(() -> scheduler.submit(ExecutionPriority.PREVIEW, 1L, record("a3")))
+                .isInstanceOf(ExecutionQueueFullException.class)
+                .hasMessageContaining("still queued");
+
+        scheduler.submit(ExecutionPriority.PREVIEW, 2L, record("b1"));
+        assertThatThrownBy(() -> scheduler.submit(ExecutionPriority.PREVIEW, 3L, record("c1")))
+                .isInstanceOf(ExecutionQueueFullException.class)
+                .hasMessageContaining("Too many");
+
+        PriorityExecutionScheduler.ClassStats preview = scheduler.stats().classes().get(ExecutionPriority.PREVIEW);
+        assertThat(preview.queued()).isEqualTo(3);
+        assertThat(preview.rejected()).isEqualTo(2);
+        assertThat(order).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Cancelling a queued task withdraws it and frees its place in the student's share")
+    void cancelWithdraws() {
+        properties.getScheduler().setMaxQueuedPreviewsPerStudent(2);
+        scheduler = new PriorityExecutionScheduler(properties);
+        blockWorker();
+
+        CompletableFuture<String> first = scheduler.submit(ExecutionPriority.PREVIEW, 1L, record("a1"));
+        scheduler.submit(ExecutionPriority.PREVIEW, 1L, record("a2"));
+        first.cancel(false);
+        scheduler.submit(ExecutionPriority.PREVIEW, 1L, record("a3"));
+        assertThat(scheduler.stats().classes().get(ExecutionPriority.PREVIEW).queued()).isEqualTo(2);
+        release.countDown();
+
+        awaitCompleted(3);
+        assertThat(order).containsExactly("a2", "a3");
+    }
+
+    @Test
+    @DisplayName("Task failures complete the future exceptionally and are counted")
+    void failuresCounted() {
+        scheduler = new PriorityExecutionScheduler(properties);
+
+        CompletableFuture<Object> future = scheduler.submit(ExecutionPriority.SUBMIT, 1L, () -> {
+            throw new IllegalStateException("boom");
+        });
+
+        assertThatThrownBy(() -> future.get(5, TimeUnit.SECONDS)).hasCauseInstanceOf(IllegalStateException.class);
+        awaitCompleted(1);
+        assertThat(scheduler.stats().classes().get(ExecutionPriority.SUBMIT).failed()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Fan-out from inside a task completes on a single worker instead of deadlocking")
+    void nestedFanOutRunsOnCallersSlot() throws Exception {
+        scheduler = new PriorityExecutionScheduler(properties);
+
+        CompletableFuture<List<String>> job = scheduler.submit(ExecutionPriority.SUBMIT, 1L, () ->
+                scheduler.invokeAll(ExecutionPriority.SUBMIT, 1L, List.of(record("a"), record("b"), record("c")))
+                        .stream().map(CompletableFuture::join).toList());
+
+        assertThat(job.get(5, TimeUnit.SECONDS)).containsExactly("a", "b", "c");
+        awaitCompleted(4);
+        assertThat(scheduler.stats().classes().get(ExecutionPriority.SUBMIT).queued()).isZero();
+    }
+
+    @Test
+    @DisplayName("Fan-out overflowing the class queue runs the overflow inline instead of rejecting")
+    void fanOutOverflowRunsInline() throws Exception {
+        properties.getScheduler().setSubmitQueueCapacity(1);
+        scheduler = new PriorityExecutionScheduler(properties);
+
+        CompletableFuture<List<String>> job = scheduler.submit(ExecutionPriority.SUBMIT, 1L, () ->
+                scheduler.invokeAll(ExecutionPriority.SUBMIT, 1L, List.of(record("a"), record("b")))
+                        .stream().map(CompletableFuture::join).toList());
+
+        assertThat(job.get(5, TimeUnit.SECONDS)).containsExactly("a", "b");
+        assertThat(scheduler.stats().classes().get(ExecutionPriority.SUBMIT).rejected()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Fan-out from a non-worker thread waits for a free slot and counts as active")
+    void inlineFanOutTakesSlots() throws Exception {
+        properties.getScheduler().setSubmitQueueCapacity(1);
+        scheduler = new PriorityExecutionScheduler(properties);
+        blockWorker();
+
+        CountDownLatch running = new CountDownLatch(1);
+        CountDownLatch finish = new CountDownLatch(1);
+        CompletableFuture<List<CompletableFuture<String>>> fanOut = CompletableFuture.supplyAsync(() ->
+                scheduler.invokeAll(ExecutionPriority.SUBMIT, 1L, List.of(record("queued"), () -> {
+                    running.countDown();
+                    finish.await(5, TimeUnit.SECONDS);
+                    return record("overflow").call();
+                })));
+
+        // The only slot is taken: the overflow task must not start beside the worker.
+        assertThat(running.await(200, TimeUnit.MILLISECONDS)).isFalse();
+        assertThat(order).isEmpty();
+        assertThat(scheduler.stats().active()).isEqualTo(1);
+
+        release.countDown();
+        assertThat(running.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(scheduler.stats().active()).isEqualTo(1);
+        finish.countDown();
+
+        assertThat(fanOut.get(5, TimeUnit.SECONDS)).allSatisfy(f -> assertThat(f).isCompleted());
+        awaitCompleted(3);
+        assertThat(order).containsExactlyInAnyOrder("queued", "overflow");
+    }
+
+    @Test
+    @DisplayName("A re-run fan-out on a worker runs queued previews before its next own task")
+    void lowPriorityFanOutYieldsToQueuedWork() throws Exception {
+        scheduler = new PriorityExecutionScheduler(properties);
+
+        CompletableFuture<List<CompletableFuture<String>>> job = scheduler.submit(ExecutionPriority.TEACHER_RERUN, null,
+                () -> scheduler.invokeAll(ExecutionPriority.TEACHER_RERUN, null, List.of(() -> {
+                    scheduler.submit(ExecutionPriority.PREVIEW, 2L, record("preview"));
+                    return record("r1").call();
+                }, record("r2"))));
+
+        job.get(5, TimeUnit.SECONDS);
+        awaitCompleted(4);
+        assertThat(order).containsExactly("r1", "preview", "r2");
+    }
+
+    /** Occupies the single worker until {@link #release} opens. */
+    private CompletableFuture<Void> blockWorker() {
+        CountDownLatch started = new CountDownLatch(1);
+        CompletableFuture<Void> blocker = scheduler.submit(ExecutionPriority.SUBMIT, 0L, () -> {
+            started.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return null;
+        });
+        try {
+            assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+        } catch (InterruptedException e) {
+            throw new RuntimeException(e);
+        }
+        return blocker;
+    }
+
+    private Callable<String> record(String name) {
+        return () -> {
+            order.add(name);
+            return name;
+        };
+    }
+
+    private void awaitCompleted(long tasks) {
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (System.currentTimeMillis() < deadline) {
+            long done = scheduler.stats().classes().values().stream()
+                    .mapToLong(c -> c.completed() + c.failed()).sum();
+            if (done >= tasks && scheduler.stats().active() == 0) {
+                return;
+            }
+            Thread.onSpinWait();
+        }
+        throw new AssertionError("Tasks did not complete in time");
+    }
+}
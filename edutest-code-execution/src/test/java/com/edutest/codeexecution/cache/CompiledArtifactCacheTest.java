@@ -0,0 +1,105 @@
+package com.edutest.codeexecution.cache;
+
+import com.edutest.codeexecution.config.CodeExecutionProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CompiledArtifactCacheTest {
+
+    private static final String[] JAVAC = {"javac", "/workspace/Solution.java", "-d", "/tmp"};
+
+    @TempDir
+    Path dir;
+
+    private CodeExecutionProperties properties;
+
+    @BeforeEach
+    void setUp() {
+        properties = new CodeExecutionProperties();
+        properties.getArtifactCache().setDirectory(dir.toString());
+        properties.getArtifactCache().setMaxBytes(100);
+    }
+
+    @Test
+    @DisplayName("Key changes with language, image, compile command and source")
+    void keyCoversAllInputs() {
+        String base = CompiledArtifactCache.key("java", "sha256:a", JAVAC, "class A {}");
+
+        assertThat(CompiledArtifactCache.key("java", "sha256:a", JAVAC, "class A {}")).isEqualTo(base);
+        assertThat(CompiledArtifactCache.key("java", "sha256:b", JAVAC, "class A {}")).isNotEqualTo(base);
+        assertThat(CompiledArtifactCache.key("java", "sha256:a", JAVAC, "class B {}")).isNotEqualTo(base);
+        assertThat(CompiledArtifactCache.key("c", "sha256:a", JAVAC, "class A {}")).isNotEqualTo(base);
+        assertThat(CompiledArtifactCache.key("java", "sha256:a",
+                new String[]{"javac", "-g", "/workspace/Solution.java"}, "class A {}")).isNotEqualTo(base);
+    }
+
+    @Test
+    @DisplayName("Stored artifact is returned and counted as a hit; unknown key is a miss")
+    void hitAndMiss() {
+        CompiledArtifactCache cache = new CompiledArtifactCache(properties);
+        cache.put("k1", new byte[]{1, 2, 3});
+
+        assertThat(cache.get("k1")).hasValueSatisfying(a -> assertThat(a).containsExactly(1, 2, 3));
+        assertThat(cache.get("k2")).isEmpty();
+        assertThat(cache.stats().hits()).isEqualTo(1);
+        assertThat(cache.stats().misses()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Least recently used artifact is evicted once max bytes is exceeded")
+    void evictsLeastRecentlyUsed() {
+        CompiledArtifactCache cache = new CompiledArtifactCache(properties);
+        cache.put("a", new byte[40]);
+        cache.put("b", new byte[40]);
+        cache.get("a");                 // "b" is now the LRU entry
+        cache.put("c", new byte[40]);
+
+        assertThat(cache.get("b")).isEmpty();
+        assertThat(cache.get("a")).isPresent();
+        assertThat(cache.get("c")).isPresent();
+        assertThat(cache.stats().evictions()).isEqualTo(1);
+        assertThat(cache.stats().bytes()).isEqualTo(80);
+        assertThat(dir.resolve("b.tar")).doesNotExist();
+    }
+
+    @Test
+    @DisplayName("Artifacts above the per-entry limit are not cached")
+    void skipsOversizedArtifacts() {
+        properties.getArtifactCache().setMaxArtifactBytes(10);
+        CompiledArtifactCache cache = new CompiledArtifactCache(properties);
+
+        cache.put("big", new byte[11]);
+
+        assertThat(cache.get("big")).isEmpty();
+        assertThat(cache.stats().entries()).isZero();
+    }
+
+    @Test
+    @DisplayName("Index is rebuilt from disk on startup")
+    void survivesRestart() {
+        new CompiledArtifactCache(properties).put("k1", new byte[]{7});
+
+        CompiledArtifactCache restarted = new CompiledArtifactCache(properties);
+
+        assertThat(restarted.get("k1")).hasValueSatisfying(a -> assertThat(a).containsExactly(7));
+        assertThat(restarted.stats().bytes()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Disabled cache never stores or returns artifacts")
+    void disabled() {
+        properties.getArtifactCache().setEnabled(false);
+        CompiledArtifactCache cache = new CompiledArtifactCache(properties);
+
+        cache.put("k1", new byte[]{1});
+
+        assertThat(cache.get("k1")).isEmpty();
+        assertThat(dir.resolve("k1.tar")).doesNotExist();
+    }
+}
@@ -0,0 +1,142 @@
+package com.edutest.codeexecution.cache;
+
+import com.edutest.codeexecution.TestCaseRunResult;
+import com.edutest.codeexecution.config.CodeExecutionProperties;
+import com.edutest.event.TestCaseChangedEvent;
+import com.edutest.persistance.entity.assigment.coding.OutputCheckerEnum;
+import com.edutest.persistance.entity.assigment.coding.TestCaseEntity;
+import com.edutest.persistance.entity.code.CompilationStatusEnum;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ExecutionResultCacheTest {
+
+    private final AtomicLong now = new AtomicLong(1_000L);
+    private CodeExecutionProperties properties;
+    private ExecutionResultCache.SourceKey source;
+
+    @BeforeEach
+    void setUp() {
+        properties = new CodeExecutionProperties();
+        properties.getResultCache().setTtlMs(10_000L);
+        source = ExecutionResultCache.sourceKey("python", "print(input())", 2_000, 128);
+    }
+
+    @Test
+    @DisplayName("Key changes with language, source and limits")
+    void sourceKeyCoversInputs() {
+        assertThat(ExecutionResultCache.sourceKey("Python", "print(input())", 2_000, 128)).isEqualTo(source);
+        assertThat(ExecutionResultCache.sourceKey("python", "print(1)", 2_000, 128)).isNotEqualTo(source);
+        assertThat(ExecutionResultCache.sourceKey("javascript", "print(input())", 2_000, 128)).isNotEqualTo(source);
+        assertThat(ExecutionResultCache.sourceKey("python", "print(input())", 3_000, 128)).isNotEqualTo(source);
+        assertThat(ExecutionResultCache.sourceKey("python", "print(input())", 2_000, 256)).isNotEqualTo(source);
+    }
+
+    @Test
+    @DisplayName("Stored verdict is returned until the test case content changes")
+    void hitUntilContentChanges() {
+        ExecutionResultCache cache = new ExecutionResultCache(properties, now::get);
+        TestCaseEntity tc = testCase(1L, "x", "x");
+        cache.put(source, tc, passed(1L), CompilationStatusEnum.NOT_COMPILED);
+
+        assertThat(cache.get(source, tc)).hasValueSatisfying(r -> assertThat(r.result().isPassed()).isTrue());
+
+        tc.setExpectedOutput("y");
+        assertThat(cache.get(source, tc)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Changing the checker mode or tolerance changes the key")
+    void keyCoversChecker() {
+        ExecutionResultCache cache = new ExecutionResultCache(properties, now::get);
+        TestCaseEntity tc = testCase(1L, "x", "x");
+        cache.put(source, tc, passed(1L), CompilationStatusEnum.NOT_COMPILED);
+
+        tc.setCheckerMode(OutputCheckerEnum.FLOAT_TOLERANCE);
+        assertThat(cache.get(source, tc)).isEmpty();
+
+        cache.put(source, tc, passed(1L), CompilationStatusEnum.NOT_COMPILED);
+        tc.setFloatTolerance(0.1);
+        assertThat(cache.get(source, tc)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Entries expire after the TTL")
+    void expires() {
+        ExecutionResultCache cache = new ExecutionResultCache(properties, now::get);
+        TestCaseEntity tc = testCase(1L, "x", "x");
+        cache.put(source, tc, passed(1L), CompilationStatusEnum.NOT_COMPILED);
+
+        now.addAndGet(10_000L);
+
+        assertThat(cache.get(source, tc)).isEmpty();
+        assertThat(cache.stats().entries()).isZero();
+    }
+
+    @Test
+    @DisplayName("Least recently used entry is evicted beyond max entries")
+    void evictsLeastRecentlyUsed() {
+        properties.getResultCache().setMaxEntries(2);
+        ExecutionResultCache cache = new ExecutionResultCache(properties, now::get);
+        TestCaseEntity a = testCase(1L, "a", "a");
+        TestCaseEntity b = testCase(2L, "b", "b");
+        TestCaseEntity c = testCase(3L, "c", "c");
+        cache.put(source, a, passed(1L), CompilationStatusEnum.NOT_COMPILED);
+        cache.put(source, b, passed(2L), CompilationStatusEnum.NOT_COMPILED);
+        cache.get(source, a);
+        cache.put(source, c, passed(3L), CompilationStatusEnum.NOT_COMPILED);
+
+        assertThat(cache.get(source, b)).isEmpty();
+        assertThat(cache.get(source, a)).isPresent();
+        assertThat(cache.get(source, c)).isPresent();
+    }
+
+    @Test
+    @DisplayName("TestCaseChangedEvent drops every entry of that test case")
+    void invalidatedOnTestCaseChange() {
+        ExecutionResultCache cache = new ExecutionResultCache(properties, now::get);
+        TestCaseEntity tc = testCase(1L, "x", "x");
+        ExecutionResultCache.SourceKey other = ExecutionResultCache.sourceKey("python", "print('x')", 2_000, 128);
+        cache.put(source, tc, passed(1L), CompilationStatusEnum.NOT_COMPILED);
+        cache.put(other, tc, passed(1L), CompilationStatusEnum.NOT_COMPILED);
+        cache.put(source, testCase(2L, "y", "y"), passed(2L), CompilationStatusEnum.NOT_COMPILED);
+
+        cache.onTestCaseChanged(new TestCaseChangedEvent(1L));
+
+        assertThat(cache.get(source, tc)).isEmpty();
+        assertThat(cache.get(other, tc)).isEmpty();
+        assertThat(cache.stats().invalidations()).isEqualTo(2);
+        assertThat(cache.stats().entries()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Time and memory limit verdicts are never memoized")
+    void skipsLoadDependentVerdicts() {
+        ExecutionResultCache cache = new ExecutionResultCache(properties, now::get);
+        TestCaseEntity tc = testCase(1L, "x", "x");
+
+        cache.put(source, tc, TestCaseRunResult.builder().testCaseId(1L).timedOut(true).build(),
+                CompilationStatusEnum.NOT_COMPILED);
+        cache.put(source, tc, TestCaseRunResult.builder().testCaseId(1L).outOfMemory(true).build(),
+                CompilationStatusEnum.NOT_COMPILED);
+
+        assertThat(cache.get(source, tc)).isEmpty();
+    }
+
+    private static TestCaseEntity testCase(Long id, String input, String expected) {
+        TestCaseEntity tc = new TestCaseEntity();
+        tc.setId(id);
+        tc.setInputData(input);
+        tc.setExpectedOutput(expected);
+        return tc;
+    }
+
+    private static TestCaseRunResult passed(Long id) {
+        return TestCaseRunResult.builder().testCaseId(id).passed(true).actualOutput("x").build();
+    }
+}
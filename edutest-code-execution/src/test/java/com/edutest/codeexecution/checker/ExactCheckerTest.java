@@ -0,0 +1,62 @@
+package com.edutest.codeexecution.checker;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ExactCheckerTest {
+
+    @Test
+    @DisplayName("Leading and trailing whitespace is ignored like String.trim()")
+    void ignoresSurroundingWhitespace() {
+        assertMatch("10", "10\n", true);
+        assertMatch("10", "  10  \n\n", true);
+        assertMatch("", "\n \n", true);
+        assertMatch("zażółć", "zażółć\n", true);
+    }
+
+    @Test
+    @DisplayName("Whitespace inside the output must match exactly")
+    void innerWhitespaceIsSignificant() {
+        assertMatch("a b", "a b", true);
+        assertMatch("a b", "a  b", false);
+        assertMatch("a\nb", "a \nb", false);
+    }
+
+    @Test
+    @DisplayName("Output that stops early or continues past the expected output mismatches")
+    void lengthMustMatch() {
+        assertMatch("a b", "a ", false);
+        assertMatch("ab", "a", false);
+        assertMatch("a", "ab", false);
+        assertMatch("", "x", false);
+    }
+
+    @Test
+    @DisplayName("A null expected output never matches")
+    void nullExpected() {
+        ExactChecker checker = new ExactChecker(null);
+
+        assertThat(checker.failed()).isTrue();
+        assertThat(checker.matches()).isFalse();
+    }
+
+    private static void assertMatch(String expected, String actual, boolean matches) {
+        assertThat(expected.trim().equals(actual.trim())).as("reference semantics").isEqualTo(matches);
+        byte[] bytes = actual.getBytes(StandardCharsets.UTF_8);
+
+        ExactChecker whole = new ExactChecker(expected);
+        whole.write(bytes, 0, bytes.length);
+
+        ExactChecker byteWise = new ExactChecker(expected);
+        for (byte b : bytes) {
+            byteWise.write(new byte[]{b}, 0, 1);
+        }
+
+        assertThat(whole.matches()).as("'%s' vs '%s'", expected, actual).isEqualTo(matches);
+        assertThat(byteWise.matches()).as("byte-wise '%s' vs '%s'", expected, actual).isEqualTo(matches);
+    }
+}
@@ -0,0 +1,74 @@
+package com.edutest.codeexecution.checker;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TokenCheckerTest {
+
+    @Test
+    @DisplayName("Tokens match regardless of spacing and line breaks")
+    void ignoresWhitespaceLayout() {
+        assertThat(run(new TokenChecker("1 2 3", null), "1\n2   3\n")).isTrue();
+        assertThat(run(new TokenChecker("a\nb", null), "  a \t b")).isTrue();
+        assertThat(run(new TokenChecker("", null), " \n")).isTrue();
+    }
+
+    @Test
+    @DisplayName("Missing, extra or different tokens mismatch")
+    void tokensMustMatch() {
+        assertThat(run(new TokenChecker("1 2 3", null), "1 2")).isFalse();
+        assertThat(run(new TokenChecker("1 2", null), "1 2 3")).isFalse();
+        assertThat(run(new TokenChecker("1 2", null), "1 20")).isFalse();
+        assertThat(run(new TokenChecker("0.5", null), "0.50")).isFalse();
+    }
+
+    @Test
+    @DisplayName("Fails on the first wrong token without reading the rest")
+    void stopsAtFirstMismatch() {
+        TokenChecker checker = new TokenChecker("1 2 3", null);
+        byte[] out = "9 ".getBytes(StandardCharsets.UTF_8);
+
+        checker.write(out, 0, out.length);
+
+        assertThat(checker.failed()).isTrue();
+    }
+
+    @Test
+    @DisplayName("An overlong token fails before it is buffered")
+    void boundsTokenBuffer() {
+        TokenChecker checker = new TokenChecker("abc", null);
+        byte[] out = "x".repeat(10_000).getBytes(StandardCharsets.UTF_8);
+
+        checker.write(out, 0, out.length);
+
+        assertThat(checker.failed()).isTrue();
+    }
+
+    @Test
+    @DisplayName("With a tolerance numbers match within absolute or relative difference")
+    void floatTolerance() {
+        assertThat(run(new TokenChecker("0.333333", 1e-6), "0.3333333333")).isTrue();
+        assertThat(run(new TokenChecker("1000000", 1e-6), "1000000.5")).isTrue();
+        assertThat(run(new TokenChecker("1.5 2.5", 1e-3), "1.5004 2.4996")).isTrue();
+        assertThat(run(new TokenChecker("0.5", 1e-6), "0.51")).isFalse();
+        assertThat(run(new TokenChecker("0.5", 1e-6), "NaN")).isFalse();
+    }
+
+    @Test
+    @DisplayName("With a tolerance non-numeric tokens still compare exactly")
+    void floatToleranceWords() {
+        assertThat(run(new TokenChecker("area 3.14", 1e-2), "area 3.1416")).isTrue();
+        assertThat(run(new TokenChecker("area 3.14", 1e-2), "Area 3.14")).isFalse();
+    }
+
+    private static boolean run(OutputChecker checker, String output) {
+        for (byte b : output.getBytes(StandardCharsets.UTF_8)) {
+            checker.write(new byte[]{b}, 0, 1);
+        }
+        return checker.matches();
+    }
+}
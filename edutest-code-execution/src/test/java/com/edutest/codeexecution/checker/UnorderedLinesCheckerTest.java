@@ -0,0 +1,54 @@
+package com.edutest.codeexecution.checker;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class UnorderedLinesCheckerTest {
+
+    @Test
+    @DisplayName("Same lines in any order match; each line is trimmed and blank lines ignored")
+    void anyOrder() {
+        UnorderedLinesChecker checker = new UnorderedLinesChecker("1 2\n3 4\n5 6");
+
+        assertThat(run(checker, "5 6\r\n\n  1 2  \n3 4")).isTrue();
+    }
+
+    @Test
+    @DisplayName("Duplicates are counted")
+    void countsDuplicates() {
+        assertThat(run(new UnorderedLinesChecker("a\na\nb"), "a\nb\na\n")).isTrue();
+        assertThat(run(new UnorderedLinesChecker("a\na\nb"), "a\nb\n")).isFalse();
+        assertThat(run(new UnorderedLinesChecker("a\nb"), "a\na\nb\n")).isFalse();
+    }
+
+    @Test
+    @DisplayName("Whitespace inside a line is significant")
+    void innerWhitespace() {
+        assertThat(run(new UnorderedLinesChecker("1 2"), "1  2")).isFalse();
+    }
+
+    @Test
+    @DisplayName("An unexpected line fails immediately; overlong lines are never buffered")
+    void failsEarly() {
+        UnorderedLinesChecker unknown = new UnorderedLinesChecker("a\nb");
+        byte[] out = "c\n".getBytes(StandardCharsets.UTF_8);
+        unknown.write(out, 0, out.length);
+
+        UnorderedLinesChecker overlong = new UnorderedLinesChecker("abc");
+        byte[] line = ("ab" + " ".repeat(10_000) + "c").getBytes(StandardCharsets.UTF_8);
+        overlong.write(line, 0, line.length);
+
+        assertThat(unknown.failed()).isTrue();
+        assertThat(overlong.failed()).isTrue();
+    }
+
+    private static boolean run(OutputChecker checker, String output) {
+        byte[] bytes = output.getBytes(StandardCharsets.UTF_8);
+        checker.write(bytes, 0, bytes.length);
+        return checker.matches();
+    }
+}
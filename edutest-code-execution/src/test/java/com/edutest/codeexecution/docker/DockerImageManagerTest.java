@@ -0,0 +1,186 @@
+package com.edutest.codeexecution.docker;
+
+import com.edutest.codeexecution.ExecutionReport;
+import com.edutest.codeexecution.config.CodeExecutionProperties;
+import com.edutest.codeexecution.runners.PythonRunner;
+import com.edutest.codeexecution.sandbox.SandboxCodeExecutor;
+import com.edutest.persistance.entity.code.ExecutionStatusEnum;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.dockerjava.api.DockerClient;
+import com.github.dockerjava.api.command.InspectImageResponse;
+import com.github.dockerjava.api.command.PullImageCmd;
+import com.github.dockerjava.api.command.PullImageResultCallback;
+import com.github.dockerjava.api.model.PullResponseItem;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.Answers;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class DockerImageManagerTest {
+
+    private static final String PYTHON = "python:3.12-alpine";
+
+    private DockerClient dockerClient;
+    private PullImageCmd pullCmd;
+    private CodeExecutionProperties properties;
+    private SandboxContainerPool pool;
+    private SandboxCodeExecutor executor;
+    private DockerImageManager manager;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        dockerClient = mock(DockerClient.class, Answers.RETURNS_DEEP_STUBS);
+        pullCmd = mock(PullImageCmd.class);
+        when(dockerClient.pullImageCmd(PYTHON)).thenReturn(pullCmd);
+        when(pullCmd.exec(any())).thenAnswer(inv -> pull(inv.getArgument(0)));
+        when(dockerClient.inspectImageCmd(PYTHON).exec()).thenReturn(image("sha256:aaa"));
+
+        properties = new CodeExecutionProperties();
+        properties.getDocker().setImagesPreload(List.of());
+        properties.getDocker().setImageRefreshMs(0);
+        pool = mock(SandboxContainerPool.class);
+        executor = mock(SandboxCodeExecutor.class);
+        when(executor.execute(anyString(), eq("python"), anyList(), any(), any())).thenReturn(report(ExecutionStatusEnum.SUCCESS));
+
+        manager = new DockerImageManager(dockerClient, properties, pool, List.of(new PythonRunner()), executor);
+    }
+
+    @AfterEach
+    void tearDown() {
+        manager.shutdown();
+    }
+
+    @Test
+    @DisplayName("Pulls with progress, pins the image ID and warms every runner of the image up before runs start")
+    void preparesImage() {
+        manager.start();
+
+        assertThat(manager.awaitImage(PYTHON)).isEqualTo("sha256:aaa");
+        verify(executor).execute(contains("print(\"edutest-warm-up-"), eq("python"), anyList(), isNull(), isNull());
+        verify(pool).prewarm("sha256:aaa");
+        verify(pool, never()).drain(anyString());
+        DockerImageManager.ImageHealth health = manager.report().images().get(0);
+        assertThat(health.status()).isEqualTo(DockerImageManager.ImageStatus.READY);
+        assertThat(health.digest()).isEqualTo("python@sha256:d1");
+        assertThat(health.pulledBytes()).isEqualTo(10);
+        assertThat(health.totalBytes()).isEqualTo(10);
+        assertThat(manager.report().ready()).isTrue();
+    }
+
+    @Test
+    @DisplayName("A failed warm-up marks the image FAILED, and runs go ahead with the tag instead of waiting")
+    void failedWarmUp() {
+        when(executor.execute(anyString(), eq("python"), anyList(), any(), any()))
+                .thenReturn(report(ExecutionStatusEnum.RUNTIME_ERROR));
+
+        manager.start();
+
+        assertThat(manager.awaitImage(PYTHON)).isEqualTo(PYTHON);
+        DockerImageManager.ImageHealth health = manager.report().images().get(0);
+        assertThat(health.status()).isEqualTo(DockerImageManager.ImageStatus.FAILED);
+        assertThat(health.error()).startsWith("Warm-up run of python failed");
+        verify(pool, never()).prewarm(anyString());
+    }
+
+    @Test
+    @DisplayName("A moved tag is warmed up under its new ID while runs keep the old one, whose idle containers go after the switch")
+    void movedTag() throws Exception {
+        manager.start();
+        assertThat(manager.awaitImage(PYTHON)).isEqualTo("sha256:aaa");
+        when(dockerClient.inspectImageCmd(PYTHON).exec()).thenReturn(image("sha256:bbb"));
+        CountDownLatch warming = new CountDownLatch(1);
+        CountDownLatch checked = new CountDownLatch(1);
+        String[] warmUpImage = new String[1];
+        when(executor.execute(anyString(), eq("python"), anyList(), any(), any())).thenAnswer(inv -> {
+            warmUpImage[0] = manager.pinnedImage(PYTHON);
+            warming.countDown();
+            checked.await(5, TimeUnit.SECONDS);
+            return report(ExecutionStatusEnum.SUCCESS);
+        });
+
+        manager.refresh();
+
+        assertThat(warming.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(manager.awaitImage(PYTHON)).isEqualTo("sha256:aaa");
+        checked.countDown();
+        verify(pool, timeout(5_000)).prewarm("sha256:bbb");
+        verify(pool, timeout(5_000)).drain("sha256:aaa");
+        assertThat(warmUpImage[0]).isEqualTo("sha256:bbb");
+        assertThat(manager.pinnedImage(PYTHON)).isEqualTo("sha256:bbb");
+    }
+
+    @Test
+    @DisplayName("Runs fail after the readiness timeout while their image is still being pulled")
+    void readinessTimeout() {
+        properties.getDocker().setReadinessTimeoutMs(50);
+        CountDownLatch release = new CountDownLatch(1);
+        doAnswer(inv -> {
+            release.await(5, TimeUnit.SECONDS);
+            return pull(inv.getArgument(0));
+        }).when(pullCmd).exec(any());
+
+        manager.start();
+
+        assertThatThrownBy(() -> manager.awaitImage(PYTHON))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("not ready yet (PULLING)");
+        assertThat(manager.report().ready()).isFalse();
+        release.countDown();
+        properties.getDocker().setReadinessTimeoutMs(5_000);
+        assertThat(manager.awaitImage(PYTHON)).isEqualTo("sha256:aaa");
+    }
+
+    @Test
+    @DisplayName("With the if-missing policy an image that is already local is not pulled")
+    void ifMissing() {
+        properties.getDocker().setPullPolicy(CodeExecutionProperties.Docker.PullPolicy.IF_MISSING);
+
+        manager.start();
+
+        assertThat(manager.awaitImage(PYTHON)).isEqualTo("sha256:aaa");
+        verify(dockerClient, never()).pullImageCmd(anyString());
+    }
+
+    private static PullImageResultCallback pull(PullImageResultCallback callback) throws Exception {
+        callback.onNext(item("{\"id\":\"l1\",\"status\":\"Downloading\",\"progressDetail\":{\"current\":5,\"total\":10}}"));
+        callback.onNext(item("{\"id\":\"l1\",\"status\":\"Download complete\"}"));
+        callback.onNext(item("{\"status\":\"Status: Downloaded newer image for " + PYTHON + "\"}"));
+        callback.onComplete();
+        return callback;
+    }
+
+    private static PullResponseItem item(String json) throws Exception {
+        return new ObjectMapper().readValue(json, PullResponseItem.class);
+    }
+
+    private static InspectImageResponse image(String id) {
+        return new InspectImageResponse().withId(id).withRepoDigests(List.of("python@sha256:d1"));
+    }
+
+    private static ExecutionReport report(ExecutionStatusEnum status) {
+        return ExecutionReport.builder()
+                .executionStatus(status)
+                .testCaseResults(List.of())
+                .build();
+    }
+}
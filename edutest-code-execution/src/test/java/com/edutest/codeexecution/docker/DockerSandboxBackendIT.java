@@ -1,12 +1,15 @@
 package com.edutest.codeexecution.docker;
 
 import com.edutest.codeexecution.ExecutionReport;
+import com.edutest.codeexecution.cache.CompiledArtifactCache;
 import com.edutest.codeexecution.config.CodeExecutionProperties;
 import com.edutest.codeexecution.runners.CSharpRunner;
 import com.edutest.codeexecution.runners.JavaRunner;
 import com.edutest.codeexecution.runners.JavascriptRunner;
+import com.edutest.codeexecution.runners.LanguageRunner;
 import com.edutest.codeexecution.runners.LanguageRunnerRegistry;
 import com.edutest.codeexecution.runners.PythonRunner;
+import com.edutest.codeexecution.sandbox.SandboxCodeExecutor;
 import com.edutest.persistance.entity.assigment.coding.TestCaseEntity;
 import com.edutest.persistance.entity.code.CompilationStatusEnum;
 import com.edutest.persistance.entity.code.ExecutionStatusEnum;
@@ -24,7 +27,9 @@ import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.TestInstance;
 import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.api.io.TempDir;
 
+import java.nio.file.Path;
 import java.time.Duration;
 import java.util.List;
 import java.util.concurrent.TimeUnit;
@@ -32,7 +37,7 @@ import java.util.concurrent.TimeUnit;
 import static org.assertj.core.api.Assertions.assertThat;
 
 /**
- * Integration test for {@link DockerCodeExecutor} — runs real containers.
+ * Integration test for {@link SandboxCodeExecutor} on {@link DockerSandboxBackend} — runs real containers.
  *
  * <p>Disabled by default. Enable with {@code -Ddocker.it=true} on a machine
  * with a reachable Docker daemon. First run will pull {@code python:3.12-alpine}
@@ -42,10 +47,15 @@ import static org.assertj.core.api.Assertions.assertThat;
  */
 @TestInstance(TestInstance.Lifecycle.PER_CLASS)
 @EnabledIfSystemProperty(named = "docker.it", matches = "true")
-class DockerCodeExecutorIT {
+class DockerSandboxBackendIT {
 
     private DockerClient dockerClient;
-    private DockerCodeExecutor executor;
+    private SandboxContainerPool containerPool;
+    private CompiledArtifactCache artifactCache;
+
+    @TempDir
+    Path artifactDir;
+    private SandboxCodeExecutor executor;
 
     @BeforeAll
     void setUp() throws InterruptedException {
@@ -79,23 +89,34 @@ class DockerCodeExecutorIT {
         properties.setDefaultTimeMs(5_000L);
         properties.setDefaultMemoryMb(128);
         properties.setOutputLimitChars(2_000);
+        properties.setOutputLimitBytes(64 * 1024);
         // Disable readonly rootfs for the IT — required to make copyArchiveToContainer work
         // against Docker Desktop on Windows/WSL2 (silent failure / "rootfs read-only" otherwise).
         // Workspace stays on tmpfs so containers still can't persist anything cross-run.
         properties.setReadonlyRootfs(false);
 
-        LanguageRunnerRegistry registry = new LanguageRunnerRegistry(List.of(
+        List<LanguageRunner> runners = List.of(
                 new PythonRunner(),
                 new JavascriptRunner(),
                 new JavaRunner(),
                 new CSharpRunner()
-        ));
-
-        executor = new DockerCodeExecutor(dockerClient, registry, properties);
+        );
+        LanguageRunnerRegistry registry = new LanguageRunnerRegistry(runners);
+
+        containerPool = new SandboxContainerPool(dockerClient, properties);
+        // Never started: images are used by tag, without pull, pinning or warm-up.
+        DockerImageManager imageManager = new DockerImageManager(dockerClient, properties, containerPool, runners, null);
+        properties.getArtifactCache().setDirectory(artifactDir.toString());
+        artifactCache = new CompiledArtifactCache(properties);
+        executor = new SandboxCodeExecutor(
+                new DockerSandboxBackend(dockerClient, properties, containerPool, imageManager), registry, properties, artifactCache);
     }
 
     @AfterAll
     void tearDown() throws Exception {
+        if (containerPool != null) {
+            containerPool.shutdown();
+        }
         if (dockerClient != null) {
             dockerClient.close();
         }
@@ -115,7 +136,37 @@ class DockerCodeExecutorIT {
         assertThat(report.getExecutionStatus()).isEqualTo(ExecutionStatusEnum.SUCCESS);
         assertThat(report.getTestCaseResults())
                 .hasSize(3)
-                .allSatisfy(r -> assertThat(r.isPassed()).isTrue());
+                .allSatisfy(r -> {
+                    assertThat(r.isPassed()).isTrue();
+                    assertThat(r.getCpuTimeMs()).isNotNull();
+                });
+    }
+
+    @Test
+    @DisplayName("Python: sleeping past the limit is not CPU time, so the case still passes")
+    void pythonSleepIsNotCpuTime() {
+        String code = "import time\ntime.sleep(1.2)\nprint('ok')";
+        List<TestCaseEntity> cases = List.of(testCase(1L, "", "ok"));
+
+        ExecutionReport report = executor.execute(code, "python", cases, 1_000, 128);
+
+        assertThat(report.getExecutionStatus()).isEqualTo(ExecutionStatusEnum.SUCCESS);
+        assertThat(report.getTestCaseResults().get(0).isPassed()).isTrue();
+        assertThat(report.getTestCaseResults().get(0).getExecutionTimeMs()).isGreaterThanOrEqualTo(1_000L);
+        assertThat(report.getTestCaseResults().get(0).getCpuTimeMs()).isLessThan(1_000L);
+    }
+
+    @Test
+    @DisplayName("Python: a test input far beyond the shell argument limit is staged intact")
+    void pythonLargeInput() {
+        String code = "import sys\nprint(len(sys.stdin.read()))";
+        String input = "7".repeat(1_000_000);
+        List<TestCaseEntity> cases = List.of(testCase(1L, input, "1000000"));
+
+        ExecutionReport report = executor.execute(code, "python", cases, 5_000, 128);
+
+        assertThat(report.getExecutionStatus()).isEqualTo(ExecutionStatusEnum.SUCCESS);
+        assertThat(report.getTestCaseResults().get(0).isPassed()).isTrue();
     }
 
     @Test
@@ -165,6 +216,20 @@ class DockerCodeExecutorIT {
         assertThat(duration).isLessThan(15_000L);
     }
 
+    @Test
+    @DisplayName("Python: print loop is killed at the output limit, not the time limit")
+    void pythonOutputLimit() {
+        String code = "while True: print('x' * 100)";
+        List<TestCaseEntity> cases = List.of(testCase(1L, "", "anything"));
+
+        ExecutionReport report = executor.execute(code, "python", cases, 5_000, 128);
+
+        assertThat(report.getExecutionStatus()).isEqualTo(ExecutionStatusEnum.OUTPUT_LIMIT_EXCEEDED);
+        assertThat(report.getTestCaseResults().get(0).isOutputLimitExceeded()).isTrue();
+        assertThat(report.getTestCaseResults().get(0).getExecutionTimeMs()).isLessThan(5_000L);
+        assertThat(report.getTestCaseResults().get(0).getActualOutput()).hasSize(2_000);
+    }
+
     @Test
     @DisplayName("Java: javac compiles Solution.java to /tmp, java runs the class")
     void javaHappyPath() {
@@ -196,6 +261,28 @@ class DockerCodeExecutorIT {
                 .allSatisfy(r -> assertThat(r.isPassed()).isTrue());
     }
 
+    @Test
+    @DisplayName("Java: re-running identical source reuses the cached .class files")
+    void javaArtifactCacheHit() {
+        String code = """
+                public class Solution {
+                    public static void main(String[] args) {
+                        System.out.println("cached");
+                    }
+                }
+                """;
+        List<TestCaseEntity> cases = List.of(testCase(1L, "", "cached"));
+
+        executor.execute(code, "java", cases, 10_000, 256);
+        long hitsBefore = artifactCache.stats().hits();
+        ExecutionReport second = executor.execute(code, "java", cases, 10_000, 256);
+
+        assertThat(artifactCache.stats().hits()).isEqualTo(hitsBefore + 1);
+        assertThat(second.getCompilationStatus()).isEqualTo(CompilationStatusEnum.SUCCESS);
+        assertThat(second.getTestCaseResults()).singleElement()
+                .satisfies(r -> assertThat(r.isPassed()).isTrue());
+    }
+
     @Test
     @DisplayName("C#: Console.WriteLine compiles via mcs and runs under Mono")
     void csharpHappyPath() {
@@ -234,6 +321,27 @@ class DockerCodeExecutorIT {
         assertThat(report.getCompilationError()).contains("rust");
     }
 
+    @Test
+    @DisplayName("Pool: a released container is wiped and reused by the next run")
+    void pooledContainerIsRecycled() throws InterruptedException {
+        executor.execute("open('/tmp/leftover.txt', 'w').write('x'); print(1)", "python",
+                List.of(testCase(1L, "", "1")), 5_000, 96);
+
+        long deadline = System.currentTimeMillis() + 15_000;
+        while (containerPool.stats().recycled() == 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(100);
+        }
+        long hitsBefore = containerPool.stats().hits();
+
+        ExecutionReport report = executor.execute(
+                "import os; print(os.path.exists('/tmp/leftover.txt'))", "python",
+                List.of(testCase(1L, "", "False")), 5_000, 96);
+
+        assertThat(containerPool.stats().hits()).isGreaterThan(hitsBefore);
+        assertThat(report.getTestCaseResults()).singleElement()
+                .satisfies(r -> assertThat(r.isPassed()).isTrue());
+    }
+
     private static TestCaseEntity testCase(Long id, String input, String expected) {
         TestCaseEntity tc = new TestCaseEntity();
         tc.setId(id);
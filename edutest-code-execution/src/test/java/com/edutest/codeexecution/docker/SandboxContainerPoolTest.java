@@ -0,0 +1,177 @@
+package com.edutest.codeexecution.docker;
+
+import com.edutest.codeexecution.config.CodeExecutionProperties;
+import com.github.dockerjava.api.DockerClient;
+import com.github.dockerjava.api.command.CreateContainerCmd;
+import com.github.dockerjava.api.command.CreateContainerResponse;
+import com.github.dockerjava.api.command.InspectContainerResponse;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.Answers;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class SandboxContainerPoolTest {
+
+    private DockerClient dockerClient;
+    private CodeExecutionProperties properties;
+    private SandboxContainerPool pool;
+    private volatile long createDelayMs;
+
+    @BeforeEach
+    void setUp() {
+        dockerClient = mock(DockerClient.class, Answers.RETURNS_DEEP_STUBS);
+        CreateContainerCmd createCmd = mock(CreateContainerCmd.class, Answers.RETURNS_SELF);
+        AtomicInteger ids = new AtomicInteger();
+        when(createCmd.exec()).thenAnswer(invocation -> {
+            Thread.sleep(createDelayMs);
+            CreateContainerResponse created = new CreateContainerResponse();
+            created.setId("c-" + ids.incrementAndGet());
+            return created;
+        });
+        when(dockerClient.createContainerCmd(anyString())).thenReturn(createCmd);
+
+        properties = new CodeExecutionProperties();
+        // No background top-up or reaping, so the test controls exactly which containers exist.
+        properties.getPool().setMinIdle(0);
+        properties.getPool().setReapIntervalMs(0);
+
+        pool = new SandboxContainerPool(dockerClient, properties);
+    }
+
+    @AfterEach
+    void tearDown() {
+        pool.shutdown();
+    }
+
+    @Test
+    @DisplayName("Empty pool: acquire counts a miss and creates a fresh container")
+    void missCreatesContainer() {
+        SandboxContainerPool.PooledContainer container = pool.acquire("python:3.12-alpine", 128);
+
+        assertThat(container.id()).isEqualTo("c-1");
+        assertThat(container.key()).isEqualTo(new SandboxContainerPool.PoolKey("python:3.12-alpine", 128));
+        assertThat(pool.stats().misses()).isEqualTo(1);
+        assertThat(pool.stats().created()).isEqualTo(1);
+        verify(dockerClient).startContainerCmd("c-1");
+    }
+
+    @Test
+    @DisplayName("Unhealthy idle container is discarded and replaced on acquire")
+    void unhealthyContainerIsDiscarded() {
+        InspectContainerResponse.ContainerState dead = mock(InspectContainerResponse.ContainerState.class);
+        when(dead.getRunning()).thenReturn(false);
+        when(dockerClient.inspectContainerCmd("c-1").exec().getState()).thenReturn(dead);
+
+        SandboxContainerPool.PooledContainer container = pool.acquire("python:3.12-alpine", 128);
+        pool.release(container);
+
+        // Recycle runs async: the failed health check removes the container instead of pooling it.
+        verify(dockerClient, timeout(2_000)).removeContainerCmd("c-1");
+        assertThat(pool.stats().discarded()).isEqualTo(1);
+        assertThat(pool.stats().recycled()).isZero();
+    }
+
+    @Test
+    @DisplayName("Draining an image removes its idle containers and keeps its released ones out of the pool")
+    void drainRemovesOldImage() {
+        properties.getPool().setMinIdle(1);
+        pool.prewarm("sha256:aaa");
+        assertThat(pool.stats().idleByKey()).containsEntry("sha256:aaa/256m", 1);
+
+        pool.drain("sha256:aaa");
+
+        verify(dockerClient).removeContainerCmd("c-1");
+        assertThat(pool.stats().idleByKey()).isEmpty();
+
+        // A run that picked the old ID just before the switch still gets a container...
+        SandboxContainerPool.PooledContainer container = pool.acquire("sha256:aaa", 256);
+        pool.release(container);
+
+        // ...which is removed on release instead of recycled, with no top-up for the old image.
+        verify(dockerClient, timeout(2_000)).removeContainerCmd("c-2");
+        assertThat(pool.stats().recycled()).isZero();
+        assertThat(pool.stats().created()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Concurrent top-ups of a key count the containers still starting and stop at min-idle")
+    void concurrentTopUpsDoNotOvershoot() throws Exception {
+        properties.getPool().setMinIdle(2);
+        createDelayMs = 50;
+        ExecutorService callers = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> prewarms = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                prewarms.add(callers.submit(() -> pool.prewarm("sha256:aaa")));
+            }
+            for (Future<?> prewarm : prewarms) {
+                prewarm.get(10, TimeUnit.SECONDS);
+            }
+        } finally {
+            callers.shutdownNow();
+        }
+
+        assertThat(pool.stats().created()).isEqualTo(2);
+        assertThat(pool.stats().idleByKey()).containsEntry("sha256:aaa/256m", 2);
+    }
+
+    @Test
+    @DisplayName("Top-ups stop at max-idle-total across all keys")
+    void idleBoundAcrossKeys() {
+        properties.getPool().setMinIdle(2);
+        properties.getPool().setMaxIdleTotal(3);
+
+        pool.prewarm("sha256:aaa");
+        pool.prewarm("sha256:bbb");
+
+        assertThat(pool.stats().created()).isEqualTo(3);
+        assertThat(pool.stats().idleByKey())
+                .containsEntry("sha256:aaa/256m", 2)
+                .containsEntry("sha256:bbb/256m", 1);
+    }
+
+    @Test
+    @DisplayName("The reaper replaces idle containers that would expire before its next round")
+    void reaperReplacesExpiringContainers() {
+        properties.getPool().setMinIdle(1);
+        pool.prewarm("sha256:aaa");
+        // From now on every container is within one reap interval of max age.
+        properties.getPool().setReapIntervalMs(properties.getPool().getMaxContainerAgeMs());
+
+        pool.reap();
+
+        verify(dockerClient, timeout(2_000)).removeContainerCmd("c-1");
+        verify(dockerClient, timeout(2_000)).startContainerCmd("c-2");
+        assertThat(pool.stats().discarded()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Disabled pool removes containers on release without health checks")
+    void disabledPoolRemovesOnRelease() {
+        properties.getPool().setEnabled(false);
+
+        SandboxContainerPool.PooledContainer container = pool.acquire("python:3.12-alpine", 128);
+        pool.release(container);
+
+        verify(dockerClient).removeContainerCmd("c-1");
+        verify(dockerClient, never()).inspectContainerCmd(anyString());
+        assertThat(pool.stats().misses()).isZero();
+    }
+}
@@ -0,0 +1,61 @@
+package com.edutest.codeexecution.docker;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ShellStagingTest {
+
+    @Test
+    @DisplayName("Small workspaces are staged with a single script")
+    void singleStagingScript() {
+        List<String[]> scripts = ShellStaging.stagingCommands(
+                "/workspace/main.py", "print(1)", List.of("1", "2"), Map.of(), null);
+
+        assertThat(scripts).hasSize(1);
+        assertThat(scripts.get(0)[2])
+                .startsWith("mkdir -p /workspace/in")
+                .contains("> /workspace/main.py")
+                .contains("> /workspace/in/0")
+                .contains("> /workspace/in/1");
+    }
+
+    @Test
+    @DisplayName("Large workspaces are split so no shell argument exceeds the per-argument limit")
+    void splitsLargeStaging() {
+        List<String> inputs = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            inputs.add("x".repeat(2_000));
+        }
+
+        List<String[]> scripts = ShellStaging.stagingCommands("/workspace/main.py", "print(1)", inputs, Map.of(), null);
+
+        assertThat(scripts).hasSizeGreaterThan(1);
+        assertThat(scripts).allSatisfy(s -> assertThat(s[2].length()).isLessThan(128 * 1024));
+        assertThat(String.join("\n", scripts.stream().map(s -> s[2]).toList()))
+                .contains("> /workspace/in/0")
+                .contains("> /workspace/in/99");
+    }
+
+    @Test
+    @DisplayName("A cached compile artifact is chunked, decoded and unpacked into /tmp")
+    void stagesCompiledArtifact() {
+        byte[] artifact = new byte[200_000];
+
+        List<String[]> scripts = ShellStaging.stagingCommands(
+                "/workspace/Solution.java", "class Solution {}", List.of(), Map.of(), artifact);
+
+        String all = String.join("\n", scripts.stream().map(s -> s[2]).toList());
+        assertThat(scripts).allSatisfy(s -> assertThat(s[2].length()).isLessThan(128 * 1024));
+        assertThat(all)
+                .contains(">> /tmp/.edutest-artifact.tar.b64")
+                .contains("base64 -d /tmp/.edutest-artifact.tar.b64 > /tmp/.edutest-artifact.tar")
+                .contains("tar -xf /tmp/.edutest-artifact.tar -C /tmp");
+        assertThat(all.indexOf("tar -xf")).isGreaterThan(all.indexOf("base64 -d /tmp/.edutest-artifact.tar.b64"));
+    }
+}
@@ -0,0 +1,107 @@
+package com.edutest.codeexecution.docker;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class StagingArchiveTest {
+
+    @Test
+    @DisplayName("Archive holds the source and every input, relative to /, with valid ustar headers")
+    void archiveLayout() {
+        byte[] tar = StagingArchive.build("/workspace/main.py", "print(1)", List.of("5\n", ""), Map.of(), null);
+
+        Map<String, String> entries = read(tar);
+
+        assertThat(entries).containsExactly(
+                Map.entry("workspace/main.py", "print(1)"),
+                Map.entry("workspace/in/", ""),
+                Map.entry("workspace/in/0", "5\n"),
+                Map.entry("workspace/in/1", ""));
+        assertThat(tar.length % 512).isZero();
+    }
+
+    @Test
+    @DisplayName("Inputs far beyond the shell argument limit are stored verbatim")
+    void largeInput() {
+        String big = "x".repeat(3 * 1024 * 1024);
+
+        Map<String, String> entries = read(StagingArchive.build("/workspace/main.py", "", List.of(big), Map.of(), null));
+
+        assertThat(entries.get("workspace/in/0")).isEqualTo(big);
+    }
+
+    @Test
+    @DisplayName("A cached compile artifact is staged for unpacking into /tmp")
+    void artifactEntry() {
+        byte[] artifact = {1, 2, 3};
+
+        Map<String, String> entries = read(StagingArchive.build("/workspace/Main.java", "", List.of(), Map.of(), artifact));
+
+        assertThat(entries).containsKey(StagingArchive.ARTIFACT_TAR.substring(1));
+        String[] cmd = StagingArchive.extractCommand(2048);
+        assertThat(cmd[2]).contains("head -c").contains("tar -xf " + StagingArchive.ARTIFACT_TAR);
+        assertThat(List.of(cmd).subList(3, cmd.length)).containsExactly("edutest-stage", "2048");
+    }
+
+    @Test
+    @DisplayName("Support files get directory entries for their missing parents")
+    void supportFiles() {
+        Map<String, String> entries = read(StagingArchive.build("/workspace/main.py", "", List.of(),
+                Map.of("/workspace/.edutest-warm/lib/worker.py", "pass".getBytes(StandardCharsets.UTF_8)), null));
+
+        assertThat(entries).containsKeys("workspace/.edutest-warm/", "workspace/.edutest-warm/lib/");
+        assertThat(entries.get("workspace/.edutest-warm/lib/worker.py")).isEqualTo("pass");
+    }
+
+    @Test
+    @DisplayName("Paths that don't fit a ustar name are rejected")
+    void longPath() {
+        String path = "/workspace/" + "a".repeat(100);
+
+        assertThatThrownBy(() -> StagingArchive.build(path, "", List.of(), Map.of(), null))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    /** Minimal ustar reader that also verifies each header checksum. */
+    private static Map<String, String> read(byte[] tar) {
+        Map<String, String> entries = new LinkedHashMap<>();
+        int pos = 0;
+        while (pos + 512 <= tar.length && tar[pos] != 0) {
+            String name = field(tar, pos, 100);
+            long size = Long.parseLong(field(tar, pos + 124, 12), 8);
+            long checksum = Long.parseLong(field(tar, pos + 148, 8).trim(), 8);
+            long sum = 0;
+            for (int i = 0; i < 512; i++) {
+                sum += i >= 148 && i < 156 ? ' ' : tar[pos + i] & 0xff;
+            }
+            assertThat(checksum).as("checksum of %s", name).isEqualTo(sum);
+            assertThat(field(tar, pos + 257, 6)).isEqualTo("ustar");
+
+            entries.put(name, new String(tar, pos + 512, (int) size, StandardCharsets.UTF_8));
+            pos += 512 + (int) ((size + 511) / 512 * 512);
+        }
+        List<Byte> trailer = new ArrayList<>();
+        for (int i = pos; i < tar.length; i++) {
+            trailer.add(tar[i]);
+        }
+        assertThat(trailer).hasSize(1024).containsOnly((byte) 0);
+        return entries;
+    }
+
+    private static String field(byte[] tar, int offset, int width) {
+        int end = offset;
+        while (end < offset + width && tar[end] != 0) {
+            end++;
+        }
+        return new String(tar, offset, end - offset, StandardCharsets.US_ASCII);
+    }
+}
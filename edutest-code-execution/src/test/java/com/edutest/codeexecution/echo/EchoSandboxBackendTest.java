@@ -0,0 +1,91 @@
+package com.edutest.codeexecution.echo;
+
+import com.edutest.codeexecution.ExecutionReport;
+import com.edutest.codeexecution.TestCaseRunResult;
+import com.edutest.codeexecution.cache.CompiledArtifactCache;
+import com.edutest.codeexecution.config.CodeExecutionProperties;
+import com.edutest.codeexecution.runners.JavaRunner;
+import com.edutest.codeexecution.runners.LanguageRunnerRegistry;
+import com.edutest.codeexecution.runners.PythonRunner;
+import com.edutest.codeexecution.sandbox.SandboxCodeExecutor;
+import com.edutest.persistance.entity.assigment.coding.TestCaseEntity;
+import com.edutest.persistance.entity.code.CompilationStatusEnum;
+import com.edutest.persistance.entity.code.ExecutionStatusEnum;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class EchoSandboxBackendTest {
+
+    @TempDir
+    Path artifactDir;
+
+    private CodeExecutionProperties properties;
+    private SandboxCodeExecutor executor;
+
+    @BeforeEach
+    void setUp() {
+        properties = new CodeExecutionProperties();
+        properties.getArtifactCache().setDirectory(artifactDir.toString());
+        properties.getEcho().setCaseLatencyMs(0);
+        executor = new SandboxCodeExecutor(new EchoSandboxBackend(properties),
+                new LanguageRunnerRegistry(List.of(new PythonRunner(), new JavaRunner())),
+                properties, new CompiledArtifactCache(properties));
+    }
+
+    @Test
+    @DisplayName("Every case outputs its input, so it passes exactly when the expected output is the input")
+    void echoesInputs() {
+        List<TestCaseRunResult> progress = new ArrayList<>();
+
+        ExecutionReport report = executor.execute("anything", "java",
+                List.of(testCase(1L, "5", "5"), testCase(2L, "héllo", "héllo"), testCase(3L, "7", "14")),
+                1_000, 128, progress::add, false);
+
+        assertThat(report.getCompilationStatus()).isEqualTo(CompilationStatusEnum.SUCCESS);
+        assertThat(report.getExecutionStatus()).isEqualTo(ExecutionStatusEnum.SUCCESS);
+        assertThat(report.getTestCaseResults()).extracting(TestCaseRunResult::isPassed)
+                .containsExactly(true, true, false);
+        assertThat(report.getTestCaseResults().get(2).getActualOutput()).isEqualTo("7");
+        assertThat(progress).hasSize(3);
+    }
+
+    @Test
+    @DisplayName("Stopping at the first failure stops the simulated harness too")
+    void stopsOnFailure() {
+        ExecutionReport report = executor.execute("anything", "python",
+                List.of(testCase(1L, "1", "2"), testCase(2L, "2", "2")), 1_000, 128, r -> { }, true);
+
+        assertThat(report.getTestCaseResults()).extracting(TestCaseRunResult::getTestCaseId).containsExactly(1L);
+    }
+
+    @Test
+    @DisplayName("An interrupted run ends as cancelled, with the interrupt still set")
+    void interruptible() {
+        properties.getEcho().setCaseLatencyMs(10_000);
+        Thread.currentThread().interrupt();
+
+        ExecutionReport report = executor.execute("anything", "python",
+                List.of(testCase(1L, "1", "1")), 1_000, 128);
+
+        assertThat(Thread.interrupted()).isTrue();
+        assertThat(report.getExecutionStatus()).isEqualTo(ExecutionStatusEnum.SYSTEM_ERROR);
+    }
+
+    private static TestCaseEntity testCase(Long id, String input, String expected) {
+        TestCaseEntity tc = new TestCaseEntity();
+        tc.setId(id);
+        tc.setInputData(input);
+        tc.setExpectedOutput(expected);
+        tc.setIsPublic(true);
+        tc.setWeight(1);
+        return tc;
+    }
+}
@@ -0,0 +1,98 @@
+package com.edutest.codeexecution.local;
+
+import com.edutest.codeexecution.ExecutionReport;
+import com.edutest.codeexecution.cache.CompiledArtifactCache;
+import com.edutest.codeexecution.config.CodeExecutionProperties;
+import com.edutest.codeexecution.runners.LanguageRunnerRegistry;
+import com.edutest.codeexecution.runners.PythonRunner;
+import com.edutest.codeexecution.sandbox.SandboxCodeExecutor;
+import com.edutest.persistance.entity.assigment.coding.TestCaseEntity;
+import com.edutest.persistance.entity.code.ExecutionStatusEnum;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Integration test for {@link SandboxCodeExecutor} on {@link LocalProcessBackend} — runs
+ * real bubblewrap sandboxes, no Docker needed.
+ *
+ * <p>Disabled by default. Enable with {@code -Dlocal.it=true} on a Linux host with
+ * {@code bwrap}, unprivileged user namespaces and {@code python} on the PATH.
+ */
+@EnabledIfSystemProperty(named = "local.it", matches = "true")
+class LocalProcessBackendIT {
+
+    @TempDir
+    Path tempDir;
+
+    private SandboxCodeExecutor executor;
+
+    @BeforeEach
+    void setUp() {
+        CodeExecutionProperties properties = new CodeExecutionProperties();
+        properties.setBackend("local");
+        properties.setOutputLimitBytes(64 * 1024);
+        properties.getLocal().setWorkDirectory(tempDir.resolve("sandboxes").toString());
+        properties.getArtifactCache().setDirectory(tempDir.resolve("artifacts").toString());
+
+        executor = new SandboxCodeExecutor(new LocalProcessBackend(properties),
+                new LanguageRunnerRegistry(List.of(new PythonRunner())),
+                properties, new CompiledArtifactCache(properties));
+    }
+
+    @Test
+    @DisplayName("Python: doubles input, all test cases pass")
+    void pythonHappyPath() {
+        ExecutionReport report = executor.execute("print(int(input()) * 2)", "python",
+                List.of(testCase(1L, "5", "10"), testCase(2L, "7", "14")), 5_000, 128);
+
+        assertThat(report.getExecutionStatus()).isEqualTo(ExecutionStatusEnum.SUCCESS);
+        assertThat(report.getTestCaseResults()).allSatisfy(r -> assertThat(r.isPassed()).isTrue());
+    }
+
+    @Test
+    @DisplayName("Python: infinite loop is a time limit exceeded")
+    void pythonTimeout() {
+        ExecutionReport report = executor.execute("while True: pass", "python",
+                List.of(testCase(1L, "", "")), 1_000, 128);
+
+        assertThat(report.getExecutionStatus()).isEqualTo(ExecutionStatusEnum.TIME_LIMIT_EXCEEDED);
+    }
+
+    @Test
+    @DisplayName("Python: the network and the host's home directory are not reachable")
+    void sandboxIsConfined() {
+        String code = """
+                import os, socket
+                try:
+                    socket.create_connection(("1.1.1.1", 53), timeout=1)
+                    print("net")
+                except OSError:
+                    print("no-net")
+                print(os.getuid(), os.path.exists("/root"), os.path.exists("/home"))
+                """;
+
+        ExecutionReport report = executor.execute(code, "python",
+                List.of(testCase(1L, "", "no-net\n65534 False False")), 5_000, 128);
+
+        assertThat(report.getTestCaseResults().get(0).getActualOutput()).startsWith("no-net");
+        assertThat(report.getTestCaseResults().get(0).isPassed()).isTrue();
+    }
+
+    private static TestCaseEntity testCase(Long id, String input, String expected) {
+        TestCaseEntity tc = new TestCaseEntity();
+        tc.setId(id);
+        tc.setInputData(input);
+        tc.setExpectedOutput(expected);
+        tc.setIsPublic(true);
+        tc.setWeight(1);
+        return tc;
+    }
+}
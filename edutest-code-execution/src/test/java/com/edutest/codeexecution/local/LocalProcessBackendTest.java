@@ -0,0 +1,94 @@
+package com.edutest.codeexecution.local;
+
+import com.edutest.codeexecution.config.CodeExecutionProperties;
+import com.edutest.codeexecution.runners.PythonRunner;
+import com.edutest.codeexecution.runners.RunCommand;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class LocalProcessBackendTest {
+
+    @TempDir
+    Path workDir;
+
+    private CodeExecutionProperties properties;
+    private LocalProcessBackend backend;
+    private RunCommand python;
+
+    @BeforeEach
+    void setUp() {
+        properties = new CodeExecutionProperties();
+        properties.getLocal().setWorkDirectory(workDir.toString());
+        backend = new LocalProcessBackend(properties);
+        python = new PythonRunner().buildRunCommand(128);
+    }
+
+    @Test
+    @DisplayName("Commands run through the launcher and bwrap with fresh namespaces and only the sandbox dirs writable")
+    void commandShape() {
+        properties.getLocal().setSeccompProfile("/etc/edutest/seccomp.bpf");
+        LocalProcessBackend.LocalSandbox sandbox = (LocalProcessBackend.LocalSandbox) backend.acquire(python, 128);
+
+        List<String> cmd = backend.command(sandbox, new String[]{"python", "/workspace/main.py"});
+
+        assertThat(cmd.subList(0, 2)).containsExactly("sh", "-c");
+        assertThat(cmd.subList(3, 7)).containsExactly("edutest-sandbox", "", "/etc/edutest/seccomp.bpf", "bwrap");
+        assertThat(String.join(" ", cmd))
+                .contains("--unshare-all --die-with-parent")
+                .contains("--uid 65534 --gid 65534")
+                .contains("--ro-bind-try /usr /usr")
+                .contains("--bind " + sandbox.workspace() + " /workspace")
+                .contains("--bind " + sandbox.tmp() + " /tmp")
+                .contains("--clearenv")
+                .contains("--seccomp 3")
+                .endsWith("-- python /workspace/main.py");
+    }
+
+    @Test
+    @DisplayName("Staging writes the source, inputs and support files into the run's own directory; release removes it")
+    void stagesAndCleansUp() throws Exception {
+        LocalProcessBackend.LocalSandbox sandbox = (LocalProcessBackend.LocalSandbox) backend.acquire(python, 128);
+
+        sandbox.stage("/workspace/main.py", "print(1)", List.of("5\n", "7\n"),
+                Map.of("/workspace/.edutest-warm/worker.py", new byte[]{1}), null);
+
+        assertThat(Files.readString(sandbox.workspace().resolve("main.py"))).isEqualTo("print(1)");
+        assertThat(Files.readString(sandbox.workspace().resolve("in/1"))).isEqualTo("7\n");
+        assertThat(sandbox.workspace().resolve(".edutest-warm/worker.py")).hasBinaryContent(new byte[]{1});
+        assertThat(sandbox.workspace().getParent().getParent()).isEqualTo(workDir);
+
+        backend.release(sandbox, true);
+
+        assertThat(workDir).isEmptyDirectory();
+    }
+
+    @Test
+    @DisplayName("Only paths under /workspace and /tmp map into the sandbox directory")
+    void rejectsPathsOutsideSandbox() {
+        LocalProcessBackend.LocalSandbox sandbox = (LocalProcessBackend.LocalSandbox) backend.acquire(python, 128);
+
+        assertThat(sandbox.hostPath("/tmp/Solution.class")).isEqualTo(sandbox.tmp().resolve("Solution.class"));
+        assertThatThrownBy(() -> sandbox.hostPath("/etc/passwd")).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> sandbox.hostPath("/workspace/../../escape")).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    @DisplayName("Toolchain ID identifies the resolved compiler binary, or is null when it isn't installed")
+    void toolchainId() {
+        RunCommand shell = RunCommand.builder().compileCmd(new String[]{"sh", "-n"}).build();
+
+        assertThat(backend.toolchainId(shell)).startsWith("local:/");
+        assertThat(backend.toolchainId(RunCommand.builder()
+                .compileCmd(new String[]{"edutest-no-such-compiler"}).build())).isNull();
+    }
+}
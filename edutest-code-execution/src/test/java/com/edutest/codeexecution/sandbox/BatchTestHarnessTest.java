@@ -0,0 +1,42 @@
+package com.edutest.codeexecution.sandbox;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BatchTestHarnessTest {
+
+    @Test
+    @DisplayName("Command passes case count, whole-second kill timeout, output limit and the run command as args")
+    void commandShape() {
+        String[] cmd = BatchTestHarness.command(new String[]{"python", "/workspace/main.py"}, 3, 1_500L, 4_096);
+
+        assertThat(cmd[0]).isEqualTo("sh");
+        assertThat(cmd[1]).isEqualTo("-c");
+        assertThat(cmd[2]).contains("timeout -s KILL").contains("ulimit -f").contains("times >")
+                .contains(BatchTestHarness.RECORD_HEADER);
+        assertThat(List.of(cmd).subList(3, cmd.length))
+                .containsExactly("edutest-harness", "3", "2", "4096", "python", "/workspace/main.py");
+    }
+
+    @Test
+    @DisplayName("Warm command passes the exact wall limit and hands the worker its input and harness dirs")
+    void warmCommandShape() {
+        String[] cmd = BatchTestHarness.warmCommand(new String[]{"python", "/workspace/.edutest-warm/worker.py"},
+                3, 1_500L, 4_096);
+
+        assertThat(cmd[2]).contains("h=/tmp/.harness").contains("$h/cur").contains("ulimit -f")
+                .contains("\"$@\" " + BatchTestHarness.INPUT_DIR).doesNotContain("timeout -s KILL");
+        assertThat(List.of(cmd).subList(3, cmd.length))
+                .containsExactly("edutest-harness", "3", "1500", "4096", "python", "/workspace/.edutest-warm/worker.py");
+    }
+
+    @Test
+    @DisplayName("Overall timeout covers every case hitting its kill timeout")
+    void overallTimeout() {
+        assertThat(BatchTestHarness.overallTimeoutMs(10, 2_000L)).isEqualTo(10 * 3_000L + 10_000L);
+    }
+}
@@ -0,0 +1,164 @@
+package com.edutest.codeexecution.sandbox;
+
+import com.edutest.codeexecution.checker.OutputChecker;
+import com.edutest.codeexecution.checker.OutputCheckers;
+import com.edutest.persistance.entity.assigment.coding.TestCaseEntity;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class HarnessOutputParserTest {
+
+    @Test
+    @DisplayName("Decodes consecutive records written in one chunk")
+    void decodesRecords() {
+        HarnessOutputParser parser = parser(List.of(exact("10"), exact("x")));
+
+        write(parser, "@@EDUTEST-CASE 0 0 12 0m0.010000s 0m0.002000s 5120 3 0\n10\n"
+                + "@@EDUTEST-CASE 1 1 40 0m0.00s 0m0.00s - 0 5\nboom\n");
+
+        assertThat(parser.completedCount()).isEqualTo(2);
+        assertThat(parser.outcome(0)).isEqualTo(
+                new HarnessOutputParser.CaseOutcome(0, 0, 12, 12, 5120, "10\n", "", true, false));
+        assertThat(parser.outcome(1)).isEqualTo(
+                new HarnessOutputParser.CaseOutcome(1, 1, 40, 0, -1, "", "boom\n", false, false));
+    }
+
+    @Test
+    @DisplayName("CPU times in either shell's format are summed; unmeasured fields decode as -1")
+    void decodesResourceUsage() {
+        HarnessOutputParser parser = parser(List.of());
+
+        write(parser, "@@EDUTEST-CASE 0 0 2500 1m2.5s 0m0.25s 81234 0 0\n"
+                + "@@EDUTEST-CASE 1 0 10 - - - 0 0\n");
+
+        assertThat(parser.outcome(0).cpuTimeMs()).isEqualTo(62_750);
+        assertThat(parser.outcome(0).peakMemoryKb()).isEqualTo(81_234);
+        assertThat(parser.outcome(1).cpuTimeMs()).isEqualTo(-1);
+        assertThat(parser.outcome(1).peakMemoryKb()).isEqualTo(-1);
+    }
+
+    @Test
+    @DisplayName("Frame boundaries may split headers and bodies anywhere")
+    void handlesArbitraryChunking() throws IOException {
+        HarnessOutputParser parser = parser(List.of());
+        byte[] stream = "@@EDUTEST-CASE 0 0 7 0m0.00s 0m0.00s - 6 2\nhello\nwarn".getBytes(StandardCharsets.UTF_8);
+
+        for (byte b : stream) {
+            parser.write(new byte[]{b}, 0, 1);
+        }
+
+        assertThat(parser.outcome(0).stdout()).isEqualTo("hello\n");
+        assertThat(parser.outcome(0).stderr()).isEqualTo("wa");
+        // Trailing bytes after the record are treated as the start of the next header.
+        assertThat(parser.completedCount()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Program output that looks like a header is not mistaken for one")
+    void outputIsLengthPrefixed() {
+        HarnessOutputParser parser = parser(List.of());
+        String fake = "@@EDUTEST-CASE 9 0 1 0m0.00s 0m0.00s - 0 0\n";
+        int len = fake.getBytes(StandardCharsets.UTF_8).length;
+
+        write(parser, "@@EDUTEST-CASE 0 0 5 0m0.00s 0m0.00s - " + len + " 0\n" + fake);
+
+        assertThat(parser.completedCount()).isEqualTo(1);
+        assertThat(parser.outcome(0).stdout()).isEqualTo(fake);
+        assertThat(parser.outcome(9)).isNull();
+    }
+
+    @Test
+    @DisplayName("Multi-byte UTF-8 output is decoded by byte length")
+    void utf8ByteLengths() {
+        HarnessOutputParser parser = parser(List.of());
+        String out = "zażółć\n";
+        int len = out.getBytes(StandardCharsets.UTF_8).length;
+
+        write(parser, "@@EDUTEST-CASE 0 0 5 0m0.00s 0m0.00s - " + len + " 0\n" + out);
+
+        assertThat(parser.outcome(0).stdout()).isEqualTo(out);
+    }
+
+    @Test
+    @DisplayName("Garbage lines before a record are ignored")
+    void ignoresNoise() {
+        HarnessOutputParser parser = parser(List.of());
+
+        write(parser, "sh: warning\n@@EDUTEST-CASE 0 124 2000 0m0.00s 0m0.00s - 0 0\n");
+
+        assertThat(parser.outcome(0).exitCode()).isEqualTo(124);
+    }
+
+    @Test
+    @DisplayName("Only the display prefix of each stream is buffered; matching still sees every byte")
+    void keepsBoundedPrefix() {
+        HarnessOutputParser parser = new HarnessOutputParser(List.of(exact("abcdefgh")), 4, 1_000);
+
+        write(parser, "@@EDUTEST-CASE 0 0 5 0m0.00s 0m0.00s - 9 6\nabcdefgh\nerrors");
+
+        assertThat(parser.outcome(0).stdout()).isEqualTo("abcd");
+        assertThat(parser.outcome(0).stderr()).isEqualTo("erro");
+        assertThat(parser.outcome(0).outputMatches()).isTrue();
+    }
+
+    @Test
+    @DisplayName("A stream longer than the output limit flags the case and never matches")
+    void flagsOutputLimit() {
+        HarnessOutputParser parser = new HarnessOutputParser(List.of(exact("aaaa")), 100, 3);
+
+        write(parser, "@@EDUTEST-CASE 0 153 5 0m0.00s 0m0.00s - 4 0\naaaa"
+                + "@@EDUTEST-CASE 1 0 5 0m0.00s 0m0.00s - 1 4\nxeeee");
+
+        assertThat(parser.outcome(0).outputLimitExceeded()).isTrue();
+        assertThat(parser.outcome(0).outputMatches()).isFalse();
+        assertThat(parser.outcome(1).outputLimitExceeded()).isTrue();
+    }
+
+    @Test
+    @DisplayName("Outcomes are handed out as they complete; a false answer stops the parser")
+    void stopsWhenToldTo() {
+        List<Integer> seen = new ArrayList<>();
+        HarnessOutputParser parser = new HarnessOutputParser(List.of(), 1_000, 1_000, outcome -> {
+            seen.add(outcome.index());
+            return outcome.exitCode() == 0;
+        });
+        byte[] stream = ("@@EDUTEST-CASE 0 0 5 0m0.00s 0m0.00s - 0 0\n"
+                + "@@EDUTEST-CASE 1 1 5 0m0.00s 0m0.00s - 0 0\n"
+                + "@@EDUTEST-CASE 2 0 5 0m0.00s 0m0.00s - 0 0\n").getBytes(StandardCharsets.UTF_8);
+
+        assertThatThrownBy(() -> parser.write(stream, 0, stream.length)).isInstanceOf(IOException.class);
+        assertThatThrownBy(() -> parser.write('x')).isInstanceOf(IOException.class);
+
+        assertThat(seen).containsExactly(0, 1);
+        assertThat(parser.stopped()).isTrue();
+        assertThat(parser.outcome(2)).isNull();
+    }
+
+    private static HarnessOutputParser parser(List<OutputChecker> checkers) {
+        return new HarnessOutputParser(checkers, 1_000, 1_000);
+    }
+
+    private static OutputChecker exact(String expected) {
+        TestCaseEntity tc = new TestCaseEntity();
+        tc.setExpectedOutput(expected);
+        return OutputCheckers.forTestCase(tc);
+    }
+
+    private static void write(HarnessOutputParser parser, String s) {
+        byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+        try {
+            parser.write(bytes, 0, bytes.length);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
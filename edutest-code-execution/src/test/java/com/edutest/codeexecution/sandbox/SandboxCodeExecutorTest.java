@@ -0,0 +1,229 @@
+package com.edutest.codeexecution.sandbox;
+
+import com.edutest.codeexecution.ExecutionReport;
+import com.edutest.codeexecution.TestCaseRunResult;
+import com.edutest.codeexecution.cache.CompiledArtifactCache;
+import com.edutest.codeexecution.config.CodeExecutionProperties;
+import com.edutest.codeexecution.runners.JavaRunner;
+import com.edutest.codeexecution.runners.LanguageRunnerRegistry;
+import com.edutest.codeexecution.runners.PythonRunner;
+import com.edutest.codeexecution.runners.RunCommand;
+import com.edutest.codeexecution.warm.WarmWorkers;
+import com.edutest.persistance.entity.assigment.coding.TestCaseEntity;
+import com.edutest.persistance.entity.code.CompilationStatusEnum;
+import com.edutest.persistance.entity.code.ExecutionStatusEnum;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SandboxCodeExecutorTest {
+
+    @TempDir
+    Path artifactDir;
+
+    private CodeExecutionProperties properties;
+    private FakeBackend backend;
+    private SandboxCodeExecutor executor;
+
+    @BeforeEach
+    void setUp() {
+        properties = new CodeExecutionProperties();
+        properties.getArtifactCache().setDirectory(artifactDir.toString());
+        backend = new FakeBackend();
+        executor = new SandboxCodeExecutor(backend,
+                new LanguageRunnerRegistry(List.of(new PythonRunner(), new JavaRunner())),
+                properties, new CompiledArtifactCache(properties));
+    }
+
+    @Test
+    @DisplayName("Stages every input, runs one harness pass and judges its records against the CPU-time limit")
+    void judgesHarnessRecords() {
+        backend.harnessOutput = "@@EDUTEST-CASE 0 0 30 0m0.02s 0m0.00s 2048 3 0\n10\n"
+                + "@@EDUTEST-CASE 1 0 1300 0m1.20s 0m0.00s 2048 3 0\n14\n";
+
+        ExecutionReport report = executor.execute("print(int(input()) * 2)", "python",
+                List.of(testCase(1L, "5", "10"), testCase(2L, "7", "14")), 1_000, 128);
+
+        assertThat(backend.stagedSource).isEqualTo("/workspace/main.py");
+        assertThat(backend.stagedInputs).containsExactly("5", "7");
+        assertThat(report.getExecutionStatus()).isEqualTo(ExecutionStatusEnum.TIME_LIMIT_EXCEEDED);
+        assertThat(report.getTestCaseResults()).extracting(TestCaseRunResult::isPassed).containsExactly(true, false);
+        assertThat(report.getTestCaseResults().get(1).getCpuTimeMs()).isEqualTo(1_200L);
+        assertThat(report.getMaxMemoryUsedMb()).isEqualTo(2);
+        assertThat(backend.released).containsExactly(true);
+    }
+
+    @Test
+    @DisplayName("Each verdict is handed out as its record arrives; stopping on failure drops the rest")
+    void reportsProgressAndStopsOnFailure() {
+        backend.harnessOutput = "@@EDUTEST-CASE 0 0 30 0m0.02s 0m0.00s 2048 3 0\n10\n"
+                + "@@EDUTEST-CASE 1 1 30 0m0.02s 0m0.00s 2048 0 4\nboom"
+                + "@@EDUTEST-CASE 2 0 30 0m0.02s 0m0.00s 2048 3 0\n18\n";
+        List<TestCaseEntity> cases = List.of(testCase(1L, "5", "10"), testCase(2L, "7", "14"), testCase(3L, "9", "18"));
+        List<TestCaseRunResult> progress = new ArrayList<>();
+
+        ExecutionReport all = executor.execute("print(int(input()) * 2)", "python", cases, 1_000, 128,
+                progress::add, false);
+        assertThat(progress).extracting(TestCaseRunResult::getTestCaseId).containsExactly(1L, 2L, 3L);
+        assertThat(all.getTestCaseResults()).hasSize(3);
+
+        progress.clear();
+        ExecutionReport stopped = executor.execute("print(int(input()) * 2)", "python", cases, 1_000, 128,
+                progress::add, true);
+        assertThat(progress).extracting(TestCaseRunResult::isPassed).containsExactly(true, false);
+        assertThat(stopped.getTestCaseResults()).extracting(TestCaseRunResult::getTestCaseId).containsExactly(1L, 2L);
+        assertThat(stopped.getExecutionStatus()).isEqualTo(ExecutionStatusEnum.RUNTIME_ERROR);
+        assertThat(backend.released).containsExactly(true, true);
+    }
+
+    @Test
+    @DisplayName("A compile error is reported without running the harness")
+    void compileError() {
+        backend.compileExitCode = 1;
+
+        ExecutionReport report = executor.execute("class Solution {", "java",
+                List.of(testCase(1L, "1", "1")), 1_000, 128);
+
+        assertThat(report.getCompilationStatus()).isEqualTo(CompilationStatusEnum.ERROR);
+        assertThat(report.getCompilationError()).contains("reached end of file");
+        assertThat(backend.commands).noneMatch(cmd -> cmd.contains("edutest-harness"));
+    }
+
+    @Test
+    @DisplayName("The compile output is cached under the backend's toolchain ID and staged instead of recompiling")
+    void reusesCompiledArtifact() {
+        backend.harnessOutput = "@@EDUTEST-CASE 0 0 30 0m0.02s 0m0.00s - 2 0\n1\n";
+        List<TestCaseEntity> cases = List.of(testCase(1L, "1", "1"));
+
+        executor.execute("class Solution {}", "java", cases, 1_000, 128);
+        ExecutionReport second = executor.execute("class Solution {}", "java", cases, 1_000, 128);
+
+        assertThat(second.getExecutionStatus()).isEqualTo(ExecutionStatusEnum.SUCCESS);
+        assertThat(backend.commands).filteredOn(cmd -> cmd.startsWith("javac")).hasSize(1);
+        assertThat(backend.stagedArtifact).containsExactly(7, 7, 7);
+    }
+
+    @Test
+    @DisplayName("With warm runtimes the worker is staged and supervised instead of one runtime per case")
+    void warmWorker() {
+        properties.setWarmRuntimes(true);
+        backend.harnessOutput = "@@EDUTEST-CASE 0 0 3 0m0.001s 0m0.000s - 2 0\n1\n"
+                + "@@EDUTEST-CASE 1 124 1000 - - - 0 0\n";
+
+        ExecutionReport report = executor.execute("class Solution {}", "java",
+                List.of(testCase(1L, "1", "1"), testCase(2L, "2", "2")), 500, 128);
+
+        assertThat(backend.stagedSupportFiles).containsOnlyKeys(
+                WarmWorkers.DIR + "/com/edutest/codeexecution/warm/JavaWarmWorker.class");
+        assertThat(backend.commands).filteredOn(cmd -> cmd.contains("edutest-harness")).singleElement()
+                .satisfies(cmd -> assertThat(cmd).endsWith("edutest-harness 2 1000 " + properties.getOutputLimitBytes()
+                        + " java -Xmx128m -XX:-UsePerfData -cp " + WarmWorkers.DIR + " "
+                        + WarmWorkers.JAVA_WORKER_CLASS + " /tmp Solution"));
+        assertThat(report.getTestCaseResults()).extracting(TestCaseRunResult::isPassed).containsExactly(true, false);
+        assertThat(report.getTestCaseResults().get(1).isTimedOut()).isTrue();
+    }
+
+    @Test
+    @DisplayName("Without warm runtimes nothing but the source and inputs is staged")
+    void coldByDefault() {
+        backend.harnessOutput = "@@EDUTEST-CASE 0 0 30 0m0.02s 0m0.00s 2048 2 0\n1\n";
+
+        executor.execute("print(1)", "python", List.of(testCase(1L, "", "1")), 1_000, 128);
+
+        assertThat(backend.stagedSupportFiles).isEmpty();
+        assertThat(backend.commands).anyMatch(cmd -> cmd.contains("timeout -s KILL"));
+    }
+
+    @Test
+    @DisplayName("A backend failure is a SYSTEM_ERROR and the sandbox is not reused")
+    void backendFailure() {
+        backend.stagingFailure = new IllegalStateException("disk full");
+
+        ExecutionReport report = executor.execute("print(1)", "python",
+                List.of(testCase(1L, "", "1")), 1_000, 128);
+
+        assertThat(report.getExecutionStatus()).isEqualTo(ExecutionStatusEnum.SYSTEM_ERROR);
+        assertThat(backend.released).containsExactly(false);
+    }
+
+    /** Records what the executor asks for and answers commands with canned output. */
+    private static class FakeBackend implements SandboxBackend {
+
+        String harnessOutput = "";
+        int compileExitCode;
+        RuntimeException stagingFailure;
+
+        String stagedSource;
+        List<String> stagedInputs;
+        Map<String, byte[]> stagedSupportFiles;
+        byte[] stagedArtifact;
+        final List<String> commands = new ArrayList<>();
+        final List<Boolean> released = new ArrayList<>();
+
+        @Override
+        public Sandbox acquire(RunCommand runCommand, int memoryLimitMb) {
+            return new Sandbox() {
+                @Override
+                public void stage(String sourcePath, String sourceCode, List<String> inputs,
+                                  Map<String, byte[]> supportFiles, byte[] compiledArtifact) {
+                    if (stagingFailure != null) {
+                        throw stagingFailure;
+                    }
+                    stagedSource = sourcePath;
+                    stagedInputs = inputs;
+                    stagedSupportFiles = supportFiles;
+                    stagedArtifact = compiledArtifact;
+                }
+
+                @Override
+                public ExecResult exec(String[] cmd, OutputStream stdoutSink, long timeoutMs) {
+                    String line = String.join(" ", cmd);
+                    commands.add(line);
+                    if (cmd[0].equals("javac")) {
+                        return new ExecResult("", compileExitCode == 0 ? "" : "error: reached end of file while parsing",
+                                compileExitCode, 100, false, false);
+                    }
+                    String output = cmd[0].equals("tar") ? "\7\7\7" : harnessOutput;
+                    try {
+                        stdoutSink.write(output.getBytes(StandardCharsets.UTF_8));
+                    } catch (IOException e) {
+                        // The sink wants no more output: the command is aborted.
+                        return new ExecResult("", "", -1, 100, false, false);
+                    }
+                    return new ExecResult("", "", 0, 100, false, false);
+                }
+            };
+        }
+
+        @Override
+        public void release(Sandbox sandbox, boolean reusable) {
+            released.add(reusable);
+        }
+
+        @Override
+        public String toolchainId(RunCommand runCommand) {
+            return "fake:" + runCommand.getCompileCmd()[0];
+        }
+    }
+
+    private static TestCaseEntity testCase(Long id, String input, String expected) {
+        TestCaseEntity tc = new TestCaseEntity();
+        tc.setId(id);
+        tc.setInputData(input);
+        tc.setExpectedOutput(expected);
+        tc.setIsPublic(true);
+        tc.setWeight(1);
+        return tc;
+    }
+}
@@ -0,0 +1,120 @@
+package com.edutest.codeexecution.warm;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.tools.ToolProvider;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class JavaWarmWorkerTest {
+
+    private static final String SOLUTION = """
+            public class Solution {
+                static int calls;
+
+                public static void main(String[] args) throws Exception {
+                    String line = new java.io.BufferedReader(new java.io.InputStreamReader(System.in)).readLine();
+                    if (line.equals("loop")) {
+                        while (true) {
+                        }
+                    }
+                    calls++;
+                    System.out.println(calls + " " + Integer.parseInt(line) * 2);
+                }
+            }
+            """;
+
+    private static final String THREADED_SOLUTION = """
+            public class Solution {
+                public static void main(String[] args) throws Exception {
+                    String line = new java.io.BufferedReader(new java.io.InputStreamReader(System.in)).readLine();
+                    Thread thread = new Thread(() -> {
+                        try {
+                            Thread.sleep(line.equals("late") ? 200 : 0);
+                        } catch (InterruptedException e) {
+                            return;
+                        }
+                        System.out.println("from " + line);
+                        while (line.equals("spin") || line.equals("daemon")) {
+                        }
+                    });
+                    thread.setDaemon(line.equals("daemon"));
+                    thread.start();
+                }
+            }
+            """;
+
+    @TempDir
+    Path dir;
+
+    @Test
+    @DisplayName("Runs each case in a fresh class loader, frames it like the harness and halts after a timeout")
+    void runsCases() throws Exception {
+        List<String> cases = List.of("3", "x", "4", "loop", "5");
+        String records = runWorker(SOLUTION, cases, 0);
+        Path harness = dir.resolve("harness");
+
+        assertThat(records).containsPattern("@@EDUTEST-CASE 0 0 \\d+ 0m\\d+\\.\\d{3}s 0m0\\.000s - 4 0\n1 6\n");
+        assertThat(records).containsPattern("@@EDUTEST-CASE 1 1 \\d+ 0m\\d+\\.\\d{3}s 0m0\\.000s - 0 \\d+\n"
+                + "Exception in thread \"main\" java.lang.NumberFormatException");
+        // Static state of case 0 is gone by case 2.
+        assertThat(records).containsPattern("@@EDUTEST-CASE 2 0 \\d+ \\S+ \\S+ - 4 0\n1 8\n");
+        assertThat(records).containsPattern("@@EDUTEST-CASE 3 124 \\d{4,} - - - 0 0\n");
+        assertThat(records).doesNotContain("@@EDUTEST-CASE 4");
+        assertThat(harness.resolve("next")).hasContent("4");
+        assertThat(harness.resolve("cur")).doesNotExist();
+    }
+
+    @Test
+    @DisplayName("Waits for threads main started, like a cold JVM exit, and restarts after ones it can't wait for")
+    void waitsForNonDaemonThreads() throws Exception {
+        List<String> cases = List.of("late", "next", "spin", "next", "daemon", "next");
+
+        String records = runWorker(THREADED_SOLUTION, cases, 0);
+
+        // The late print belongs to its own case, not to the one after it.
+        assertThat(records).containsPattern("@@EDUTEST-CASE 0 0 \\d+ \\S+ \\S+ - 10 0\nfrom late\n");
+        assertThat(records).containsPattern("@@EDUTEST-CASE 1 0 \\d+ \\S+ \\S+ - 10 0\nfrom next\n");
+        assertThat(records).containsPattern("@@EDUTEST-CASE 2 124 \\d{4,} - - - 10 0\nfrom spin\n");
+        assertThat(records).doesNotContain("@@EDUTEST-CASE 3");
+        assertThat(dir.resolve("harness").resolve("next")).hasContent("3");
+
+        String restarted = runWorker(THREADED_SOLUTION, cases, 3);
+
+        // A daemon thread doesn't hold the case up, but the worker halts so it can't write into the next one.
+        assertThat(restarted).containsPattern("@@EDUTEST-CASE 3 0 \\d+ \\S+ \\S+ - 10 0\nfrom next\n");
+        assertThat(restarted).containsPattern("@@EDUTEST-CASE 4 0 \\d+ \\S+ \\S+ - \\d+ 0\n");
+        assertThat(restarted).doesNotContain("@@EDUTEST-CASE 5");
+        assertThat(dir.resolve("harness").resolve("next")).hasContent("5");
+    }
+
+    private String runWorker(String solution, List<String> cases, int first) throws Exception {
+        Path classes = Files.createDirectories(dir.resolve("classes"));
+        Path inputs = Files.createDirectories(dir.resolve("in"));
+        Path harness = Files.createDirectories(dir.resolve("harness"));
+        Files.writeString(dir.resolve("Solution.java"), solution);
+        assertThat(ToolProvider.getSystemJavaCompiler().run(null, null, null,
+                "-d", classes.toString(), dir.resolve("Solution.java").toString())).isZero();
+        for (int i = 0; i < cases.size(); i++) {
+            Files.writeString(inputs.resolve(String.valueOf(i)), cases.get(i) + "\n");
+        }
+
+        Path workerClasses = Path.of(JavaWarmWorker.class.getProtectionDomain().getCodeSource().getLocation().toURI());
+        Process worker = new ProcessBuilder(
+                Path.of(System.getProperty("java.home"), "bin", "java").toString(),
+                "-cp", workerClasses.toString(), WarmWorkers.JAVA_WORKER_CLASS,
+                classes.toString(), "Solution", inputs.toString(), harness.toString(),
+                String.valueOf(first), String.valueOf(cases.size()), "1000", "4097")
+                .redirectErrorStream(true)
+                .start();
+        assertThat(worker.waitFor(30, TimeUnit.SECONDS)).isTrue();
+        return new String(worker.getInputStream().readAllBytes(), StandardCharsets.UTF_8);
+    }
+}
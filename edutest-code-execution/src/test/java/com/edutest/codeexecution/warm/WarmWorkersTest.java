@@ -0,0 +1,69 @@
+package com.edutest.codeexecution.warm;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+class WarmWorkersTest {
+
+    private static final String MAIN = """
+            import threading, time
+
+            line = input()
+
+            def later():
+                time.sleep(0.2)
+                print("from " + line, flush=True)
+                while line == "spin":
+                    pass
+
+            threading.Thread(target=later).start()
+            """;
+
+    @TempDir
+    Path dir;
+
+    @Test
+    @DisplayName("Python worker waits for threads main started, like interpreter shutdown, within the wall limit")
+    void pythonWorkerJoinsThreads() throws Exception {
+        assumeTrue(pythonAvailable(), "python3 is not installed");
+        Path worker = dir.resolve("worker.py");
+        Files.write(worker, WarmWorkers.pythonFiles().get(WarmWorkers.PYTHON_WORKER));
+        Path source = Files.writeString(dir.resolve("main.py"), MAIN);
+        Path inputs = Files.createDirectories(dir.resolve("in"));
+        Path harness = Files.createDirectories(dir.resolve("harness"));
+        List<String> cases = List.of("late", "spin", "next");
+        for (int i = 0; i < cases.size(); i++) {
+            Files.writeString(inputs.resolve(String.valueOf(i)), cases.get(i) + "\n");
+        }
+
+        Process process = new ProcessBuilder("python3", worker.toString(), source.toString(),
+                inputs.toString(), harness.toString(), "0", String.valueOf(cases.size()), "1000", "4097")
+                .redirectErrorStream(true)
+                .start();
+        assertThat(process.waitFor(30, TimeUnit.SECONDS)).isTrue();
+        String records = new String(process.getInputStream().readAllBytes(), StandardCharsets.UTF_8);
+
+        assertThat(records).containsPattern("@@EDUTEST-CASE 0 0 \\d+ \\S+ \\S+ \\d+ 10 0\nfrom late\n");
+        assertThat(records).containsPattern("@@EDUTEST-CASE 1 124 \\d{4,} \\S+ \\S+ \\d+ 10 0\nfrom spin\n");
+        assertThat(records).containsPattern("@@EDUTEST-CASE 2 0 \\d+ \\S+ \\S+ \\d+ 10 0\nfrom next\n");
+        assertThat(harness.resolve("next")).hasContent("3");
+    }
+
+    private static boolean pythonAvailable() {
+        try {
+            return new ProcessBuilder("python3", "--version").start().waitFor(10, TimeUnit.SECONDS);
+        } catch (Exception e) {
+            return false;
+        }
+    }
+}
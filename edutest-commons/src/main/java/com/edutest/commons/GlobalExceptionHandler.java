@@ -1,10 +1,12 @@
 package com.edutest.commons;
 
 import com.edutest.api.model.ErrorResponse;
+import com.edutest.service.codeexecution.ExecutionQueueFullException;
 import jakarta.persistence.EntityNotFoundException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.ConstraintViolationException;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.converter.HttpMessageNotReadableException;
@@ -186,6 +188,22 @@ public class GlobalExceptionHandler {
         return ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE).body(error);
     }
 
+    @ExceptionHandler(ExecutionQueueFullException.class)
+    public ResponseEntity<ErrorResponse> handleExecutionQueueFull(
+            ExecutionQueueFullException ex, HttpServletRequest request) {
+        log.warn("Execution queue full: {} - {}", request.getRequestURI(), ex.getMessage());
+
+        ErrorResponse error = new ErrorResponse();
+        error.setError("Service Unavailable");
+        error.setMessage(ex.getMessage());
+        error.setTimestamp(OffsetDateTime.now());
+        error.setPath(request.getRequestURI());
+
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSeconds()))
+                .body(error);
+    }
+
     @ExceptionHandler(Exception.class)
     public ResponseEntity<ErrorResponse> handleGeneric(
             Exception ex, HttpServletRequest request) {
@@ -4,9 +4,11 @@ import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
+import io.jsonwebtoken.Claims;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
@@ -16,6 +18,7 @@ import org.springframework.util.StringUtils;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.util.List;
 
 @Slf4j
 @Component
@@ -24,6 +27,8 @@ public class JwtAuthTokenFilter extends OncePerRequestFilter {
 
     private final JwtTokenProvider tokenProvider;
     private final UserDetailsService userDetailsService;
+    private final PrincipalCache principalCache;
+    private final TokenRevocationRegistry revocationRegistry;
 
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
@@ -33,19 +38,22 @@ public class JwtAuthTokenFilter extends OncePerRequestFilter {
 
         try {
             String jwt = parseJwt(request);
-            if (jwt != null && tokenProvider.validateJwtToken(jwt)) {
-                String username = tokenProvider.getUsernameFromJwtToken(jwt);
+            Claims claims = jwt != null ? tokenProvider.parseClaims(jwt) : null;
+            if (claims != null) {
+                String username = claims.getSubject();
                 log.debug("JWT token validated for user: {}", username);
 
-                UserDetails userDetails = userDetailsService.loadUserByUsername(username);
-                log.debug("User authorities loaded: {}", userDetails.getAuthorities());
+                UserDetails userDetails = revocationRegistry.isRevoked(claims) ? null : loadPrincipal(claims);
+                if (userDetails != null && userDetails.isEnabled()) {
+                    UsernamePasswordAuthenticationToken authentication =
+                            new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
+                    authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
 
-                UsernamePasswordAuthenticationToken authentication =
-                        new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
-                authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
-
-                SecurityContextHolder.getContext().setAuthentication(authentication);
-                log.debug("Authentication set for user: {} with roles: {}", username, userDetails.getAuthorities());
+                    SecurityContextHolder.getContext().setAuthentication(authentication);
+                    log.debug("Authentication set for user: {} with roles: {}", username, userDetails.getAuthorities());
+                } else {
+                    log.debug("Token of user {} is revoked or the account is inactive", username);
+                }
             } else {
                 log.debug("No valid JWT token found for request: {} {}", request.getMethod(), request.getRequestURI());
             }
@@ -56,6 +64,41 @@ public class JwtAuthTokenFilter extends OncePerRequestFilter {
         filterChain.doFilter(request, response);
     }
 
+    /**
+     * In stateless mode the principal is built from the token claims alone, revocation being
+     * left to {@link TokenRevocationRegistry}. Otherwise tokens carrying the user ID and token
+     * version go through {@link PrincipalCache}; a version that no longer matches the
+     * database means the token was revoked. Tokens issued before those claims existed are
+     * resolved from the database on every request.
+     */
+    private UserDetails loadPrincipal(Claims claims) {
+        String username = claims.getSubject();
+        Long userId = claims.get(JwtTokenProvider.USER_ID_CLAIM, Long.class);
+        Integer tokenVersion = claims.get(JwtTokenProvider.TOKEN_VERSION_CLAIM, Integer.class);
+        if (userId == null || tokenVersion == null) {
+            return userDetailsService.loadUserByUsername(username);
+        }
+        List<?> roles = claims.get(JwtTokenProvider.ROLES_CLAIM, List.class);
+        if (revocationRegistry.isStateless() && roles != null) {
+            List<SimpleGrantedAuthority> authorities = roles.stream()
+                    .map(role -> new SimpleGrantedAuthority(String.valueOf(role)))
+                    .toList();
+            // Only active users get tokens and deactivation revokes them, so a valid token means active.
+            return new LoginUserDetailsService.UserPrincipal(userId.toString(), username, null, null,
+                    authorities, true, tokenVersion);
+        }
+        return principalCache.get(userId, tokenVersion, () -> {
+            UserDetails loaded = userDetailsService.loadUserByUsername(username);
+            if (loaded instanceof LoginUserDetailsService.UserPrincipal principal
+                    && principal.getId().equals(userId.toString())
+                    && principal.getTokenVersion() == tokenVersion) {
+                log.debug("User authorities loaded: {}", principal.getAuthorities());
+                return principal;
+            }
+            return null;
+        });
+    }
+
     private String parseJwt(HttpServletRequest request) {
         String headerAuth = request.getHeader("Authorization");
 
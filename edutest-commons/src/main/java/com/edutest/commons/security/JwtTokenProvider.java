@@ -14,12 +14,20 @@ import javax.crypto.SecretKey;
 import java.time.Instant;
 import java.util.Date;
 import java.util.List;
+import java.util.UUID;
 import java.util.stream.Collectors;
 
 @Slf4j
 @Component
 public class JwtTokenProvider {
 
+    /** Database ID of the user; with {@link #TOKEN_VERSION_CLAIM} lets the filter use {@link PrincipalCache}. */
+    public static final String USER_ID_CLAIM = "uid";
+    /** Granted authority names, e.g. {@code ROLE_TEACHER}. */
+    public static final String ROLES_CLAIM = "roles";
+    /** The user's token version at issue time; bumping it in the database revokes the token. */
+    public static final String TOKEN_VERSION_CLAIM = "ver";
+
     private final String jwtSecret;
     private final int jwtExpirationMs;
     private final SecretKey key;
@@ -32,17 +40,29 @@ public class JwtTokenProvider {
     }
 
     public String generateJwtToken(Authentication authentication) {
-        UserDetails userPrincipal = (UserDetails) authentication.getPrincipal();
+        return generateJwtToken((UserDetails) authentication.getPrincipal());
+    }
 
+    /**
+     * Tokens of a {@link LoginUserDetailsService.UserPrincipal} also carry its ID, token
+     * version and a unique token ID, enough to authorize requests without the database.
+     */
+    public String generateJwtToken(UserDetails userPrincipal) {
         List<String> roles = userPrincipal.getAuthorities().stream()
                 .map(authority -> authority.getAuthority())
                 .collect(Collectors.toList());
 
         Date expiryDate = Date.from(Instant.now().plusMillis(jwtExpirationMs));
 
-        return Jwts.builder()
+        var builder = Jwts.builder()
                 .subject(userPrincipal.getUsername())
-                .claim("roles", roles)
+                .claim(ROLES_CLAIM, roles);
+        if (userPrincipal instanceof LoginUserDetailsService.UserPrincipal principal) {
+            builder.id(UUID.randomUUID().toString())
+                    .claim(USER_ID_CLAIM, Long.valueOf(principal.getId()))
+                    .claim(TOKEN_VERSION_CLAIM, principal.getTokenVersion());
+        }
+        return builder
                 .issuedAt(new Date())
                 .expiration(expiryDate)
                 .signWith(key)
@@ -69,6 +89,15 @@ public class JwtTokenProvider {
         return claims.getSubject();
     }
 
+    /** Verifies the token once and returns its claims, or {@code null} if it is invalid or expired. */
+    public Claims parseClaims(String token) {
+        try {
+            return Jwts.parser().verifyWith(key).build().parseSignedClaims(token).getPayload();
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
     public boolean validateJwtToken(String authToken) {
         try {
             Jwts.parser().verifyWith(key).build().parseSignedClaims(authToken);
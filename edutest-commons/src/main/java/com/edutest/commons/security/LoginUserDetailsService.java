@@ -46,15 +46,20 @@ public class LoginUserDetailsService implements UserDetailsService {
         private final String password;
         private final Collection<? extends GrantedAuthority> authorities;
         private final boolean isActive;
+        /** Access tokens of this user must carry this version, see {@link JwtTokenProvider}. */
+        @Getter
+        private final int tokenVersion;
 
         public UserPrincipal(String id, String username, String email, String password,
-                             Collection<? extends GrantedAuthority> authorities, boolean isActive) {
+                             Collection<? extends GrantedAuthority> authorities, boolean isActive,
+                             int tokenVersion) {
             this.id = id;
             this.username = username;
             this.email = email;
             this.password = password;
             this.authorities = authorities;
             this.isActive = isActive;
+            this.tokenVersion = tokenVersion;
         }
 
         public static UserPrincipal create(UserSecurity user) {
@@ -77,7 +82,8 @@ public class LoginUserDetailsService implements UserDetailsService {
                     user.getEmail(),
                     user.getPassword(),
                     authorities,
-                    user.getIsActive()
+                    user.getIsActive(),
+                    user.getTokenVersion() != null ? user.getTokenVersion() : 0
             );
         }
 
@@ -0,0 +1,146 @@
+package com.edutest.commons.security;
+
+import com.edutest.event.UserChangedEvent;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.LinkedHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Principals resolved by {@link JwtAuthTokenFilter}, so a request with a known token does
+ * not load the user and its roles from the database again.
+ *
+ * <p>Keyed by user ID and token version, both taken from the signed token. Deactivating,
+ * locking or deleting a user bumps the version in the database, so revoked tokens never
+ * match an entry created after the change; the {@link UserChangedEvent} of any user update
+ * additionally drops the user's entries once the transaction has committed, and the TTL
+ * bounds how long any other stale detail may be served.
+ *
+ * <p>Bounded by entry count (LRU) and TTL.
+ */
+@Slf4j
+@Component
+public class PrincipalCache {
+
+    private final boolean enabled;
+    private final int maxEntries;
+    private final long ttlMs;
+    private final LongSupplier clock;
+
+    /** Access-ordered, eldest = least recently used. */
+    private final LinkedHashMap<Key, Entry> entries = new LinkedHashMap<>(256, 0.75f, true);
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    private final AtomicLong invalidations = new AtomicLong();
+    /** Bumped by every invalidation; a load that overlapped one is not stored. */
+    private long generation;
+
+    public record CacheStats(long hits, long misses, long evictions, long invalidations, int entries, int maxEntries,
+                             double hitRate) {
+    }
+
+    private record Key(Long userId, int tokenVersion) {
+    }
+
+    private record Entry(LoginUserDetailsService.UserPrincipal principal, long expiresAtMillis) {
+    }
+
+    @Autowired
+    public PrincipalCache(@Value("${app.security.principal-cache.enabled:true}") boolean enabled,
+                          @Value("${app.security.principal-cache.max-entries:10000}") int maxEntries,
+                          @Value("${app.security.principal-cache.ttl-ms:60000}") long ttlMs) {
+        this(enabled, maxEntries, ttlMs, System::currentTimeMillis);
+    }
+
+    PrincipalCache(boolean enabled, int maxEntries, long ttlMs, LongSupplier clock) {
+        this.enabled = enabled;
+        this.maxEntries = maxEntries;
+        this.ttlMs = ttlMs;
+        this.clock = clock;
+    }
+
+    /**
+     * The cached principal of the user at this token version, otherwise the loader's result,
+     * which is stored unless {@code null} or an invalidation happened meanwhile (the loader
+     * may have read the user before that change committed). The loader runs outside the lock.
+     */
+    public LoginUserDetailsService.UserPrincipal get(Long userId, int tokenVersion,
+                                                     Supplier<LoginUserDetailsService.UserPrincipal> loader) {
+        if (!enabled) {
+            return loader.get();
+        }
+        Key key = new Key(userId, tokenVersion);
+        long loadGeneration;
+        synchronized (this) {
+            LoginUserDetailsService.UserPrincipal cached = lookup(key);
+            if (cached != null) {
+                return cached;
+            }
+            loadGeneration = generation;
+        }
+        LoginUserDetailsService.UserPrincipal loaded = loader.get();
+        if (loaded != null) {
+            store(key, loaded, loadGeneration);
+        }
+        return loaded;
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onUserChanged(UserChangedEvent event) {
+        invalidateUser(event.userId());
+    }
+
+    public synchronized void invalidateUser(Long userId) {
+        generation++;
+        int before = entries.size();
+        entries.keySet().removeIf(k -> k.userId().equals(userId));
+        int removed = before - entries.size();
+        if (removed > 0) {
+            invalidations.addAndGet(removed);
+            log.debug("Dropped {} cached principals of user {}", removed, userId);
+        }
+    }
+
+    public synchronized CacheStats stats() {
+        long h = hits.get();
+        long m = misses.get();
+        return new CacheStats(h, m, evictions.get(), invalidations.get(), entries.size(), maxEntries,
+                h + m == 0 ? 0 : (double) h / (h + m));
+    }
+
+    private synchronized LoginUserDetailsService.UserPrincipal lookup(Key key) {
+        Entry entry = entries.get(key);
+        if (entry == null || entry.expiresAtMillis() <= clock.getAsLong()) {
+            if (entry != null) {
+                entries.remove(key);
+                evictions.incrementAndGet();
+            }
+            misses.incrementAndGet();
+            return null;
+        }
+        hits.incrementAndGet();
+        return entry.principal();
+    }
+
+    private synchronized void store(Key key, LoginUserDetailsService.UserPrincipal principal, long loadGeneration) {
+        if (generation != loadGeneration) {
+            return;
+        }
+        entries.put(key, new Entry(principal, clock.getAsLong() + ttlMs));
+        var it = entries.entrySet().iterator();
+        while (entries.size() > maxEntries && it.hasNext()) {
+            it.next();
+            it.remove();
+            evictions.incrementAndGet();
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package com.edutest.commons.security;
 
 import com.edutest.service.security.LoginAndRegisterFacade;
+import jakarta.servlet.DispatcherType;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -98,6 +99,9 @@ public class SecurityConfig {
                         })
                 )
                 .authorizeHttpRequests(auth -> auth
+                        // Completion of an SSE status stream or streamed export: the request itself was
+                        // authorized, and the stateless JWT context isn't carried over to the async dispatch.
+                        .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
                         .requestMatchers(
                                 "/v3/api-docs/**",
                                 "/swagger-ui/**",
@@ -0,0 +1,114 @@
+package com.edutest.commons.security;
+
+import com.edutest.event.UserChangedEvent;
+import com.edutest.service.security.LoginAndRegisterFacade;
+import io.jsonwebtoken.Claims;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Revoked access tokens, kept in memory so {@link JwtAuthTokenFilter} can authorize
+ * requests from the token claims alone ({@code app.security.stateless-jwt.enabled}).
+ *
+ * <p>Two tables:
+ * <ul>
+ *   <li>per user, the lowest token version still accepted — raised by the
+ *       {@link UserChangedEvent} of a deactivation, lock or deletion and seeded from the
+ *       database at startup in stateless mode, so a restart does not bring revoked tokens
+ *       back;</li>
+ *   <li>the IDs of tokens ended by {@code /auth/logout}, each kept until the token would
+ *       have expired anyway.</li>
+ * </ul>
+ *
+ * <p>Both are per instance: with several instances, a deactivation reaches the others only
+ * through their own database reload at startup, and a logout not at all. Run stateless
+ * mode on a single instance or accept that window, bounded by the token lifetime.
+ */
+@Slf4j
+@Component
+public class TokenRevocationRegistry {
+
+    private final boolean stateless;
+    private final LoginAndRegisterFacade loginAndRegisterFacade;
+    private final LongSupplier clock;
+
+    private final ConcurrentHashMap<Long, Integer> minTokenVersions = new ConcurrentHashMap<>();
+    /** Token ID → expiry in epoch millis. */
+    private final ConcurrentHashMap<String, Long> revokedTokenIds = new ConcurrentHashMap<>();
+    private final AtomicLong rejected = new AtomicLong();
+
+    public record RevocationStats(boolean stateless, int revokedUsers, int revokedTokens, long rejected) {
+    }
+
+    @Autowired
+    public TokenRevocationRegistry(@Value("${app.security.stateless-jwt.enabled:false}") boolean stateless,
+                                   LoginAndRegisterFacade loginAndRegisterFacade) {
+        this(stateless, loginAndRegisterFacade, System::currentTimeMillis);
+    }
+
+    TokenRevocationRegistry(boolean stateless, LoginAndRegisterFacade loginAndRegisterFacade, LongSupplier clock) {
+        this.stateless = stateless;
+        this.loginAndRegisterFacade = loginAndRegisterFacade;
+        this.clock = clock;
+    }
+
+    /** Whether requests are authorized from token claims without loading the user. */
+    public boolean isStateless() {
+        return stateless;
+    }
+
+    @PostConstruct
+    void loadRevokedVersions() {
+        if (!stateless) {
+            return;
+        }
+        loginAndRegisterFacade.findRevokedTokenVersions().forEach(this::raiseMinVersion);
+        log.info("Stateless JWT authorization enabled, {} users with revoked tokens", minTokenVersions.size());
+    }
+
+    public boolean isRevoked(Claims claims) {
+        Long userId = claims.get(JwtTokenProvider.USER_ID_CLAIM, Long.class);
+        Integer tokenVersion = claims.get(JwtTokenProvider.TOKEN_VERSION_CLAIM, Integer.class);
+        boolean revoked = (claims.getId() != null && revokedTokenIds.containsKey(claims.getId()))
+                || (userId != null && tokenVersion != null && tokenVersion < minTokenVersions.getOrDefault(userId, 0));
+        if (revoked) {
+            rejected.incrementAndGet();
+        }
+        return revoked;
+    }
+
+    /** Ends one token before its expiry; tokens without an ID are ignored. */
+    public void revokeToken(Claims claims) {
+        if (claims.getId() == null || claims.getExpiration() == null) {
+            return;
+        }
+        long now = clock.getAsLong();
+        revokedTokenIds.values().removeIf(expiresAt -> expiresAt <= now);
+        revokedTokenIds.put(claims.getId(), claims.getExpiration().getTime());
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onUserChanged(UserChangedEvent event) {
+        if (event.tokenVersion() > 0) {
+            raiseMinVersion(event.userId(), event.tokenVersion());
+        }
+    }
+
+    public RevocationStats stats() {
+        return new RevocationStats(stateless, minTokenVersions.size(), revokedTokenIds.size(), rejected.get());
+    }
+
+    private void raiseMinVersion(Long userId, Integer tokenVersion) {
+        minTokenVersions.merge(userId, tokenVersion, Math::max);
+    }
+}
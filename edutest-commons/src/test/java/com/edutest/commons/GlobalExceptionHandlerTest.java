@@ -1,6 +1,8 @@
 package com.edutest.commons;
 
 import com.edutest.api.model.ErrorResponse;
+import com.edutest.service.codeexecution.ExecutionPriority;
+import com.edutest.service.codeexecution.ExecutionQueueFullException;
 import jakarta.persistence.EntityNotFoundException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.ConstraintViolation;
@@ -12,6 +14,7 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.AccessDeniedException;
@@ -205,6 +208,20 @@ class GlobalExceptionHandlerTest {
         assertThat(response.getBody().getError()).isEqualTo("Payload Too Large");
     }
 
+    @Test
+    @DisplayName("Should handle ExecutionQueueFullException with 503 and Retry-After")
+    void shouldHandleExecutionQueueFullException() {
+        ExecutionQueueFullException ex = new ExecutionQueueFullException(
+                ExecutionPriority.PREVIEW, "Too many runs queued", 5);
+
+        ResponseEntity<ErrorResponse> response = handler.handleExecutionQueueFull(ex, request);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE);
+        assertThat(response.getHeaders().getFirst(HttpHeaders.RETRY_AFTER)).isEqualTo("5");
+        assertThat(response.getBody()).isNotNull();
+        assertThat(response.getBody().getMessage()).isEqualTo("Too many runs queued");
+    }
+
     @Test
     @DisplayName("Should handle generic Exception with 500 Internal Server Error")
     void shouldHandleGenericException() {
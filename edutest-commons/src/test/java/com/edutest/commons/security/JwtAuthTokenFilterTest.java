@@ -0,0 +1,163 @@
+package com.edutest.commons.security;
+
+import com.edutest.service.security.LoginAndRegisterFacade;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UserDetailsService;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class JwtAuthTokenFilterTest {
+
+    private final JwtTokenProvider tokenProvider = new JwtTokenProvider(
+            "testSecretKeyForJwtAuthTokenFilterTestThatIsLongEnoughForHmacSha256", 60_000);
+    private final UserDetailsService userDetailsService = mock(UserDetailsService.class);
+    private final LoginAndRegisterFacade loginAndRegisterFacade = mock(LoginAndRegisterFacade.class);
+    private JwtAuthTokenFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        filter = filter(false);
+    }
+
+    private JwtAuthTokenFilter filter(boolean stateless) {
+        return new JwtAuthTokenFilter(tokenProvider, userDetailsService,
+                new PrincipalCache(true, 100, 60_000L, System::currentTimeMillis),
+                new TokenRevocationRegistry(stateless, loginAndRegisterFacade, System::currentTimeMillis));
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    @DisplayName("Repeated requests with the same token load the user once")
+    void cachesPrincipal() throws Exception {
+        when(userDetailsService.loadUserByUsername("alice")).thenReturn(principal(7L, true, 0));
+        String token = tokenProvider.generateJwtToken(principal(7L, true, 0));
+
+        filter.doFilter(request(token), new MockHttpServletResponse(), new MockFilterChain());
+        SecurityContextHolder.clearContext();
+        filter.doFilter(request(token), new MockHttpServletResponse(), new MockFilterChain());
+
+        assertThat(SecurityContextHolder.getContext().getAuthentication()).isNotNull();
+        assertThat(SecurityContextHolder.getContext().getAuthentication().getAuthorities())
+                .extracting(Object::toString).containsExactly("ROLE_STUDENT");
+        verify(userDetailsService, times(1)).loadUserByUsername("alice");
+    }
+
+    @Test
+    @DisplayName("A token whose version is behind the user's is rejected")
+    void revokedTokenRejected() throws Exception {
+        when(userDetailsService.loadUserByUsername("alice")).thenReturn(principal(7L, true, 1));
+
+        filter.doFilter(request(tokenProvider.generateJwtToken(principal(7L, true, 0))),
+                new MockHttpServletResponse(), new MockFilterChain());
+
+        assertThat(SecurityContextHolder.getContext().getAuthentication()).isNull();
+    }
+
+    @Test
+    @DisplayName("An inactive account is not authenticated")
+    void inactiveRejected() throws Exception {
+        when(userDetailsService.loadUserByUsername("alice")).thenReturn(principal(7L, false, 0));
+
+        filter.doFilter(request(tokenProvider.generateJwtToken(principal(7L, true, 0))),
+                new MockHttpServletResponse(), new MockFilterChain());
+
+        assertThat(SecurityContextHolder.getContext().getAuthentication()).isNull();
+    }
+
+    @Test
+    @DisplayName("Tokens without user ID and version are resolved from the database every time")
+    void legacyTokenNotCached() throws Exception {
+        when(userDetailsService.loadUserByUsername("alice")).thenReturn(principal(7L, true, 0));
+        String token = tokenProvider.generateJwtToken("alice");
+
+        filter.doFilter(request(token), new MockHttpServletResponse(), new MockFilterChain());
+        filter.doFilter(request(token), new MockHttpServletResponse(), new MockFilterChain());
+
+        assertThat(SecurityContextHolder.getContext().getAuthentication()).isNotNull();
+        verify(userDetailsService, times(2)).loadUserByUsername("alice");
+    }
+
+    @Test
+    @DisplayName("An invalid token never reaches the database")
+    void invalidToken() throws Exception {
+        filter.doFilter(request("not-a-jwt"), new MockHttpServletResponse(), new MockFilterChain());
+
+        assertThat(SecurityContextHolder.getContext().getAuthentication()).isNull();
+        verify(userDetailsService, never()).loadUserByUsername(anyString());
+    }
+
+    @Nested
+    @DisplayName("Stateless mode")
+    class Stateless {
+
+        @Test
+        @DisplayName("Authenticates from the token claims without loading the user")
+        void authenticatesFromClaims() throws Exception {
+            JwtAuthTokenFilter stateless = filter(true);
+
+            stateless.doFilter(request(tokenProvider.generateJwtToken(principal(7L, true, 2))),
+                    new MockHttpServletResponse(), new MockFilterChain());
+
+            var authentication = SecurityContextHolder.getContext().getAuthentication();
+            assertThat(authentication).isNotNull();
+            assertThat(authentication.getName()).isEqualTo("alice");
+            assertThat(authentication.getAuthorities()).extracting(Object::toString).containsExactly("ROLE_STUDENT");
+            assertThat(((LoginUserDetailsService.UserPrincipal) authentication.getPrincipal()).getId()).isEqualTo("7");
+            verify(userDetailsService, never()).loadUserByUsername(anyString());
+        }
+
+        @Test
+        @DisplayName("Rejects tokens older than the user's revoked version")
+        void rejectsRevokedVersion() throws Exception {
+            when(loginAndRegisterFacade.findRevokedTokenVersions()).thenReturn(Map.of(7L, 3));
+            JwtAuthTokenFilter stateless = new JwtAuthTokenFilter(tokenProvider, userDetailsService,
+                    new PrincipalCache(true, 100, 60_000L, System::currentTimeMillis), seededRegistry());
+
+            stateless.doFilter(request(tokenProvider.generateJwtToken(principal(7L, true, 2))),
+                    new MockHttpServletResponse(), new MockFilterChain());
+
+            assertThat(SecurityContextHolder.getContext().getAuthentication()).isNull();
+            verify(userDetailsService, never()).loadUserByUsername(anyString());
+        }
+
+        private TokenRevocationRegistry seededRegistry() {
+            TokenRevocationRegistry registry = new TokenRevocationRegistry(true, loginAndRegisterFacade,
+                    System::currentTimeMillis);
+            registry.loadRevokedVersions();
+            return registry;
+        }
+    }
+
+    private static MockHttpServletRequest request(String token) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/tests");
+        request.addHeader("Authorization", "Bearer " + token);
+        return request;
+    }
+
+    private static LoginUserDetailsService.UserPrincipal principal(Long id, boolean active, int version) {
+        return new LoginUserDetailsService.UserPrincipal(id.toString(), "alice", "alice@example.com", "secret",
+                List.of(new SimpleGrantedAuthority("ROLE_STUDENT")), active, version);
+    }
+}
@@ -0,0 +1,129 @@
+package com.edutest.commons.security;
+
+import com.edutest.event.UserChangedEvent;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PrincipalCacheTest {
+
+    private final AtomicLong now = new AtomicLong(1_000L);
+    private final AtomicInteger loads = new AtomicInteger();
+
+    @Test
+    @DisplayName("Second request with the same token version is served without loading")
+    void hitAfterFirstLoad() {
+        PrincipalCache cache = new PrincipalCache(true, 10, 10_000L, now::get);
+
+        LoginUserDetailsService.UserPrincipal first = cache.get(1L, 0, () -> load(1L, 0));
+        LoginUserDetailsService.UserPrincipal second = cache.get(1L, 0, () -> load(1L, 0));
+
+        assertThat(second).isSameAs(first);
+        assertThat(loads).hasValue(1);
+        assertThat(cache.stats().hits()).isEqualTo(1);
+        assertThat(cache.stats().misses()).isEqualTo(1);
+        assertThat(cache.stats().hitRate()).isEqualTo(0.5);
+    }
+
+    @Test
+    @DisplayName("A different token version is a separate entry")
+    void versionIsPartOfKey() {
+        PrincipalCache cache = new PrincipalCache(true, 10, 10_000L, now::get);
+        cache.get(1L, 0, () -> load(1L, 0));
+
+        assertThat(cache.get(1L, 1, () -> null)).isNull();
+        assertThat(loads).hasValue(1);
+    }
+
+    @Test
+    @DisplayName("A null load, e.g. a revoked token, is not cached")
+    void nullNotCached() {
+        PrincipalCache cache = new PrincipalCache(true, 10, 10_000L, now::get);
+        cache.get(1L, 0, () -> null);
+
+        cache.get(1L, 0, () -> load(1L, 0));
+
+        assertThat(loads).hasValue(1);
+        assertThat(cache.stats().entries()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Entries expire after the TTL")
+    void expires() {
+        PrincipalCache cache = new PrincipalCache(true, 10, 10_000L, now::get);
+        cache.get(1L, 0, () -> load(1L, 0));
+
+        now.addAndGet(10_000L);
+        cache.get(1L, 0, () -> load(1L, 0));
+
+        assertThat(loads).hasValue(2);
+        assertThat(cache.stats().evictions()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Least recently used entry is evicted beyond max entries")
+    void lruEviction() {
+        PrincipalCache cache = new PrincipalCache(true, 2, 10_000L, now::get);
+        cache.get(1L, 0, () -> load(1L, 0));
+        cache.get(2L, 0, () -> load(2L, 0));
+        cache.get(1L, 0, () -> load(1L, 0));
+        cache.get(3L, 0, () -> load(3L, 0));
+
+        cache.get(1L, 0, () -> load(1L, 0));
+        assertThat(loads).hasValue(3);
+        cache.get(2L, 0, () -> load(2L, 0));
+        assertThat(loads).hasValue(4);
+    }
+
+    @Test
+    @DisplayName("UserChangedEvent drops every entry of that user only")
+    void invalidatedByEvent() {
+        PrincipalCache cache = new PrincipalCache(true, 10, 10_000L, now::get);
+        cache.get(1L, 0, () -> load(1L, 0));
+        cache.get(1L, 1, () -> load(1L, 1));
+        cache.get(2L, 0, () -> load(2L, 0));
+
+        cache.onUserChanged(new UserChangedEvent(1L, 1));
+
+        assertThat(cache.stats().invalidations()).isEqualTo(2);
+        assertThat(cache.stats().entries()).isEqualTo(1);
+        cache.get(2L, 0, () -> load(2L, 0));
+        assertThat(loads).hasValue(3);
+    }
+
+    @Test
+    @DisplayName("A load that overlapped an invalidation is returned but not stored")
+    void loadRacingInvalidationNotStored() {
+        PrincipalCache cache = new PrincipalCache(true, 10, 10_000L, now::get);
+
+        LoginUserDetailsService.UserPrincipal loaded = cache.get(1L, 0, () -> {
+            cache.invalidateUser(1L);
+            return load(1L, 0);
+        });
+
+        assertThat(loaded).isNotNull();
+        assertThat(cache.stats().entries()).isZero();
+    }
+
+    @Test
+    @DisplayName("Disabled cache always loads")
+    void disabled() {
+        PrincipalCache cache = new PrincipalCache(false, 10, 10_000L, now::get);
+        cache.get(1L, 0, () -> load(1L, 0));
+        cache.get(1L, 0, () -> load(1L, 0));
+
+        assertThat(loads).hasValue(2);
+        assertThat(cache.stats().entries()).isZero();
+    }
+
+    private LoginUserDetailsService.UserPrincipal load(Long id, int version) {
+        loads.incrementAndGet();
+        return new LoginUserDetailsService.UserPrincipal(id.toString(), "user" + id, "user" + id + "@example.com",
+                "secret", List.of(), true, version);
+    }
+}
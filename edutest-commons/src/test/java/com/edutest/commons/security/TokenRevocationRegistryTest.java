@@ -0,0 +1,94 @@
+package com.edutest.commons.security;
+
+import com.edutest.event.UserChangedEvent;
+import com.edutest.service.security.LoginAndRegisterFacade;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Date;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class TokenRevocationRegistryTest {
+
+    private final AtomicLong now = new AtomicLong(1_000L);
+    private final LoginAndRegisterFacade facade = mock(LoginAndRegisterFacade.class);
+
+    @Test
+    @DisplayName("Tokens below the version of a user change are revoked, newer ones are not")
+    void versionRaisedByUserChange() {
+        TokenRevocationRegistry registry = new TokenRevocationRegistry(true, facade, now::get);
+
+        registry.onUserChanged(new UserChangedEvent(7L, 2));
+
+        assertThat(registry.isRevoked(claims("a", 7L, 1, 60_000L))).isTrue();
+        assertThat(registry.isRevoked(claims("b", 7L, 2, 60_000L))).isFalse();
+        assertThat(registry.isRevoked(claims("c", 8L, 0, 60_000L))).isFalse();
+        assertThat(registry.stats().rejected()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("The version never goes down, e.g. when events arrive out of order")
+    void versionOnlyRises() {
+        TokenRevocationRegistry registry = new TokenRevocationRegistry(true, facade, now::get);
+
+        registry.onUserChanged(new UserChangedEvent(7L, 3));
+        registry.onUserChanged(new UserChangedEvent(7L, 2));
+
+        assertThat(registry.isRevoked(claims("a", 7L, 2, 60_000L))).isTrue();
+    }
+
+    @Test
+    @DisplayName("A removed user's tokens are all revoked")
+    void removedUser() {
+        TokenRevocationRegistry registry = new TokenRevocationRegistry(true, facade, now::get);
+
+        registry.onUserChanged(new UserChangedEvent(7L, UserChangedEvent.REMOVED));
+
+        assertThat(registry.isRevoked(claims("a", 7L, 5, 60_000L))).isTrue();
+    }
+
+    @Test
+    @DisplayName("A logged-out token is revoked until it expires, then forgotten")
+    void logout() {
+        TokenRevocationRegistry registry = new TokenRevocationRegistry(true, facade, now::get);
+        registry.revokeToken(claims("a", 7L, 0, 5_000L));
+
+        assertThat(registry.isRevoked(claims("a", 7L, 0, 5_000L))).isTrue();
+        assertThat(registry.isRevoked(claims("b", 7L, 0, 5_000L))).isFalse();
+
+        now.addAndGet(10_000L);
+        registry.revokeToken(claims("c", 7L, 0, 5_000L));
+        assertThat(registry.stats().revokedTokens()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Stateless mode seeds the versions from the database, the cached mode does not")
+    void seededOnlyWhenStateless() {
+        when(facade.findRevokedTokenVersions()).thenReturn(Map.of(7L, 2));
+        TokenRevocationRegistry stateless = new TokenRevocationRegistry(true, facade, now::get);
+        stateless.loadRevokedVersions();
+        assertThat(stateless.isRevoked(claims("a", 7L, 1, 60_000L))).isTrue();
+
+        LoginAndRegisterFacade unused = mock(LoginAndRegisterFacade.class);
+        new TokenRevocationRegistry(false, unused, now::get).loadRevokedVersions();
+        verify(unused, never()).findRevokedTokenVersions();
+    }
+
+    private Claims claims(String id, Long userId, int tokenVersion, long ttlMs) {
+        return Jwts.claims()
+                .id(id)
+                .add(JwtTokenProvider.USER_ID_CLAIM, userId)
+                .add(JwtTokenProvider.TOKEN_VERSION_CLAIM, tokenVersion)
+                .expiration(new Date(now.get() + ttlMs))
+                .build();
+    }
+}
@@ -23,6 +23,7 @@ public class CodingAssignment extends Assignment {
     private String allowedLanguages;
     private String starterCode;
     private String solutionTemplate;
+    private Boolean stopOnFirstFailure;
 
     @Builder.Default
     private List<TestCase> testCases = List.of();
@@ -0,0 +1,8 @@
+package com.edutest.domain.assignment.coding;
+
+public enum OutputChecker {
+    EXACT,
+    TOKENS,
+    FLOAT_TOLERANCE,
+    UNORDERED_LINES
+}
@@ -19,19 +19,10 @@ public class TestCase {
 
     private String description;
     private Float weight;
-    private Long version;
-
-    public boolean matches(String actualOutput) {
-        if (expectedOutput == null && actualOutput == null) {
-            return true;
-        }
-        if (expectedOutput == null || actualOutput == null) {
-            return false;
-        }
 
-        String normalizedExpected = expectedOutput.trim();
-        String normalizedActual = actualOutput.trim();
+    @Builder.Default
+    private OutputChecker checkerMode = OutputChecker.EXACT;
 
-        return normalizedExpected.equals(normalizedActual);
-    }
+    private Double floatTolerance;
+    private Long version;
 }
\ No newline at end of file
@@ -6,6 +6,7 @@ public enum ExecutionStatus {
     RUNTIME_ERROR("Runtime Error"),
     TIME_LIMIT_EXCEEDED("Time Limit Exceeded"),
     MEMORY_LIMIT_EXCEEDED("Memory Limit Exceeded"),
+    OUTPUT_LIMIT_EXCEEDED("Output Limit Exceeded"),
     SYSTEM_ERROR("System Error");
 
     private final String displayName;
@@ -27,6 +28,6 @@ public enum ExecutionStatus {
     }
 
     public boolean hasLimitExceeded() {
-        return this == TIME_LIMIT_EXCEEDED || this == MEMORY_LIMIT_EXCEEDED;
+        return this == TIME_LIMIT_EXCEEDED || this == MEMORY_LIMIT_EXCEEDED || this == OUTPUT_LIMIT_EXCEEDED;
     }
 }
@@ -16,6 +16,7 @@ public class TestCaseResult {
     private String actualOutput;
     private Boolean passed;
     private Long executionTimeMs;
+    private Long cpuTimeMs;
     private Integer memoryUsedMb;
     private String errorMessage;
 
@@ -2,12 +2,14 @@ package com.edutest.dto;
 
 import lombok.Builder;
 import lombok.Data;
+import lombok.extern.jackson.Jacksonized;
 
 import java.time.LocalDateTime;
 import java.util.List;
 
 @Data
 @Builder
+@Jacksonized
 public class AnswerDto {
     private Long id;
     private Long assignmentId;
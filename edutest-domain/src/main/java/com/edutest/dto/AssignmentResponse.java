@@ -35,5 +35,6 @@ public class AssignmentResponse {
     private String allowedLanguages;
     private String starterCode;
     private String solutionTemplate;
+    private Boolean stopOnFirstFailure;
     private List<TestCaseDto> testCases;
 }
@@ -43,5 +43,6 @@ public class CreateAssignmentRequest {
     private String allowedLanguages;
     private String starterCode;
     private String solutionTemplate;
+    private Boolean stopOnFirstFailure;
     private List<TestCaseDto> testCases;
 }
@@ -0,0 +1,24 @@
+package com.edutest.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+public class RegradeStatusDto {
+    /** PENDING | RUNNING | DONE | FAILED | CANCELLED | NONE (no re-grade started for this assignment) */
+    private String status;
+    private Long assignmentId;
+    /** Submissions of finished attempts when the job started */
+    private int total;
+    /** Submissions handled so far, including failed ones */
+    private int processed;
+    /** Submissions whose execution failed; their previous result is kept */
+    private int failed;
+    private LocalDateTime startedAt;
+    private LocalDateTime completedAt;
+    /** Populated when status = FAILED */
+    private String error;
+}
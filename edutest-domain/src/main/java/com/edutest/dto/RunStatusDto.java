@@ -4,6 +4,7 @@ import lombok.Builder;
 import lombok.Data;
 
 import java.time.LocalDateTime;
+import java.util.List;
 
 @Data
 @Builder
@@ -16,4 +17,8 @@ public class RunStatusDto {
     private AnswerDto result;
     /** Populated when status = FAILED */
     private String error;
+    /** Populated while status = PENDING, once the first test case has finished */
+    private Integer testCasesCompleted;
+    private Integer testCasesTotal;
+    private List<TestCaseResultDto> partialResults;
 }
@@ -10,4 +10,6 @@ public class TestCaseDto {
     private Boolean isPublic;
     private String description;
     private Integer weight;
+    private String checkerMode;
+    private Double floatTolerance;
 }
@@ -2,9 +2,11 @@ package com.edutest.dto;
 
 import lombok.Builder;
 import lombok.Data;
+import lombok.extern.jackson.Jacksonized;
 
 @Data
 @Builder
+@Jacksonized
 public class TestCaseResultDto {
     private Long testCaseId;
     private Boolean isPublic;
@@ -14,6 +16,7 @@ public class TestCaseResultDto {
     private String actualOutput;
     private Boolean passed;
     private Long executionTimeMs;
+    private Long cpuTimeMs;
     private Integer memoryUsedMb;
     private String errorMessage;
 }
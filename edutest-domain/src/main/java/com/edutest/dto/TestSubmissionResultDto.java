@@ -2,11 +2,13 @@ package com.edutest.dto;
 
 import lombok.Builder;
 import lombok.Data;
+import lombok.extern.jackson.Jacksonized;
 
 import java.time.LocalDateTime;
 
 @Data
 @Builder
+@Jacksonized
 public class TestSubmissionResultDto {
     private Long attemptId;
     private Long testId;
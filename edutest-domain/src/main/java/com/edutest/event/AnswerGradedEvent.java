@@ -2,7 +2,8 @@ package com.edutest.event;
 
 /**
  * Published when a teacher manually grades a single student answer (CODING with score
- * override, OPEN_QUESTION text grade, or — rarely — overriding an auto-graded choice).
+ * override, OPEN_QUESTION text grade, or — rarely — overriding an auto-graded choice),
+ * and for every CODING submission rewritten by a bulk re-grade of its assignment.
  *
  * <p>Primitive fact only: "this answer just got a grade." {@code ManualGradingService}
  * does not know whether this was the last pending answer, whether to email the student,
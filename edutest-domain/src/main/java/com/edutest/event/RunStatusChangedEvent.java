@@ -0,0 +1,12 @@
+package com.edutest.event;
+
+/**
+ * Published by {@code CodeRunJobRegistry} whenever the preview run job of a submission
+ * changes state (PENDING, DONE, FAILED).
+ *
+ * <p>Only the key travels — listeners read the current status from the registry. The
+ * web server's {@code JobStatusStreams} listens to this to push the new status to the
+ * students watching the run over SSE.
+ */
+public record RunStatusChangedEvent(Long submissionId) {
+}
@@ -0,0 +1,11 @@
+package com.edutest.event;
+
+/**
+ * Published by {@code SubmitJobRegistry} whenever the submit job of an attempt changes
+ * state (PENDING, DONE, FAILED, or dropped).
+ *
+ * <p>Only the key travels — listeners read the current status from the registry, like
+ * for {@link RunStatusChangedEvent}.
+ */
+public record SubmitStatusChangedEvent(Long attemptId) {
+}
@@ -0,0 +1,12 @@
+package com.edutest.event;
+
+/**
+ * Published when a teacher edits or removes a coding test case (input, expected output,
+ * visibility, ...). Fired from the JPA lifecycle, so it covers every write path that
+ * goes through the entity — assignment updates, orphan removal on test case list edits.
+ *
+ * <p>{@code ExecutionResultCache} listens to this and drops memoized results for the
+ * test case, so nothing graded against the old content is ever replayed.
+ */
+public record TestCaseChangedEvent(Long testCaseId) {
+}
@@ -0,0 +1,17 @@
+package com.edutest.event;
+
+/**
+ * Published when a user row is updated or removed (deactivation, soft delete, token
+ * revocation, profile edits). Fired from the JPA lifecycle like {@link TestCaseChangedEvent},
+ * so it covers every write path that goes through the entity.
+ *
+ * <p>{@code PrincipalCache} listens to this and drops the user's cached security
+ * principal, so the next request sees the new active flag and roles;
+ * {@code TokenRevocationRegistry} records {@code tokenVersion} as the lowest one still
+ * accepted. A removed user has {@link #REMOVED}.
+ */
+public record UserChangedEvent(Long userId, int tokenVersion) {
+
+    /** Token version of a removed user: no token is accepted any more. */
+    public static final int REMOVED = Integer.MAX_VALUE;
+}
@@ -11,12 +11,12 @@ import java.util.concurrent.ThreadPoolExecutor;
 /**
  * Thread pool for fire-and-forget notification work (emails, future push/SMS).
  *
- * Separate from code execution executor — different SLA: notifications can be slow
- * and tolerate burstiness, code execution must be tight to keep "Run tests" responsive.
+ * Separate from code execution ({@code CodeExecutionScheduler}) — different SLA:
+ * notifications can be slow and tolerate burstiness, code execution must be tight to
+ * keep "Run tests" responsive.
  *
- * {@code @EnableAsync} is also activated by AsyncCodeExecutionConfig in the
- * code-execution module; declaring it here keeps the domain module self-sufficient
- * for tests/standalone usage. Spring tolerates duplicate {@code @EnableAsync} declarations.
+ * This is the only {@code @EnableAsync} in the application; code execution no longer
+ * uses {@code @Async} executors.
  */
 @Configuration
 @EnableAsync
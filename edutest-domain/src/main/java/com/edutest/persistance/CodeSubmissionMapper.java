@@ -72,6 +72,7 @@ public class CodeSubmissionMapper {
                 .actualOutput(entity.getActualOutput())
                 .passed(entity.getPassed())
                 .executionTimeMs(entity.getExecutionTimeMs())
+                .cpuTimeMs(entity.getCpuTimeMs())
                 .memoryUsedMb(entity.getMemoryUsedMb())
                 .errorMessage(entity.getErrorMessage())
                 .build();
@@ -105,6 +106,7 @@ public class CodeSubmissionMapper {
             case RUNTIME_ERROR -> ExecutionStatus.RUNTIME_ERROR;
             case TIME_LIMIT_EXCEEDED -> ExecutionStatus.TIME_LIMIT_EXCEEDED;
             case MEMORY_LIMIT_EXCEEDED -> ExecutionStatus.MEMORY_LIMIT_EXCEEDED;
+            case OUTPUT_LIMIT_EXCEEDED -> ExecutionStatus.OUTPUT_LIMIT_EXCEEDED;
             case SYSTEM_ERROR -> ExecutionStatus.SYSTEM_ERROR;
         };
     }
@@ -117,6 +119,7 @@ public class CodeSubmissionMapper {
             case RUNTIME_ERROR -> ExecutionStatusEnum.RUNTIME_ERROR;
             case TIME_LIMIT_EXCEEDED -> ExecutionStatusEnum.TIME_LIMIT_EXCEEDED;
             case MEMORY_LIMIT_EXCEEDED -> ExecutionStatusEnum.MEMORY_LIMIT_EXCEEDED;
+            case OUTPUT_LIMIT_EXCEEDED -> ExecutionStatusEnum.OUTPUT_LIMIT_EXCEEDED;
             case SYSTEM_ERROR -> ExecutionStatusEnum.SYSTEM_ERROR;
         };
     }
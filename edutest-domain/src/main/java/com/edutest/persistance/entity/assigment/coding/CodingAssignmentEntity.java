@@ -33,6 +33,10 @@ public class CodingAssignmentEntity extends AssignmentEntity {
     @Column(name = "solution_template", length = 5000)
     private String solutionTemplate;
 
+    /** "Run tests" stops at the first failing public test case; submits always run every case. */
+    @Column(name = "stop_on_first_failure")
+    private Boolean stopOnFirstFailure;
+
     @OneToMany(mappedBy = "assignment", cascade = CascadeType.ALL, fetch = FetchType.LAZY, orphanRemoval = true)
     private List<TestCaseEntity> testCases = new ArrayList<>();
 
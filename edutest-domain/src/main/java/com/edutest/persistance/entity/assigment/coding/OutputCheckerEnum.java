@@ -0,0 +1,15 @@
+package com.edutest.persistance.entity.assigment.coding;
+
+/**
+ * How a test case's program output is compared with its expected output.
+ */
+public enum OutputCheckerEnum {
+    /** Whole output equal after trimming leading and trailing whitespace. */
+    EXACT,
+    /** Same whitespace-separated tokens; amount and kind of whitespace is ignored. */
+    TOKENS,
+    /** Like {@link #TOKENS}, numeric tokens may differ by the test case's float tolerance. */
+    FLOAT_TOLERANCE,
+    /** Same non-blank lines (each trimmed) in any order, duplicates counted. */
+    UNORDERED_LINES
+}
@@ -7,6 +7,7 @@ import lombok.*;
 
 @Entity
 @Table(name = "test_cases")
+@EntityListeners(TestCaseEntityListener.class)
 @Getter
 @Setter
 @NoArgsConstructor
@@ -18,10 +19,10 @@ public class TestCaseEntity extends BaseEntity {
     @JoinColumn(name = "assignment_id", nullable = false)
     private CodingAssignmentEntity assignment;
 
-    @Column(name = "input_data", length = 2000)
+    @Column(name = "input_data", columnDefinition = "TEXT")
     private String inputData;
 
-    @Column(name = "expected_output", length = 2000)
+    @Column(name = "expected_output", columnDefinition = "TEXT")
     private String expectedOutput;
 
     @Column(name = "is_public", nullable = false)
@@ -34,4 +35,14 @@ public class TestCaseEntity extends BaseEntity {
     @Column(name = "weight", nullable = false)
     @Builder.Default
     private Integer weight = 1;
+
+    /** Null on rows created before checker modes existed — treated as {@link OutputCheckerEnum#EXACT}. */
+    @Column(name = "checker_mode", length = 30)
+    @Enumerated(EnumType.STRING)
+    @Builder.Default
+    private OutputCheckerEnum checkerMode = OutputCheckerEnum.EXACT;
+
+    /** Allowed absolute or relative difference of numeric tokens in {@link OutputCheckerEnum#FLOAT_TOLERANCE} mode. */
+    @Column(name = "float_tolerance")
+    private Double floatTolerance;
 }
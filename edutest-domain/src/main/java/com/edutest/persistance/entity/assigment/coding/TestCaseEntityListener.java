@@ -0,0 +1,25 @@
+package com.edutest.persistance.entity.assigment.coding;
+
+import com.edutest.event.TestCaseChangedEvent;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+/**
+ * Turns test case updates/deletes into {@link TestCaseChangedEvent}s. Hibernate resolves
+ * entity listeners through Spring's bean container, so this is an ordinary bean.
+ */
+@Component
+@RequiredArgsConstructor
+public class TestCaseEntityListener {
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    @PostUpdate
+    @PostRemove
+    public void onChange(TestCaseEntity testCase) {
+        eventPublisher.publishEvent(new TestCaseChangedEvent(testCase.getId()));
+    }
+}
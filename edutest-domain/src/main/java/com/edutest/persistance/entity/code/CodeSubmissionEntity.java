@@ -70,6 +70,25 @@ public class CodeSubmissionEntity extends BaseEntity {
     @Builder.Default
     private List<TestCaseResultEntity> testCaseResults = new ArrayList<>();
 
+    /**
+     * Copies the fields {@code CodeExecutionService#executeAndPersist} writes, and nothing else,
+     * from a copy of this submission that ran detached. Saving that copy instead would clobber,
+     * or fail the version check on, whatever changed in the row while it ran.
+     */
+    public void copyExecutionResult(CodeSubmissionEntity result) {
+        compilationStatus = result.getCompilationStatus();
+        compilationError = result.getCompilationError();
+        executionStatus = result.getExecutionStatus();
+        maxExecutionTimeMs = result.getMaxExecutionTimeMs();
+        maxMemoryUsedMb = result.getMaxMemoryUsedMb();
+        totalScore = result.getTotalScore();
+        testCaseResults.clear();
+        for (TestCaseResultEntity testCaseResult : result.getTestCaseResults()) {
+            testCaseResult.setSubmission(this);
+            testCaseResults.add(testCaseResult);
+        }
+    }
+
     private void setSubmittedAt() {
         if (submittedAt == null) {
             submittedAt = LocalDateTime.now();
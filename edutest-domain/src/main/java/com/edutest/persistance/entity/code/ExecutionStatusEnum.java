@@ -8,6 +8,7 @@ public enum ExecutionStatusEnum {
     RUNTIME_ERROR("Runtime Error"),
     TIME_LIMIT_EXCEEDED("Time Limit Exceeded"),
     MEMORY_LIMIT_EXCEEDED("Memory Limit Exceeded"),
+    OUTPUT_LIMIT_EXCEEDED("Output Limit Exceeded"),
     SYSTEM_ERROR("System Error");
 
     private final String displayName;
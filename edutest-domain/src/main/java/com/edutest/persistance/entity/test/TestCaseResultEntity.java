@@ -33,6 +33,9 @@ public class TestCaseResultEntity extends BaseEntity {
     @Column(name = "execution_time_ms")
     private Long executionTimeMs;
 
+    @Column(name = "cpu_time_ms")
+    private Long cpuTimeMs;
+
     @Column(name = "memory_used_mb")
     private Integer memoryUsedMb;
 
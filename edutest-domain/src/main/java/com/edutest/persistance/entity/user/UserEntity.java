@@ -12,6 +12,7 @@ import java.util.Set;
 
 @Entity
 @Table(name = "users")
+@EntityListeners(UserEntityListener.class)
 @Getter
 @Setter
 @NoArgsConstructor
@@ -49,6 +50,11 @@ public class UserEntity extends BaseEntity {
     @Column(name = "deleted_at")
     private LocalDateTime deletedAt;
 
+    // Copied into every access token; a token whose version is behind this one is rejected.
+    @Column(name = "token_version", nullable = false)
+    @Builder.Default
+    private Integer tokenVersion = 0;
+
     // Set to the group's id when that group is soft-deleted and this student is detached.
     // restoreGroup uses it to re-attach still-group-less students; cleared on re-attach or
     // when the student joins any group. Soft reference (no FK) — the group may be deleted.
@@ -82,6 +88,14 @@ public class UserEntity extends BaseEntity {
         return hasRole(UserEntityRole.ADMIN);
     }
 
+    /**
+     * Invalidates every access token issued to this user so far. Refresh tokens live in their
+     * own table; callers revoke them alongside.
+     */
+    public void revokeTokens() {
+        tokenVersion = (tokenVersion != null ? tokenVersion : 0) + 1;
+    }
+
     /**
      * Helper method to add a role to the user.
      */
@@ -0,0 +1,30 @@
+package com.edutest.persistance.entity.user;
+
+import com.edutest.event.UserChangedEvent;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+/**
+ * Turns user updates/deletes into {@link UserChangedEvent}s. Hibernate resolves entity
+ * listeners through Spring's bean container, so this is an ordinary bean.
+ */
+@Component
+@RequiredArgsConstructor
+public class UserEntityListener {
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    @PostUpdate
+    public void onUpdate(UserEntity user) {
+        eventPublisher.publishEvent(new UserChangedEvent(user.getId(),
+                user.getTokenVersion() != null ? user.getTokenVersion() : 0));
+    }
+
+    @PostRemove
+    public void onRemove(UserEntity user) {
+        eventPublisher.publishEvent(new UserChangedEvent(user.getId(), UserChangedEvent.REMOVED));
+    }
+}
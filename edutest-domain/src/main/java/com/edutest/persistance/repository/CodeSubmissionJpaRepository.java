@@ -1,6 +1,7 @@
 package com.edutest.persistance.repository;
 
 import com.edutest.persistance.entity.code.CodeSubmissionEntity;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -35,4 +36,17 @@ public interface CodeSubmissionJpaRepository extends JpaRepository<CodeSubmissio
     Float sumScoresByTestAttemptId(@Param("attemptId") Long attemptId);
 
     boolean existsByTestAttemptIdAndAssignmentId(Long attemptId, Long assignmentId);
+
+    /** Keyset page over the submissions of finished attempts, for a re-grade of the assignment. */
+    @Query("SELECT c.id FROM CodeSubmissionEntity c WHERE c.assignment.id = :assignmentId " +
+            "AND (c.testAttempt.isCompleted = true OR c.testAttempt.finishedAt IS NOT NULL) " +
+            "AND c.id > :afterId ORDER BY c.id")
+    List<Long> findFinishedIdsByAssignmentIdAfter(
+            @Param("assignmentId") Long assignmentId,
+            @Param("afterId") Long afterId,
+            Pageable page);
+
+    @Query("SELECT COUNT(c) FROM CodeSubmissionEntity c WHERE c.assignment.id = :assignmentId " +
+            "AND (c.testAttempt.isCompleted = true OR c.testAttempt.finishedAt IS NOT NULL)")
+    long countFinishedByAssignmentId(@Param("assignmentId") Long assignmentId);
 }
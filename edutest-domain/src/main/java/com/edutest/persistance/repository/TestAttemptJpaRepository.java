@@ -1,13 +1,20 @@
 package com.edutest.persistance.repository;
 
 import com.edutest.persistance.entity.test.TestAttemptEntity;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface TestAttemptJpaRepository extends JpaRepository<TestAttemptEntity, Long> {
@@ -39,6 +46,162 @@ public interface TestAttemptJpaRepository extends JpaRepository<TestAttemptEntit
     @Query("SELECT t FROM TestAttemptEntity t JOIN FETCH t.testEntity JOIN FETCH t.student WHERE t.id = :attemptId")
     Optional<TestAttemptEntity> findByIdWithTestAndStudent(@Param("attemptId") Long attemptId);
 
+    /** One row of the teacher's attempt list; {@code status} as in {@code AttemptListItemDto.calculateStatus}. */
+    interface AttemptListRow {
+        Long getAttemptId();
+        Long getStudentId();
+        String getFirstName();
+        String getLastName();
+        String getEmail();
+        Long getGroupId();
+        String getGroupName();
+        LocalDateTime getStartedAt();
+        LocalDateTime getFinishedAt();
+        Float getScore();
+        String getStatus();
+        Integer getPendingGradingCount();
+    }
+
+    // Teacher attempt list: filtered, sorted and paged in the database, ungraded answers
+    // counted in one grouped join. Native SQL so that attempts of soft-deleted students stay
+    // listed — a JPQL join to UserEntity would apply its @SQLRestriction and drop them.
+    // Sort properties are the select aliases (startedAt, finishedAt, score, lastName, ...).
+    @Query(value = ATTEMPT_LIST_SELECT + ATTEMPT_LIST_FROM,
+            countQuery = "SELECT COUNT(*) " + ATTEMPT_LIST_FROM,
+            nativeQuery = true)
+    Page<AttemptListRow> findAttemptList(@Param("testId") Long testId,
+                                         @Param("groupId") Long groupId,
+                                         @Param("status") String status,
+                                         Pageable pageable);
+
+    /** Ungraded answers per attempt of {@code :testId} as {@code p.pending}, one grouped aggregate. */
+    String UNGRADED_PER_ATTEMPT_JOIN = " LEFT JOIN (SELECT a.test_attempt_id, COUNT(*) AS pending FROM assignment_answers a"
+            + "   JOIN test_attempts ta ON ta.id = a.test_attempt_id"
+            + "   WHERE ta.test_id = :testId AND a.is_graded = FALSE GROUP BY a.test_attempt_id) p"
+            + " ON p.test_attempt_id = t.id";
+
+    /** {@code TestAttemptEntity.isFinished()} in SQL. */
+    String ATTEMPT_FINISHED = "(COALESCE(t.is_completed, FALSE) OR t.finished_at IS NOT NULL)";
+
+    String ATTEMPT_LIST_STATUS = "CASE WHEN NOT " + ATTEMPT_FINISHED
+            + " THEN 'IN_PROGRESS' WHEN COALESCE(p.pending, 0) > 0 THEN 'SUBMITTED' ELSE 'GRADED' END";
+
+    String ATTEMPT_LIST_SELECT = "SELECT t.id AS attemptId, s.id AS studentId, s.first_name AS firstName,"
+            + " s.last_name AS lastName, s.email AS email, g.id AS groupId, g.name AS groupName,"
+            + " t.started_at AS startedAt, t.finished_at AS finishedAt, t.score AS score,"
+            + " " + ATTEMPT_LIST_STATUS + " AS status, CAST(COALESCE(p.pending, 0) AS INTEGER) AS pendingGradingCount ";
+
+    String ATTEMPT_LIST_FROM = "FROM test_attempts t"
+            + " JOIN users s ON s.id = t.student_id"
+            + " LEFT JOIN student_groups g ON g.id = s.student_group_id"
+            + UNGRADED_PER_ATTEMPT_JOIN
+            + " WHERE t.test_id = :testId"
+            // Casts type the parameters even when bound as untyped nulls (PostgreSQL needs that).
+            + " AND (CAST(:groupId AS BIGINT) IS NULL OR s.student_group_id = CAST(:groupId AS BIGINT))"
+            + " AND (CAST(:status AS VARCHAR) IS NULL OR " + ATTEMPT_LIST_STATUS + " = CAST(:status AS VARCHAR))";
+
+    /**
+     * The figures of a test's statistics summary; scores are those of finished attempts.
+     * {@code bucketN} counts finished, scored attempts in the N-th tenth of {@code maxScore}
+     * (scores at or above it in the 10th, below zero in the 1st); all zero unless {@code maxScore > 0}.
+     */
+    interface TestStatsRow {
+        Long getTotalAttempts();
+        Long getCompletedAttempts();
+        /** Finished attempts without ungraded answers. */
+        Long getGradedAttempts();
+        Double getAverageScore();
+        Double getMedianScore();
+        Float getMinScore();
+        Float getMaxScore();
+        Long getBucket1();
+        Long getBucket2();
+        Long getBucket3();
+        Long getBucket4();
+        Long getBucket5();
+        Long getBucket6();
+        Long getBucket7();
+        Long getBucket8();
+        Long getBucket9();
+        Long getBucket10();
+
+        default List<Long> buckets() {
+            return List.of(getBucket1(), getBucket2(), getBucket3(), getBucket4(), getBucket5(),
+                    getBucket6(), getBucket7(), getBucket8(), getBucket9(), getBucket10());
+        }
+    }
+
+    // Statistics summary of a test in one aggregate pass over its attempts (PostgreSQL:
+    // PERCENTILE_CONT for the median, WIDTH_BUCKET for the score histogram).
+    @Query(value = "SELECT COUNT(*) AS totalAttempts,"
+            + " COUNT(*) FILTER (WHERE s.finished) AS completedAttempts,"
+            + " COUNT(*) FILTER (WHERE s.finished AND s.pending = 0) AS gradedAttempts,"
+            + " AVG(s.score) FILTER (WHERE s.finished) AS averageScore,"
+            + " PERCENTILE_CONT(0.5) WITHIN GROUP (ORDER BY s.score) FILTER (WHERE s.finished) AS medianScore,"
+            + " MIN(s.score) FILTER (WHERE s.finished) AS minScore,"
+            + " MAX(s.score) FILTER (WHERE s.finished) AS maxScore,"
+            + " COUNT(*) FILTER (WHERE s.bucket = 1) AS bucket1,"
+            + " COUNT(*) FILTER (WHERE s.bucket = 2) AS bucket2,"
+            + " COUNT(*) FILTER (WHERE s.bucket = 3) AS bucket3,"
+            + " COUNT(*) FILTER (WHERE s.bucket = 4) AS bucket4,"
+            + " COUNT(*) FILTER (WHERE s.bucket = 5) AS bucket5,"
+            + " COUNT(*) FILTER (WHERE s.bucket = 6) AS bucket6,"
+            + " COUNT(*) FILTER (WHERE s.bucket = 7) AS bucket7,"
+            + " COUNT(*) FILTER (WHERE s.bucket = 8) AS bucket8,"
+            + " COUNT(*) FILTER (WHERE s.bucket = 9) AS bucket9,"
+            + " COUNT(*) FILTER (WHERE s.bucket = 10) AS bucket10"
+            + " FROM (SELECT CAST(t.score AS DOUBLE PRECISION) AS score, " + ATTEMPT_FINISHED + " AS finished,"
+            + "   COALESCE(p.pending, 0) AS pending,"
+            + "   CASE WHEN " + ATTEMPT_FINISHED + " AND t.score IS NOT NULL AND CAST(:maxScore AS DOUBLE PRECISION) > 0"
+            + "     THEN LEAST(GREATEST(WIDTH_BUCKET(CAST(t.score AS DOUBLE PRECISION), 0,"
+            + "       CAST(:maxScore AS DOUBLE PRECISION), 10), 1), 10) END AS bucket"
+            + "   FROM test_attempts t"
+            + UNGRADED_PER_ATTEMPT_JOIN
+            + "   WHERE t.test_id = :testId) s",
+            nativeQuery = true)
+    TestStatsRow findStatsSummary(@Param("testId") Long testId, @Param("maxScore") double maxScore);
+
+    /**
+     * One cell of a test's results matrix: a finished attempt with the score of one assignment
+     * (the code submission's for CODING, otherwise the answer's; {@code null} if unanswered).
+     * {@code assignmentId} is {@code null} only for a test without assignments.
+     */
+    interface ResultMatrixRow {
+        Long getAttemptId();
+        String getFirstName();
+        String getLastName();
+        String getEmail();
+        String getStudentNumber();
+        String getGroupName();
+        Float getTotalScore();
+        LocalDateTime getStartedAt();
+        LocalDateTime getFinishedAt();
+        Integer getPendingGradingCount();
+        Long getAssignmentId();
+        Float getScore();
+    }
+
+    // Results export: finished attempts × assignments in one pre-joined query, read through a
+    // cursor (stream it inside a transaction and close it). Rows of an attempt are adjacent,
+    // attempts ordered by student name. Native for the same soft-delete reason as the list.
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query(value = "SELECT t.id AS attemptId, s.first_name AS firstName, s.last_name AS lastName,"
+            + " s.email AS email, s.student_number AS studentNumber, g.name AS groupName,"
+            + " t.score AS totalScore, t.started_at AS startedAt, t.finished_at AS finishedAt,"
+            + " CAST(COALESCE(p.pending, 0) AS INTEGER) AS pendingGradingCount, a.id AS assignmentId,"
+            + " CASE WHEN a.assignment_type = 'CODING' THEN c.total_score ELSE aa.score END AS score"
+            + " FROM test_attempts t"
+            + " JOIN users s ON s.id = t.student_id"
+            + " LEFT JOIN student_groups g ON g.id = s.student_group_id"
+            + UNGRADED_PER_ATTEMPT_JOIN
+            + " LEFT JOIN assignments a ON a.test_id = t.test_id"
+            + " LEFT JOIN assignment_answers aa ON aa.test_attempt_id = t.id AND aa.assignment_id = a.id"
+            + " LEFT JOIN code_submissions c ON c.test_attempt_id = t.id AND c.assignment_id = a.id"
+            + " WHERE t.test_id = :testId AND " + ATTEMPT_FINISHED
+            + " ORDER BY s.last_name, s.first_name, t.id",
+            nativeQuery = true)
+    Stream<ResultMatrixRow> streamResultMatrix(@Param("testId") Long testId);
+
     boolean existsByTestEntityIdAndStudentId(Long testId, Long studentId);
 
     long countByStudentId(Long studentId);
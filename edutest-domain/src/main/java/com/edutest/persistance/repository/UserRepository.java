@@ -78,4 +78,9 @@ public interface UserRepository extends JpaRepository<UserEntity, Long> {
     @Modifying
     @Query(value = "UPDATE users SET deleted_at = NULL WHERE id = :id", nativeQuery = true)
     void restoreById(@Param("id") Long id);
-}
\ No newline at end of file
+
+    // (id, token_version) of every user whose tokens were ever revoked, soft-deleted ones
+    // included; seeds the in-memory revocation table of stateless JWT authorization.
+    @Query(value = "SELECT id, token_version FROM users WHERE token_version > 0", nativeQuery = true)
+    List<Object[]> findRevokedTokenVersions();
+}
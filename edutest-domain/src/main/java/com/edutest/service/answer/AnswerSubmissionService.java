@@ -304,8 +304,8 @@ public class AnswerSubmissionService {
      * <p>Returns immediately with PENDING status; the worker thread runs Docker and
      * updates the registry. Frontend polls {@link #getRunStatus} for completion.
      *
-     * <p>If a run is already pending for this submission, the new request replaces it
-     * (last click wins). The previous worker continues but its result is discarded.
+     * <p>Clicking again while the same code is still running joins that run. If the saved
+     * code changed, the previous run is cancelled and replaced (last click wins).
      */
     @Transactional(readOnly = true)
     public RunStatusDto runCode(Long testId, Long attemptId, Long assignmentId, Long studentId) {
@@ -323,8 +323,8 @@ public class AnswerSubmissionService {
                         "No saved code for this assignment yet. Save your code first."));
 
         Long submissionId = submission.getId();
-        runJobRegistry.markPending(submissionId);
-        asyncCodeRunService.executeAsync(submissionId);
+        asyncCodeRunService.requestRun(submissionId, studentId,
+                submission.getProgrammingLanguage(), submission.getSourceCode());
 
         return runJobRegistry.getStatus(submissionId);
     }
@@ -335,7 +335,16 @@ public class AnswerSubmissionService {
      */
     @Transactional(readOnly = true)
     public RunStatusDto getRunStatus(Long testId, Long attemptId, Long assignmentId, Long studentId) {
-        TestAttemptEntity attempt = validateAndGetAttempt(testId, attemptId, studentId);
+        return runJobRegistry.getStatus(getRunSubmissionId(testId, attemptId, assignmentId, studentId));
+    }
+
+    /**
+     * The submission whose preview jobs {@link #getRunStatus} reports, after the same
+     * ownership checks — for subscribing to its status instead of polling.
+     */
+    @Transactional(readOnly = true)
+    public Long getRunSubmissionId(Long testId, Long attemptId, Long assignmentId, Long studentId) {
+        validateAndGetAttempt(testId, attemptId, studentId);
         AssignmentEntity assignment = validateAndGetAssignment(testId, assignmentId);
 
         if (assignment.getType() != AssignmentType.CODING) {
@@ -346,7 +355,7 @@ public class AnswerSubmissionService {
                 .findByTestAttemptIdAndAssignmentId(attemptId, assignmentId)
                 .orElseThrow(() -> new IllegalArgumentException("Submission not found"));
 
-        return runJobRegistry.getStatus(submission.getId());
+        return submission.getId();
     }
 
     private AnswerDto mapAnswerToDto(AssignmentAnswerEntity answer) {
@@ -416,6 +425,7 @@ public class AnswerSubmissionService {
                 .isPublic(isPublic)
                 .passed(result.getPassed())
                 .executionTimeMs(result.getExecutionTimeMs())
+                .cpuTimeMs(result.getCpuTimeMs())
                 .memoryUsedMb(result.getMemoryUsedMb());
 
         // Hidden test cases: don't reveal IO data or detailed errors to the student.
@@ -1,9 +1,12 @@
 package com.edutest.service.answer;
 
 import com.edutest.dto.TestSubmissionResultDto;
+import com.edutest.service.codeexecution.CodeExecutionScheduler;
+import com.edutest.service.codeexecution.ExecutionPriority;
+import com.edutest.service.codeexecution.ExecutionQueueFullException;
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
 
 /**
@@ -11,13 +14,17 @@ import org.springframework.stereotype.Service;
  * so a submit with many CODING questions doesn't block the HTTP request thread for
  * minutes (which would risk LB / proxy 504 timeouts).
  *
- * <p>Why a separate bean? {@code @Async} only takes effect through Spring proxies —
- * methods annotated with {@code @Async} must be called from a different bean than
- * the one defining them. The controller calls {@link #executeAsync} on this bean,
- * which Spring proxies and dispatches to the {@code submitGradingExecutor} pool.
+ * <p>The controller calls {@link #executeAsync}, which queues the grading on
+ * {@link CodeExecutionScheduler} at {@link ExecutionPriority#SUBMIT} — ahead of every
+ * preview and re-run, so a deadline burst of submits is graded first. A full queue is
+ * reported to the caller right away (the job is marked FAILED too).
  *
  * <p>Failures inside the worker are routed to {@link SubmitJobRegistry#markFailed}
  * — they do NOT propagate to the request thread (which has long since returned 202).
+ *
+ * <p>A submit left PENDING by an instance that died mid-grading is graded again here (JDBC
+ * job store only) — unless the attempt was finished before it died, in which case the job
+ * is dropped and the student lands on the results page.
  */
 @Slf4j
 @Service
@@ -26,9 +33,39 @@ public class AsyncTestSubmissionService {
 
     private final TestSubmissionService testSubmissionService;
     private final SubmitJobRegistry registry;
+    private final CodeExecutionScheduler scheduler;
+
+    @PostConstruct
+    void registerRecovery() {
+        registry.onOrphaned(this::resume);
+    }
 
-    @Async("submitGradingExecutor")
     public void executeAsync(Long testId, Long attemptId, Long studentId) {
+        try {
+            scheduler.submit(ExecutionPriority.SUBMIT, studentId, () -> {
+                execute(testId, attemptId, studentId);
+                return null;
+            });
+        } catch (ExecutionQueueFullException e) {
+            registry.markFailed(attemptId, e.getMessage());
+            throw e;
+        }
+    }
+
+    private void resume(SubmitJobRegistry.Orphan orphan) {
+        try {
+            testSubmissionService.assertSubmittable(orphan.testId(), orphan.attemptId(), orphan.studentId());
+        } catch (IllegalStateException e) {
+            registry.remove(orphan.attemptId());
+            return;
+        } catch (RuntimeException e) {
+            registry.markFailed(orphan.attemptId(), e.getMessage());
+            return;
+        }
+        executeAsync(orphan.testId(), orphan.attemptId(), orphan.studentId());
+    }
+
+    private void execute(Long testId, Long attemptId, Long studentId) {
         try {
             TestSubmissionResultDto result = testSubmissionService.submitTestAttempt(testId, attemptId, studentId);
             registry.markDone(attemptId, result);
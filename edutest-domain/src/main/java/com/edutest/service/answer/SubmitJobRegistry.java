@@ -2,111 +2,99 @@ package com.edutest.service.answer;
 
 import com.edutest.dto.SubmitStatusDto;
 import com.edutest.dto.TestSubmissionResultDto;
+import com.edutest.event.SubmitStatusChangedEvent;
+import com.edutest.service.jobstore.JobKind;
+import com.edutest.service.jobstore.JobRecord;
+import com.edutest.service.jobstore.JobStateStore;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Component;
 
-import java.time.LocalDateTime;
+import java.time.Duration;
 import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
 
 /**
- * In-memory store of running and completed test-submission jobs, keyed by attemptId.
+ * Running and completed test-submission jobs, keyed by attemptId, kept in the
+ * {@link JobStateStore}.
  *
  * Kept separate from {@link com.edutest.service.codeexecution.CodeRunJobRegistry} —
  * different ownership (attempt vs. single submission), different payload type, and
  * different lifecycle (a submit job represents the final grading of an attempt and
  * should not race with preview run jobs).
  *
- * Loss of state on restart is tolerable: the attempt is persisted as finished in DB
- * by {@code TestSubmissionService}, so worst case the student polls and sees NONE,
- * then frontend redirects to the results page (which reads from DB).
+ * Loss of state on restart is tolerable with the in-memory store: the attempt is persisted
+ * as finished in DB by {@code TestSubmissionService}, so worst case the student polls and
+ * sees NONE, then frontend redirects to the results page (which reads from DB). With the
+ * JDBC store a submit whose instance died mid-grading is graded again by another one.
+ *
+ * Every state change publishes a {@link SubmitStatusChangedEvent}.
  */
 @Slf4j
 @Component
+@RequiredArgsConstructor
 public class SubmitJobRegistry {
 
     /** How long a completed/failed job stays readable. After this, status becomes NONE. */
-    private static final long READ_TTL_SECONDS = 600; // 10 minutes — students may take time on the spinner page
+    private static final Duration READ_TTL = Duration.ofMinutes(10); // students may take time on the spinner page
 
     /** How long a PENDING job stays before being considered "stuck" and orphaned. */
-    private static final long PENDING_TIMEOUT_SECONDS = 600; // 10 minutes — full submit can be slow with many CODING tasks
-
-    private final Map<Long, SubmitJob> jobs = new ConcurrentHashMap<>();
-
-    public enum Status { PENDING, DONE, FAILED }
-
-    public static class SubmitJob {
-        public final Status status;
-        public final LocalDateTime startedAt;
-        public final LocalDateTime completedAt;
-        public final TestSubmissionResultDto result;
-        public final String error;
+    private static final Duration PENDING_TIMEOUT = Duration.ofMinutes(10); // full submit can be slow with many CODING tasks
 
-        private SubmitJob(Status status, LocalDateTime startedAt, LocalDateTime completedAt,
-                          TestSubmissionResultDto result, String error) {
-            this.status = status;
-            this.startedAt = startedAt;
-            this.completedAt = completedAt;
-            this.result = result;
-            this.error = error;
-        }
+    static final JobKind<TestSubmissionResultDto> KIND =
+            new JobKind<>("submit", TestSubmissionResultDto.class, PENDING_TIMEOUT, READ_TTL);
 
-        static SubmitJob pending() {
-            return new SubmitJob(Status.PENDING, LocalDateTime.now(), null, null, null);
-        }
+    private static final String TEST_ID = "testId";
+    private static final String STUDENT_ID = "studentId";
 
-        SubmitJob done(TestSubmissionResultDto result) {
-            return new SubmitJob(Status.DONE, this.startedAt, LocalDateTime.now(), result, null);
-        }
+    private final JobStateStore store;
+    private final ApplicationEventPublisher eventPublisher;
 
-        SubmitJob failed(String error) {
-            return new SubmitJob(Status.FAILED, this.startedAt, LocalDateTime.now(), null, error);
-        }
+    /** A submit to grade again. */
+    public record Orphan(Long attemptId, Long testId, Long studentId) {
     }
 
     /** Mark this attempt as having a pending submit. Replaces any existing job. */
-    public void markPending(Long attemptId) {
-        jobs.put(attemptId, SubmitJob.pending());
+    public void markPending(Long attemptId, Long testId, Long studentId) {
+        store.put(KIND, attemptId, JobRecord.pending(Map.of(TEST_ID, testId, STUDENT_ID, studentId)));
+        eventPublisher.publishEvent(new SubmitStatusChangedEvent(attemptId));
         log.debug("Submit job PENDING for attempt {}", attemptId);
     }
 
     public void markDone(Long attemptId, TestSubmissionResultDto result) {
-        jobs.computeIfPresent(attemptId, (id, existing) -> existing.done(result));
+        store.update(KIND, attemptId, job -> job.done(result));
+        eventPublisher.publishEvent(new SubmitStatusChangedEvent(attemptId));
         log.debug("Submit job DONE for attempt {}", attemptId);
     }
 
     public void markFailed(Long attemptId, String error) {
-        jobs.computeIfPresent(attemptId, (id, existing) -> existing.failed(error));
+        store.update(KIND, attemptId, job -> job.failed(error));
+        eventPublisher.publishEvent(new SubmitStatusChangedEvent(attemptId));
         log.warn("Submit job FAILED for attempt {}: {}", attemptId, error);
     }
 
-    public SubmitStatusDto getStatus(Long attemptId) {
-        SubmitJob job = jobs.get(attemptId);
-        if (job == null) {
-            return SubmitStatusDto.builder().status("NONE").build();
-        }
-
-        // Clean up stuck/expired entries lazily
-        if (job.status == Status.PENDING && isOlderThan(job.startedAt, PENDING_TIMEOUT_SECONDS)) {
-            jobs.remove(attemptId);
-            return SubmitStatusDto.builder().status("NONE").build();
-        }
-        if ((job.status == Status.DONE || job.status == Status.FAILED)
-                && isOlderThan(job.completedAt, READ_TTL_SECONDS)) {
-            jobs.remove(attemptId);
-            return SubmitStatusDto.builder().status("NONE").build();
-        }
+    /** Drops the job; polls see NONE and the frontend falls back to the results page. */
+    public void remove(Long attemptId) {
+        store.remove(KIND, attemptId);
+        eventPublisher.publishEvent(new SubmitStatusChangedEvent(attemptId));
+    }
 
-        return SubmitStatusDto.builder()
-                .status(job.status.name())
-                .startedAt(job.startedAt)
-                .completedAt(job.completedAt)
-                .result(job.result)
-                .error(job.error)
-                .build();
+    public SubmitStatusDto getStatus(Long attemptId) {
+        return store.get(KIND, attemptId)
+                .map(job -> SubmitStatusDto.builder()
+                        .status(job.status().name())
+                        .startedAt(job.startedAt())
+                        .completedAt(job.completedAt())
+                        .result(job.result())
+                        .error(job.error())
+                        .build())
+                .orElseGet(() -> SubmitStatusDto.builder().status("NONE").build());
     }
 
-    private static boolean isOlderThan(LocalDateTime ts, long seconds) {
-        return ts != null && ts.isBefore(LocalDateTime.now().minusSeconds(seconds));
+    /** Registers how to restart a PENDING submit left behind by an instance that died. */
+    public void onOrphaned(Consumer<Orphan> restart) {
+        store.onOrphaned(KIND, (attemptId, job) -> restart.accept(
+                new Orphan(attemptId, job.context().get(TEST_ID), job.context().get(STUDENT_ID))));
     }
 }
@@ -10,16 +10,23 @@ import com.edutest.persistance.entity.test.TestAttemptEntity;
 import com.edutest.persistance.entity.test.TestEntity;
 import com.edutest.persistance.entity.code.ExecutionStatusEnum;
 import com.edutest.persistance.repository.*;
+import com.edutest.service.codeexecution.CodeExecutionScheduler;
 import com.edutest.service.codeexecution.CodeExecutionService;
+import com.edutest.service.codeexecution.ExecutionPriority;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
-import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Future;
 
 @Slf4j
 @Service
@@ -31,7 +38,9 @@ public class TestSubmissionService {
     private final CodeSubmissionJpaRepository codeSubmissionRepository;
     private final AssignmentJpaRepository assignmentRepository;
     private final CodeExecutionService codeExecutionService;
+    private final CodeExecutionScheduler scheduler;
     private final ApplicationEventPublisher eventPublisher;
+    private final PlatformTransactionManager transactionManager;
 
     /**
      * Pre-flight check for {@link #submitTestAttempt} — runs the same ownership/state
@@ -40,18 +49,7 @@ public class TestSubmissionService {
      */
     @Transactional(readOnly = true)
     public void assertSubmittable(Long testId, Long attemptId, Long studentId) {
-        TestAttemptEntity attempt = testAttemptRepository.findByIdWithTest(attemptId)
-                .orElseThrow(() -> new IllegalArgumentException("Test attempt not found"));
-
-        if (!attempt.getTestEntity().getId().equals(testId)) {
-            throw new IllegalArgumentException("Test attempt does not belong to this test");
-        }
-        if (!attempt.getStudent().getId().equals(studentId)) {
-            throw new AccessDeniedException("You do not have access to this test attempt");
-        }
-        if (attempt.isFinished()) {
-            throw new IllegalStateException("Test attempt is already completed");
-        }
+        loadSubmittableAttempt(testId, attemptId, studentId);
     }
 
     /**
@@ -70,25 +68,50 @@ public class TestSubmissionService {
         }
     }
 
-    @Transactional
+    /**
+     * Grades and finishes the attempt in three phases:
+     * <ol>
+     *   <li>short read-only transaction — validate, load the CODING submissions that still
+     *       need a run (with test cases initialized, detached afterwards);</li>
+     *   <li>no transaction — run all of them concurrently on {@link CodeExecutionScheduler}
+     *       at SUBMIT priority, so five CODING tasks cost one sandbox run of wall time and
+     *       no DB connection is held while containers run;</li>
+     *   <li>short write transaction — re-validate (guards a concurrent double submit), copy
+     *       the execution results onto freshly loaded submissions, auto-grade choice answers
+     *       and finish the attempt.</li>
+     * </ol>
+     * Transactions are opened programmatically because the phases live in one bean.
+     */
     public TestSubmissionResultDto submitTestAttempt(Long testId, Long attemptId, Long studentId) {
-        TestAttemptEntity attempt = testAttemptRepository.findByIdWithTest(attemptId)
-                .orElseThrow(() -> new IllegalArgumentException("Test attempt not found"));
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        List<CodeSubmissionEntity> pendingCode = readOnly.execute(status -> {
+            loadSubmittableAttempt(testId, attemptId, studentId);
+            return loadPendingCodeSubmissions(attemptId);
+        });
 
-        if (!attempt.getTestEntity().getId().equals(testId)) {
-            throw new IllegalArgumentException("Test attempt does not belong to this test");
-        }
+        List<CodeSubmissionEntity> executed = executeCodeSubmissions(pendingCode, studentId);
 
-        if (!attempt.getStudent().getId().equals(studentId)) {
-            throw new AccessDeniedException("You do not have access to this test attempt");
-        }
+        return new TransactionTemplate(transactionManager).execute(status ->
+                finishAttempt(testId, attemptId, studentId, executed));
+    }
 
-        if (attempt.isFinished()) {
-            throw new IllegalStateException("Test attempt is already completed");
+    private TestSubmissionResultDto finishAttempt(Long testId, Long attemptId, Long studentId,
+                                                  List<CodeSubmissionEntity> executed) {
+        TestAttemptEntity attempt = loadSubmittableAttempt(testId, attemptId, studentId);
+
+        autoGradeChoiceAnswers(attemptId);
+        for (CodeSubmissionEntity result : executed) {
+            // The submission was loaded before it ran; saving that copy would overwrite the row.
+            CodeSubmissionEntity submission = codeSubmissionRepository.findById(result.getId()).orElse(null);
+            if (submission == null) {
+                log.warn("Submission {} was deleted while it ran, skipping it", result.getId());
+                continue;
+            }
+            submission.copyExecutionResult(result);
+            codeSubmissionRepository.save(submission);
         }
 
-        autoGradeAllAnswers(attemptId);
-
         float totalScore = calculateTotalScore(attemptId);
         Float maxPossibleScore = assignmentRepository.sumPointsByTestId(testId);
 
@@ -113,7 +136,25 @@ public class TestSubmissionService {
         );
     }
 
-    private void autoGradeAllAnswers(Long attemptId) {
+    private TestAttemptEntity loadSubmittableAttempt(Long testId, Long attemptId, Long studentId) {
+        TestAttemptEntity attempt = testAttemptRepository.findByIdWithTest(attemptId)
+                .orElseThrow(() -> new IllegalArgumentException("Test attempt not found"));
+
+        if (!attempt.getTestEntity().getId().equals(testId)) {
+            throw new IllegalArgumentException("Test attempt does not belong to this test");
+        }
+
+        if (!attempt.getStudent().getId().equals(studentId)) {
+            throw new AccessDeniedException("You do not have access to this test attempt");
+        }
+
+        if (attempt.isFinished()) {
+            throw new IllegalStateException("Test attempt is already completed");
+        }
+        return attempt;
+    }
+
+    private void autoGradeChoiceAnswers(Long attemptId) {
         List<AssignmentAnswerEntity> answers = answerRepository.findByTestAttemptId(attemptId);
 
         for (AssignmentAnswerEntity answer : answers) {
@@ -126,19 +167,47 @@ public class TestSubmissionService {
                 }
             }
         }
+    }
 
+    private List<CodeSubmissionEntity> loadPendingCodeSubmissions(Long attemptId) {
+        List<CodeSubmissionEntity> pending = new ArrayList<>();
         for (CodeSubmissionEntity submission : codeSubmissionRepository.findByTestAttemptId(attemptId)) {
             if (submission.getExecutionStatus() == null
                     || submission.getExecutionStatus() == ExecutionStatusEnum.NOT_EXECUTED) {
-                try {
+                // Trigger lazy collections while the read transaction is open — execution
+                // runs detached and rewrites the result list.
+                submission.getAssignment().getTestCases().size();
+                submission.getTestCaseResults().size();
+                pending.add(submission);
+            }
+        }
+        return pending;
+    }
+
+    /** Returns the submissions whose execution finished; failures are logged and left ungraded. */
+    private List<CodeSubmissionEntity> executeCodeSubmissions(List<CodeSubmissionEntity> submissions, Long studentId) {
+        List<Callable<CodeSubmissionEntity>> runs = submissions.stream()
+                .<Callable<CodeSubmissionEntity>>map(submission -> () -> {
                     codeExecutionService.executeAndPersist(submission);
-                    codeSubmissionRepository.save(submission);
-                } catch (Exception e) {
-                    log.error("Auto-grade code execution failed for submission {}: {}",
-                            submission.getId(), e.getMessage(), e);
-                }
+                    return submission;
+                })
+                .toList();
+
+        List<CompletableFuture<CodeSubmissionEntity>> outcomes =
+                scheduler.invokeAll(ExecutionPriority.SUBMIT, studentId, runs);
+
+        List<CodeSubmissionEntity> executed = new ArrayList<>();
+        for (int i = 0; i < outcomes.size(); i++) {
+            CompletableFuture<CodeSubmissionEntity> outcome = outcomes.get(i);
+            if (outcome.state() == Future.State.SUCCESS) {
+                executed.add(outcome.resultNow());
+            } else {
+                Throwable e = outcome.exceptionNow();
+                log.error("Auto-grade code execution failed for submission {}: {}",
+                        submissions.get(i).getId(), e.getMessage(), e);
             }
         }
+        return executed;
     }
 
     private float calculateTotalScore(Long attemptId) {
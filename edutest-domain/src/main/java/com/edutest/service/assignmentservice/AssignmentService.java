@@ -124,7 +124,8 @@ public class AssignmentService {
 
     public CodingAssignment createCodingAssignment(Long testId, String title, String description, Float points,
                                                  Integer timeLimitMs, Integer memoryLimitMb, String allowedLanguages,
-                                                 String starterCode, String solutionTemplate, List<TestCase> testCases) {
+                                                 String starterCode, String solutionTemplate, Boolean stopOnFirstFailure,
+                                                 List<TestCase> testCases) {
         log.info("Creating coding assignment: title={}, testId={}", title, testId);
 
         Test test = getTestById(testId);
@@ -143,6 +144,7 @@ public class AssignmentService {
                 .allowedLanguages(allowedLanguages)
                 .starterCode(starterCode)
                 .solutionTemplate(solutionTemplate)
+                .stopOnFirstFailure(stopOnFirstFailure)
                 .testCases(testCases)
                 .createdAt(LocalDateTime.now())
                 .updatedAt(LocalDateTime.now())
@@ -212,7 +214,8 @@ public class AssignmentService {
     public CodingAssignment updateCodingAssignment(Long id, String title, String description, Float points,
                                                    Integer timeLimitMs, Integer memoryLimitMb,
                                                    String allowedLanguages, String starterCode,
-                                                   String solutionTemplate, List<TestCase> testCases) {
+                                                   String solutionTemplate, Boolean stopOnFirstFailure,
+                                                   List<TestCase> testCases) {
         log.info("Updating coding assignment: id={}", id);
 
         Assignment assignment = findById(id);
@@ -237,6 +240,9 @@ public class AssignmentService {
         if (solutionTemplate != null) {
             coding.setSolutionTemplate(solutionTemplate);
         }
+        if (stopOnFirstFailure != null) {
+            coding.setStopOnFirstFailure(stopOnFirstFailure);
+        }
         if (testCases != null) {
             coding.setTestCases(testCases);
         }
@@ -452,6 +458,7 @@ public class AssignmentService {
                     .allowedLanguages(coding.getAllowedLanguages())
                     .starterCode(coding.getStarterCode())
                     .solutionTemplate(coding.getSolutionTemplate())
+                    .stopOnFirstFailure(coding.getStopOnFirstFailure())
                     .testCases(duplicatedTestCases)
                     .createdAt(LocalDateTime.now())
                     .updatedAt(LocalDateTime.now())
@@ -486,6 +493,8 @@ public class AssignmentService {
                         .isPublic(tc.getIsPublic())
                         .description(tc.getDescription())
                         .weight(tc.getWeight())
+                        .checkerMode(tc.getCheckerMode())
+                        .floatTolerance(tc.getFloatTolerance())
                         .build())
                 .toList();
     }
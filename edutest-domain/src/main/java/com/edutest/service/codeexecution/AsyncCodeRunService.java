@@ -3,23 +3,46 @@ package com.edutest.service.codeexecution;
 import com.edutest.dto.AnswerDto;
 import com.edutest.persistance.entity.code.CodeSubmissionEntity;
 import com.edutest.persistance.repository.CodeSubmissionJpaRepository;
+import com.edutest.service.codeexecution.CodeRunJobRegistry.RunJob;
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Future;
 
 /**
  * Bridges synchronous {@link CodeExecutionService} into the async + polling flow.
  *
- * <p>Why a separate bean? {@code @Async} only takes effect through Spring proxies —
- * methods annotated with {@code @Async} must be called from a different bean than
- * the one defining them. {@link com.edutest.service.answer.AnswerSubmissionService#runCode}
- * calls {@link #executeAsync} on this bean, which Spring proxies and dispatches to
- * the {@code codeRunExecutor} thread pool.
+ * <p>{@link com.edutest.service.answer.AnswerSubmissionService#runCode} calls
+ * {@link #requestRun}, which queues the run on {@link CodeExecutionScheduler} at
+ * {@link ExecutionPriority#PREVIEW} — behind final submits, fair across students.
+ * A full queue is reported to the caller right away (the job is marked FAILED too).
+ *
+ * <p>At most one run per submission is in flight on this instance. Asking again for the
+ * same language and source joins the run already going; asking for different code cancels
+ * it — a queued run is withdrawn, a running one is interrupted, which kills its container
+ * exec and hands the sandbox back to the pool — and starts a new one. Whatever a cancelled
+ * run still reports is ignored by the registry.
  *
  * <p>Loads its own copy of the submission inside the worker — the request's transaction
- * is already committed by the time the async method runs.
+ * is already committed by the time the task runs. The worker is not a Spring proxy call,
+ * so the read-only transaction is opened programmatically, and only for the load: it is
+ * closed before the sandbox run, so a busy worker doesn't hold a pooled connection while
+ * the job store writes its progress on another one.
+ *
+ * <p>Each finished test case is recorded in the registry right away, so the PENDING status
+ * shows the run's progress.
+ *
+ * <p>A run left PENDING by an instance that died is queued again here (JDBC job store only).
  */
 @Slf4j
 @Service
@@ -29,26 +52,161 @@ public class AsyncCodeRunService {
     private final CodeExecutionService codeExecutionService;
     private final CodeSubmissionJpaRepository submissionRepository;
     private final CodeRunJobRegistry registry;
+    private final CodeExecutionScheduler scheduler;
+    private final PlatformTransactionManager transactionManager;
+
+    /** The run in flight for each submission, until its task finishes. */
+    private final Map<Long, PreviewRun> runs = new ConcurrentHashMap<>();
+
+    /** One run of a submission on this instance, from queueing to its task finishing. */
+    private static final class PreviewRun {
+        private final RunJob job;
+        /** Language and source being run; null when unknown (restarted orphans). */
+        private final String fingerprint;
+        private Future<?> task;
+        private Thread worker;
+        private boolean cancelled;
+
+        private PreviewRun(RunJob job, String fingerprint) {
+            this.job = job;
+            this.fingerprint = fingerprint;
+        }
+
+        synchronized void queued(Future<?> task) {
+            this.task = task;
+            if (cancelled) {
+                task.cancel(false);
+            }
+        }
+
+        /** Called by the worker; returns false if the run was cancelled before it started. */
+        synchronized boolean begin() {
+            if (cancelled) {
+                return false;
+            }
+            worker = Thread.currentThread();
+            return true;
+        }
+
+        /** Called by the worker; clears an interrupt meant for this run. */
+        synchronized void end() {
+            worker = null;
+            Thread.interrupted();
+        }
+
+        synchronized void cancel() {
+            cancelled = true;
+            if (worker != null) {
+                worker.interrupt();
+            } else if (task != null) {
+                task.cancel(false);
+            }
+        }
+    }
 
-    @Async("codeRunExecutor")
-    @Transactional(readOnly = true)
-    public void executeAsync(Long submissionId) {
+    @PostConstruct
+    void registerRecovery() {
+        registry.onOrphaned(orphan -> {
+            PreviewRun run = new PreviewRun(orphan.job(), null);
+            if (runs.putIfAbsent(orphan.job().submissionId(), run) == null) {
+                start(run, orphan.studentId());
+            }
+        });
+    }
+
+    /**
+     * Runs the saved {@code sourceCode} of the submission in the background, unless a run of
+     * the very same code is already in flight; a run of other code is cancelled.
+     *
+     * @throws ExecutionQueueFullException if the run can't be queued
+     */
+    public void requestRun(Long submissionId, Long studentId, String language, String sourceCode) {
+        String fingerprint = fingerprint(language, sourceCode);
+        PreviewRun[] started = new PreviewRun[1];
+        runs.compute(submissionId, (id, current) -> {
+            if (current != null && fingerprint.equals(current.fingerprint)) {
+                log.debug("Same code already running for submission {}, joining that run", id);
+                return current;
+            }
+            if (current != null) {
+                log.debug("Code of submission {} changed, cancelling its previous run", id);
+                current.cancel();
+            }
+            started[0] = new PreviewRun(registry.markPending(id, studentId), fingerprint);
+            return started[0];
+        });
+        if (started[0] != null) {
+            start(started[0], studentId);
+        }
+    }
+
+    /** Queues a run already in {@link #runs}; queued outside its map entry's lock. */
+    private void start(PreviewRun run, Long studentId) {
+        RunJob job = run.job;
+        try {
+            run.queued(scheduler.submit(ExecutionPriority.PREVIEW, studentId, () -> {
+                if (run.begin()) {
+                    try {
+                        execute(job);
+                    } finally {
+                        run.end();
+                        runs.remove(job.submissionId(), run);
+                    }
+                }
+                return null;
+            }));
+        } catch (ExecutionQueueFullException e) {
+            runs.remove(job.submissionId(), run);
+            registry.markFailed(job, e.getMessage());
+            throw e;
+        }
+    }
+
+    private void execute(RunJob job) {
+        Long submissionId = job.submissionId();
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
         try {
-            CodeSubmissionEntity submission = submissionRepository.findById(submissionId)
-                    .orElse(null);
+            CodeSubmissionEntity submission = readOnly.execute(status -> {
+                CodeSubmissionEntity loaded = submissionRepository.findById(submissionId).orElse(null);
+                if (loaded != null) {
+                    // Trigger lazy collections inside the worker's transaction; the run uses them detached
+                    loaded.getAssignment().getTestCases().size();
+                }
+                return loaded;
+            });
             if (submission == null) {
-                registry.markFailed(submissionId, "Submission not found");
+                registry.markFailed(job, "Submission not found");
                 return;
             }
-            // Trigger lazy collections inside the worker's transaction
-            submission.getAssignment().getTestCases().size();
 
-            AnswerDto result = codeExecutionService.runPreview(submission);
-            registry.markDone(submissionId, result);
+            AnswerDto result = codeExecutionService.runPreview(submission,
+                    partial -> registry.markProgress(job, partial));
+            if (Thread.currentThread().isInterrupted()) {
+                log.debug("Run of submission {} cancelled", submissionId);
+                return;
+            }
+            registry.markDone(job, result);
         } catch (Exception e) {
+            if (Thread.currentThread().isInterrupted()) {
+                log.debug("Run of submission {} cancelled: {}", submissionId, e.getMessage());
+                return;
+            }
             log.error("Async preview failed for submission {}: {}", submissionId, e.getMessage(), e);
-            registry.markFailed(submissionId,
+            registry.markFailed(job,
                     e.getMessage() != null ? e.getMessage() : "Unknown execution error");
         }
     }
+
+    private static String fingerprint(String language, String sourceCode) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(String.valueOf(language).getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+            digest.update(String.valueOf(sourceCode).getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
 }
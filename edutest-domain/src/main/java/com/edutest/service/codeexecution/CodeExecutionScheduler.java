@@ -0,0 +1,36 @@
+package com.edutest.service.codeexecution;
+
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Dispatches work that runs student code onto the sandbox's bounded set of execution
+ * slots (the Docker concurrency budget). Implemented in {@code edutest-code-execution}.
+ *
+ * <p>Tasks are served strictly by {@link ExecutionPriority}; within a priority class,
+ * round-robin per student, so one student hammering "Run tests" only ever delays their
+ * own runs. Queues are bounded — when full, {@link #submit} fails fast with
+ * {@link ExecutionQueueFullException} instead of parking work on the caller's thread.
+ */
+public interface CodeExecutionScheduler {
+
+    /**
+     * Cancelling the returned future takes the task back out of its queue if no worker has
+     * picked it up yet; a task that is already running is not interrupted by it.
+     *
+     * @param studentId fairness key — the student whose code runs (may be null for system work)
+     * @throws ExecutionQueueFullException if the priority class or the student's share is full
+     */
+    <T> CompletableFuture<T> submit(ExecutionPriority priority, Long studentId, Callable<T> task);
+
+    /**
+     * Runs the tasks concurrently on the execution slots and returns once all of them have
+     * finished — every returned future is complete, failures are left on their future.
+     * Safe to call from inside a scheduled task: work no slot has picked up yet runs on the
+     * calling thread instead of waiting for one, so nested fan-out cannot deadlock. Never
+     * rejects; overflow runs on the calling thread as well. Called from a scheduled task, it
+     * runs queued work of higher priority classes before each of its own tasks.
+     */
+    <T> List<CompletableFuture<T>> invokeAll(ExecutionPriority priority, Long studentId, List<Callable<T>> tasks);
+}
@@ -3,6 +3,8 @@ package com.edutest.service.codeexecution;
 import com.edutest.dto.AnswerDto;
 import com.edutest.persistance.entity.code.CodeSubmissionEntity;
 
+import java.util.function.Consumer;
+
 /**
  * Single seam between core domain and the {@code edutest-code-execution} module.
  *
@@ -15,11 +17,17 @@ import com.edutest.persistance.entity.code.CodeSubmissionEntity;
  *
  * <p>{@link #runPreview} runs only test cases marked public ({@code isPublic=true})
  * and returns a transient {@link AnswerDto} without persisting any changes —
- * used for the student's "Run tests" button during the attempt.
+ * used for the student's "Run tests" button during the attempt. While it runs, every
+ * finished test case is reported to {@code progress}, and when the assignment has
+ * {@code stopOnFirstFailure} set it stops at the first test case that fails.
  */
 public interface CodeExecutionService {
 
     void executeAndPersist(CodeSubmissionEntity submission);
 
-    AnswerDto runPreview(CodeSubmissionEntity submission);
+    /**
+     * @param progress gets the results so far each time a test case finishes — shaped like the
+     *                 final result, with {@code testCasesTotal} counting every case to run
+     */
+    AnswerDto runPreview(CodeSubmissionEntity submission, Consumer<AnswerDto> progress);
 }
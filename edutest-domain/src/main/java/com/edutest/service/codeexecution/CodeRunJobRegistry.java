@@ -2,114 +2,145 @@ package com.edutest.service.codeexecution;
 
 import com.edutest.dto.AnswerDto;
 import com.edutest.dto.RunStatusDto;
+import com.edutest.event.RunStatusChangedEvent;
+import com.edutest.service.jobstore.JobKind;
+import com.edutest.service.jobstore.JobRecord;
+import com.edutest.service.jobstore.JobStateStore;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Component;
 
-import java.time.LocalDateTime;
+import java.time.Duration;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Consumer;
+import java.util.function.UnaryOperator;
 
 /**
- * In-memory store of running and completed code run jobs.
+ * Running and completed code run jobs, keyed by submissionId, kept in the
+ * {@link JobStateStore}.
  *
- * Preview is transient by design — losing job state on app restart is acceptable
- * (student re-clicks "Run tests" if needed). Persisting would require new tables
- * and complicate cleanup.
+ * Preview is transient by design — with the default in-memory store, losing job state on
+ * app restart is acceptable (student re-clicks "Run tests" if needed). With the JDBC store
+ * every instance sees the same jobs, and a run whose instance died is started again by
+ * another one (see {@link #onOrphaned}).
  *
- * Old completed/failed entries are evicted on read after {@link #READ_TTL_SECONDS}
- * to prevent unbounded growth. Scheduled cleanup happens lazily — no separate thread.
+ * Completed/failed entries become NONE after {@link #READ_TTL}, stuck PENDING ones after
+ * {@link #PENDING_TIMEOUT}; the store evicts them in the background.
+ *
+ * A PENDING job carries the test cases finished so far ({@link #markProgress}), so a
+ * student watching a long run sees it advance case by case.
+ *
+ * Each {@link #markPending} starts a new run of the submission and returns its
+ * {@link RunJob}; updates through an older handle are ignored, so a superseded run can
+ * never overwrite the job of the run that replaced it.
+ *
+ * Every state change publishes a {@link RunStatusChangedEvent}, so status can be pushed
+ * instead of polled.
  */
 @Slf4j
 @Component
+@RequiredArgsConstructor
 public class CodeRunJobRegistry {
 
     /** How long a completed/failed job stays readable. After this, status becomes NONE. */
-    private static final long READ_TTL_SECONDS = 300; // 5 minutes
+    private static final Duration READ_TTL = Duration.ofMinutes(5);
 
     /** How long a PENDING job stays before being considered "stuck" and orphaned. */
-    private static final long PENDING_TIMEOUT_SECONDS = 180; // 3 minutes
-
-    private final Map<Long, RunJob> jobs = new ConcurrentHashMap<>();
-
-    public enum Status { PENDING, DONE, FAILED }
-
-    public static class RunJob {
-        public final Status status;
-        public final LocalDateTime startedAt;
-        public final LocalDateTime completedAt;
-        public final AnswerDto result;
-        public final String error;
-
-        private RunJob(Status status, LocalDateTime startedAt, LocalDateTime completedAt,
-                       AnswerDto result, String error) {
-            this.status = status;
-            this.startedAt = startedAt;
-            this.completedAt = completedAt;
-            this.result = result;
-            this.error = error;
-        }
+    private static final Duration PENDING_TIMEOUT = Duration.ofMinutes(3);
 
-        static RunJob pending() {
-            return new RunJob(Status.PENDING, LocalDateTime.now(), null, null, null);
-        }
+    static final JobKind<AnswerDto> KIND = new JobKind<>("code-run", AnswerDto.class, PENDING_TIMEOUT, READ_TTL);
 
-        RunJob done(AnswerDto result) {
-            return new RunJob(Status.DONE, this.startedAt, LocalDateTime.now(), result, null);
-        }
+    private static final String STUDENT_ID = "studentId";
+    private static final String RUN_ID = "runId";
 
-        RunJob failed(String error) {
-            return new RunJob(Status.FAILED, this.startedAt, LocalDateTime.now(), null, error);
-        }
+    private final JobStateStore store;
+    private final ApplicationEventPublisher eventPublisher;
+
+    /** One run of a submission; {@code runId} is null for jobs stored before runs had one. */
+    public record RunJob(Long submissionId, Long runId) {
+    }
+
+    /** A run to start again, for the student whose queue it belongs to. */
+    public record Orphan(RunJob job, Long studentId) {
     }
 
     /** Mark this submission as having a pending run. Replaces any existing job. */
-    public void markPending(Long submissionId) {
-        jobs.put(submissionId, RunJob.pending());
+    public RunJob markPending(Long submissionId, Long studentId) {
+        long runId = ThreadLocalRandom.current().nextLong();
+        store.put(KIND, submissionId, JobRecord.pending(Map.of(STUDENT_ID, studentId, RUN_ID, runId)));
+        eventPublisher.publishEvent(new RunStatusChangedEvent(submissionId));
         log.debug("Run job PENDING for submission {}", submissionId);
+        return new RunJob(submissionId, runId);
+    }
+
+    /** Records the results so far of a PENDING run; ignored once the job is finished. */
+    public void markProgress(RunJob run, AnswerDto partial) {
+        update(run, job -> job.progress(partial));
     }
 
-    public void markDone(Long submissionId, AnswerDto result) {
-        jobs.computeIfPresent(submissionId, (id, existing) -> existing.done(result));
-        log.debug("Run job DONE for submission {}", submissionId);
+    public void markDone(RunJob run, AnswerDto result) {
+        if (update(run, job -> job.done(result))) {
+            log.debug("Run job DONE for submission {}", run.submissionId());
+        }
     }
 
-    public void markFailed(Long submissionId, String error) {
-        jobs.computeIfPresent(submissionId, (id, existing) -> existing.failed(error));
-        log.warn("Run job FAILED for submission {}: {}", submissionId, error);
+    public void markFailed(RunJob run, String error) {
+        if (update(run, job -> job.failed(error))) {
+            log.warn("Run job FAILED for submission {}: {}", run.submissionId(), error);
+        }
     }
 
     public RunStatusDto getStatus(Long submissionId) {
-        RunJob job = jobs.get(submissionId);
-        if (job == null) {
-            return RunStatusDto.builder().status("NONE").build();
-        }
+        return store.get(KIND, submissionId)
+                .map(CodeRunJobRegistry::toStatus)
+                .orElseGet(() -> RunStatusDto.builder().status("NONE").build());
+    }
 
-        // Clean up stuck/expired entries lazily
-        if (job.status == Status.PENDING && isOlderThan(job.startedAt, PENDING_TIMEOUT_SECONDS)) {
-            jobs.remove(submissionId);
-            return RunStatusDto.builder().status("NONE").build();
-        }
-        if ((job.status == Status.DONE || job.status == Status.FAILED)
-                && isOlderThan(job.completedAt, READ_TTL_SECONDS)) {
-            jobs.remove(submissionId);
-            return RunStatusDto.builder().status("NONE").build();
-        }
+    public Optional<JobRecord<AnswerDto>> peek(Long submissionId) {
+        return store.get(KIND, submissionId);
+    }
 
-        return RunStatusDto.builder()
-                .status(job.status.name())
-                .startedAt(job.startedAt)
-                .completedAt(job.completedAt)
-                .result(job.result)
-                .error(job.error)
-                .build();
+    /** Applies {@code change} if the job is still {@code run}'s; returns whether it was. */
+    private boolean update(RunJob run, UnaryOperator<JobRecord<AnswerDto>> change) {
+        boolean[] applied = new boolean[1];
+        store.update(KIND, run.submissionId(), job -> {
+            if (!Objects.equals(job.context().get(RUN_ID), run.runId())) {
+                return job;
+            }
+            applied[0] = true;
+            return change.apply(job);
+        });
+        if (applied[0]) {
+            eventPublisher.publishEvent(new RunStatusChangedEvent(run.submissionId()));
+        }
+        return applied[0];
     }
 
-    public Optional<RunJob> peek(Long submissionId) {
-        return Optional.ofNullable(jobs.get(submissionId));
+    private static RunStatusDto toStatus(JobRecord<AnswerDto> job) {
+        RunStatusDto.RunStatusDtoBuilder status = RunStatusDto.builder()
+                .status(job.status().name())
+                .startedAt(job.startedAt())
+                .completedAt(job.completedAt())
+                .error(job.error());
+        AnswerDto result = job.result();
+        if (job.status() != JobRecord.Status.PENDING) {
+            return status.result(result).build();
+        }
+        if (result != null && result.getTestCaseResults() != null) {
+            status.testCasesCompleted(result.getTestCaseResults().size())
+                    .testCasesTotal(result.getTestCasesTotal())
+                    .partialResults(result.getTestCaseResults());
+        }
+        return status.build();
     }
 
-    private static boolean isOlderThan(LocalDateTime ts, long seconds) {
-        return ts != null && ts.isBefore(LocalDateTime.now().minusSeconds(seconds));
+    /** Registers how to restart a PENDING run left behind by an instance that died. */
+    public void onOrphaned(Consumer<Orphan> restart) {
+        store.onOrphaned(KIND, (submissionId, job) -> restart.accept(new Orphan(
+                new RunJob(submissionId, job.context().get(RUN_ID)), job.context().get(STUDENT_ID))));
     }
 }
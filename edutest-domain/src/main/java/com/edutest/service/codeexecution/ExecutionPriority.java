@@ -0,0 +1,14 @@
+package com.edutest.service.codeexecution;
+
+/**
+ * Priority classes of {@link CodeExecutionScheduler}, highest first.
+ *
+ * <p>A final submit decides a grade and usually arrives in a deadline burst, so it is
+ * never queued behind "Run tests" clicks; previews are interactive, so they go before
+ * teacher-triggered re-runs which nobody is waiting on second by second.
+ */
+public enum ExecutionPriority {
+    SUBMIT,
+    PREVIEW,
+    TEACHER_RERUN
+}
@@ -0,0 +1,20 @@
+package com.edutest.service.codeexecution;
+
+import lombok.Getter;
+
+/**
+ * Thrown by {@link CodeExecutionScheduler#submit} when a task cannot be queued. Mapped
+ * to 503 + {@code Retry-After} by the global exception handler.
+ */
+@Getter
+public class ExecutionQueueFullException extends RuntimeException {
+
+    private final ExecutionPriority priority;
+    private final long retryAfterSeconds;
+
+    public ExecutionQueueFullException(ExecutionPriority priority, String message, long retryAfterSeconds) {
+        super(message);
+        this.priority = priority;
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+}
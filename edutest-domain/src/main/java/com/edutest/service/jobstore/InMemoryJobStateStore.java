@@ -0,0 +1,169 @@
+package com.edutest.service.jobstore;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+import java.util.function.UnaryOperator;
+
+/**
+ * Default {@link JobStateStore}: a map in this JVM. Fine for a single web-server instance —
+ * job state is transient, and a student who sees NONE after a restart simply re-runs, or
+ * is sent to the results page that reads from the DB.
+ *
+ * <p>A daemon thread evicts expired jobs every {@code app.job-store.sweep-interval-ms}.
+ * When more than {@code app.job-store.max-entries} jobs are stored, the finished ones
+ * closest to expiry are dropped right away; PENDING jobs are never dropped early (their
+ * number is bounded by the execution queue).
+ *
+ * <p>Jobs never become orphaned here — they die with the JVM that runs them.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "app.job-store.type", havingValue = "memory", matchIfMissing = true)
+public class InMemoryJobStateStore implements JobStateStore {
+
+    private final Map<Key, Entry> jobs = new ConcurrentHashMap<>();
+    private final int maxEntries;
+    private final long sweepIntervalMs;
+    private final Clock clock;
+    private ScheduledExecutorService sweeper;
+
+    public InMemoryJobStateStore(@Value("${app.job-store.max-entries:10000}") int maxEntries,
+                                 @Value("${app.job-store.sweep-interval-ms:30000}") long sweepIntervalMs) {
+        this(maxEntries, sweepIntervalMs, Clock.systemDefaultZone());
+    }
+
+    InMemoryJobStateStore(int maxEntries, long sweepIntervalMs, Clock clock) {
+        this.maxEntries = maxEntries;
+        this.sweepIntervalMs = sweepIntervalMs;
+        this.clock = clock;
+    }
+
+    private record Key(String kind, Long id) {
+    }
+
+    private record Entry(JobRecord<?> job, LocalDateTime expiresAt) {
+
+        boolean isExpired(LocalDateTime now) {
+            return expiresAt.isBefore(now);
+        }
+    }
+
+    @PostConstruct
+    public void start() {
+        if (sweepIntervalMs <= 0) {
+            return;
+        }
+        sweeper = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "job-store-sweeper");
+            t.setDaemon(true);
+            return t;
+        });
+        sweeper.scheduleWithFixedDelay(this::evictExpired, sweepIntervalMs, sweepIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (sweeper != null) {
+            sweeper.shutdownNow();
+        }
+    }
+
+    @Override
+    public <T> void put(JobKind<T> kind, Long id, JobRecord<T> job) {
+        jobs.put(new Key(kind.name(), id), new Entry(job, kind.expiresAt(job)));
+        if (jobs.size() > maxEntries) {
+            trim();
+        }
+    }
+
+    @Override
+    public <T> void update(JobKind<T> kind, Long id, UnaryOperator<JobRecord<T>> change) {
+        LocalDateTime now = LocalDateTime.now(clock);
+        jobs.computeIfPresent(new Key(kind.name(), id), (key, entry) -> {
+            if (entry.isExpired(now)) {
+                return null;
+            }
+            JobRecord<T> changed = change.apply(cast(entry.job()));
+            return new Entry(changed, kind.expiresAt(changed));
+        });
+    }
+
+    @Override
+    public <T> Optional<JobRecord<T>> get(JobKind<T> kind, Long id) {
+        Key key = new Key(kind.name(), id);
+        Entry entry = jobs.get(key);
+        if (entry == null) {
+            return Optional.empty();
+        }
+        if (entry.isExpired(LocalDateTime.now(clock))) {
+            jobs.remove(key, entry);
+            return Optional.empty();
+        }
+        return Optional.of(cast(entry.job()));
+    }
+
+    @Override
+    public void remove(JobKind<?> kind, Long id) {
+        jobs.remove(new Key(kind.name(), id));
+    }
+
+    @Override
+    public <T> void onOrphaned(JobKind<T> kind, BiConsumer<Long, JobRecord<T>> handler) {
+        // nothing outlives this JVM
+    }
+
+    public int size() {
+        return jobs.size();
+    }
+
+    /** Removes every expired job; returns how many. Runs on the sweeper thread. */
+    int evictExpired() {
+        LocalDateTime now = LocalDateTime.now(clock);
+        int before = jobs.size();
+        jobs.values().removeIf(entry -> entry.isExpired(now));
+        int evicted = before - jobs.size();
+        if (evicted > 0) {
+            log.debug("Evicted {} expired jobs", evicted);
+        }
+        return evicted;
+    }
+
+    /**
+     * Brings the store back under the cap: expired jobs first, then finished jobs by expiry.
+     * Trims to 90% of the cap so a full store doesn't sort on every put.
+     */
+    private synchronized void trim() {
+        evictExpired();
+        int excess = jobs.size() - maxEntries * 9 / 10;
+        if (excess <= 0) {
+            return;
+        }
+        jobs.entrySet().stream()
+                .filter(e -> e.getValue().job().status() != JobRecord.Status.PENDING)
+                .sorted(Comparator.comparing(e -> e.getValue().expiresAt()))
+                .limit(excess)
+                .toList()
+                .forEach(e -> jobs.remove(e.getKey(), e.getValue()));
+        log.debug("Job store over {} entries, trimmed to {}", maxEntries, jobs.size());
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> JobRecord<T> cast(JobRecord<?> job) {
+        return (JobRecord<T>) job;
+    }
+}
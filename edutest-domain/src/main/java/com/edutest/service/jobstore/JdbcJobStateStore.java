@@ -0,0 +1,295 @@
+package com.edutest.service.jobstore;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+import java.util.function.UnaryOperator;
+
+/**
+ * {@link JobStateStore} on the {@code job_state} table (PostgreSQL), shared by every
+ * web-server instance: a poll answered by another instance sees the same job, and state
+ * survives restarts.
+ *
+ * <p>Each instance owns the PENDING jobs it started and holds a lease on them
+ * ({@code app.job-store.lease-ms}), renewed by its maintenance thread every
+ * {@code app.job-store.sweep-interval-ms}. The same thread, on every instance:
+ * <ul>
+ *   <li>deletes expired jobs and the finished jobs beyond {@code app.job-store.max-entries};</li>
+ *   <li>claims PENDING jobs whose lease ran out — their instance died mid-grading — and
+ *       hands them to the handler registered with {@link #onOrphaned}, which runs them
+ *       again. A job interrupted more than {@link #MAX_CLAIMS} times is marked FAILED instead.</li>
+ * </ul>
+ * All three pick rows with {@code FOR UPDATE SKIP LOCKED}, so instances sweeping at the same
+ * time split the work instead of waiting on each other, and an orphan is claimed once.
+ *
+ * <p>Writes run in their own transaction: they must be visible to the other instances right
+ * away, and callers are often inside a read-only one.
+ *
+ * <p>Leases and expiry are set and compared on the database clock ({@code LOCALTIMESTAMP}),
+ * so instances whose clocks drift apart still agree on when a lease ran out. A PENDING job
+ * expires {@link JobKind#pendingTimeout()} after it was stored; an update never moves that
+ * earlier, so the deadline a claim gives a recovered job holds. A finished job expires
+ * {@link JobKind#readTtl()} after it finished.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "app.job-store.type", havingValue = "jdbc")
+public class JdbcJobStateStore implements JobStateStore {
+
+    static final int MAX_CLAIMS = 2;
+    private static final int SWEEP_BATCH = 500;
+    private static final TypeReference<Map<String, Long>> CONTEXT_TYPE = new TypeReference<>() {};
+
+    private static final String COLUMNS =
+            "job_id, status, started_at, completed_at, result, error, context";
+
+    /** The database time plus a number of milliseconds; {@code null} stays {@code null}. */
+    private static final String NOW_PLUS_MS = "LOCALTIMESTAMP + CAST(? AS BIGINT) * INTERVAL '1 millisecond'";
+
+    private static final String SELECT_LIVE = "SELECT " + COLUMNS + " FROM job_state"
+            + " WHERE kind = ? AND job_id = ? AND expires_at > LOCALTIMESTAMP";
+
+    private static final String UPSERT = """
+            INSERT INTO job_state (kind, job_id, status, started_at, completed_at, result, error, context,
+                                   owner, lease_until, claims, expires_at)
+            VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, %1$s, 0, %1$s)
+            ON CONFLICT (kind, job_id) DO UPDATE SET
+                status = EXCLUDED.status, started_at = EXCLUDED.started_at,
+                completed_at = EXCLUDED.completed_at, result = EXCLUDED.result, error = EXCLUDED.error,
+                context = EXCLUDED.context, owner = EXCLUDED.owner, lease_until = EXCLUDED.lease_until,
+                claims = 0, expires_at = EXCLUDED.expires_at
+            """.formatted(NOW_PLUS_MS);
+
+    private static final String UPDATE = """
+            UPDATE job_state SET status = ?, completed_at = ?, result = ?, error = ?, lease_until = %s, expires_at = %s
+            WHERE kind = ? AND job_id = ?
+            """;
+
+    /** A job still PENDING keeps the later of its deadline and a fresh one, e.g. the one its claim set. */
+    private static final String UPDATE_PENDING =
+            UPDATE.formatted(NOW_PLUS_MS, "GREATEST(expires_at, " + NOW_PLUS_MS + ")");
+
+    private static final String UPDATE_FINISHED = UPDATE.formatted(NOW_PLUS_MS, NOW_PLUS_MS);
+
+    private static final String RENEW_LEASES =
+            "UPDATE job_state SET lease_until = " + NOW_PLUS_MS + " WHERE owner = ? AND status = 'PENDING'";
+
+    private static final String EVICT_EXPIRED = """
+            DELETE FROM job_state WHERE (kind, job_id) IN (
+                SELECT kind, job_id FROM job_state WHERE expires_at < LOCALTIMESTAMP
+                LIMIT ? FOR UPDATE SKIP LOCKED)
+            """;
+
+    /** Keeps the newest {@code max-entries} finished jobs. */
+    private static final String TRIM_FINISHED = """
+            DELETE FROM job_state WHERE (kind, job_id) IN (
+                SELECT kind, job_id FROM job_state WHERE status <> 'PENDING'
+                ORDER BY expires_at DESC OFFSET ? LIMIT ? FOR UPDATE SKIP LOCKED)
+            """;
+
+    private static final String CLAIM_ORPHANS = """
+            UPDATE job_state SET owner = ?, lease_until = %1$s, claims = claims + 1, expires_at = %1$s
+            WHERE (kind, job_id) IN (
+                SELECT kind, job_id FROM job_state
+                WHERE kind = ? AND status = 'PENDING' AND lease_until < LOCALTIMESTAMP
+                  AND expires_at > LOCALTIMESTAMP
+                ORDER BY lease_until LIMIT ? FOR UPDATE SKIP LOCKED)
+            RETURNING claims, %2$s
+            """.formatted(NOW_PLUS_MS, COLUMNS);
+
+    private final JdbcTemplate jdbc;
+    private final TransactionTemplate writes;
+    private final ObjectMapper objectMapper;
+    private final int maxEntries;
+    private final long sweepIntervalMs;
+    private final long leaseMs;
+    /** Changes on every start, so the jobs of a previous run of this instance become orphans too. */
+    private final String instanceId = UUID.randomUUID().toString();
+    private final Map<String, Orphans<?>> orphanHandlers = new ConcurrentHashMap<>();
+    private ScheduledExecutorService sweeper;
+
+    public JdbcJobStateStore(JdbcTemplate jdbc,
+                             PlatformTransactionManager transactionManager,
+                             ObjectMapper objectMapper,
+                             @Value("${app.job-store.max-entries:10000}") int maxEntries,
+                             @Value("${app.job-store.sweep-interval-ms:30000}") long sweepIntervalMs,
+                             @Value("${app.job-store.lease-ms:90000}") long leaseMs) {
+        this.jdbc = jdbc;
+        this.writes = new TransactionTemplate(transactionManager);
+        this.writes.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.objectMapper = objectMapper;
+        this.maxEntries = maxEntries;
+        this.sweepIntervalMs = sweepIntervalMs;
+        this.leaseMs = leaseMs;
+    }
+
+    private record Orphans<T>(JobKind<T> kind, BiConsumer<Long, JobRecord<T>> handler) {
+    }
+
+    private record Claimed<T>(Long id, int claims, JobRecord<T> job) {
+    }
+
+    @PostConstruct
+    public void start() {
+        if (sweepIntervalMs <= 0) {
+            return;
+        }
+        sweeper = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "job-store-sweeper");
+            t.setDaemon(true);
+            return t;
+        });
+        sweeper.scheduleWithFixedDelay(this::sweep, sweepIntervalMs, sweepIntervalMs, TimeUnit.MILLISECONDS);
+        log.info("JDBC job store started as instance {}", instanceId);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (sweeper != null) {
+            sweeper.shutdownNow();
+        }
+    }
+
+    @Override
+    public <T> void put(JobKind<T> kind, Long id, JobRecord<T> job) {
+        writes.executeWithoutResult(status -> jdbc.update(UPSERT,
+                kind.name(), id, job.status().name(), job.startedAt(), job.completedAt(),
+                toJson(job.result()), job.error(), toJson(job.context()),
+                instanceId, leaseMs(job), expiryMs(kind, job)));
+    }
+
+    @Override
+    public <T> void update(JobKind<T> kind, Long id, UnaryOperator<JobRecord<T>> change) {
+        writes.executeWithoutResult(status -> {
+            List<JobRecord<T>> current = jdbc.query(SELECT_LIVE + " FOR UPDATE", rowMapper(kind),
+                    kind.name(), id);
+            if (current.isEmpty()) {
+                return;
+            }
+            JobRecord<T> changed = change.apply(current.get(0));
+            boolean pending = changed.status() == JobRecord.Status.PENDING;
+            jdbc.update(pending ? UPDATE_PENDING : UPDATE_FINISHED, changed.status().name(), changed.completedAt(),
+                    toJson(changed.result()), changed.error(), leaseMs(changed), expiryMs(kind, changed),
+                    kind.name(), id);
+        });
+    }
+
+    @Override
+    public <T> Optional<JobRecord<T>> get(JobKind<T> kind, Long id) {
+        return jdbc.query(SELECT_LIVE, rowMapper(kind), kind.name(), id)
+                .stream().findFirst();
+    }
+
+    @Override
+    public void remove(JobKind<?> kind, Long id) {
+        writes.executeWithoutResult(status ->
+                jdbc.update("DELETE FROM job_state WHERE kind = ? AND job_id = ?", kind.name(), id));
+    }
+
+    @Override
+    public <T> void onOrphaned(JobKind<T> kind, BiConsumer<Long, JobRecord<T>> handler) {
+        orphanHandlers.put(kind.name(), new Orphans<>(kind, handler));
+    }
+
+    /** One maintenance round; runs on the sweeper thread. */
+    void sweep() {
+        try {
+            writes.executeWithoutResult(status -> jdbc.update(RENEW_LEASES, leaseMs, instanceId));
+            int evicted = writes.execute(status -> jdbc.update(EVICT_EXPIRED, SWEEP_BATCH));
+            int trimmed = writes.execute(status -> jdbc.update(TRIM_FINISHED, maxEntries, SWEEP_BATCH));
+            if (evicted + trimmed > 0) {
+                log.debug("Job store sweep: {} expired, {} over the cap", evicted, trimmed);
+            }
+            orphanHandlers.values().forEach(this::recover);
+        } catch (RuntimeException e) {
+            log.warn("Job store sweep failed: {}", e.getMessage());
+        }
+    }
+
+    private <T> void recover(Orphans<T> orphans) {
+        JobKind<T> kind = orphans.kind();
+        RowMapper<JobRecord<T>> jobs = rowMapper(kind);
+        List<Claimed<T>> claimed = writes.execute(status -> jdbc.query(CLAIM_ORPHANS,
+                (rs, rowNum) -> new Claimed<>(rs.getLong("job_id"), rs.getInt("claims"), jobs.mapRow(rs, rowNum)),
+                instanceId, leaseMs, kind.pendingTimeout().toMillis(), kind.name(), SWEEP_BATCH));
+
+        for (Claimed<T> orphan : claimed) {
+            if (orphan.claims() > MAX_CLAIMS) {
+                log.warn("{} job {} was interrupted {} times, giving up", kind.name(), orphan.id(), orphan.claims());
+                update(kind, orphan.id(), job -> job.failed("Grading was interrupted repeatedly, please try again"));
+                continue;
+            }
+            log.info("Recovering orphaned {} job {}", kind.name(), orphan.id());
+            try {
+                orphans.handler().accept(orphan.id(), orphan.job());
+            } catch (RuntimeException e) {
+                log.warn("Recovery of {} job {} failed: {}", kind.name(), orphan.id(), e.getMessage());
+            }
+        }
+    }
+
+    /** Lease length for {@link #NOW_PLUS_MS}: PENDING jobs are leased by their owner; finished ones need nobody. */
+    private Long leaseMs(JobRecord<?> job) {
+        return job.status() == JobRecord.Status.PENDING ? leaseMs : null;
+    }
+
+    /** Lifetime for {@link #NOW_PLUS_MS}: the pending timeout, or the read TTL once the job finished. */
+    private static long expiryMs(JobKind<?> kind, JobRecord<?> job) {
+        return (job.status() == JobRecord.Status.PENDING ? kind.pendingTimeout() : kind.readTtl()).toMillis();
+    }
+
+    private <T> RowMapper<JobRecord<T>> rowMapper(JobKind<T> kind) {
+        return (rs, rowNum) -> new JobRecord<>(
+                JobRecord.Status.valueOf(rs.getString("status")),
+                rs.getObject("started_at", LocalDateTime.class),
+                rs.getObject("completed_at", LocalDateTime.class),
+                fromJson(rs, "result", objectMapper.constructType(kind.resultType())),
+                rs.getString("error"),
+                fromJson(rs, "context", objectMapper.constructType(CONTEXT_TYPE)));
+    }
+
+    private String toJson(Object value) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot serialize job state", e);
+        }
+    }
+
+    private <T> T fromJson(ResultSet rs, String column, JavaType type) throws SQLException {
+        String json = rs.getString(column);
+        try {
+            return json != null ? objectMapper.readValue(json, type) : null;
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot read job state column " + column, e);
+        }
+    }
+}
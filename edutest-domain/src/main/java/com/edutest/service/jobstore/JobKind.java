@@ -0,0 +1,22 @@
+package com.edutest.service.jobstore;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+/**
+ * A family of jobs kept in a {@link JobStateStore}, e.g. preview runs keyed by submission.
+ *
+ * @param name           store-wide identifier; part of the key and of the JDBC row
+ * @param resultType     payload of a DONE job, serialized by stores that leave the JVM
+ * @param pendingTimeout how long a PENDING job lives before it is considered stuck
+ * @param readTtl        how long a DONE/FAILED job stays readable
+ */
+public record JobKind<T>(String name, Class<T> resultType, Duration pendingTimeout, Duration readTtl) {
+
+    /** When {@code job} stops being readable; stores evict it after that. */
+    public LocalDateTime expiresAt(JobRecord<T> job) {
+        return job.status() == JobRecord.Status.PENDING
+                ? job.startedAt().plus(pendingTimeout)
+                : job.completedAt().plus(readTtl);
+    }
+}
@@ -0,0 +1,38 @@
+package com.edutest.service.jobstore;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+/**
+ * Immutable state of one job. {@code context} holds the IDs needed to run the job again
+ * (see {@link JobStateStore#onOrphaned}) — e.g. the student whose queue it belongs to.
+ * A PENDING job's {@code result}, if any, is the partial result reported so far.
+ */
+public record JobRecord<T>(Status status, LocalDateTime startedAt, LocalDateTime completedAt,
+                           T result, String error, Map<String, Long> context) {
+
+    public enum Status { PENDING, DONE, FAILED }
+
+    public JobRecord {
+        context = context != null ? Map.copyOf(context) : Map.of();
+    }
+
+    public static <T> JobRecord<T> pending(Map<String, Long> context) {
+        return new JobRecord<>(Status.PENDING, LocalDateTime.now(), null, null, null, context);
+    }
+
+    /** Replaces the partial result of a PENDING job; a finished job is left as it is. */
+    public JobRecord<T> progress(T partial) {
+        return status == Status.PENDING
+                ? new JobRecord<>(Status.PENDING, startedAt, null, partial, null, context)
+                : this;
+    }
+
+    public JobRecord<T> done(T result) {
+        return new JobRecord<>(Status.DONE, startedAt, LocalDateTime.now(), result, null, context);
+    }
+
+    public JobRecord<T> failed(String error) {
+        return new JobRecord<>(Status.FAILED, startedAt, LocalDateTime.now(), null, error, context);
+    }
+}
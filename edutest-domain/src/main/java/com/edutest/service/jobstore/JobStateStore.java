@@ -0,0 +1,45 @@
+package com.edutest.service.jobstore;
+
+import java.util.Optional;
+import java.util.function.BiConsumer;
+import java.util.function.UnaryOperator;
+
+/**
+ * Where the async run/submit registries keep job state between the request that starts a
+ * job, the worker that finishes it and the polls in between.
+ *
+ * <p>Selected by {@code app.job-store.type}:
+ * <ul>
+ *   <li>{@code memory} (default) — {@link InMemoryJobStateStore}; one instance only, state
+ *       is lost on restart;</li>
+ *   <li>{@code jdbc} — {@link JdbcJobStateStore}; shared by all instances through the
+ *       {@code job_state} table, and PENDING jobs of an instance that died are picked up by
+ *       another one.</li>
+ * </ul>
+ * Both evict expired jobs in the background and cap the number of finished jobs
+ * ({@code app.job-store.max-entries}), whether or not anyone polls them.
+ */
+public interface JobStateStore {
+
+    /** Stores {@code job}, replacing any job under the same ID. */
+    <T> void put(JobKind<T> kind, Long id, JobRecord<T> job);
+
+    /**
+     * Replaces a live job with {@code change} applied to it, atomically. No-op when there is
+     * none — a worker finishing after its job was evicted must not resurrect it.
+     */
+    <T> void update(JobKind<T> kind, Long id, UnaryOperator<JobRecord<T>> change);
+
+    /** The job under {@code id}, empty if there is none or it has expired. */
+    <T> Optional<JobRecord<T>> get(JobKind<T> kind, Long id);
+
+    void remove(JobKind<?> kind, Long id);
+
+    /**
+     * Registers what to do with a PENDING job whose instance stopped working on it (it
+     * crashed or was shut down mid-grading). The handler runs on the store's maintenance
+     * thread once per claimed job, which stays PENDING and is now owned by this instance.
+     * It should only restart the work: putting the job again would reset its claim count.
+     */
+    <T> void onOrphaned(JobKind<T> kind, BiConsumer<Long, JobRecord<T>> handler);
+}
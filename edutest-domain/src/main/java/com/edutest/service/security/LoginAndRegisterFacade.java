@@ -10,6 +10,7 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 import java.util.stream.Collectors;
@@ -32,6 +33,13 @@ public class LoginAndRegisterFacade {
                 .map(this::mapToUserSecurity);
     }
 
+    /** User ID → lowest token version still valid, for users whose tokens were ever revoked. */
+    @Transactional(readOnly = true)
+    public Map<Long, Integer> findRevokedTokenVersions() {
+        return userRepository.findRevokedTokenVersions().stream()
+                .collect(Collectors.toMap(row -> ((Number) row[0]).longValue(), row -> ((Number) row[1]).intValue()));
+    }
+
     public UserSecurity registerUser(RegisterRequest request) {
         if (userRepository.existsByUsername(request.getUsername())) {
             throw new IllegalArgumentException("Username already exists");
@@ -78,6 +86,7 @@ public class LoginAndRegisterFacade {
                 .lastName(entity.getLastName())
                 .role(toUserRole(primaryRole))
                 .isActive(entity.getIsActive())
+                .tokenVersion(entity.getTokenVersion())
                 .studentNumber(entity.getStudentNumber())
                 .createdAt(entity.getCreatedAt() != null ?
                     entity.getCreatedAt().atOffset(java.time.ZoneOffset.UTC) : null)
@@ -77,6 +77,7 @@ public class UserProfileMapper {
                 .lastName(entity.getLastName())
                 .role(toUserRole(entity.getRole()))
                 .isActive(entity.getIsActive())
+                .tokenVersion(entity.getTokenVersion())
                 .studentNumber(entity.getStudentNumber())
                 .createdAt(entity.getCreatedAt() != null ?
                     entity.getCreatedAt().atOffset(ZoneOffset.UTC) : null)
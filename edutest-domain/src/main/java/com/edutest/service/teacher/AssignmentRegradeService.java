@@ -0,0 +1,250 @@
+package com.edutest.service.teacher;
+
+import com.edutest.dto.RegradeStatusDto;
+import com.edutest.event.AnswerGradedEvent;
+import com.edutest.persistance.entity.assigment.AssignmentEntity;
+import com.edutest.persistance.entity.assigment.AssignmentType;
+import com.edutest.persistance.entity.code.CodeSubmissionEntity;
+import com.edutest.persistance.entity.code.ExecutionStatusEnum;
+import com.edutest.persistance.entity.test.TestAttemptEntity;
+import com.edutest.persistance.repository.AssignmentAnswerJpaRepository;
+import com.edutest.persistance.repository.AssignmentJpaRepository;
+import com.edutest.persistance.repository.CodeSubmissionJpaRepository;
+import com.edutest.persistance.repository.TestAttemptJpaRepository;
+import com.edutest.service.codeexecution.CodeExecutionScheduler;
+import com.edutest.service.codeexecution.CodeExecutionService;
+import com.edutest.service.codeexecution.ExecutionPriority;
+import com.edutest.service.codeexecution.ExecutionQueueFullException;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Future;
+
+/**
+ * Re-runs every graded CODING submission of an assignment, e.g. after a teacher fixed a
+ * wrong expected output, and rewrites the submissions' results and their attempts' scores.
+ *
+ * <p>The job runs on {@link CodeExecutionScheduler} at {@link ExecutionPriority#TEACHER_RERUN}:
+ * it starts only when a worker is free and nothing more urgent is queued, then keeps that
+ * worker until it ends, running its batch there plus on any idle worker. Before each of its
+ * runs the worker first serves queued submits and previews, so while re-grades run, each one
+ * delays them by at most the run it has in progress — but every running re-grade does hold a
+ * worker. It walks the submissions of finished attempts in id order, one batch of
+ * {@code app.regrade.batch-size} at a time — which also bounds how many of its runs are in
+ * flight — and per batch:
+ * <ol>
+ *   <li>short read-only transaction — load the batch (test cases initialized, detached afterwards);</li>
+ *   <li>no transaction — run the batch through {@link CodeExecutionScheduler#invokeAll};</li>
+ *   <li>short write transaction — re-load each submission and copy only the new execution
+ *       results onto it, recompute the attempts' scores and publish {@link AnswerGradedEvent}
+ *       per submission.</li>
+ * </ol>
+ * Only one batch of entities is in memory at a time, whatever the number of submissions.
+ *
+ * <p>A run that fails, or ends in SYSTEM_ERROR, keeps the submission's previous result and
+ * counts as failed. The new auto score replaces a teacher's manual score override; the
+ * written feedback is kept, including feedback written while the batch was running. Cancelling stops the job before its next submission; batches
+ * already written stay written.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class AssignmentRegradeService {
+
+    private final AssignmentJpaRepository assignmentRepository;
+    private final CodeSubmissionJpaRepository codeSubmissionRepository;
+    private final AssignmentAnswerJpaRepository answerRepository;
+    private final TestAttemptJpaRepository testAttemptRepository;
+    private final CodeExecutionService codeExecutionService;
+    private final CodeExecutionScheduler scheduler;
+    private final RegradeJobRegistry registry;
+    private final ApplicationEventPublisher eventPublisher;
+    private final PlatformTransactionManager transactionManager;
+
+    @Value("${app.regrade.batch-size:20}")
+    private int batchSize = 20;
+
+    /**
+     * Validates the assignment on the request thread (so 400/409 surface as HTTP errors)
+     * and queues the re-grade.
+     *
+     * @throws IllegalStateException if a re-grade of the assignment is already running
+     * @throws ExecutionQueueFullException if the re-run queue is full (the job is marked FAILED)
+     */
+    public RegradeStatusDto startRegrade(Long testId, Long assignmentId) {
+        TransactionTemplate readOnly = readOnlyTransaction();
+        readOnly.executeWithoutResult(status -> loadCodingAssignment(testId, assignmentId));
+
+        RegradeJobRegistry.RegradeJob job = registry.start(assignmentId);
+        try {
+            scheduler.submit(ExecutionPriority.TEACHER_RERUN, null, () -> {
+                run(job, testId, assignmentId);
+                return null;
+            });
+        } catch (ExecutionQueueFullException e) {
+            registry.markFailed(job, e.getMessage());
+            throw e;
+        }
+        return registry.getStatus(assignmentId);
+    }
+
+    public RegradeStatusDto getStatus(Long testId, Long assignmentId) {
+        readOnlyTransaction().executeWithoutResult(status -> loadCodingAssignment(testId, assignmentId));
+        return registry.getStatus(assignmentId);
+    }
+
+    public RegradeStatusDto cancelRegrade(Long testId, Long assignmentId) {
+        readOnlyTransaction().executeWithoutResult(status -> loadCodingAssignment(testId, assignmentId));
+        return registry.cancel(assignmentId);
+    }
+
+    private void run(RegradeJobRegistry.RegradeJob job, Long testId, Long assignmentId) {
+        TransactionTemplate readOnly = readOnlyTransaction();
+        TransactionTemplate write = new TransactionTemplate(transactionManager);
+        try {
+            Long total = readOnly.execute(status -> codeSubmissionRepository.countFinishedByAssignmentId(assignmentId));
+            job.start(total != null ? total.intValue() : 0);
+
+            long afterId = 0L;
+            while (!job.isCancelRequested()) {
+                long cursor = afterId;
+                List<CodeSubmissionEntity> batch = readOnly.execute(status -> loadBatch(assignmentId, cursor));
+                if (batch == null || batch.isEmpty()) {
+                    break;
+                }
+                afterId = batch.get(batch.size() - 1).getId();
+
+                List<CodeSubmissionEntity> executed = executeBatch(job, batch);
+                if (!executed.isEmpty()) {
+                    write.executeWithoutResult(status -> saveResults(testId, assignmentId, executed));
+                }
+            }
+            registry.markDone(job);
+        } catch (Exception e) {
+            log.error("Re-grade of assignment {} failed: {}", assignmentId, e.getMessage(), e);
+            registry.markFailed(job, e.getMessage() != null ? e.getMessage() : "Unknown re-grade error");
+        }
+    }
+
+    private List<CodeSubmissionEntity> loadBatch(Long assignmentId, long afterId) {
+        List<Long> ids = codeSubmissionRepository.findFinishedIdsByAssignmentIdAfter(
+                assignmentId, afterId, PageRequest.of(0, batchSize));
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        List<CodeSubmissionEntity> batch = new ArrayList<>(codeSubmissionRepository.findAllById(ids));
+        batch.sort(Comparator.comparing(CodeSubmissionEntity::getId));
+        for (CodeSubmissionEntity submission : batch) {
+            // Trigger lazy collections while the read transaction is open — execution
+            // runs detached and rewrites the result list.
+            submission.getAssignment().getTestCases().size();
+            submission.getTestCaseResults().size();
+        }
+        return batch;
+    }
+
+    /** Returns the submissions with a usable new result; everything else counts as failed. */
+    private List<CodeSubmissionEntity> executeBatch(RegradeJobRegistry.RegradeJob job,
+                                                    List<CodeSubmissionEntity> batch) {
+        List<Callable<CodeSubmissionEntity>> runs = batch.stream()
+                .<Callable<CodeSubmissionEntity>>map(submission -> () -> {
+                    if (job.isCancelRequested()) {
+                        return null;
+                    }
+                    codeExecutionService.executeAndPersist(submission);
+                    return submission;
+                })
+                .toList();
+
+        List<CompletableFuture<CodeSubmissionEntity>> outcomes =
+                scheduler.invokeAll(ExecutionPriority.TEACHER_RERUN, null, runs);
+
+        List<CodeSubmissionEntity> executed = new ArrayList<>();
+        for (int i = 0; i < outcomes.size(); i++) {
+            CompletableFuture<CodeSubmissionEntity> outcome = outcomes.get(i);
+            if (outcome.state() != Future.State.SUCCESS) {
+                Throwable e = outcome.exceptionNow();
+                log.error("Re-grade execution failed for submission {}: {}",
+                        batch.get(i).getId(), e.getMessage(), e);
+                job.recordProcessed(false);
+                continue;
+            }
+            CodeSubmissionEntity submission = outcome.resultNow();
+            if (submission == null) {
+                continue; // skipped after cancel
+            }
+            if (submission.getExecutionStatus() == ExecutionStatusEnum.SYSTEM_ERROR) {
+                log.warn("Re-grade of submission {} ended in SYSTEM_ERROR, keeping the previous result",
+                        submission.getId());
+                job.recordProcessed(false);
+            } else {
+                executed.add(submission);
+                job.recordProcessed(true);
+            }
+        }
+        return executed;
+    }
+
+    private void saveResults(Long testId, Long assignmentId, List<CodeSubmissionEntity> executed) {
+        for (CodeSubmissionEntity result : executed) {
+            // The batch was loaded before it ran; merging it back would clobber, or fail the
+            // version check on, whatever a teacher changed meanwhile.
+            CodeSubmissionEntity submission = codeSubmissionRepository.findById(result.getId()).orElse(null);
+            if (submission == null) {
+                log.warn("Submission {} was deleted during its re-grade, skipping it", result.getId());
+                continue;
+            }
+            submission.copyExecutionResult(result);
+            CodeSubmissionEntity saved = codeSubmissionRepository.save(submission);
+            TestAttemptEntity attempt = testAttemptRepository.findById(saved.getTestAttempt().getId())
+                    .orElseThrow(() -> new IllegalStateException("Test attempt not found"));
+
+            recalculateAttemptScore(attempt);
+
+            eventPublisher.publishEvent(new AnswerGradedEvent(
+                    attempt.getId(), testId, attempt.getStudent().getId(), assignmentId));
+        }
+    }
+
+    private void recalculateAttemptScore(TestAttemptEntity attempt) {
+        Float answerScores = answerRepository.sumScoresByTestAttemptId(attempt.getId());
+        Float codeScores = codeSubmissionRepository.sumScoresByTestAttemptId(attempt.getId());
+
+        float total = 0f;
+        if (answerScores != null) total += answerScores;
+        if (codeScores != null) total += codeScores;
+
+        attempt.setScore(total);
+        testAttemptRepository.save(attempt);
+    }
+
+    private AssignmentEntity loadCodingAssignment(Long testId, Long assignmentId) {
+        AssignmentEntity assignment = assignmentRepository.findById(assignmentId)
+                .orElseThrow(() -> new IllegalArgumentException("Assignment not found"));
+
+        if (!assignment.getTestEntity().getId().equals(testId)) {
+            throw new IllegalArgumentException("Assignment does not belong to this test");
+        }
+        if (assignment.getType() != AssignmentType.CODING) {
+            throw new IllegalArgumentException("Only CODING assignments can be re-graded");
+        }
+        return assignment;
+    }
+
+    private TransactionTemplate readOnlyTransaction() {
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        return readOnly;
+    }
+}
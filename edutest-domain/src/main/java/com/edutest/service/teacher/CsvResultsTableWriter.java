@@ -0,0 +1,143 @@
+package com.edutest.service.teacher;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * CSV tables; with {@code zipped}, each table is a {@code <name>.csv} entry of a ZIP archive.
+ * Numbers are formatted locale-independently, with a dot as decimal separator.
+ */
+final class CsvResultsTableWriter implements ResultsTableWriter {
+
+    private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    private final ZipOutputStream zip;
+    private final Writer writer;
+    private final Set<String> entryNames = new HashSet<>();
+    private boolean entryOpen;
+    private boolean rowStarted;
+
+    CsvResultsTableWriter(OutputStream out, boolean zipped) {
+        this.zip = zipped ? new ZipOutputStream(out, StandardCharsets.UTF_8) : null;
+        this.writer = new BufferedWriter(new OutputStreamWriter(zipped ? zip : out, StandardCharsets.UTF_8), 64 * 1024);
+    }
+
+    @Override
+    public void beginTable(String name, List<String> headers) throws IOException {
+        if (zip != null) {
+            closeEntry();
+            zip.putNextEntry(new ZipEntry(entryName(name)));
+            entryOpen = true;
+        }
+        for (String header : headers) {
+            text(header);
+        }
+        endRow();
+    }
+
+    @Override
+    public void text(String value) throws IOException {
+        separate();
+        if (value == null) {
+            return;
+        }
+        // Quoted if it contains a comma, line break or quote; inner quotes doubled.
+        if (value.indexOf(',') >= 0 || value.indexOf('\n') >= 0 || value.indexOf('\r') >= 0 || value.indexOf('"') >= 0) {
+            writer.write('"');
+            writer.write(value.replace("\"", "\"\""));
+            writer.write('"');
+        } else {
+            writer.write(value);
+        }
+    }
+
+    @Override
+    public void decimal(float value) throws IOException {
+        separate();
+        fixed(value, 100);
+    }
+
+    @Override
+    public void percent(float value) throws IOException {
+        separate();
+        fixed(value, 10);
+        writer.write('%');
+    }
+
+    @Override
+    public void dateTime(LocalDateTime value) throws IOException {
+        separate();
+        if (value != null) {
+            DATE_FORMATTER.formatTo(value, writer);
+        }
+    }
+
+    @Override
+    public void endRow() throws IOException {
+        writer.write('\n');
+        rowStarted = false;
+    }
+
+    @Override
+    public void finish() throws IOException {
+        if (zip != null) {
+            closeEntry();
+            zip.finish();
+        }
+        writer.flush();
+    }
+
+    private void separate() throws IOException {
+        if (rowStarted) {
+            writer.write(',');
+        }
+        rowStarted = true;
+    }
+
+    /** {@code value} rounded half up to {@code scale} (10 or 100) parts, without String.format. */
+    private void fixed(float value, int scale) throws IOException {
+        long scaled = Math.round(Math.abs((double) value) * scale);
+        if (value < 0 && scaled != 0) {
+            writer.write('-');
+        }
+        writer.write(Long.toString(scaled / scale));
+        writer.write('.');
+        long fraction = scaled % scale;
+        if (scale == 100 && fraction < 10) {
+            writer.write('0');
+        }
+        writer.write(Long.toString(fraction));
+    }
+
+    private void closeEntry() throws IOException {
+        if (entryOpen) {
+            writer.flush();
+            zip.closeEntry();
+            entryOpen = false;
+        }
+    }
+
+    private String entryName(String name) {
+        String base = name == null ? "" : name.replaceAll("[^\\p{L}\\p{N} ._-]", "_").trim();
+        if (base.isEmpty()) {
+            base = "results";
+        }
+        String candidate = base + ".csv";
+        for (int i = 2; !entryNames.add(candidate.toLowerCase(Locale.ROOT)); i++) {
+            candidate = base + " (" + i + ").csv";
+        }
+        return candidate;
+    }
+}
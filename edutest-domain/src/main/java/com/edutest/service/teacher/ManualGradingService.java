@@ -316,6 +316,7 @@ public class ManualGradingService {
                 .actualOutput(result.getActualOutput())
                 .passed(result.getPassed())
                 .executionTimeMs(result.getExecutionTimeMs())
+                .cpuTimeMs(result.getCpuTimeMs())
                 .memoryUsedMb(result.getMemoryUsedMb())
                 .errorMessage(result.getErrorMessage())
                 .build();
@@ -0,0 +1,146 @@
+package com.edutest.service.teacher;
+
+import com.edutest.dto.RegradeStatusDto;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * In-memory store of bulk re-grade jobs, keyed by assignmentId — at most one active job
+ * per assignment.
+ *
+ * Unlike the submit/run registries a job is long-lived and reports progress while it
+ * runs, so {@link RegradeJob} is mutable: counters are bumped by the worker, the cancel
+ * flag is set by the request thread and checked by the worker between submissions.
+ *
+ * Loss of state on restart is tolerable: every finished page is already committed, so a
+ * re-grade interrupted by a restart is simply started again by the teacher.
+ */
+@Slf4j
+@Component
+public class RegradeJobRegistry {
+
+    /** How long a finished job stays readable. After this, status becomes NONE. */
+    private static final long READ_TTL_SECONDS = 3600; // 1 hour — teachers check back on long re-grades
+
+    private final Map<Long, RegradeJob> jobs = new ConcurrentHashMap<>();
+
+    public enum Status { PENDING, RUNNING, DONE, FAILED, CANCELLED }
+
+    public static class RegradeJob {
+        private final Long assignmentId;
+        private final LocalDateTime startedAt = LocalDateTime.now();
+        private final AtomicInteger processed = new AtomicInteger();
+        private final AtomicInteger failed = new AtomicInteger();
+        private volatile Status status = Status.PENDING;
+        private volatile int total;
+        private volatile boolean cancelRequested;
+        private volatile LocalDateTime completedAt;
+        private volatile String error;
+
+        private RegradeJob(Long assignmentId) {
+            this.assignmentId = assignmentId;
+        }
+
+        public boolean isCancelRequested() {
+            return cancelRequested;
+        }
+
+        public void start(int total) {
+            this.total = total;
+            this.status = Status.RUNNING;
+        }
+
+        public void recordProcessed(boolean success) {
+            processed.incrementAndGet();
+            if (!success) {
+                failed.incrementAndGet();
+            }
+        }
+
+        void finish(Status status, String error) {
+            this.error = error;
+            this.completedAt = LocalDateTime.now();
+            this.status = status;
+        }
+
+        boolean isActive() {
+            return status == Status.PENDING || status == Status.RUNNING;
+        }
+
+        RegradeStatusDto toDto() {
+            return RegradeStatusDto.builder()
+                    .status(status.name())
+                    .assignmentId(assignmentId)
+                    .total(total)
+                    .processed(processed.get())
+                    .failed(failed.get())
+                    .startedAt(startedAt)
+                    .completedAt(completedAt)
+                    .error(error)
+                    .build();
+        }
+    }
+
+    /**
+     * Registers a new job for the assignment, replacing a finished one.
+     *
+     * @throws IllegalStateException if a re-grade of the assignment is already running
+     */
+    public RegradeJob start(Long assignmentId) {
+        RegradeJob created = new RegradeJob(assignmentId);
+        RegradeJob current = jobs.compute(assignmentId, (id, existing) ->
+                existing != null && existing.isActive() ? existing : created);
+        if (current != created) {
+            throw new IllegalStateException("A re-grade of this assignment is already running");
+        }
+        log.debug("Re-grade job PENDING for assignment {}", assignmentId);
+        return created;
+    }
+
+    public void markDone(RegradeJob job) {
+        job.finish(job.isCancelRequested() ? Status.CANCELLED : Status.DONE, null);
+        log.info("Re-grade job {} for assignment {}: {}/{} processed, {} failed",
+                job.status, job.assignmentId, job.processed.get(), job.total, job.failed.get());
+    }
+
+    public void markFailed(RegradeJob job, String error) {
+        job.finish(Status.FAILED, error);
+        log.warn("Re-grade job FAILED for assignment {}: {}", job.assignmentId, error);
+    }
+
+    /** Asks a running job to stop after the submissions it has already started. */
+    public RegradeStatusDto cancel(Long assignmentId) {
+        RegradeJob job = jobs.get(assignmentId);
+        if (job == null || !job.isActive()) {
+            throw new IllegalStateException("No re-grade of this assignment is running");
+        }
+        job.cancelRequested = true;
+        log.debug("Re-grade job cancel requested for assignment {}", assignmentId);
+        return job.toDto();
+    }
+
+    public RegradeStatusDto getStatus(Long assignmentId) {
+        RegradeJob job = jobs.get(assignmentId);
+        if (job == null) {
+            return RegradeStatusDto.builder().status("NONE").assignmentId(assignmentId).build();
+        }
+
+        // Clean up expired entries lazily
+        if (!job.isActive() && job.completedAt != null
+                && job.completedAt.isBefore(LocalDateTime.now().minusSeconds(READ_TTL_SECONDS))) {
+            jobs.remove(assignmentId, job);
+            return RegradeStatusDto.builder().status("NONE").assignmentId(assignmentId).build();
+        }
+        return job.toDto();
+    }
+
+    public Optional<RegradeJob> peek(Long assignmentId) {
+        return Optional.ofNullable(jobs.get(assignmentId));
+    }
+}
@@ -0,0 +1,45 @@
+package com.edutest.service.teacher;
+
+import java.io.OutputStream;
+import java.util.Locale;
+
+/** File formats of the test results export. */
+public enum ResultsExportFormat {
+
+    /** One CSV file; several tests come as a ZIP with a CSV per test. */
+    CSV,
+    /** One workbook with a sheet per test. */
+    XLSX;
+
+    public static ResultsExportFormat parse(String value) {
+        if (value == null || value.isBlank()) {
+            return CSV;
+        }
+        try {
+            return valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unsupported export format: " + value);
+        }
+    }
+
+    public String contentType(int tests) {
+        return switch (this) {
+            case CSV -> tests > 1 ? "application/zip" : "text/csv";
+            case XLSX -> "application/vnd.openxmlformats-officedocument.spreadsheetml.sheet";
+        };
+    }
+
+    public String fileExtension(int tests) {
+        return switch (this) {
+            case CSV -> tests > 1 ? "zip" : "csv";
+            case XLSX -> "xlsx";
+        };
+    }
+
+    ResultsTableWriter open(OutputStream out, int tests) {
+        return switch (this) {
+            case CSV -> new CsvResultsTableWriter(out, tests > 1);
+            case XLSX -> new XlsxResultsTableWriter(out);
+        };
+    }
+}
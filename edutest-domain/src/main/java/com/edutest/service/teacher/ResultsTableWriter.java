@@ -0,0 +1,32 @@
+package com.edutest.service.teacher;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Writes the tables of a results export cell by cell straight to the output, holding no
+ * more than the current row. Cells are written left to right; {@link #endRow()} ends a row.
+ */
+interface ResultsTableWriter {
+
+    /** Starts a table (a file / sheet) named after the test and writes its header row. */
+    void beginTable(String name, List<String> headers) throws IOException;
+
+    /** {@code null} is written as an empty cell. */
+    void text(String value) throws IOException;
+
+    /** A score, to two decimals. */
+    void decimal(float value) throws IOException;
+
+    /** A percentage given as 0–100, to one decimal. */
+    void percent(float value) throws IOException;
+
+    /** {@code null} is written as an empty cell. */
+    void dateTime(LocalDateTime value) throws IOException;
+
+    void endRow() throws IOException;
+
+    /** Completes the export and flushes it; the output stream itself is left open. */
+    void finish() throws IOException;
+}
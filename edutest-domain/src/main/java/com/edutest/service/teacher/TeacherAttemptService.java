@@ -3,33 +3,36 @@ package com.edutest.service.teacher;
 import com.edutest.dto.AttemptListItemDto;
 import com.edutest.dto.ScoreDistributionItemDto;
 import com.edutest.dto.TestStatsSummaryDto;
-import com.edutest.persistance.entity.test.TestAttemptEntity;
 import com.edutest.persistance.entity.test.TestEntity;
-import com.edutest.persistance.entity.user.UserEntity;
-import com.edutest.persistance.repository.AssignmentAnswerJpaRepository;
 import com.edutest.persistance.repository.AssignmentJpaRepository;
 import com.edutest.persistance.repository.TestAttemptJpaRepository;
 import com.edutest.persistance.repository.TestRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.*;
-import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class TeacherAttemptService {
 
+    private static final String[] DISTRIBUTION_LABELS = {"0-10%", "10-20%", "20-30%", "30-40%", "40-50%",
+            "50-60%", "60-70%", "70-80%", "80-90%", "90-100%"};
+
     private final TestAttemptJpaRepository testAttemptRepository;
     private final TestRepository testRepository;
     private final AssignmentJpaRepository assignmentRepository;
-    private final AssignmentAnswerJpaRepository answerRepository;
+    private final TestStatsSummaryCache statsSummaryCache;
 
+    /**
+     * One page of a test's attempts. Group and status filters, sorting and paging all run in
+     * the database (see {@link TestAttemptJpaRepository#findAttemptList}), so a page click
+     * reads one page, not every attempt of the test.
+     */
     @Transactional(readOnly = true)
     public Page<AttemptListItemDto> getAttemptsByTestId(
             Long testId,
@@ -40,56 +43,39 @@ public class TeacherAttemptService {
             String sortBy,
             String sortDir) {
 
-        TestEntity test = testRepository.findById(testId)
-                .orElseThrow(() -> new IllegalArgumentException("Test not found"));
+        if (!testRepository.existsById(testId)) {
+            throw new IllegalArgumentException("Test not found");
+        }
 
         Float maxPossibleScore = assignmentRepository.sumPointsByTestId(testId);
         if (maxPossibleScore == null) {
             maxPossibleScore = 0f;
         }
 
-        List<TestAttemptEntity> allAttempts = testAttemptRepository.findByTestId(testId);
+        Sort.Direction direction = "desc".equalsIgnoreCase(sortDir) ? Sort.Direction.DESC : Sort.Direction.ASC;
+        // Attempt ID last keeps the order stable between pages when the sort key ties.
+        Sort sort = Sort.by(direction, sortColumns(sortBy)).and(Sort.by("attemptId"));
 
-        // Filter by group if specified
-        if (groupId != null) {
-            allAttempts = allAttempts.stream()
-                    .filter(a -> a.getStudent().getStudentGroup() != null &&
-                            a.getStudent().getStudentGroup().getId().equals(groupId))
-                    .collect(Collectors.toList());
-        }
-
-        // Convert to DTOs with status calculation
         Float finalMaxScore = maxPossibleScore;
-        List<AttemptListItemDto> dtos = allAttempts.stream()
-                .map(attempt -> mapToListItem(attempt, finalMaxScore))
-                .collect(Collectors.toList());
-
-        // Filter by status if specified
-        if (status != null && !status.isEmpty()) {
-            dtos = dtos.stream()
-                    .filter(dto -> dto.getStatus().equals(status))
-                    .collect(Collectors.toList());
-        }
-
-        // Sort
-        Comparator<AttemptListItemDto> comparator = getComparator(sortBy);
-        if ("desc".equalsIgnoreCase(sortDir)) {
-            comparator = comparator.reversed();
-        }
-        dtos.sort(comparator);
-
-        // Paginate
-        int start = page * size;
-        int end = Math.min(start + size, dtos.size());
-        List<AttemptListItemDto> pageContent = start < dtos.size()
-                ? dtos.subList(start, end)
-                : Collections.emptyList();
-
-        return new PageImpl<>(pageContent, PageRequest.of(page, size), dtos.size());
+        return testAttemptRepository.findAttemptList(
+                        testId,
+                        groupId,
+                        status != null && !status.isEmpty() ? status : null,
+                        PageRequest.of(page, size, sort))
+                .map(row -> mapToListItem(row, finalMaxScore));
     }
 
+    /**
+     * Attempt counts, score statistics and the 10-bucket score distribution of a test,
+     * aggregated in one query ({@link TestAttemptJpaRepository#findStatsSummary}) and cached
+     * per test until an attempt is submitted or an answer graded.
+     */
     @Transactional(readOnly = true)
     public TestStatsSummaryDto getTestStatsSummary(Long testId) {
+        return statsSummaryCache.get(testId, () -> computeTestStatsSummary(testId));
+    }
+
+    private TestStatsSummaryDto computeTestStatsSummary(Long testId) {
         TestEntity test = testRepository.findById(testId)
                 .orElseThrow(() -> new IllegalArgumentException("Test not found"));
 
@@ -98,137 +84,81 @@ public class TeacherAttemptService {
             maxPossibleScore = 0f;
         }
 
-        List<TestAttemptEntity> allAttempts = testAttemptRepository.findByTestId(testId);
-
-        int totalAttempts = allAttempts.size();
-        int completedAttempts = (int) allAttempts.stream().filter(TestAttemptEntity::isFinished).count();
-        int inProgressAttempts = totalAttempts - completedAttempts;
+        TestAttemptJpaRepository.TestStatsRow stats = testAttemptRepository.findStatsSummary(testId, maxPossibleScore);
 
-        // Get scores for completed attempts
-        List<Float> scores = allAttempts.stream()
-                .filter(TestAttemptEntity::isFinished)
-                .map(TestAttemptEntity::getScore)
-                .filter(Objects::nonNull)
-                .sorted()
-                .collect(Collectors.toList());
-
-        // Calculate graded attempts (no pending manual grading)
-        Float finalMaxScore = maxPossibleScore;
-        int gradedAttempts = (int) allAttempts.stream()
-                .filter(TestAttemptEntity::isFinished)
-                .filter(a -> countPendingGrading(a.getId()) == 0)
-                .count();
-
-        // Calculate statistics
-        Float averageScore = scores.isEmpty() ? null :
-                (float) scores.stream().mapToDouble(Float::doubleValue).average().orElse(0);
-        Float medianScore = scores.isEmpty() ? null : calculateMedian(scores);
-        Float minScore = scores.isEmpty() ? null : scores.get(0);
-        Float maxScore = scores.isEmpty() ? null : scores.get(scores.size() - 1);
+        int totalAttempts = toInt(stats.getTotalAttempts());
+        int completedAttempts = toInt(stats.getCompletedAttempts());
 
+        Float averageScore = stats.getAverageScore() != null ? stats.getAverageScore().floatValue() : null;
         Float averageScorePercentage = (averageScore != null && maxPossibleScore > 0)
                 ? averageScore / maxPossibleScore * 100f : null;
 
-        // Calculate score distribution
-        List<ScoreDistributionItemDto> distribution = calculateScoreDistribution(scores, maxPossibleScore);
-
         return TestStatsSummaryDto.builder()
                 .testId(testId)
                 .testTitle(test.getTitle())
                 .totalAttempts(totalAttempts)
                 .completedAttempts(completedAttempts)
-                .inProgressAttempts(inProgressAttempts)
-                .gradedAttempts(gradedAttempts)
+                .inProgressAttempts(totalAttempts - completedAttempts)
+                .gradedAttempts(toInt(stats.getGradedAttempts()))
                 .averageScore(averageScore)
-                .medianScore(medianScore)
-                .minScore(minScore)
-                .maxScore(maxScore)
+                .medianScore(stats.getMedianScore() != null ? stats.getMedianScore().floatValue() : null)
+                .minScore(stats.getMinScore())
+                .maxScore(stats.getMaxScore())
                 .averageScorePercentage(averageScorePercentage)
-                .scoreDistribution(distribution)
+                .scoreDistribution(toScoreDistribution(stats, maxPossibleScore))
                 .build();
     }
 
-    private AttemptListItemDto mapToListItem(TestAttemptEntity attempt, Float maxPossibleScore) {
-        UserEntity student = attempt.getStudent();
-        int pendingGrading = countPendingGrading(attempt.getId());
-        String status = AttemptListItemDto.calculateStatus(attempt.isFinished(), pendingGrading);
-
+    private AttemptListItemDto mapToListItem(TestAttemptJpaRepository.AttemptListRow row, Float maxPossibleScore) {
         Float scorePercentage = null;
-        if (attempt.getScore() != null && maxPossibleScore != null && maxPossibleScore > 0) {
-            scorePercentage = attempt.getScore() / maxPossibleScore * 100f;
+        if (row.getScore() != null && maxPossibleScore != null && maxPossibleScore > 0) {
+            scorePercentage = row.getScore() / maxPossibleScore * 100f;
         }
 
         return AttemptListItemDto.builder()
-                .attemptId(attempt.getId())
-                .studentId(student.getId())
-                .studentName(student.getFirstName() + " " + student.getLastName())
-                .studentEmail(student.getEmail())
-                .groupId(student.getStudentGroup() != null ? student.getStudentGroup().getId() : null)
-                .groupName(student.getStudentGroup() != null ? student.getStudentGroup().getName() : null)
-                .startedAt(attempt.getStartedAt())
-                .finishedAt(attempt.getFinishedAt())
-                .score(attempt.getScore())
+                .attemptId(row.getAttemptId())
+                .studentId(row.getStudentId())
+                .studentName(row.getFirstName() + " " + row.getLastName())
+                .studentEmail(row.getEmail())
+                .groupId(row.getGroupId())
+                .groupName(row.getGroupName())
+                .startedAt(row.getStartedAt())
+                .finishedAt(row.getFinishedAt())
+                .score(row.getScore())
                 .maxPossibleScore(maxPossibleScore)
                 .scorePercentage(scorePercentage)
-                .status(status)
-                .pendingGradingCount(pendingGrading)
+                .status(row.getStatus())
+                .pendingGradingCount(row.getPendingGradingCount() != null ? row.getPendingGradingCount() : 0)
                 .build();
     }
 
-    private int countPendingGrading(Long attemptId) {
-        return (int) answerRepository.countUngradedByTestAttemptId(attemptId);
-    }
-
-    private Comparator<AttemptListItemDto> getComparator(String sortBy) {
+    /** Columns of {@link TestAttemptJpaRepository.AttemptListRow} to sort by; unknown keys sort by start time. */
+    private String[] sortColumns(String sortBy) {
         return switch (sortBy != null ? sortBy : "startedAt") {
-            case "finishedAt" -> Comparator.comparing(
-                    AttemptListItemDto::getFinishedAt,
-                    Comparator.nullsLast(Comparator.naturalOrder()));
-            case "score" -> Comparator.comparing(
-                    AttemptListItemDto::getScore,
-                    Comparator.nullsLast(Comparator.naturalOrder()));
-            case "studentName" -> Comparator.comparing(
-                    AttemptListItemDto::getStudentName,
-                    Comparator.nullsLast(Comparator.naturalOrder()));
-            default -> Comparator.comparing(
-                    AttemptListItemDto::getStartedAt,
-                    Comparator.nullsLast(Comparator.naturalOrder()));
+            case "finishedAt" -> new String[]{"finishedAt"};
+            case "score" -> new String[]{"score"};
+            case "studentName" -> new String[]{"firstName", "lastName"};
+            default -> new String[]{"startedAt"};
         };
     }
 
-    private Float calculateMedian(List<Float> sortedScores) {
-        if (sortedScores.isEmpty()) {
-            return null;
-        }
-        int size = sortedScores.size();
-        if (size % 2 == 0) {
-            return (sortedScores.get(size / 2 - 1) + sortedScores.get(size / 2)) / 2f;
-        } else {
-            return sortedScores.get(size / 2);
-        }
-    }
-
-    private List<ScoreDistributionItemDto> calculateScoreDistribution(List<Float> scores, Float maxPossibleScore) {
-        if (scores.isEmpty() || maxPossibleScore == null || maxPossibleScore <= 0) {
+    private List<ScoreDistributionItemDto> toScoreDistribution(TestAttemptJpaRepository.TestStatsRow stats,
+                                                               Float maxPossibleScore) {
+        List<Long> buckets = stats.buckets();
+        int total = buckets.stream().mapToInt(TeacherAttemptService::toInt).sum();
+        if (total == 0 || maxPossibleScore == null || maxPossibleScore <= 0) {
             return Collections.emptyList();
         }
 
-        int[] buckets = new int[10]; // 0-10%, 10-20%, ..., 90-100%
-        String[] labels = {"0-10%", "10-20%", "20-30%", "30-40%", "40-50%",
-                "50-60%", "60-70%", "70-80%", "80-90%", "90-100%"};
-
-        for (Float score : scores) {
-            float percentage = score / maxPossibleScore * 100f;
-            int bucket = Math.min((int) (percentage / 10), 9);
-            buckets[bucket]++;
-        }
-
-        int total = scores.size();
         List<ScoreDistributionItemDto> distribution = new ArrayList<>();
-        for (int i = 0; i < 10; i++) {
-            distribution.add(ScoreDistributionItemDto.of(labels[i], buckets[i], total));
+        for (int i = 0; i < DISTRIBUTION_LABELS.length; i++) {
+            distribution.add(ScoreDistributionItemDto.of(DISTRIBUTION_LABELS[i], toInt(buckets.get(i)), total));
         }
 
         return distribution;
     }
+
+    private static int toInt(Long count) {
+        return count != null ? count.intValue() : 0;
+    }
 }
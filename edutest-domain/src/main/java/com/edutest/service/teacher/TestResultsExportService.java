@@ -1,148 +1,121 @@
 package com.edutest.service.teacher;
 
 import com.edutest.persistance.entity.assigment.AssignmentEntity;
-import com.edutest.persistance.entity.assigment.AssignmentType;
-import com.edutest.persistance.entity.assigment.common.AssignmentAnswerEntity;
-import com.edutest.persistance.entity.code.CodeSubmissionEntity;
-import com.edutest.persistance.entity.test.TestAttemptEntity;
 import com.edutest.persistance.entity.test.TestEntity;
-import com.edutest.persistance.entity.user.UserEntity;
-import com.edutest.persistance.repository.*;
+import com.edutest.persistance.repository.AssignmentJpaRepository;
+import com.edutest.persistance.repository.TestAttemptJpaRepository;
+import com.edutest.persistance.repository.TestAttemptJpaRepository.ResultMatrixRow;
+import com.edutest.persistance.repository.TestRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.time.format.DateTimeFormatter;
+import java.io.IOException;
+import java.io.OutputStream;
 import java.util.*;
-import java.util.function.Function;
-import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
+/**
+ * Exports the results of finished attempts, one row per attempt and a score column per
+ * assignment. Rows are streamed from one query per test and written as they are read, so
+ * memory stays flat however many attempts a test has.
+ */
 @Service
 @RequiredArgsConstructor
 public class TestResultsExportService {
 
-    private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+    private static final String NO_SCORE = "N/A";
 
     private final TestRepository testRepository;
     private final TestAttemptJpaRepository testAttemptRepository;
     private final AssignmentJpaRepository assignmentRepository;
-    private final AssignmentAnswerJpaRepository answerRepository;
-    private final CodeSubmissionJpaRepository codeSubmissionRepository;
 
+    /** To be called before the response starts: a missing test can't be reported mid-stream. */
     @Transactional(readOnly = true)
-    public String exportToCsv(Long testId) {
+    public void checkTestsExist(List<Long> testIds) {
+        if (testIds.isEmpty()) {
+            throw new IllegalArgumentException("No tests to export");
+        }
+        for (Long testId : testIds) {
+            if (!testRepository.existsById(testId)) {
+                throw new IllegalArgumentException("Test not found");
+            }
+        }
+    }
+
+    /** Writes one table per test, in the given order, to {@code out} (left open). */
+    @Transactional(readOnly = true)
+    public void export(List<Long> testIds, ResultsExportFormat format, OutputStream out) throws IOException {
+        ResultsTableWriter writer = format.open(out, testIds.size());
+        for (Long testId : testIds) {
+            writeTest(testId, writer);
+        }
+        writer.finish();
+    }
+
+    private void writeTest(Long testId, ResultsTableWriter writer) throws IOException {
         TestEntity test = testRepository.findById(testId)
                 .orElseThrow(() -> new IllegalArgumentException("Test not found"));
-
         List<AssignmentEntity> assignments = assignmentRepository.findByTestEntityIdOrderByOrderNumber(testId);
-        List<TestAttemptEntity> attempts = testAttemptRepository.findByTestId(testId);
-
-        // Filter to only completed attempts
-        attempts = attempts.stream()
-                .filter(TestAttemptEntity::isFinished)
-                .collect(Collectors.toList());
-
-        StringBuilder csv = new StringBuilder();
+        Float points = assignmentRepository.sumPointsByTestId(testId);
+        float maxPossible = points != null ? points : 0f;
 
-        // Header row
-        csv.append(escapeCSV("Student Name"));
-        csv.append(",").append(escapeCSV("Student Email"));
-        csv.append(",").append(escapeCSV("Student Number"));
-        csv.append(",").append(escapeCSV("Group"));
-
-        // Assignment columns
+        List<String> headers = new ArrayList<>(List.of("Student Name", "Student Email", "Student Number", "Group"));
+        Map<Long, Integer> columns = new HashMap<>();
         for (AssignmentEntity assignment : assignments) {
-            String header = String.format("%s (max: %d)", assignment.getTitle(), assignment.getPoints());
-            csv.append(",").append(escapeCSV(header));
+            columns.put(assignment.getId(), columns.size());
+            headers.add(assignment.getTitle() + " (max: " + assignment.getPoints() + ")");
         }
-
-        csv.append(",").append(escapeCSV("Total Score"));
-        csv.append(",").append(escapeCSV("Max Possible"));
-        csv.append(",").append(escapeCSV("Percentage"));
-        csv.append(",").append(escapeCSV("Status"));
-        csv.append(",").append(escapeCSV("Started At"));
-        csv.append(",").append(escapeCSV("Finished At"));
-        csv.append("\n");
-
-        // Calculate max possible score
-        Float maxPossible = assignmentRepository.sumPointsByTestId(testId);
-        if (maxPossible == null) maxPossible = 0f;
-
-        // Data rows
-        for (TestAttemptEntity attempt : attempts) {
-            UserEntity student = attempt.getStudent();
-
-            csv.append(escapeCSV(student.getFirstName() + " " + student.getLastName()));
-            csv.append(",").append(escapeCSV(student.getEmail()));
-            csv.append(",").append(escapeCSV(student.getStudentNumber() != null ? student.getStudentNumber() : ""));
-            csv.append(",").append(escapeCSV(student.getStudentGroup() != null ? student.getStudentGroup().getName() : ""));
-
-            // Get answers for this attempt
-            Map<Long, AssignmentAnswerEntity> answersByAssignment = answerRepository
-                    .findByTestAttemptId(attempt.getId()).stream()
-                    .collect(Collectors.toMap(
-                            a -> a.getAssignmentEntity().getId(),
-                            Function.identity()));
-
-            Map<Long, CodeSubmissionEntity> codeSubmissionsByAssignment = codeSubmissionRepository
-                    .findByTestAttemptId(attempt.getId()).stream()
-                    .collect(Collectors.toMap(
-                            c -> c.getAssignment().getId(),
-                            Function.identity()));
-
-            // Score for each assignment
-            for (AssignmentEntity assignment : assignments) {
-                Float score = null;
-
-                if (assignment.getType() == AssignmentType.CODING) {
-                    CodeSubmissionEntity submission = codeSubmissionsByAssignment.get(assignment.getId());
-                    if (submission != null) {
-                        score = submission.getTotalScore();
-                    }
-                } else {
-                    AssignmentAnswerEntity answer = answersByAssignment.get(assignment.getId());
-                    if (answer != null) {
-                        score = answer.getScore();
-                    }
+        headers.addAll(List.of("Total Score", "Max Possible", "Percentage", "Status", "Started At", "Finished At"));
+        writer.beginTable(test.getTitle(), headers);
+
+        // Rows of an attempt are adjacent; its line is written once the next attempt begins.
+        Float[] scores = new Float[assignments.size()];
+        ResultMatrixRow attempt = null;
+        try (Stream<ResultMatrixRow> rows = testAttemptRepository.streamResultMatrix(testId)) {
+            for (Iterator<ResultMatrixRow> it = rows.iterator(); it.hasNext(); ) {
+                ResultMatrixRow row = it.next();
+                if (attempt != null && !attempt.getAttemptId().equals(row.getAttemptId())) {
+                    writeAttempt(writer, attempt, scores, maxPossible);
+                    Arrays.fill(scores, null);
+                }
+                attempt = row;
+                Integer column = row.getAssignmentId() != null ? columns.get(row.getAssignmentId()) : null;
+                if (column != null) {
+                    scores[column] = row.getScore();
                 }
-
-                csv.append(",").append(score != null ? String.format("%.2f", score) : "N/A");
             }
-
-            // Total score
-            Float totalScore = attempt.getScore();
-            csv.append(",").append(totalScore != null ? String.format("%.2f", totalScore) : "0.00");
-            csv.append(",").append(String.format("%.2f", maxPossible));
-
-            // Percentage
-            float percentage = (totalScore != null && maxPossible > 0) ? totalScore / maxPossible * 100f : 0f;
-            csv.append(",").append(String.format("%.1f%%", percentage));
-
-            // Status
-            int pendingGrading = (int) answerRepository.countUngradedByTestAttemptId(attempt.getId());
-            String status = pendingGrading > 0 ? "SUBMITTED" : "GRADED";
-            csv.append(",").append(escapeCSV(status));
-
-            // Dates
-            csv.append(",").append(attempt.getStartedAt() != null ?
-                    escapeCSV(attempt.getStartedAt().format(DATE_FORMATTER)) : "");
-            csv.append(",").append(attempt.getFinishedAt() != null ?
-                    escapeCSV(attempt.getFinishedAt().format(DATE_FORMATTER)) : "");
-
-            csv.append("\n");
         }
-
-        return csv.toString();
+        if (attempt != null) {
+            writeAttempt(writer, attempt, scores, maxPossible);
+        }
     }
 
-    private String escapeCSV(String value) {
-        if (value == null) {
-            return "";
-        }
-        // If value contains comma, newline, or quote, wrap in quotes and escape internal quotes
-        if (value.contains(",") || value.contains("\n") || value.contains("\"")) {
-            return "\"" + value.replace("\"", "\"\"") + "\"";
+    private void writeAttempt(ResultsTableWriter writer, ResultMatrixRow attempt, Float[] scores, float maxPossible)
+            throws IOException {
+        writer.text(attempt.getFirstName() + " " + attempt.getLastName());
+        writer.text(attempt.getEmail());
+        writer.text(attempt.getStudentNumber());
+        writer.text(attempt.getGroupName());
+
+        for (Float score : scores) {
+            if (score != null) {
+                writer.decimal(score);
+            } else {
+                writer.text(NO_SCORE);
+            }
         }
-        return value;
+
+        float totalScore = attempt.getTotalScore() != null ? attempt.getTotalScore() : 0f;
+        writer.decimal(totalScore);
+        writer.decimal(maxPossible);
+        writer.percent(maxPossible > 0 ? totalScore / maxPossible * 100f : 0f);
+
+        Integer pendingGrading = attempt.getPendingGradingCount();
+        writer.text(pendingGrading != null && pendingGrading > 0 ? "SUBMITTED" : "GRADED");
+
+        writer.dateTime(attempt.getStartedAt());
+        writer.dateTime(attempt.getFinishedAt());
+        writer.endRow();
     }
 }
@@ -0,0 +1,126 @@
+package com.edutest.service.teacher;
+
+import com.edutest.dto.TestStatsSummaryDto;
+import com.edutest.event.AnswerGradedEvent;
+import com.edutest.event.TestAttemptSubmittedEvent;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.LinkedHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Statistics summaries of tests, so the teacher dashboard does not aggregate all attempts
+ * again on every refresh while grading is in progress.
+ *
+ * <p>A test's entry is dropped once a {@link TestAttemptSubmittedEvent} or
+ * {@link AnswerGradedEvent} of it has committed. Changes no event reports — a student
+ * starting an attempt, assignment points edited — show up within the TTL.
+ *
+ * <p>Bounded by entry count (LRU) and TTL.
+ */
+@Slf4j
+@Component
+public class TestStatsSummaryCache {
+
+    private final boolean enabled;
+    private final int maxEntries;
+    private final long ttlMs;
+    private final LongSupplier clock;
+
+    /** Access-ordered, eldest = least recently used. */
+    private final LinkedHashMap<Long, Entry> entries = new LinkedHashMap<>(64, 0.75f, true);
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    private final AtomicLong invalidations = new AtomicLong();
+    /** Bumped by every invalidation; a summary computed across one is not stored. */
+    private long generation;
+
+    public record CacheStats(long hits, long misses, long evictions, long invalidations, int entries, int maxEntries) {
+    }
+
+    private record Entry(TestStatsSummaryDto summary, long expiresAtMillis) {
+    }
+
+    @Autowired
+    public TestStatsSummaryCache(@Value("${app.test-stats.cache.enabled:true}") boolean enabled,
+                                 @Value("${app.test-stats.cache.max-entries:500}") int maxEntries,
+                                 @Value("${app.test-stats.cache.ttl-ms:30000}") long ttlMs) {
+        this(enabled, maxEntries, ttlMs, System::currentTimeMillis);
+    }
+
+    TestStatsSummaryCache(boolean enabled, int maxEntries, long ttlMs, LongSupplier clock) {
+        this.enabled = enabled;
+        this.maxEntries = maxEntries;
+        this.ttlMs = ttlMs;
+        this.clock = clock;
+    }
+
+    /** The cached summary of the test, otherwise the loader's, stored unless invalidated meanwhile. */
+    public TestStatsSummaryDto get(Long testId, Supplier<TestStatsSummaryDto> loader) {
+        if (!enabled) {
+            return loader.get();
+        }
+        long loadGeneration;
+        synchronized (this) {
+            Entry entry = entries.get(testId);
+            if (entry != null && entry.expiresAtMillis() > clock.getAsLong()) {
+                hits.incrementAndGet();
+                return entry.summary();
+            }
+            if (entry != null) {
+                entries.remove(testId);
+                evictions.incrementAndGet();
+            }
+            misses.incrementAndGet();
+            loadGeneration = generation;
+        }
+        TestStatsSummaryDto summary = loader.get();
+        store(testId, summary, loadGeneration);
+        return summary;
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onTestAttemptSubmitted(TestAttemptSubmittedEvent event) {
+        invalidateTest(event.testId());
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onAnswerGraded(AnswerGradedEvent event) {
+        invalidateTest(event.testId());
+    }
+
+    public synchronized void invalidateTest(Long testId) {
+        generation++;
+        if (entries.remove(testId) != null) {
+            invalidations.incrementAndGet();
+            log.debug("Dropped cached statistics summary of test {}", testId);
+        }
+    }
+
+    public synchronized CacheStats stats() {
+        return new CacheStats(hits.get(), misses.get(), evictions.get(), invalidations.get(),
+                entries.size(), maxEntries);
+    }
+
+    private synchronized void store(Long testId, TestStatsSummaryDto summary, long loadGeneration) {
+        if (summary == null || generation != loadGeneration) {
+            return;
+        }
+        entries.put(testId, new Entry(summary, clock.getAsLong() + ttlMs));
+        var it = entries.entrySet().iterator();
+        while (entries.size() > maxEntries && it.hasNext()) {
+            it.next();
+            it.remove();
+            evictions.incrementAndGet();
+        }
+    }
+}
@@ -0,0 +1,289 @@
+package com.edutest.service.teacher;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * An XLSX workbook (SpreadsheetML in a ZIP) with a sheet per table, written without a
+ * spreadsheet library: each sheet's XML is streamed into its ZIP entry as the rows come,
+ * strings inline (no shared-string table to keep in memory), and the workbook parts that
+ * list the sheets are added by {@link #finish()}.
+ */
+final class XlsxResultsTableWriter implements ResultsTableWriter {
+
+    private static final String XML_HEADER = "<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>\n";
+    private static final String MAIN_NS = "http://schemas.openxmlformats.org/spreadsheetml/2006/main";
+    private static final String REL_NS = "http://schemas.openxmlformats.org/officeDocument/2006/relationships";
+    private static final String PACKAGE_REL_NS = "http://schemas.openxmlformats.org/package/2006/relationships";
+    private static final int MAX_SHEET_NAME = 31;
+
+    // Cell formats (cellXfs indexes) of STYLES.
+    private static final int STYLE_HEADER = 1;
+    private static final int STYLE_DECIMAL = 2;
+    private static final int STYLE_DATE_TIME = 3;
+    private static final int STYLE_PERCENT = 4;
+
+    private static final String STYLES = XML_HEADER
+            + "<styleSheet xmlns=\"" + MAIN_NS + "\">"
+            + "<numFmts count=\"2\"><numFmt numFmtId=\"164\" formatCode=\"yyyy-mm-dd hh:mm:ss\"/>"
+            + "<numFmt numFmtId=\"165\" formatCode=\"0.0%\"/></numFmts>"
+            + "<fonts count=\"2\"><font><sz val=\"11\"/><name val=\"Calibri\"/></font>"
+            + "<font><b/><sz val=\"11\"/><name val=\"Calibri\"/></font></fonts>"
+            + "<fills count=\"2\"><fill><patternFill patternType=\"none\"/></fill>"
+            + "<fill><patternFill patternType=\"gray125\"/></fill></fills>"
+            + "<borders count=\"1\"><border><left/><right/><top/><bottom/><diagonal/></border></borders>"
+            + "<cellStyleXfs count=\"1\"><xf numFmtId=\"0\" fontId=\"0\" fillId=\"0\" borderId=\"0\"/></cellStyleXfs>"
+            + "<cellXfs count=\"5\">"
+            + "<xf numFmtId=\"0\" fontId=\"0\" fillId=\"0\" borderId=\"0\" xfId=\"0\"/>"
+            + "<xf numFmtId=\"0\" fontId=\"1\" fillId=\"0\" borderId=\"0\" xfId=\"0\" applyFont=\"1\"/>"
+            + "<xf numFmtId=\"2\" fontId=\"0\" fillId=\"0\" borderId=\"0\" xfId=\"0\" applyNumberFormat=\"1\"/>"
+            + "<xf numFmtId=\"164\" fontId=\"0\" fillId=\"0\" borderId=\"0\" xfId=\"0\" applyNumberFormat=\"1\"/>"
+            + "<xf numFmtId=\"165\" fontId=\"0\" fillId=\"0\" borderId=\"0\" xfId=\"0\" applyNumberFormat=\"1\"/>"
+            + "</cellXfs>"
+            + "<cellStyles count=\"1\"><cellStyle name=\"Normal\" xfId=\"0\" builtinId=\"0\"/></cellStyles>"
+            + "</styleSheet>";
+
+    private final ZipOutputStream zip;
+    private final Writer xml;
+    private final List<String> sheetNames = new ArrayList<>();
+    private final Set<String> usedSheetNames = new HashSet<>();
+    private boolean sheetOpen;
+    private boolean rowOpen;
+    /** 1-based number of the row being written, and 0-based column of its next cell. */
+    private int row;
+    private int column;
+
+    XlsxResultsTableWriter(OutputStream out) {
+        this.zip = new ZipOutputStream(out, StandardCharsets.UTF_8);
+        this.xml = new BufferedWriter(new OutputStreamWriter(zip, StandardCharsets.UTF_8), 64 * 1024);
+    }
+
+    @Override
+    public void beginTable(String name, List<String> headers) throws IOException {
+        closeSheet();
+        sheetNames.add(sheetName(name));
+        zip.putNextEntry(new ZipEntry("xl/worksheets/sheet" + sheetNames.size() + ".xml"));
+        xml.write(XML_HEADER);
+        xml.write("<worksheet xmlns=\"" + MAIN_NS + "\"><sheetData>");
+        sheetOpen = true;
+        row = 1;
+        column = 0;
+        for (String header : headers) {
+            inlineString(header, STYLE_HEADER);
+        }
+        endRow();
+    }
+
+    @Override
+    public void text(String value) throws IOException {
+        inlineString(value, 0);
+    }
+
+    @Override
+    public void decimal(float value) throws IOException {
+        number(Float.toString(value), STYLE_DECIMAL);
+    }
+
+    @Override
+    public void percent(float value) throws IOException {
+        number(Double.toString(value / 100.0), STYLE_PERCENT);
+    }
+
+    @Override
+    public void dateTime(LocalDateTime value) throws IOException {
+        if (value == null) {
+            column++;
+            return;
+        }
+        // Excel serial date: days since 1899-12-30, time of day as the fraction.
+        double serial = value.toLocalDate().toEpochDay() + 25569 + value.toLocalTime().toSecondOfDay() / 86400.0;
+        number(Double.toString(serial), STYLE_DATE_TIME);
+    }
+
+    @Override
+    public void endRow() throws IOException {
+        if (rowOpen) {
+            xml.write("</row>");
+            rowOpen = false;
+        }
+        row++;
+        column = 0;
+    }
+
+    @Override
+    public void finish() throws IOException {
+        if (sheetNames.isEmpty()) {
+            beginTable("Results", List.of());
+        }
+        closeSheet();
+        writeEntry("xl/workbook.xml", workbook());
+        writeEntry("xl/_rels/workbook.xml.rels", workbookRels());
+        writeEntry("xl/styles.xml", STYLES);
+        writeEntry("_rels/.rels", XML_HEADER
+                + "<Relationships xmlns=\"" + PACKAGE_REL_NS + "\">"
+                + "<Relationship Id=\"rId1\" Type=\"" + REL_NS + "/officeDocument\" Target=\"xl/workbook.xml\"/>"
+                + "</Relationships>");
+        writeEntry("[Content_Types].xml", contentTypes());
+        zip.finish();
+        xml.flush();
+    }
+
+    private void inlineString(String value, int style) throws IOException {
+        if (value == null || value.isEmpty()) {
+            column++;
+            return;
+        }
+        startCell(style);
+        xml.write(" t=\"inlineStr\"><is><t xml:space=\"preserve\">");
+        xml.write(escaped(value));
+        xml.write("</t></is></c>");
+    }
+
+    private void number(String value, int style) throws IOException {
+        startCell(style);
+        xml.write("><v>");
+        xml.write(value);
+        xml.write("</v></c>");
+    }
+
+    /** Writes {@code <c r=".." s=".."} of the next column, opening the row on its first cell. */
+    private void startCell(int style) throws IOException {
+        if (!rowOpen) {
+            xml.write("<row r=\"");
+            xml.write(Integer.toString(row));
+            xml.write("\">");
+            rowOpen = true;
+        }
+        xml.write("<c r=\"");
+        xml.write(columnName(column));
+        xml.write(Integer.toString(row));
+        xml.write('"');
+        if (style != 0) {
+            xml.write(" s=\"");
+            xml.write(Integer.toString(style));
+            xml.write('"');
+        }
+        column++;
+    }
+
+    private void closeSheet() throws IOException {
+        if (!sheetOpen) {
+            return;
+        }
+        endRow();
+        xml.write("</sheetData></worksheet>");
+        xml.flush();
+        zip.closeEntry();
+        sheetOpen = false;
+    }
+
+    private void writeEntry(String name, String content) throws IOException {
+        zip.putNextEntry(new ZipEntry(name));
+        xml.write(content);
+        xml.flush();
+        zip.closeEntry();
+    }
+
+    private String workbook() {
+        StringBuilder sb = new StringBuilder(XML_HEADER)
+                .append("<workbook xmlns=\"").append(MAIN_NS).append("\" xmlns:r=\"").append(REL_NS).append("\"><sheets>");
+        for (int i = 1; i <= sheetNames.size(); i++) {
+            sb.append("<sheet name=\"").append(escaped(sheetNames.get(i - 1)))
+                    .append("\" sheetId=\"").append(i).append("\" r:id=\"rId").append(i).append("\"/>");
+        }
+        return sb.append("</sheets></workbook>").toString();
+    }
+
+    private String workbookRels() {
+        StringBuilder sb = new StringBuilder(XML_HEADER)
+                .append("<Relationships xmlns=\"").append(PACKAGE_REL_NS).append("\">");
+        for (int i = 1; i <= sheetNames.size(); i++) {
+            sb.append("<Relationship Id=\"rId").append(i).append("\" Type=\"").append(REL_NS)
+                    .append("/worksheet\" Target=\"worksheets/sheet").append(i).append(".xml\"/>");
+        }
+        sb.append("<Relationship Id=\"rId").append(sheetNames.size() + 1).append("\" Type=\"").append(REL_NS)
+                .append("/styles\" Target=\"styles.xml\"/>");
+        return sb.append("</Relationships>").toString();
+    }
+
+    private String contentTypes() {
+        String type = "application/vnd.openxmlformats-officedocument.spreadsheetml.";
+        StringBuilder sb = new StringBuilder(XML_HEADER)
+                .append("<Types xmlns=\"http://schemas.openxmlformats.org/package/2006/content-types\">")
+                .append("<Default Extension=\"rels\" ContentType=\"application/vnd.openxmlformats-package.relationships+xml\"/>")
+                .append("<Default Extension=\"xml\" ContentType=\"application/xml\"/>")
+                .append("<Override PartName=\"/xl/workbook.xml\" ContentType=\"").append(type).append("sheet.main+xml\"/>")
+                .append("<Override PartName=\"/xl/styles.xml\" ContentType=\"").append(type).append("styles+xml\"/>");
+        for (int i = 1; i <= sheetNames.size(); i++) {
+            sb.append("<Override PartName=\"/xl/worksheets/sheet").append(i).append(".xml\" ContentType=\"")
+                    .append(type).append("worksheet+xml\"/>");
+        }
+        return sb.append("</Types>").toString();
+    }
+
+    /** A valid, unique sheet name: at most 31 characters, none of {@code : \ / ? * [ ]}. */
+    private String sheetName(String name) {
+        String base = name == null ? "" : name.replaceAll("[:\\\\/?*\\[\\]]", "_").trim();
+        base = base.replaceAll("^'+|'+$", "");
+        if (base.isEmpty()) {
+            base = "Results";
+        }
+        String candidate = truncate(base, MAX_SHEET_NAME);
+        for (int i = 2; !usedSheetNames.add(candidate.toLowerCase(Locale.ROOT)); i++) {
+            String suffix = " (" + i + ")";
+            candidate = truncate(base, MAX_SHEET_NAME - suffix.length()) + suffix;
+        }
+        return candidate;
+    }
+
+    private static String truncate(String value, int length) {
+        return value.length() <= length ? value : value.substring(0, length).trim();
+    }
+
+    /** A, B, ..., Z, AA, AB, ... */
+    static String columnName(int index) {
+        StringBuilder name = new StringBuilder(3);
+        for (int n = index + 1; n > 0; n = (n - 1) / 26) {
+            name.insert(0, (char) ('A' + (n - 1) % 26));
+        }
+        return name.toString();
+    }
+
+    /** XML text with markup characters escaped and characters XML 1.0 does not allow dropped. */
+    private static String escaped(String value) {
+        StringBuilder sb = null;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            String replacement = switch (c) {
+                case '&' -> "&amp;";
+                case '<' -> "&lt;";
+                case '>' -> "&gt;";
+                case '"' -> "&quot;";
+                default -> (c < 0x20 && c != '\t' && c != '\n' && c != '\r') || c == 0xFFFE || c == 0xFFFF ? "" : null;
+            };
+            if (replacement != null && sb == null) {
+                sb = new StringBuilder(value.length() + 16).append(value, 0, i);
+            }
+            if (sb != null) {
+                if (replacement != null) {
+                    sb.append(replacement);
+                } else {
+                    sb.append(c);
+                }
+            }
+        }
+        return sb == null ? value : sb.toString();
+    }
+}
@@ -4,6 +4,7 @@ import com.edutest.api.model.*;
 import com.edutest.dto.BatchOperationResult;
 import com.edutest.persistance.entity.user.UserEntity;
 import com.edutest.persistance.entity.user.UserEntityRole;
+import com.edutest.persistance.repository.RefreshTokenRepository;
 import com.edutest.persistance.repository.TestAttemptJpaRepository;
 import com.edutest.persistance.repository.TestRepository;
 import com.edutest.persistance.repository.UserRepository;
@@ -33,6 +34,7 @@ public class UserManagementService {
     private final LoginGeneratorPort loginGenerator;
     private final TestRepository testRepository;
     private final TestAttemptJpaRepository testAttemptJpaRepository;
+    private final RefreshTokenRepository refreshTokenRepository;
 
     @Transactional
     public UserProfile createStudent(CreateStudentRequest request) {
@@ -120,6 +122,10 @@ public class UserManagementService {
         }
         
         if (request.getIsActive() != null) {
+            if (!request.getIsActive() && Boolean.TRUE.equals(user.getIsActive())) {
+                user.revokeTokens();
+                refreshTokenRepository.revokeAllUserTokens(user);
+            }
             user.setIsActive(request.getIsActive());
         }
         
@@ -146,6 +152,9 @@ public class UserManagementService {
                 .orElseThrow(() -> new EntityNotFoundException("User not found with id: " + userId));
 
         user.setIsActive(false);
+        // Outstanding access and refresh tokens die with the account, not when they expire.
+        user.revokeTokens();
+        refreshTokenRepository.revokeAllUserTokens(user);
         UserEntity savedUser = userRepository.save(user);
         log.info("User {} deactivated successfully", userId);
         return userMapper.toUserProfile(savedUser);
@@ -189,6 +198,8 @@ public class UserManagementService {
         // Users still referenced by NOT-NULL FKs (authored tests, attempts) are blocked above so
         // soft-deletion never leaves a dangling reference that would null-out on load.
         user.setDeletedAt(LocalDateTime.now());
+        user.revokeTokens();
+        refreshTokenRepository.revokeAllUserTokens(user);
         userRepository.save(user);
         log.info("User {} soft-deleted successfully", userId);
     }
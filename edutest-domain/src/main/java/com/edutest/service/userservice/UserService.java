@@ -6,6 +6,7 @@ import com.edutest.domain.group.StudentGroup;
 import com.edutest.persistance.entity.test.TestEntity;
 import com.edutest.persistance.entity.user.UserEntity;
 import com.edutest.persistance.entity.user.UserEntityRole;
+import com.edutest.persistance.repository.RefreshTokenRepository;
 import com.edutest.persistance.repository.StudentGroupJpaRepository;
 import com.edutest.persistance.repository.TestRepository;
 import com.edutest.persistance.repository.UserRepository;
@@ -33,6 +34,7 @@ public class UserService {
     private final PasswordEncoder passwordEncoder;
     private final TestRepository testRepository;
     private final StudentGroupJpaRepository studentGroupJpaRepository;
+    private final RefreshTokenRepository refreshTokenRepository;
 
     public boolean validatePassword(String password) {
             if (password.length() < 8) {
@@ -56,6 +58,8 @@ public class UserService {
     public void lockUserAccount(Long userId, String reason) {
         userRepository.findById(userId).ifPresent(user -> {
             user.setIsActive(false);
+            user.revokeTokens();
+            refreshTokenRepository.revokeAllUserTokens(user);
             userRepository.save(user);
             log.info("User account with ID {} has been locked. Reason: {}", userId, reason);
         });
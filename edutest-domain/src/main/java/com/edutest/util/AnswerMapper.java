@@ -194,6 +194,7 @@ public class AnswerMapper {
             case "RUNTIME_ERROR" -> AnswerResponse.ExecutionStatusEnum.RUNTIME_ERROR;
             case "TIME_LIMIT_EXCEEDED" -> AnswerResponse.ExecutionStatusEnum.TIME_LIMIT_EXCEEDED;
             case "MEMORY_LIMIT_EXCEEDED" -> AnswerResponse.ExecutionStatusEnum.MEMORY_LIMIT_EXCEEDED;
+            case "OUTPUT_LIMIT_EXCEEDED" -> AnswerResponse.ExecutionStatusEnum.OUTPUT_LIMIT_EXCEEDED;
             case "SYSTEM_ERROR" -> AnswerResponse.ExecutionStatusEnum.SYSTEM_ERROR;
             default -> null;
         };
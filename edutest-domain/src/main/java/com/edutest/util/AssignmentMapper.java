@@ -4,10 +4,12 @@ import com.edutest.api.model.Assignment;
 import com.edutest.api.model.AssignmentResponse;
 import com.edutest.api.model.ChoiceOptionRequest;
 import com.edutest.api.model.ChoiceOptionResponse;
+import com.edutest.api.model.OutputCheckerMode;
 import com.edutest.api.model.TestCaseRequest;
 import com.edutest.api.model.TestCaseResponse;
 import com.edutest.domain.assignment.AssignmentType;
 import com.edutest.domain.assignment.coding.CodingAssignment;
+import com.edutest.domain.assignment.coding.OutputChecker;
 import com.edutest.domain.assignment.coding.TestCase;
 import com.edutest.domain.assignment.common.ChoiceOption;
 import com.edutest.domain.assignment.multiplechoice.MultipleChoiceAssignment;
@@ -17,6 +19,7 @@ import com.edutest.dto.ChoiceOptionDto;
 import com.edutest.dto.TestCaseDto;
 import com.edutest.persistance.entity.assigment.AssignmentEntity;
 import com.edutest.persistance.entity.assigment.coding.CodingAssignmentEntity;
+import com.edutest.persistance.entity.assigment.coding.OutputCheckerEnum;
 import com.edutest.persistance.entity.assigment.coding.TestCaseEntity;
 import com.edutest.persistance.entity.assigment.common.ChoiceOptionEntity;
 import com.edutest.persistance.entity.assigment.multiplechoice.MultipleChoiceAssignmentEntity;
@@ -64,6 +67,7 @@ public class AssignmentMapper {
             resp.setAllowedLanguages(ca.getAllowedLanguages());
             resp.setStarterCode(ca.getStarterCode());
             resp.setSolutionTemplate(ca.getSolutionTemplate());
+            resp.setStopOnFirstFailure(ca.getStopOnFirstFailure());
             resp.setTestCases(mapTestCasesToApi(ca.getTestCases()));
         }
 
@@ -92,9 +96,31 @@ public class AssignmentMapper {
                 .isPublic(dto.getIsPublic() != null ? dto.getIsPublic() : false)
                 .description(dto.getDescription())
                 .weight(dto.getWeight() != null ? dto.getWeight().floatValue() : null)
+                .checkerMode(mapToDomainChecker(dto.getCheckerMode()))
+                .floatTolerance(dto.getFloatTolerance())
                 .build();
     }
 
+    private OutputChecker mapToDomainChecker(OutputCheckerMode apiMode) {
+        if (apiMode == null) return OutputChecker.EXACT;
+        return switch (apiMode) {
+            case EXACT -> OutputChecker.EXACT;
+            case TOKENS -> OutputChecker.TOKENS;
+            case FLOAT_TOLERANCE -> OutputChecker.FLOAT_TOLERANCE;
+            case UNORDERED_LINES -> OutputChecker.UNORDERED_LINES;
+        };
+    }
+
+    private OutputCheckerMode mapToApiChecker(OutputChecker checker) {
+        if (checker == null) return null;
+        return switch (checker) {
+            case EXACT -> OutputCheckerMode.EXACT;
+            case TOKENS -> OutputCheckerMode.TOKENS;
+            case FLOAT_TOLERANCE -> OutputCheckerMode.FLOAT_TOLERANCE;
+            case UNORDERED_LINES -> OutputCheckerMode.UNORDERED_LINES;
+        };
+    }
+
     private List<ChoiceOptionResponse> mapOptionsToApi(List<ChoiceOption> options) {
         if (options == null) return null;
         return options.stream().map(this::toChoiceOptionResponse).collect(Collectors.toList());
@@ -123,6 +149,8 @@ public class AssignmentMapper {
         resp.setIsPublic(tc.getIsPublic());
         resp.setDescription(tc.getDescription());
         resp.setWeight(tc.getWeight() != null ? tc.getWeight().intValue() : null);
+        resp.setCheckerMode(mapToApiChecker(tc.getCheckerMode()));
+        resp.setFloatTolerance(tc.getFloatTolerance());
         return resp;
     }
 
@@ -164,6 +192,7 @@ public class AssignmentMapper {
             resp.setAllowedLanguages(ca.getAllowedLanguages());
             resp.setStarterCode(ca.getStarterCode());
             resp.setSolutionTemplate(ca.getSolutionTemplate());
+            resp.setStopOnFirstFailure(ca.getStopOnFirstFailure());
             resp.setTestCases(mapTestCases(ca.getTestCases()));
         }
 
@@ -207,6 +236,9 @@ public class AssignmentMapper {
                 .isPublic(dto.getIsPublic() != null ? dto.getIsPublic() : false)
                 .description(dto.getDescription())
                 .weight(dto.getWeight() != null ? dto.getWeight().floatValue() : 1f)
+                .checkerMode(dto.getCheckerMode() != null
+                        ? OutputChecker.valueOf(dto.getCheckerMode()) : OutputChecker.EXACT)
+                .floatTolerance(dto.getFloatTolerance())
                 .build();
     }
 
@@ -238,6 +270,8 @@ public class AssignmentMapper {
         dto.setIsPublic(tc.getIsPublic());
         dto.setDescription(tc.getDescription());
         dto.setWeight(tc.getWeight() != null ? tc.getWeight().intValue() : null);
+        dto.setCheckerMode(tc.getCheckerMode() != null ? tc.getCheckerMode().name() : null);
+        dto.setFloatTolerance(tc.getFloatTolerance());
         return dto;
     }
 
@@ -349,6 +383,7 @@ public class AssignmentMapper {
         entity.setAllowedLanguagesStr(domain.getAllowedLanguages());
         entity.setStarterCode(domain.getStarterCode());
         entity.setSolutionTemplate(domain.getSolutionTemplate());
+        entity.setStopOnFirstFailure(domain.getStopOnFirstFailure());
 
         mapCommonFields(domain, entity, testEntity);
 
@@ -398,6 +433,8 @@ public class AssignmentMapper {
         entity.setIsPublic(domain.getIsPublic());
         entity.setDescription(domain.getDescription());
         entity.setWeight(domain.getWeight() != null ? domain.getWeight().intValue() : null);
+        entity.setCheckerMode(mapOutputCheckerEnum(domain.getCheckerMode()));
+        entity.setFloatTolerance(domain.getFloatTolerance());
         entity.setVersion(domain.getVersion());
 
         if (domain.getId() != null) {
@@ -494,6 +531,7 @@ public class AssignmentMapper {
                 .allowedLanguages(entity.getAllowedLanguagesStr())
                 .starterCode(entity.getStarterCode())
                 .solutionTemplate(entity.getSolutionTemplate())
+                .stopOnFirstFailure(entity.getStopOnFirstFailure())
                 .testCases(testCases)
                 .build();
     }
@@ -518,7 +556,29 @@ public class AssignmentMapper {
                 .isPublic(entity.getIsPublic() != null ? entity.getIsPublic() : false)
                 .description(entity.getDescription())
                 .weight(entity.getWeight() != null ? entity.getWeight().floatValue() : null)
+                .checkerMode(mapOutputChecker(entity.getCheckerMode()))
+                .floatTolerance(entity.getFloatTolerance())
                 .version(entity.getVersion())
                 .build();
     }
+
+    private OutputChecker mapOutputChecker(OutputCheckerEnum enumValue) {
+        if (enumValue == null) return OutputChecker.EXACT;
+        return switch (enumValue) {
+            case EXACT -> OutputChecker.EXACT;
+            case TOKENS -> OutputChecker.TOKENS;
+            case FLOAT_TOLERANCE -> OutputChecker.FLOAT_TOLERANCE;
+            case UNORDERED_LINES -> OutputChecker.UNORDERED_LINES;
+        };
+    }
+
+    private OutputCheckerEnum mapOutputCheckerEnum(OutputChecker checker) {
+        if (checker == null) return OutputCheckerEnum.EXACT;
+        return switch (checker) {
+            case EXACT -> OutputCheckerEnum.EXACT;
+            case TOKENS -> OutputCheckerEnum.TOKENS;
+            case FLOAT_TOLERANCE -> OutputCheckerEnum.FLOAT_TOLERANCE;
+            case UNORDERED_LINES -> OutputCheckerEnum.UNORDERED_LINES;
+        };
+    }
 }
@@ -145,6 +145,23 @@ public class TeacherMapper {
                 .build();
     }
 
+    public RegradeStatus toApiRegradeStatus(RegradeStatusDto dto) {
+        if (dto == null) {
+            return null;
+        }
+
+        RegradeStatus status = new RegradeStatus();
+        status.setStatus(RegradeStatus.StatusEnum.fromValue(dto.getStatus()));
+        status.setAssignmentId(dto.getAssignmentId());
+        status.setTotal(dto.getTotal());
+        status.setProcessed(dto.getProcessed());
+        status.setFailed(dto.getFailed());
+        status.setStartedAt(toOffsetDateTime(dto.getStartedAt()));
+        status.setCompletedAt(toOffsetDateTime(dto.getCompletedAt()));
+        status.setError(dto.getError());
+        return status;
+    }
+
     private ChoiceOptionResponse toApiChoiceOption(ChoiceOptionDto dto) {
         if (dto == null) {
             return null;
@@ -20,6 +20,7 @@ import com.edutest.service.attempt.AttemptRandomizationService;
 import com.edutest.service.codeexecution.AsyncCodeRunService;
 import com.edutest.service.codeexecution.CodeExecutionService;
 import com.edutest.service.codeexecution.CodeRunJobRegistry;
+import com.edutest.service.jobstore.InMemoryJobStateStore;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
@@ -38,6 +39,7 @@ import java.util.Optional;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -61,7 +63,7 @@ class AnswerSubmissionServiceRunCodeTest {
     @Mock private AsyncCodeRunService asyncCodeRunService;
 
     /** Use a real registry so the kicked-off job's PENDING state is observable. */
-    private CodeRunJobRegistry registry = new CodeRunJobRegistry();
+    private CodeRunJobRegistry registry = new CodeRunJobRegistry(new InMemoryJobStateStore(100, 0), event -> { });
 
     @InjectMocks
     private AnswerSubmissionService service;
@@ -74,7 +76,7 @@ class AnswerSubmissionServiceRunCodeTest {
 
     @BeforeEach
     void setUp() {
-        registry = new CodeRunJobRegistry();
+        registry = new CodeRunJobRegistry(new InMemoryJobStateStore(100, 0), event -> { });
         // Re-instantiate with the real registry (Mockito's @InjectMocks fills the rest with mocks)
         service = new AnswerSubmissionService(
                 testAttemptRepository, assignmentRepository, answerRepository, codeSubmissionRepository,
@@ -122,19 +124,21 @@ class AnswerSubmissionServiceRunCodeTest {
     class RunCodeTests {
 
         @Test
-        @DisplayName("Marks PENDING in registry, dispatches to async worker, returns PENDING status")
+        @DisplayName("Requests a run of the saved code and returns the PENDING status")
         void happyPath() {
             when(testAttemptRepository.findByIdAndTestId(10L, 1L)).thenReturn(Optional.of(attempt));
             when(assignmentRepository.findById(5L)).thenReturn(Optional.of(codingAssignment));
             when(codeSubmissionRepository.findByTestAttemptIdAndAssignmentId(10L, 5L))
                     .thenReturn(Optional.of(submission));
+            doAnswer(invocation -> registry.markPending(42L, 100L))
+                    .when(asyncCodeRunService).requestRun(42L, 100L, "python", "print(1)");
 
             RunStatusDto result = service.runCode(1L, 10L, 5L, 100L);
 
             assertThat(result.getStatus()).isEqualTo("PENDING");
             assertThat(result.getStartedAt()).isNotNull();
-            // Worker dispatched
-            verify(asyncCodeRunService).executeAsync(42L);
+            // Worker dispatched with the saved code
+            verify(asyncCodeRunService).requestRun(42L, 100L, "python", "print(1)");
             // Registry has PENDING for this submission
             assertThat(registry.getStatus(42L).getStatus()).isEqualTo("PENDING");
         }
@@ -146,7 +150,7 @@ class AnswerSubmissionServiceRunCodeTest {
 
             assertThatThrownBy(() -> service.runCode(1L, 10L, 5L, 100L))
                     .isInstanceOf(IllegalArgumentException.class);
-            verify(asyncCodeRunService, never()).executeAsync(any());
+            verify(asyncCodeRunService, never()).requestRun(any(), any(), any(), any());
         }
 
         @Test
@@ -159,7 +163,7 @@ class AnswerSubmissionServiceRunCodeTest {
 
             assertThatThrownBy(() -> service.runCode(1L, 10L, 5L, 100L))
                     .isInstanceOf(AccessDeniedException.class);
-            verify(asyncCodeRunService, never()).executeAsync(any());
+            verify(asyncCodeRunService, never()).requestRun(any(), any(), any(), any());
         }
 
         @Test
@@ -171,7 +175,7 @@ class AnswerSubmissionServiceRunCodeTest {
 
             assertThatThrownBy(() -> service.runCode(1L, 10L, 5L, 100L))
                     .isInstanceOf(IllegalStateException.class);
-            verify(asyncCodeRunService, never()).executeAsync(any());
+            verify(asyncCodeRunService, never()).requestRun(any(), any(), any(), any());
         }
 
         @Test
@@ -186,7 +190,7 @@ class AnswerSubmissionServiceRunCodeTest {
             assertThatThrownBy(() -> service.runCode(1L, 10L, 5L, 100L))
                     .isInstanceOf(IllegalArgumentException.class)
                     .hasMessageContaining("CODING");
-            verify(asyncCodeRunService, never()).executeAsync(any());
+            verify(asyncCodeRunService, never()).requestRun(any(), any(), any(), any());
         }
 
         @Test
@@ -200,7 +204,7 @@ class AnswerSubmissionServiceRunCodeTest {
             assertThatThrownBy(() -> service.runCode(1L, 10L, 5L, 100L))
                     .isInstanceOf(IllegalArgumentException.class)
                     .hasMessageContaining("Save your code first");
-            verify(asyncCodeRunService, never()).executeAsync(any());
+            verify(asyncCodeRunService, never()).requestRun(any(), any(), any(), any());
         }
     }
 
@@ -211,7 +215,7 @@ class AnswerSubmissionServiceRunCodeTest {
         @Test
         @DisplayName("Returns PENDING from registry while job is running")
         void returnsPending() {
-            registry.markPending(42L);
+            registry.markPending(42L, 100L);
             when(testAttemptRepository.findByIdAndTestId(10L, 1L)).thenReturn(Optional.of(attempt));
             when(assignmentRepository.findById(5L)).thenReturn(Optional.of(codingAssignment));
             when(codeSubmissionRepository.findByTestAttemptIdAndAssignmentId(10L, 5L))
@@ -230,8 +234,7 @@ class AnswerSubmissionServiceRunCodeTest {
                     .testCasesPassed(3)
                     .testCasesTotal(5)
                     .build();
-            registry.markPending(42L);
-            registry.markDone(42L, preview);
+            registry.markDone(registry.markPending(42L, 100L), preview);
 
             when(testAttemptRepository.findByIdAndTestId(10L, 1L)).thenReturn(Optional.of(attempt));
             when(assignmentRepository.findById(5L)).thenReturn(Optional.of(codingAssignment));
@@ -1,13 +1,19 @@
 package com.edutest.service.answer;
 
 import com.edutest.dto.TestSubmissionResultDto;
+import com.edutest.persistance.entity.assigment.coding.CodingAssignmentEntity;
 import com.edutest.persistance.entity.assigment.common.AssignmentAnswerEntity;
 import com.edutest.persistance.entity.assigment.singlechoice.SingleChoiceAnswerEntity;
 import com.edutest.persistance.entity.assigment.singlechoice.SingleChoiceAssignmentEntityEntity;
+import com.edutest.persistance.entity.code.CodeSubmissionEntity;
+import com.edutest.persistance.entity.code.ExecutionStatusEnum;
 import com.edutest.persistance.entity.test.TestAttemptEntity;
 import com.edutest.persistance.entity.test.TestEntity;
 import com.edutest.persistance.entity.user.UserEntity;
 import com.edutest.persistance.repository.*;
+import com.edutest.service.codeexecution.CodeExecutionService;
+import com.edutest.service.codeexecution.ExecutionPriority;
+import com.edutest.service.codeexecution.InlineCodeExecutionScheduler;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
@@ -15,18 +21,25 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.mockito.junit.jupiter.MockitoSettings;
 import org.mockito.quality.Strictness;
 import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.access.AccessDeniedException;
+import org.springframework.transaction.PlatformTransactionManager;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -48,6 +61,15 @@ class TestSubmissionServiceTest {
     @Mock
     private ApplicationEventPublisher eventPublisher;
 
+    @Mock
+    private CodeExecutionService codeExecutionService;
+
+    @Spy
+    private InlineCodeExecutionScheduler scheduler = new InlineCodeExecutionScheduler();
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
     @InjectMocks
     private TestSubmissionService testSubmissionService;
 
@@ -174,6 +196,94 @@ class TestSubmissionServiceTest {
         }
     }
 
+    @Nested
+    @DisplayName("CODING grading tests")
+    class CodingGradingTests {
+
+        private final Map<Long, CodeSubmissionEntity> stored = new HashMap<>();
+
+        @Test
+        @DisplayName("Runs all not-yet-executed submissions in one SUBMIT fan-out and saves them")
+        void fansOutPendingSubmissions() {
+            CodeSubmissionEntity first = codeSubmission(1L, null);
+            CodeSubmissionEntity second = codeSubmission(2L, ExecutionStatusEnum.NOT_EXECUTED);
+            CodeSubmissionEntity alreadyRun = codeSubmission(3L, ExecutionStatusEnum.SUCCESS);
+            setupSuccessfulSubmission(List.of());
+            when(codeSubmissionRepository.findByTestAttemptId(10L)).thenReturn(List.of(first, second, alreadyRun));
+
+            testSubmissionService.submitTestAttempt(1L, 10L, 100L);
+
+            verify(scheduler).invokeAll(eq(ExecutionPriority.SUBMIT), eq(100L), argThat(tasks -> tasks.size() == 2));
+            verify(codeExecutionService).executeAndPersist(first);
+            verify(codeExecutionService).executeAndPersist(second);
+            verify(codeExecutionService, never()).executeAndPersist(alreadyRun);
+            verify(codeSubmissionRepository).save(stored.get(1L));
+            verify(codeSubmissionRepository).save(stored.get(2L));
+            verify(codeSubmissionRepository, never()).save(stored.get(3L));
+        }
+
+        @Test
+        @DisplayName("Saves only the execution result onto the submission as it is now, not the copy that ran")
+        void copiesOnlyExecutionResult() {
+            CodeSubmissionEntity submission = codeSubmission(1L, null);
+            setupSuccessfulSubmission(List.of());
+            when(codeSubmissionRepository.findByTestAttemptId(10L)).thenReturn(List.of(submission));
+            doAnswer(inv -> {
+                CodeSubmissionEntity running = inv.getArgument(0);
+                running.setExecutionStatus(ExecutionStatusEnum.SUCCESS);
+                running.setTotalScore(4f);
+                // Changed in the database while the code ran.
+                stored.get(1L).setTeacherFeedback("Nice loop");
+                return null;
+            }).when(codeExecutionService).executeAndPersist(submission);
+
+            testSubmissionService.submitTestAttempt(1L, 10L, 100L);
+
+            CodeSubmissionEntity saved = stored.get(1L);
+            verify(codeSubmissionRepository).save(saved);
+            verify(codeSubmissionRepository, never()).save(submission);
+            assertThat(saved.getExecutionStatus()).isEqualTo(ExecutionStatusEnum.SUCCESS);
+            assertThat(saved.getTotalScore()).isEqualTo(4f);
+            assertThat(saved.getTeacherFeedback()).isEqualTo("Nice loop");
+        }
+
+        @Test
+        @DisplayName("A failed execution is left ungraded; the attempt still finishes")
+        void failedExecutionDoesNotBlockSubmit() {
+            CodeSubmissionEntity broken = codeSubmission(1L, null);
+            CodeSubmissionEntity fine = codeSubmission(2L, null);
+            setupSuccessfulSubmission(List.of());
+            when(codeSubmissionRepository.findByTestAttemptId(10L)).thenReturn(List.of(broken, fine));
+            doThrow(new RuntimeException("Docker down")).when(codeExecutionService).executeAndPersist(broken);
+
+            testSubmissionService.submitTestAttempt(1L, 10L, 100L);
+
+            verify(codeSubmissionRepository, never()).save(stored.get(1L));
+            verify(codeSubmissionRepository).save(stored.get(2L));
+            assertThat(attemptEntity.getFinishedAt()).isNotNull();
+        }
+
+        /** The copy loaded for the run; the row itself is a separate instance returned by findById. */
+        private CodeSubmissionEntity codeSubmission(Long id, ExecutionStatusEnum status) {
+            CodingAssignmentEntity assignment = new CodingAssignmentEntity();
+            assignment.setTestCases(new ArrayList<>());
+            CodeSubmissionEntity row = CodeSubmissionEntity.builder()
+                    .assignment(assignment)
+                    .executionStatus(status)
+                    .build();
+            row.setId(id);
+            stored.put(id, row);
+            when(codeSubmissionRepository.findById(id)).thenReturn(Optional.of(row));
+
+            CodeSubmissionEntity loaded = CodeSubmissionEntity.builder()
+                    .assignment(assignment)
+                    .executionStatus(status)
+                    .build();
+            loaded.setId(id);
+            return loaded;
+        }
+    }
+
     @Nested
     @DisplayName("Score calculation tests")
     class ScoreCalculationTests {
@@ -1,25 +1,38 @@
 package com.edutest.service.codeexecution;
 
 import com.edutest.dto.AnswerDto;
+import com.edutest.dto.RunStatusDto;
+import com.edutest.dto.TestCaseResultDto;
 import com.edutest.persistance.entity.assigment.coding.CodingAssignmentEntity;
 import com.edutest.persistance.entity.assigment.coding.TestCaseEntity;
 import com.edutest.persistance.entity.code.CodeSubmissionEntity;
 import com.edutest.persistance.repository.CodeSubmissionJpaRepository;
+import com.edutest.service.jobstore.InMemoryJobStateStore;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
+import org.mockito.InOrder;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
 
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Deque;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.inOrder;
 import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -32,16 +45,22 @@ class AsyncCodeRunServiceTest {
     @Mock
     private CodeSubmissionJpaRepository submissionRepository;
 
-    @InjectMocks
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
     private AsyncCodeRunService asyncCodeRunService;
 
     private CodeRunJobRegistry registry;
 
+    private InlineCodeExecutionScheduler inline;
+
     @BeforeEach
     void setUp() {
         // Use real registry — its behavior is exercised through this service
-        registry = new CodeRunJobRegistry();
-        asyncCodeRunService = new AsyncCodeRunService(codeExecutionService, submissionRepository, registry);
+        registry = new CodeRunJobRegistry(new InMemoryJobStateStore(100, 0), event -> { });
+        inline = new InlineCodeExecutionScheduler();
+        asyncCodeRunService = new AsyncCodeRunService(
+                codeExecutionService, submissionRepository, registry, inline, transactionManager);
     }
 
     @Test
@@ -65,13 +84,58 @@ class AsyncCodeRunServiceTest {
                 .build();
 
         when(submissionRepository.findById(42L)).thenReturn(Optional.of(submission));
-        when(codeExecutionService.runPreview(submission)).thenReturn(preview);
+        when(codeExecutionService.runPreview(eq(submission), any())).thenReturn(preview);
 
-        registry.markPending(42L);
-        asyncCodeRunService.executeAsync(42L);
+        asyncCodeRunService.requestRun(42L, 100L, "python", "print(1)");
 
         assertThat(registry.getStatus(42L).getStatus()).isEqualTo("DONE");
         assertThat(registry.getStatus(42L).getResult()).isSameAs(preview);
+        assertThat(inline.lastPriority()).isEqualTo(ExecutionPriority.PREVIEW);
+    }
+
+    @Test
+    @DisplayName("Test cases finished mid-run are visible in the PENDING status")
+    void progressIsRecorded() {
+        CodingAssignmentEntity assignment = new CodingAssignmentEntity();
+        assignment.setTestCases(new ArrayList<>());
+        CodeSubmissionEntity submission = CodeSubmissionEntity.builder().assignment(assignment).build();
+        setId(submission, 43L);
+        List<RunStatusDto> seen = new ArrayList<>();
+
+        when(submissionRepository.findById(43L)).thenReturn(Optional.of(submission));
+        when(codeExecutionService.runPreview(eq(submission), any())).thenAnswer(invocation -> {
+            Consumer<AnswerDto> progress = invocation.getArgument(1);
+            progress.accept(AnswerDto.builder()
+                    .testCaseResults(List.of(TestCaseResultDto.builder().testCaseId(1L).passed(false).build()))
+                    .testCasesTotal(2)
+                    .build());
+            seen.add(registry.getStatus(43L));
+            return AnswerDto.builder().id(43L).build();
+        });
+
+        asyncCodeRunService.requestRun(43L, 100L, "python", "print(1)");
+
+        assertThat(seen).singleElement().satisfies(status -> {
+            assertThat(status.getStatus()).isEqualTo("PENDING");
+            assertThat(status.getTestCasesCompleted()).isEqualTo(1);
+            assertThat(status.getTestCasesTotal()).isEqualTo(2);
+        });
+        assertThat(registry.getStatus(43L).getStatus()).isEqualTo("DONE");
+    }
+
+    @Test
+    @DisplayName("The read-only transaction is committed before the sandbox run starts")
+    void runsOutsideTheReadTransaction() {
+        CodeSubmissionEntity submission = submission(44L);
+        when(submissionRepository.findById(44L)).thenReturn(Optional.of(submission));
+        when(codeExecutionService.runPreview(eq(submission), any())).thenReturn(AnswerDto.builder().id(44L).build());
+
+        asyncCodeRunService.requestRun(44L, 100L, "python", "print(1)");
+
+        InOrder inOrder = inOrder(transactionManager, codeExecutionService);
+        inOrder.verify(transactionManager).commit(any());
+        inOrder.verify(codeExecutionService).runPreview(eq(submission), any());
+        assertThat(registry.getStatus(44L).getStatus()).isEqualTo("DONE");
     }
 
     @Test
@@ -79,12 +143,11 @@ class AsyncCodeRunServiceTest {
     void submissionNotFound() {
         when(submissionRepository.findById(99L)).thenReturn(Optional.empty());
 
-        registry.markPending(99L);
-        asyncCodeRunService.executeAsync(99L);
+        asyncCodeRunService.requestRun(99L, 100L, "python", "print(1)");
 
         assertThat(registry.getStatus(99L).getStatus()).isEqualTo("FAILED");
         assertThat(registry.getStatus(99L).getError()).contains("Submission not found");
-        verify(codeExecutionService, never()).runPreview(any());
+        verify(codeExecutionService, never()).runPreview(any(), any());
     }
 
     @Test
@@ -98,11 +161,10 @@ class AsyncCodeRunServiceTest {
         setId(submission, 7L);
 
         when(submissionRepository.findById(7L)).thenReturn(Optional.of(submission));
-        when(codeExecutionService.runPreview(submission))
+        when(codeExecutionService.runPreview(eq(submission), any()))
                 .thenThrow(new RuntimeException("Image pull failed"));
 
-        registry.markPending(7L);
-        asyncCodeRunService.executeAsync(7L);
+        asyncCodeRunService.requestRun(7L, 100L, "python", "print(1)");
 
         assertThat(registry.getStatus(7L).getStatus()).isEqualTo("FAILED");
         assertThat(registry.getStatus(7L).getError()).isEqualTo("Image pull failed");
@@ -117,16 +179,127 @@ class AsyncCodeRunServiceTest {
         setId(submission, 8L);
 
         when(submissionRepository.findById(8L)).thenReturn(Optional.of(submission));
-        when(codeExecutionService.runPreview(submission))
+        when(codeExecutionService.runPreview(eq(submission), any()))
                 .thenThrow(new RuntimeException((String) null));
 
-        registry.markPending(8L);
-        asyncCodeRunService.executeAsync(8L);
+        asyncCodeRunService.requestRun(8L, 100L, "python", "print(1)");
 
         assertThat(registry.getStatus(8L).getStatus()).isEqualTo("FAILED");
         assertThat(registry.getStatus(8L).getError()).isEqualTo("Unknown execution error");
     }
 
+    @Test
+    @DisplayName("Full scheduler queue → marks FAILED and rethrows to the request thread")
+    void queueFull() {
+        CodeExecutionScheduler full = new InlineCodeExecutionScheduler() {
+            @Override
+            public <T> CompletableFuture<T> submit(ExecutionPriority priority, Long studentId, Callable<T> task) {
+                throw new ExecutionQueueFullException(priority, "Too many code executions queued", 5);
+            }
+        };
+        asyncCodeRunService = new AsyncCodeRunService(
+                codeExecutionService, submissionRepository, registry, full, transactionManager);
+
+        assertThatThrownBy(() -> asyncCodeRunService.requestRun(9L, 100L, "python", "print(1)"))
+                .isInstanceOf(ExecutionQueueFullException.class);
+        assertThat(registry.getStatus(9L).getStatus()).isEqualTo("FAILED");
+        verify(submissionRepository, never()).findById(any());
+    }
+
+    @Test
+    @DisplayName("Asking again for the same code joins the run in flight; other code cancels it")
+    void coalescesAndCancelsQueuedRuns() {
+        HeldCodeExecutionScheduler held = new HeldCodeExecutionScheduler();
+        asyncCodeRunService = new AsyncCodeRunService(
+                codeExecutionService, submissionRepository, registry, held, transactionManager);
+        CodeSubmissionEntity submission = submission(11L);
+        AnswerDto preview = AnswerDto.builder().id(11L).build();
+        when(submissionRepository.findById(11L)).thenReturn(Optional.of(submission));
+        when(codeExecutionService.runPreview(eq(submission), any())).thenReturn(preview);
+
+        asyncCodeRunService.requestRun(11L, 100L, "python", "print(1)");
+        asyncCodeRunService.requestRun(11L, 100L, "python", "print(1)");
+        assertThat(held.futures).hasSize(1);
+
+        asyncCodeRunService.requestRun(11L, 100L, "python", "print(2)");
+        assertThat(held.futures).hasSize(2);
+        assertThat(held.futures.get(0)).isCancelled();
+
+        held.runAll();
+
+        verify(codeExecutionService, times(1)).runPreview(eq(submission), any());
+        assertThat(registry.getStatus(11L).getResult()).isSameAs(preview);
+
+        // Nothing in flight any more: the same code runs again
+        asyncCodeRunService.requestRun(11L, 100L, "python", "print(2)");
+        assertThat(held.futures).hasSize(3);
+    }
+
+    @Test
+    @DisplayName("A running run is interrupted when the code changes and its result is dropped")
+    void interruptsRunningRun() {
+        HeldCodeExecutionScheduler held = new HeldCodeExecutionScheduler();
+        asyncCodeRunService = new AsyncCodeRunService(
+                codeExecutionService, submissionRepository, registry, held, transactionManager);
+        CodeSubmissionEntity submission = submission(12L);
+        List<Boolean> interrupted = new ArrayList<>();
+        when(submissionRepository.findById(12L)).thenReturn(Optional.of(submission));
+        when(codeExecutionService.runPreview(eq(submission), any())).thenAnswer(invocation -> {
+            // The student edits the code and clicks again while this run is going
+            asyncCodeRunService.requestRun(12L, 100L, "python", "print(2)");
+            interrupted.add(Thread.currentThread().isInterrupted());
+            return AnswerDto.builder().id(12L).build();
+        });
+
+        asyncCodeRunService.requestRun(12L, 100L, "python", "print(1)");
+        held.runNext();
+
+        assertThat(interrupted).containsExactly(true);
+        assertThat(Thread.currentThread().isInterrupted()).isFalse();
+        assertThat(registry.getStatus(12L).getStatus()).isEqualTo("PENDING");
+        assertThat(held.futures).hasSize(2);
+    }
+
+    private static CodeSubmissionEntity submission(Long id) {
+        CodingAssignmentEntity assignment = new CodingAssignmentEntity();
+        assignment.setTestCases(new ArrayList<>());
+        CodeSubmissionEntity submission = CodeSubmissionEntity.builder().assignment(assignment).build();
+        setId(submission, id);
+        return submission;
+    }
+
+    /** Queues tasks until the test runs them, like a scheduler with every slot busy. */
+    private static class HeldCodeExecutionScheduler extends InlineCodeExecutionScheduler {
+        private final List<CompletableFuture<?>> futures = new ArrayList<>();
+        private final Deque<Runnable> queued = new ArrayDeque<>();
+
+        @Override
+        public <T> CompletableFuture<T> submit(ExecutionPriority priority, Long studentId, Callable<T> task) {
+            CompletableFuture<T> future = new CompletableFuture<>();
+            futures.add(future);
+            queued.add(() -> {
+                if (!future.isCancelled()) {
+                    try {
+                        future.complete(task.call());
+                    } catch (Exception e) {
+                        future.completeExceptionally(e);
+                    }
+                }
+            });
+            return future;
+        }
+
+        void runNext() {
+            queued.poll().run();
+        }
+
+        void runAll() {
+            while (!queued.isEmpty()) {
+                runNext();
+            }
+        }
+    }
+
     /** Sets the inherited BaseEntity id via reflection (constructor doesn't allow it). */
     private static void setId(Object entity, Long id) {
         try {
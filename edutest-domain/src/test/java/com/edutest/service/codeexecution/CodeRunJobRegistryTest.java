@@ -2,12 +2,27 @@ package com.edutest.service.codeexecution;
 
 import com.edutest.dto.AnswerDto;
 import com.edutest.dto.RunStatusDto;
+import com.edutest.dto.TestCaseResultDto;
+import com.edutest.event.RunStatusChangedEvent;
+import com.edutest.service.codeexecution.CodeRunJobRegistry.RunJob;
+import com.edutest.service.jobstore.InMemoryJobStateStore;
+import com.edutest.service.jobstore.JobRecord;
+import com.edutest.service.jobstore.JobStateStore;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
 
 class CodeRunJobRegistryTest {
 
@@ -15,7 +30,7 @@ class CodeRunJobRegistryTest {
 
     @BeforeEach
     void setUp() {
-        registry = new CodeRunJobRegistry();
+        registry = new CodeRunJobRegistry(new InMemoryJobStateStore(100, 0), event -> { });
     }
 
     @Nested
@@ -46,7 +61,7 @@ class CodeRunJobRegistryTest {
         @Test
         @DisplayName("markPending sets status to PENDING")
         void pendingSetsStatus() {
-            registry.markPending(1L);
+            registry.markPending(1L, 100L);
 
             RunStatusDto status = registry.getStatus(1L);
             assertThat(status.getStatus()).isEqualTo("PENDING");
@@ -58,7 +73,7 @@ class CodeRunJobRegistryTest {
         @Test
         @DisplayName("PENDING → DONE preserves startedAt and adds result + completedAt")
         void pendingThenDone() {
-            registry.markPending(1L);
+            RunJob job = registry.markPending(1L, 100L);
             RunStatusDto pending = registry.getStatus(1L);
 
             AnswerDto result = AnswerDto.builder()
@@ -66,7 +81,7 @@ class CodeRunJobRegistryTest {
                     .testCasesPassed(3)
                     .testCasesTotal(5)
                     .build();
-            registry.markDone(1L, result);
+            registry.markDone(job, result);
 
             RunStatusDto done = registry.getStatus(1L);
             assertThat(done.getStatus()).isEqualTo("DONE");
@@ -79,9 +94,9 @@ class CodeRunJobRegistryTest {
         @Test
         @DisplayName("PENDING → FAILED sets error message and clears result")
         void pendingThenFailed() {
-            registry.markPending(2L);
+            RunJob job = registry.markPending(2L, 100L);
 
-            registry.markFailed(2L, "Docker daemon unreachable");
+            registry.markFailed(job, "Docker daemon unreachable");
 
             RunStatusDto failed = registry.getStatus(2L);
             assertThat(failed.getStatus()).isEqualTo("FAILED");
@@ -93,11 +108,10 @@ class CodeRunJobRegistryTest {
         @Test
         @DisplayName("markPending replaces an existing job (last-click-wins)")
         void pendingReplacesExisting() {
-            registry.markPending(3L);
-            registry.markDone(3L, AnswerDto.builder().id(3L).build());
+            registry.markDone(registry.markPending(3L, 100L), AnswerDto.builder().id(3L).build());
 
             // New click — should clear DONE and go back to PENDING
-            registry.markPending(3L);
+            registry.markPending(3L, 100L);
 
             RunStatusDto status = registry.getStatus(3L);
             assertThat(status.getStatus()).isEqualTo("PENDING");
@@ -105,11 +119,53 @@ class CodeRunJobRegistryTest {
             assertThat(status.getCompletedAt()).isNull();
         }
 
+        @Test
+        @DisplayName("A superseded run can't update the job of the run that replaced it")
+        void staleRunIgnored() {
+            RunJob first = registry.markPending(3L, 100L);
+            RunJob second = registry.markPending(3L, 100L);
+
+            registry.markProgress(first, AnswerDto.builder().testCaseResults(List.of()).build());
+            registry.markDone(first, AnswerDto.builder().id(1L).build());
+            registry.markFailed(first, "cancelled");
+
+            RunStatusDto status = registry.getStatus(3L);
+            assertThat(status.getStatus()).isEqualTo("PENDING");
+            assertThat(status.getPartialResults()).isNull();
+
+            registry.markDone(second, AnswerDto.builder().id(2L).build());
+            assertThat(registry.getStatus(3L).getResult().getId()).isEqualTo(2L);
+        }
+
+        @Test
+        @DisplayName("Progress of a PENDING run shows the finished test cases; the final result replaces it")
+        void progressWhilePending() {
+            RunJob job = registry.markPending(4L, 100L);
+            TestCaseResultDto first = TestCaseResultDto.builder().testCaseId(1L).passed(true).executionTimeMs(12L).build();
+
+            registry.markProgress(job, AnswerDto.builder().testCaseResults(List.of(first)).testCasesTotal(3).build());
+
+            RunStatusDto pending = registry.getStatus(4L);
+            assertThat(pending.getStatus()).isEqualTo("PENDING");
+            assertThat(pending.getTestCasesCompleted()).isEqualTo(1);
+            assertThat(pending.getTestCasesTotal()).isEqualTo(3);
+            assertThat(pending.getPartialResults()).containsExactly(first);
+            assertThat(pending.getResult()).isNull();
+
+            AnswerDto result = AnswerDto.builder().id(4L).build();
+            registry.markDone(job, result);
+            registry.markProgress(job, AnswerDto.builder().testCaseResults(List.of(first)).build());
+
+            RunStatusDto done = registry.getStatus(4L);
+            assertThat(done.getResult()).isSameAs(result);
+            assertThat(done.getPartialResults()).isNull();
+        }
+
         @Test
         @DisplayName("markDone is no-op when no PENDING entry exists (avoids stale leak)")
         void markDoneWithoutPendingNoOp() {
             // Worker completes after job was evicted — must not resurrect it
-            registry.markDone(99L, AnswerDto.builder().id(99L).build());
+            registry.markDone(new RunJob(99L, 1L), AnswerDto.builder().id(99L).build());
 
             assertThat(registry.getStatus(99L).getStatus()).isEqualTo("NONE");
         }
@@ -117,7 +173,7 @@ class CodeRunJobRegistryTest {
         @Test
         @DisplayName("markFailed is no-op when no PENDING entry exists")
         void markFailedWithoutPendingNoOp() {
-            registry.markFailed(99L, "boom");
+            registry.markFailed(new RunJob(99L, 1L), "boom");
 
             assertThat(registry.getStatus(99L).getStatus()).isEqualTo("NONE");
         }
@@ -130,11 +186,11 @@ class CodeRunJobRegistryTest {
         @Test
         @DisplayName("Different submission IDs maintain independent state")
         void independentJobs() {
-            registry.markPending(10L);
-            registry.markPending(20L);
+            RunJob ten = registry.markPending(10L, 100L);
+            RunJob twenty = registry.markPending(20L, 100L);
 
-            registry.markDone(10L, AnswerDto.builder().id(10L).testCasesPassed(2).build());
-            registry.markFailed(20L, "Compile error");
+            registry.markDone(ten, AnswerDto.builder().id(10L).testCasesPassed(2).build());
+            registry.markFailed(twenty, "Compile error");
 
             assertThat(registry.getStatus(10L).getStatus()).isEqualTo("DONE");
             assertThat(registry.getStatus(10L).getResult().getTestCasesPassed()).isEqualTo(2);
@@ -143,4 +199,40 @@ class CodeRunJobRegistryTest {
             assertThat(registry.getStatus(20L).getError()).isEqualTo("Compile error");
         }
     }
+
+    @Nested
+    @DisplayName("Status change events")
+    class EventTests {
+
+        @Test
+        @DisplayName("Every transition publishes a RunStatusChangedEvent for the submission")
+        void publishesTransitions() {
+            List<Object> events = new ArrayList<>();
+            CodeRunJobRegistry publishing = new CodeRunJobRegistry(new InMemoryJobStateStore(100, 0), events::add);
+
+            publishing.markFailed(publishing.markPending(4L, 100L), "boom");
+
+            assertThat(events).containsExactly(new RunStatusChangedEvent(4L), new RunStatusChangedEvent(4L));
+        }
+    }
+
+    @Nested
+    @DisplayName("Orphan recovery")
+    class OrphanTests {
+
+        @Test
+        @DisplayName("An orphaned run is handed back with the student it was queued for")
+        @SuppressWarnings("unchecked")
+        void orphanCarriesStudent() {
+            JobStateStore store = mock(JobStateStore.class);
+            List<CodeRunJobRegistry.Orphan> restarted = new ArrayList<>();
+            new CodeRunJobRegistry(store, event -> { }).onOrphaned(restarted::add);
+
+            ArgumentCaptor<BiConsumer<Long, JobRecord<AnswerDto>>> handler = ArgumentCaptor.forClass(BiConsumer.class);
+            verify(store).onOrphaned(eq(CodeRunJobRegistry.KIND), handler.capture());
+            handler.getValue().accept(5L, JobRecord.pending(Map.of("studentId", 100L, "runId", 7L)));
+
+            assertThat(restarted).containsExactly(new CodeRunJobRegistry.Orphan(new RunJob(5L, 7L), 100L));
+        }
+    }
 }
@@ -0,0 +1,44 @@
+package com.edutest.service.codeexecution;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Test double of {@link CodeExecutionScheduler}: runs every task on the calling thread
+ * and remembers the priority of the last call.
+ */
+public class InlineCodeExecutionScheduler implements CodeExecutionScheduler {
+
+    private ExecutionPriority lastPriority;
+
+    @Override
+    public <T> CompletableFuture<T> submit(ExecutionPriority priority, Long studentId, Callable<T> task) {
+        lastPriority = priority;
+        return run(task);
+    }
+
+    @Override
+    public <T> List<CompletableFuture<T>> invokeAll(ExecutionPriority priority, Long studentId,
+                                                   List<Callable<T>> tasks) {
+        lastPriority = priority;
+        List<CompletableFuture<T>> futures = new ArrayList<>();
+        for (Callable<T> task : tasks) {
+            futures.add(run(task));
+        }
+        return futures;
+    }
+
+    public ExecutionPriority lastPriority() {
+        return lastPriority;
+    }
+
+    private static <T> CompletableFuture<T> run(Callable<T> task) {
+        try {
+            return CompletableFuture.completedFuture(task.call());
+        } catch (Exception e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.edutest.service.jobstore;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class InMemoryJobStateStoreTest {
+
+    private static final JobKind<String> KIND =
+            new JobKind<>("test", String.class, Duration.ofMinutes(3), Duration.ofMinutes(5));
+    private static final JobKind<String> OTHER =
+            new JobKind<>("other", String.class, Duration.ofMinutes(3), Duration.ofMinutes(5));
+
+    @Test
+    @DisplayName("Jobs of different kinds with the same ID are kept apart")
+    void kindsAreSeparate() {
+        InMemoryJobStateStore store = new InMemoryJobStateStore(100, 0);
+
+        store.put(KIND, 1L, JobRecord.<String>pending(Map.of()).done("a"));
+        store.put(OTHER, 1L, JobRecord.pending(Map.of("studentId", 7L)));
+
+        assertThat(store.get(KIND, 1L)).get().extracting(JobRecord::result).isEqualTo("a");
+        assertThat(store.get(OTHER, 1L)).get().extracting(job -> job.context().get("studentId")).isEqualTo(7L);
+    }
+
+    @Test
+    @DisplayName("Expired jobs read as absent, can't be updated and are evicted without being read")
+    void expiry() {
+        InMemoryJobStateStore later = new InMemoryJobStateStore(100, 0,
+                Clock.offset(Clock.systemDefaultZone(), Duration.ofMinutes(4)));
+
+        later.put(KIND, 1L, JobRecord.pending(Map.of()));
+        later.put(KIND, 2L, JobRecord.<String>pending(Map.of()).done("fresh"));
+        later.update(KIND, 1L, job -> job.done("late"));
+
+        assertThat(later.get(KIND, 1L)).isEmpty();
+        assertThat(later.get(KIND, 2L)).isPresent();
+        later.put(KIND, 3L, JobRecord.pending(Map.of()));
+        assertThat(later.evictExpired()).isEqualTo(1);
+        assertThat(later.size()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Over the cap, finished jobs closest to expiry are dropped and PENDING ones kept")
+    void cap() {
+        InMemoryJobStateStore store = new InMemoryJobStateStore(10, 0);
+        LocalDateTime now = LocalDateTime.now();
+        for (long id = 0; id < 5; id++) {
+            store.put(KIND, id, JobRecord.pending(Map.of()));
+        }
+        for (long id = 5; id <= 10; id++) {
+            store.put(KIND, id, new JobRecord<>(JobRecord.Status.DONE, now, now.plusSeconds(id), "r", null, null));
+        }
+
+        assertThat(store.size()).isEqualTo(9);
+        for (long id = 0; id < 5; id++) {
+            assertThat(store.get(KIND, id)).isPresent();
+        }
+        assertThat(store.get(KIND, 5L)).isEmpty();
+        assertThat(store.get(KIND, 6L)).isEmpty();
+        assertThat(store.get(KIND, 10L)).isPresent();
+    }
+}
@@ -0,0 +1,274 @@
+package com.edutest.service.teacher;
+
+import com.edutest.dto.RegradeStatusDto;
+import com.edutest.event.AnswerGradedEvent;
+import com.edutest.persistance.entity.assigment.coding.CodingAssignmentEntity;
+import com.edutest.persistance.entity.assigment.openquestion.OpenQuestionAssignmentEntityEntity;
+import com.edutest.persistance.entity.code.CodeSubmissionEntity;
+import com.edutest.persistance.entity.code.ExecutionStatusEnum;
+import com.edutest.persistance.entity.test.TestAttemptEntity;
+import com.edutest.persistance.entity.test.TestCaseResultEntity;
+import com.edutest.persistance.entity.test.TestEntity;
+import com.edutest.persistance.entity.user.UserEntity;
+import com.edutest.persistance.repository.AssignmentAnswerJpaRepository;
+import com.edutest.persistance.repository.AssignmentJpaRepository;
+import com.edutest.persistance.repository.CodeSubmissionJpaRepository;
+import com.edutest.persistance.repository.TestAttemptJpaRepository;
+import com.edutest.service.codeexecution.CodeExecutionService;
+import com.edutest.service.codeexecution.ExecutionPriority;
+import com.edutest.service.codeexecution.InlineCodeExecutionScheduler;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.AdditionalAnswers.returnsFirstArg;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class AssignmentRegradeServiceTest {
+
+    @Mock
+    private AssignmentJpaRepository assignmentRepository;
+
+    @Mock
+    private CodeSubmissionJpaRepository codeSubmissionRepository;
+
+    @Mock
+    private AssignmentAnswerJpaRepository answerRepository;
+
+    @Mock
+    private TestAttemptJpaRepository testAttemptRepository;
+
+    @Mock
+    private CodeExecutionService codeExecutionService;
+
+    @Spy
+    private InlineCodeExecutionScheduler scheduler = new InlineCodeExecutionScheduler();
+
+    @Spy
+    private RegradeJobRegistry registry = new RegradeJobRegistry();
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @InjectMocks
+    private AssignmentRegradeService regradeService;
+
+    private CodingAssignmentEntity assignment;
+    private final Map<Long, CodeSubmissionEntity> submissions = new HashMap<>();
+    /** What the write transaction re-loads: separate instances, as from a new persistence context. */
+    private final Map<Long, CodeSubmissionEntity> stored = new HashMap<>();
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(regradeService, "batchSize", 2);
+
+        TestEntity test = new TestEntity();
+        test.setId(1L);
+        assignment = new CodingAssignmentEntity();
+        assignment.setId(5L);
+        assignment.setTestEntity(test);
+        assignment.setTestCases(new ArrayList<>());
+        when(assignmentRepository.findById(5L)).thenReturn(Optional.of(assignment));
+
+        for (long id = 1; id <= 3; id++) {
+            CodeSubmissionEntity submission = submission(id);
+            submissions.put(id, submission);
+            stored.put(id, copyOf(submission));
+        }
+        when(codeSubmissionRepository.findById(anyLong()))
+                .thenAnswer(inv -> Optional.ofNullable(stored.get(inv.<Long>getArgument(0))));
+        when(codeSubmissionRepository.countFinishedByAssignmentId(5L)).thenReturn(3L);
+        when(codeSubmissionRepository.findFinishedIdsByAssignmentIdAfter(eq(5L), anyLong(), any(Pageable.class)))
+                .thenAnswer(inv -> {
+                    long afterId = inv.getArgument(1);
+                    int limit = inv.<Pageable>getArgument(2).getPageSize();
+                    return submissions.keySet().stream().sorted()
+                            .filter(id -> id > afterId).limit(limit).toList();
+                });
+        when(codeSubmissionRepository.findAllById(any())).thenAnswer(inv -> {
+            List<CodeSubmissionEntity> found = new ArrayList<>();
+            for (Long id : inv.<Iterable<Long>>getArgument(0)) {
+                found.add(submissions.get(id));
+            }
+            return found;
+        });
+        when(codeSubmissionRepository.save(any())).thenAnswer(returnsFirstArg());
+        when(codeSubmissionRepository.sumScoresByTestAttemptId(anyLong())).thenReturn(4f);
+        when(answerRepository.sumScoresByTestAttemptId(anyLong())).thenReturn(6f);
+        doAnswer(inv -> {
+            CodeSubmissionEntity submission = inv.getArgument(0);
+            submission.setExecutionStatus(ExecutionStatusEnum.SUCCESS);
+            submission.setTotalScore(4f);
+            return null;
+        }).when(codeExecutionService).executeAndPersist(any());
+    }
+
+    @Test
+    @DisplayName("Walks all submissions in batches at TEACHER_RERUN priority and rescores their attempts")
+    void regradesAllSubmissions() {
+        RegradeStatusDto status = regradeService.startRegrade(1L, 5L);
+
+        assertThat(status.getStatus()).isEqualTo("DONE");
+        assertThat(status.getTotal()).isEqualTo(3);
+        assertThat(status.getProcessed()).isEqualTo(3);
+        assertThat(status.getFailed()).isZero();
+        assertThat(scheduler.lastPriority()).isEqualTo(ExecutionPriority.TEACHER_RERUN);
+        verify(codeSubmissionRepository).findFinishedIdsByAssignmentIdAfter(eq(5L), eq(0L), any());
+        verify(codeSubmissionRepository).findFinishedIdsByAssignmentIdAfter(eq(5L), eq(2L), any());
+        verify(codeSubmissionRepository).findFinishedIdsByAssignmentIdAfter(eq(5L), eq(3L), any());
+        verify(codeSubmissionRepository, times(3)).save(any());
+        assertThat(stored.values()).allSatisfy(s -> assertThat(s.getExecutionStatus()).isEqualTo(ExecutionStatusEnum.SUCCESS));
+        assertThat(submissions.get(1L).getTestAttempt().getScore()).isEqualTo(10f);
+        verify(eventPublisher).publishEvent(new AnswerGradedEvent(101L, 1L, 201L, 5L));
+    }
+
+    @Test
+    @DisplayName("A run ending in SYSTEM_ERROR keeps the previous result and counts as failed")
+    void systemErrorKeepsPreviousResult() {
+        doAnswer(inv -> {
+            CodeSubmissionEntity submission = inv.getArgument(0);
+            submission.setExecutionStatus(submission.getId() == 2L
+                    ? ExecutionStatusEnum.SYSTEM_ERROR : ExecutionStatusEnum.SUCCESS);
+            return null;
+        }).when(codeExecutionService).executeAndPersist(any());
+
+        RegradeStatusDto status = regradeService.startRegrade(1L, 5L);
+
+        assertThat(status.getStatus()).isEqualTo("DONE");
+        assertThat(status.getProcessed()).isEqualTo(3);
+        assertThat(status.getFailed()).isEqualTo(1);
+        verify(codeSubmissionRepository, never()).save(stored.get(2L));
+        verify(codeSubmissionRepository).save(stored.get(3L));
+        assertThat(stored.get(2L).getExecutionStatus()).isEqualTo(ExecutionStatusEnum.RUNTIME_ERROR);
+    }
+
+    @Test
+    @DisplayName("Cancelling stops the job before the next submission")
+    void cancelStopsJob() {
+        doAnswer(inv -> {
+            inv.<CodeSubmissionEntity>getArgument(0).setExecutionStatus(ExecutionStatusEnum.SUCCESS);
+            registry.cancel(5L);
+            return null;
+        }).when(codeExecutionService).executeAndPersist(any());
+
+        RegradeStatusDto status = regradeService.startRegrade(1L, 5L);
+
+        assertThat(status.getStatus()).isEqualTo("CANCELLED");
+        assertThat(status.getProcessed()).isEqualTo(1);
+        verify(codeExecutionService, times(1)).executeAndPersist(any());
+        verify(codeSubmissionRepository).save(stored.get(1L));
+        verify(codeSubmissionRepository, never()).findFinishedIdsByAssignmentIdAfter(eq(5L), eq(2L), any());
+    }
+
+    @Test
+    @DisplayName("Feedback written while the batch runs is kept; only execution results are copied")
+    void keepsFeedbackWrittenDuringRun() {
+        TestCaseResultEntity newResult = TestCaseResultEntity.builder().passed(true).build();
+        doAnswer(inv -> {
+            CodeSubmissionEntity submission = inv.getArgument(0);
+            submission.setExecutionStatus(ExecutionStatusEnum.SUCCESS);
+            submission.setTotalScore(4f);
+            if (submission.getId() == 1L) {
+                submission.getTestCaseResults().add(newResult);
+                // A teacher grades the submission through ManualGradingService meanwhile.
+                stored.get(1L).setTeacherFeedback("Check the empty input case");
+            }
+            return null;
+        }).when(codeExecutionService).executeAndPersist(any());
+
+        regradeService.startRegrade(1L, 5L);
+
+        CodeSubmissionEntity saved = stored.get(1L);
+        assertThat(saved.getTeacherFeedback()).isEqualTo("Check the empty input case");
+        assertThat(saved.getExecutionStatus()).isEqualTo(ExecutionStatusEnum.SUCCESS);
+        assertThat(saved.getTotalScore()).isEqualTo(4f);
+        assertThat(saved.getTestCaseResults()).containsExactly(newResult);
+        assertThat(newResult.getSubmission()).isSameAs(saved);
+    }
+
+    @Test
+    @DisplayName("Only one re-grade per assignment may run at a time")
+    void rejectsConcurrentRegrade() {
+        registry.start(5L);
+
+        assertThatThrownBy(() -> regradeService.startRegrade(1L, 5L))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("already running");
+        verifyNoInteractions(codeExecutionService);
+    }
+
+    @Test
+    @DisplayName("Rejects assignments of another test and non-CODING assignments")
+    void validatesAssignment() {
+        assertThatThrownBy(() -> regradeService.startRegrade(2L, 5L))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("does not belong");
+
+        OpenQuestionAssignmentEntityEntity openQuestion = new OpenQuestionAssignmentEntityEntity();
+        openQuestion.setTestEntity(assignment.getTestEntity());
+        when(assignmentRepository.findById(6L)).thenReturn(Optional.of(openQuestion));
+
+        assertThatThrownBy(() -> regradeService.startRegrade(1L, 6L))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("CODING");
+        assertThat(registry.getStatus(6L).getStatus()).isEqualTo("NONE");
+    }
+
+    private CodeSubmissionEntity copyOf(CodeSubmissionEntity submission) {
+        CodeSubmissionEntity copy = CodeSubmissionEntity.builder()
+                .assignment(submission.getAssignment())
+                .testAttempt(submission.getTestAttempt())
+                .student(submission.getStudent())
+                .executionStatus(submission.getExecutionStatus())
+                .build();
+        copy.setId(submission.getId());
+        return copy;
+    }
+
+    private CodeSubmissionEntity submission(long id) {
+        UserEntity student = new UserEntity();
+        student.setId(200L + id);
+
+        TestAttemptEntity attempt = new TestAttemptEntity();
+        attempt.setId(100L + id);
+        attempt.setTestEntity(assignment.getTestEntity());
+        attempt.setStudent(student);
+        when(testAttemptRepository.findById(attempt.getId())).thenReturn(Optional.of(attempt));
+
+        CodeSubmissionEntity submission = CodeSubmissionEntity.builder()
+                .assignment(assignment)
+                .testAttempt(attempt)
+                .student(student)
+                .executionStatus(ExecutionStatusEnum.RUNTIME_ERROR)
+                .build();
+        submission.setId(id);
+        return submission;
+    }
+}
@@ -0,0 +1,236 @@
+package com.edutest.service.teacher;
+
+import com.edutest.dto.AttemptListItemDto;
+import com.edutest.dto.TestStatsSummaryDto;
+import com.edutest.event.AnswerGradedEvent;
+import com.edutest.persistance.entity.test.TestEntity;
+import com.edutest.persistance.repository.AssignmentJpaRepository;
+import com.edutest.persistance.repository.TestAttemptJpaRepository;
+import com.edutest.persistance.repository.TestRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class TeacherAttemptServiceTest {
+
+    @Mock
+    private TestAttemptJpaRepository testAttemptRepository;
+
+    @Mock
+    private TestRepository testRepository;
+
+    @Mock
+    private AssignmentJpaRepository assignmentRepository;
+
+    @Spy
+    private TestStatsSummaryCache statsSummaryCache = new TestStatsSummaryCache(true, 10, 60_000L, () -> 0L);
+
+    @InjectMocks
+    private TeacherAttemptService teacherAttemptService;
+
+    @Nested
+    @DisplayName("getAttemptsByTestId tests")
+    class GetAttemptsTests {
+
+        private final ArgumentCaptor<Pageable> pageable = ArgumentCaptor.forClass(Pageable.class);
+
+        @BeforeEach
+        void setUp() {
+            when(testRepository.existsById(1L)).thenReturn(true);
+            when(assignmentRepository.sumPointsByTestId(1L)).thenReturn(20f);
+        }
+
+        @Test
+        @DisplayName("Should push filters, sort and page into one query and map its rows")
+        void shouldQueryOnePage() {
+            TestAttemptJpaRepository.AttemptListRow row = row();
+            when(testAttemptRepository.findAttemptList(eq(1L), eq(5L), eq("SUBMITTED"), pageable.capture()))
+                    .thenAnswer(inv -> new PageImpl<>(List.of(row), inv.getArgument(3), 41));
+
+            Page<AttemptListItemDto> page = teacherAttemptService.getAttemptsByTestId(
+                    1L, 5L, "SUBMITTED", 2, 20, "score", "desc");
+
+            assertThat(pageable.getValue().getPageNumber()).isEqualTo(2);
+            assertThat(pageable.getValue().getPageSize()).isEqualTo(20);
+            assertThat(pageable.getValue().getSort()).containsExactly(
+                    Sort.Order.desc("score"), Sort.Order.asc("attemptId"));
+            assertThat(page.getTotalElements()).isEqualTo(41);
+
+            AttemptListItemDto dto = page.getContent().get(0);
+            assertThat(dto.getAttemptId()).isEqualTo(7L);
+            assertThat(dto.getStudentName()).isEqualTo("Jane Student");
+            assertThat(dto.getGroupName()).isEqualTo("G1");
+            assertThat(dto.getStatus()).isEqualTo("SUBMITTED");
+            assertThat(dto.getPendingGradingCount()).isEqualTo(2);
+            assertThat(dto.getMaxPossibleScore()).isEqualTo(20f);
+            assertThat(dto.getScorePercentage()).isEqualTo(75f);
+        }
+
+        @Test
+        @DisplayName("Should sort by first then last name for studentName and treat a blank status as none")
+        void shouldMapStudentNameSortAndBlankStatus() {
+            when(testAttemptRepository.findAttemptList(eq(1L), isNull(), isNull(), pageable.capture()))
+                    .thenReturn(Page.empty());
+
+            teacherAttemptService.getAttemptsByTestId(1L, null, "", 0, 20, "studentName", "asc");
+
+            assertThat(pageable.getValue().getSort()).containsExactly(
+                    Sort.Order.asc("firstName"), Sort.Order.asc("lastName"), Sort.Order.asc("attemptId"));
+        }
+
+        @Test
+        @DisplayName("Should fall back to start time for an unknown sort key")
+        void shouldDefaultToStartedAt() {
+            when(testAttemptRepository.findAttemptList(eq(1L), isNull(), isNull(), pageable.capture()))
+                    .thenReturn(Page.empty());
+
+            teacherAttemptService.getAttemptsByTestId(1L, null, null, 0, 20, "bogus", "desc");
+
+            assertThat(pageable.getValue().getSort()).containsExactly(
+                    Sort.Order.desc("startedAt"), Sort.Order.asc("attemptId"));
+        }
+    }
+
+    @Nested
+    @DisplayName("getTestStatsSummary tests")
+    class StatsSummaryTests {
+
+        @BeforeEach
+        void setUp() {
+            TestEntity test = new TestEntity();
+            test.setTitle("Exam");
+            when(testRepository.findById(1L)).thenReturn(Optional.of(test));
+            when(assignmentRepository.sumPointsByTestId(1L)).thenReturn(20f);
+        }
+
+        @Test
+        @DisplayName("Should build the summary from the single aggregate row")
+        void shouldMapAggregateRow() {
+            TestAttemptJpaRepository.TestStatsRow row = statsRow(5L, 4L, 3L, 12.5, 13.0, 8f, 16f,
+                    0, 0, 0, 0, 1, 1, 1, 1, 0, 0);
+            when(testAttemptRepository.findStatsSummary(1L, 20f)).thenReturn(row);
+
+            TestStatsSummaryDto summary = teacherAttemptService.getTestStatsSummary(1L);
+
+            assertThat(summary.getTestTitle()).isEqualTo("Exam");
+            assertThat(summary.getTotalAttempts()).isEqualTo(5);
+            assertThat(summary.getCompletedAttempts()).isEqualTo(4);
+            assertThat(summary.getInProgressAttempts()).isEqualTo(1);
+            assertThat(summary.getGradedAttempts()).isEqualTo(3);
+            assertThat(summary.getAverageScore()).isEqualTo(12.5f);
+            assertThat(summary.getMedianScore()).isEqualTo(13f);
+            assertThat(summary.getMinScore()).isEqualTo(8f);
+            assertThat(summary.getMaxScore()).isEqualTo(16f);
+            assertThat(summary.getAverageScorePercentage()).isEqualTo(62.5f);
+            assertThat(summary.getScoreDistribution()).hasSize(10);
+            assertThat(summary.getScoreDistribution().get(4).getRangeLabel()).isEqualTo("40-50%");
+            assertThat(summary.getScoreDistribution().get(4).getCount()).isEqualTo(1);
+            assertThat(summary.getScoreDistribution().get(4).getPercentage()).isEqualTo(25f);
+        }
+
+        @Test
+        @DisplayName("Should leave the distribution empty without scored attempts")
+        void shouldReturnEmptyDistributionWithoutScores() {
+            TestAttemptJpaRepository.TestStatsRow row = statsRow(2L, 0L, 0L, null, null, null, null,
+                    0, 0, 0, 0, 0, 0, 0, 0, 0, 0);
+            when(testAttemptRepository.findStatsSummary(1L, 20f)).thenReturn(row);
+
+            TestStatsSummaryDto summary = teacherAttemptService.getTestStatsSummary(1L);
+
+            assertThat(summary.getAverageScore()).isNull();
+            assertThat(summary.getAverageScorePercentage()).isNull();
+            assertThat(summary.getScoreDistribution()).isEmpty();
+        }
+
+        @Test
+        @DisplayName("Should serve repeated requests from the cache until an answer of the test is graded")
+        void shouldCacheUntilGraded() {
+            TestAttemptJpaRepository.TestStatsRow row = statsRow(1L, 1L, 0L, 10.0, 10.0, 10f, 10f,
+                    0, 0, 0, 0, 0, 1, 0, 0, 0, 0);
+            when(testAttemptRepository.findStatsSummary(1L, 20f)).thenReturn(row);
+
+            teacherAttemptService.getTestStatsSummary(1L);
+            teacherAttemptService.getTestStatsSummary(1L);
+            verify(testAttemptRepository, times(1)).findStatsSummary(1L, 20f);
+
+            statsSummaryCache.onAnswerGraded(new AnswerGradedEvent(3L, 2L, 4L, 5L));
+            teacherAttemptService.getTestStatsSummary(1L);
+            verify(testAttemptRepository, times(1)).findStatsSummary(1L, 20f);
+
+            statsSummaryCache.onAnswerGraded(new AnswerGradedEvent(3L, 1L, 4L, 5L));
+            teacherAttemptService.getTestStatsSummary(1L);
+            verify(testAttemptRepository, times(2)).findStatsSummary(1L, 20f);
+        }
+    }
+
+    @Test
+    @DisplayName("Should throw when the test does not exist")
+    void shouldThrowWhenTestNotFound() {
+        when(testRepository.existsById(9L)).thenReturn(false);
+
+        assertThatThrownBy(() -> teacherAttemptService.getAttemptsByTestId(9L, null, null, 0, 20, null, null))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Test not found");
+        verify(testAttemptRepository, never()).findAttemptList(any(), any(), any(), any());
+    }
+
+    private static TestAttemptJpaRepository.TestStatsRow statsRow(Long total, Long completed, Long graded,
+                                                                  Double average, Double median, Float min, Float max,
+                                                                  long... buckets) {
+        TestAttemptJpaRepository.TestStatsRow row = mock(TestAttemptJpaRepository.TestStatsRow.class);
+        when(row.getTotalAttempts()).thenReturn(total);
+        when(row.getCompletedAttempts()).thenReturn(completed);
+        when(row.getGradedAttempts()).thenReturn(graded);
+        when(row.getAverageScore()).thenReturn(average);
+        when(row.getMedianScore()).thenReturn(median);
+        when(row.getMinScore()).thenReturn(min);
+        when(row.getMaxScore()).thenReturn(max);
+        when(row.buckets()).thenReturn(Arrays.stream(buckets).boxed().toList());
+        return row;
+    }
+
+    private static TestAttemptJpaRepository.AttemptListRow row() {
+        TestAttemptJpaRepository.AttemptListRow row = mock(TestAttemptJpaRepository.AttemptListRow.class);
+        when(row.getAttemptId()).thenReturn(7L);
+        when(row.getStudentId()).thenReturn(2L);
+        when(row.getFirstName()).thenReturn("Jane");
+        when(row.getLastName()).thenReturn("Student");
+        when(row.getEmail()).thenReturn("student@test.com");
+        when(row.getGroupId()).thenReturn(3L);
+        when(row.getGroupName()).thenReturn("G1");
+        when(row.getStartedAt()).thenReturn(LocalDateTime.of(2024, 1, 1, 10, 0));
+        when(row.getFinishedAt()).thenReturn(LocalDateTime.of(2024, 1, 1, 11, 0));
+        when(row.getScore()).thenReturn(15f);
+        when(row.getStatus()).thenReturn("SUBMITTED");
+        when(row.getPendingGradingCount()).thenReturn(2);
+        return row;
+    }
+}
@@ -0,0 +1,217 @@
+package com.edutest.service.teacher;
+
+import com.edutest.persistance.entity.assigment.AssignmentEntity;
+import com.edutest.persistance.entity.assigment.coding.CodingAssignmentEntity;
+import com.edutest.persistance.entity.assigment.openquestion.OpenQuestionAssignmentEntityEntity;
+import com.edutest.persistance.entity.test.TestEntity;
+import com.edutest.persistance.repository.AssignmentJpaRepository;
+import com.edutest.persistance.repository.TestAttemptJpaRepository;
+import com.edutest.persistance.repository.TestAttemptJpaRepository.ResultMatrixRow;
+import com.edutest.persistance.repository.TestRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.quality.Strictness;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+@ExtendWith(MockitoExtension.class)
+class TestResultsExportServiceTest {
+
+    private static final LocalDateTime STARTED = LocalDateTime.of(2026, 1, 10, 9, 0);
+    private static final LocalDateTime FINISHED = LocalDateTime.of(2026, 1, 10, 9, 40, 30);
+
+    @Mock
+    private TestRepository testRepository;
+
+    @Mock
+    private TestAttemptJpaRepository testAttemptRepository;
+
+    @Mock
+    private AssignmentJpaRepository assignmentRepository;
+
+    @InjectMocks
+    private TestResultsExportService exportService;
+
+    private void stubExam() {
+        stubTest(1L, "Exam");
+        // Two attempts, their rows adjacent as the query returns them; the first awaits grading.
+        when(testAttemptRepository.streamResultMatrix(1L)).thenAnswer(inv -> Stream.of(
+                row(7L, "Ann", "Lee", null, "Group A", 4.5f, 1, 10L, 4.5f),
+                row(7L, "Ann", "Lee", null, "Group A", 4.5f, 1, 11L, null),
+                row(8L, "Bob", "Ray", "S-2", null, 17.5f, 0, 10L, 5f),
+                row(8L, "Bob", "Ray", "S-2", null, 17.5f, 0, 11L, 12.25f)));
+    }
+
+    @Nested
+    @DisplayName("CSV")
+    class CsvTests {
+
+        @BeforeEach
+        void setUp() {
+            stubExam();
+        }
+
+        @Test
+        @DisplayName("Should write a header and one line per attempt with a score column per assignment")
+        void shouldWriteMatrix() throws Exception {
+            String csv = export(List.of(1L), ResultsExportFormat.CSV).toString(StandardCharsets.UTF_8);
+
+            assertThat(csv).isEqualTo(
+                    "Student Name,Student Email,Student Number,Group,\"Quiz, part 1 (max: 5)\",Sorting (max: 15),"
+                            + "Total Score,Max Possible,Percentage,Status,Started At,Finished At\n"
+                            + "Ann Lee,ann.lee@school.test,,Group A,4.50,N/A,4.50,20.00,22.5%,SUBMITTED,"
+                            + "2026-01-10 09:00:00,2026-01-10 09:40:30\n"
+                            + "Bob Ray,bob.ray@school.test,S-2,,5.00,12.25,17.50,20.00,87.5%,GRADED,"
+                            + "2026-01-10 09:00:00,2026-01-10 09:40:30\n");
+        }
+
+        @Test
+        @DisplayName("Should zip one CSV per test when exporting several tests")
+        void shouldZipSeveralTests() throws Exception {
+            stubTest(2L, "Exam");
+            when(testAttemptRepository.streamResultMatrix(2L)).thenAnswer(inv -> Stream.empty());
+
+            Map<String, String> entries = unzip(export(List.of(1L, 2L), ResultsExportFormat.CSV));
+
+            assertThat(entries).containsOnlyKeys("Exam.csv", "Exam (2).csv");
+            assertThat(entries.get("Exam.csv").lines()).hasSize(3);
+            assertThat(entries.get("Exam (2).csv").lines()).hasSize(1)
+                    .first().asString().startsWith("Student Name,");
+        }
+    }
+
+    @Nested
+    @DisplayName("XLSX")
+    class XlsxTests {
+
+        @BeforeEach
+        void setUp() {
+            stubExam();
+        }
+
+        @Test
+        @DisplayName("Should write a well-formed workbook with a sheet per test")
+        void shouldWriteWorkbook() throws Exception {
+            stubTest(2L, "Retake: <group B>");
+            when(testAttemptRepository.streamResultMatrix(2L)).thenAnswer(inv -> Stream.empty());
+
+            Map<String, String> entries = unzip(export(List.of(1L, 2L), ResultsExportFormat.XLSX));
+
+            assertThat(entries).containsKeys("[Content_Types].xml", "_rels/.rels", "xl/workbook.xml",
+                    "xl/_rels/workbook.xml.rels", "xl/styles.xml", "xl/worksheets/sheet1.xml", "xl/worksheets/sheet2.xml");
+            for (String xml : entries.values()) {
+                DocumentBuilderFactory.newInstance().newDocumentBuilder()
+                        .parse(new ByteArrayInputStream(xml.getBytes(StandardCharsets.UTF_8)));
+            }
+            assertThat(entries.get("xl/workbook.xml"))
+                    .contains("<sheet name=\"Exam\" sheetId=\"1\"")
+                    .contains("<sheet name=\"Retake_ &lt;group B&gt;\" sheetId=\"2\"");
+
+            String sheet = entries.get("xl/worksheets/sheet1.xml");
+            assertThat(sheet)
+                    .contains("<c r=\"E1\" s=\"1\" t=\"inlineStr\"><is><t xml:space=\"preserve\">Quiz, part 1 (max: 5)</t></is></c>")
+                    .contains("<c r=\"A2\" t=\"inlineStr\"><is><t xml:space=\"preserve\">Ann Lee</t></is></c>")
+                    .contains("<c r=\"E2\" s=\"2\"><v>4.5</v></c>")
+                    .contains("<c r=\"I3\" s=\"4\"><v>0.875</v></c>")
+                    .contains("<c r=\"K3\" s=\"3\"><v>46032.375</v></c>");
+            // Empty cells (no student number) are left out rather than shifting the row.
+            assertThat(sheet).doesNotContain("r=\"C2\"").contains("r=\"C3\"");
+        }
+    }
+
+    @Test
+    @DisplayName("Should reject an export with a missing test before anything is written")
+    void shouldRejectMissingTest() {
+        when(testRepository.existsById(1L)).thenReturn(true);
+        when(testRepository.existsById(3L)).thenReturn(false);
+
+        assertThatThrownBy(() -> exportService.checkTestsExist(List.of(1L, 3L)))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Test not found");
+    }
+
+    @Test
+    @DisplayName("Should parse export formats case-insensitively, defaulting to CSV")
+    void shouldParseFormat() {
+        assertThat(ResultsExportFormat.parse("XLSX")).isEqualTo(ResultsExportFormat.XLSX);
+        assertThat(ResultsExportFormat.parse(null)).isEqualTo(ResultsExportFormat.CSV);
+        assertThatThrownBy(() -> ResultsExportFormat.parse("pdf"))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private ByteArrayOutputStream export(List<Long> testIds, ResultsExportFormat format) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        exportService.export(testIds, format, out);
+        return out;
+    }
+
+    private void stubTest(Long testId, String title) {
+        TestEntity test = new TestEntity();
+        test.setId(testId);
+        test.setTitle(title);
+        when(testRepository.findById(testId)).thenReturn(Optional.of(test));
+        when(assignmentRepository.findByTestEntityIdOrderByOrderNumber(testId)).thenReturn(List.of(
+                assignment(10L, new OpenQuestionAssignmentEntityEntity(), "Quiz, part 1", 5),
+                assignment(11L, new CodingAssignmentEntity(), "Sorting", 15)));
+        when(assignmentRepository.sumPointsByTestId(testId)).thenReturn(20f);
+    }
+
+    private AssignmentEntity assignment(Long id, AssignmentEntity assignment, String title, int points) {
+        assignment.setId(id);
+        assignment.setTitle(title);
+        assignment.setPoints(points);
+        return assignment;
+    }
+
+    private ResultMatrixRow row(Long attemptId, String firstName, String lastName, String studentNumber, String group,
+                                Float totalScore, int pending, Long assignmentId, Float score) {
+        // Only the last row of an attempt is read in full.
+        ResultMatrixRow row = mock(ResultMatrixRow.class, withSettings().strictness(Strictness.LENIENT));
+        when(row.getAttemptId()).thenReturn(attemptId);
+        when(row.getFirstName()).thenReturn(firstName);
+        when(row.getLastName()).thenReturn(lastName);
+        when(row.getEmail()).thenReturn(firstName.toLowerCase() + "." + lastName.toLowerCase() + "@school.test");
+        when(row.getStudentNumber()).thenReturn(studentNumber);
+        when(row.getGroupName()).thenReturn(group);
+        when(row.getTotalScore()).thenReturn(totalScore);
+        when(row.getStartedAt()).thenReturn(STARTED);
+        when(row.getFinishedAt()).thenReturn(FINISHED);
+        when(row.getPendingGradingCount()).thenReturn(pending);
+        when(row.getAssignmentId()).thenReturn(assignmentId);
+        when(row.getScore()).thenReturn(score);
+        return row;
+    }
+
+    private Map<String, String> unzip(ByteArrayOutputStream out) throws Exception {
+        Map<String, String> entries = new LinkedHashMap<>();
+        try (ZipInputStream zip = new ZipInputStream(new ByteArrayInputStream(out.toByteArray()), StandardCharsets.UTF_8)) {
+            for (ZipEntry entry; (entry = zip.getNextEntry()) != null; ) {
+                entries.put(entry.getName(), new String(zip.readAllBytes(), StandardCharsets.UTF_8));
+            }
+        }
+        return entries;
+    }
+}
@@ -0,0 +1,80 @@
+package com.edutest.service.teacher;
+
+import com.edutest.dto.TestStatsSummaryDto;
+import com.edutest.event.TestAttemptSubmittedEvent;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TestStatsSummaryCacheTest {
+
+    private final AtomicLong now = new AtomicLong(1_000L);
+    private final AtomicInteger loads = new AtomicInteger();
+
+    @Test
+    @DisplayName("Summary expires after the TTL")
+    void expires() {
+        TestStatsSummaryCache cache = new TestStatsSummaryCache(true, 10, 30_000L, now::get);
+        cache.get(1L, () -> load(1L));
+        cache.get(1L, () -> load(1L));
+        assertThat(loads).hasValue(1);
+
+        now.addAndGet(30_000L);
+        cache.get(1L, () -> load(1L));
+        assertThat(loads).hasValue(2);
+        assertThat(cache.stats().evictions()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Submitting an attempt drops only that test's summary")
+    void invalidatedBySubmission() {
+        TestStatsSummaryCache cache = new TestStatsSummaryCache(true, 10, 30_000L, now::get);
+        cache.get(1L, () -> load(1L));
+        cache.get(2L, () -> load(2L));
+
+        cache.onTestAttemptSubmitted(new TestAttemptSubmittedEvent(5L, 1L, 7L));
+        cache.get(1L, () -> load(1L));
+        cache.get(2L, () -> load(2L));
+
+        assertThat(loads).hasValue(3);
+        assertThat(cache.stats().invalidations()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Least recently used summary is evicted beyond max entries")
+    void lruEviction() {
+        TestStatsSummaryCache cache = new TestStatsSummaryCache(true, 2, 30_000L, now::get);
+        cache.get(1L, () -> load(1L));
+        cache.get(2L, () -> load(2L));
+        cache.get(1L, () -> load(1L));
+        cache.get(3L, () -> load(3L));
+
+        cache.get(1L, () -> load(1L));
+        assertThat(loads).hasValue(3);
+        cache.get(2L, () -> load(2L));
+        assertThat(loads).hasValue(4);
+    }
+
+    @Test
+    @DisplayName("A summary computed while the test was invalidated is returned but not stored")
+    void loadRacingInvalidationNotStored() {
+        TestStatsSummaryCache cache = new TestStatsSummaryCache(true, 10, 30_000L, now::get);
+
+        TestStatsSummaryDto summary = cache.get(1L, () -> {
+            cache.invalidateTest(1L);
+            return load(1L);
+        });
+
+        assertThat(summary).isNotNull();
+        assertThat(cache.stats().entries()).isZero();
+    }
+
+    private TestStatsSummaryDto load(Long testId) {
+        loads.incrementAndGet();
+        return TestStatsSummaryDto.builder().testId(testId).build();
+    }
+}
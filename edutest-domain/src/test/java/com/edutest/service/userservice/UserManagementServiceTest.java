@@ -4,6 +4,7 @@ import com.edutest.api.model.UserProfile;
 import com.edutest.dto.BatchOperationResult;
 import com.edutest.persistance.entity.user.UserEntity;
 import com.edutest.persistance.entity.user.UserEntityRole;
+import com.edutest.persistance.repository.RefreshTokenRepository;
 import com.edutest.persistance.repository.TestAttemptJpaRepository;
 import com.edutest.persistance.repository.TestRepository;
 import com.edutest.persistance.repository.UserRepository;
@@ -45,6 +46,8 @@ class UserManagementServiceTest {
     private TestRepository testRepository;
     @Mock
     private TestAttemptJpaRepository testAttemptJpaRepository;
+    @Mock
+    private RefreshTokenRepository refreshTokenRepository;
 
     @InjectMocks
     private UserManagementService userManagementService;
@@ -78,6 +81,8 @@ class UserManagementServiceTest {
 
             // Then — soft delete preserves the row so history (attempts, grades) survives.
             assertThat(student.getDeletedAt()).isNotNull();
+            assertThat(student.getTokenVersion()).isEqualTo(1);
+            verify(refreshTokenRepository).revokeAllUserTokens(student);
             verify(userRepository).save(student);
             verify(userRepository, never()).deleteById(any());
         }
@@ -6,6 +6,7 @@ import com.edutest.persistance.entity.group.StudentGroupEntity;
 import com.edutest.persistance.entity.test.TestEntity;
 import com.edutest.persistance.entity.user.UserEntity;
 import com.edutest.persistance.entity.user.UserEntityRole;
+import com.edutest.persistance.repository.RefreshTokenRepository;
 import com.edutest.persistance.repository.StudentGroupJpaRepository;
 import com.edutest.persistance.repository.TestRepository;
 import com.edutest.persistance.repository.UserRepository;
@@ -51,6 +52,9 @@ class UserServiceTest {
     @Mock
     private StudentGroupJpaRepository studentGroupJpaRepository;
 
+    @Mock
+    private RefreshTokenRepository refreshTokenRepository;
+
     @InjectMocks
     private UserService userService;
 
@@ -202,6 +206,7 @@ class UserServiceTest {
 
             // Then
             verify(userRepository).save(argThat(user -> !user.getIsActive()));
+            verify(refreshTokenRepository).revokeAllUserTokens(teacherEntity);
         }
 
         @Test
@@ -0,0 +1,85 @@
+package com.edutest.loadtest;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * How fast new student sessions arrive over the run — an open model: sessions start on
+ * schedule whether or not earlier ones have finished, the way students start a test
+ * regardless of how slow the server is.
+ *
+ * <p>Written as {@code kind:args} in the {@code arrivals} setting:
+ * <ul>
+ *   <li>{@code constant:R} — R sessions per second throughout;</li>
+ *   <li>{@code ramp:A:B} — linearly from A to B per second over the run;</li>
+ *   <li>{@code burst:R:P:E:L} — R per second, except P per second for the first L seconds
+ *       of every E seconds (a class told "start now").</li>
+ * </ul>
+ */
+public sealed interface ArrivalCurve {
+
+    /** Sessions per second at {@code t} seconds into a run of {@code duration} seconds. */
+    double rate(double t, double duration);
+
+    record Constant(double perSecond) implements ArrivalCurve {
+        @Override
+        public double rate(double t, double duration) {
+            return perSecond;
+        }
+    }
+
+    record Ramp(double from, double to) implements ArrivalCurve {
+        @Override
+        public double rate(double t, double duration) {
+            return duration <= 0 ? from : from + (to - from) * Math.min(1, t / duration);
+        }
+    }
+
+    record Burst(double base, double peak, double everySeconds, double lengthSeconds) implements ArrivalCurve {
+        @Override
+        public double rate(double t, double duration) {
+            return t % everySeconds < lengthSeconds ? peak : base;
+        }
+    }
+
+    static ArrivalCurve parse(String spec) {
+        String[] parts = spec.trim().split(":");
+        try {
+            ArrivalCurve curve = switch (parts[0]) {
+                case "constant" -> parts.length == 2 ? new Constant(Double.parseDouble(parts[1])) : null;
+                case "ramp" -> parts.length == 3
+                        ? new Ramp(Double.parseDouble(parts[1]), Double.parseDouble(parts[2])) : null;
+                case "burst" -> parts.length == 5
+                        ? new Burst(Double.parseDouble(parts[1]), Double.parseDouble(parts[2]),
+                                Double.parseDouble(parts[3]), Double.parseDouble(parts[4])) : null;
+                default -> null;
+            };
+            if (curve != null) {
+                return curve;
+            }
+        } catch (NumberFormatException ignore) {
+            // Reported below with the expected forms.
+        }
+        throw new IllegalArgumentException("Invalid arrival curve '" + spec
+                + "', expected constant:R, ramp:A:B or burst:R:P:E:L");
+    }
+
+    /**
+     * Start times (ms from the beginning of the run) of every session in a run of
+     * {@code durationSeconds}: a session starts each time the integral of the rate passes
+     * another whole number, so the schedule is deterministic and comparable between runs.
+     */
+    default List<Long> startTimesMs(int durationSeconds) {
+        List<Long> starts = new ArrayList<>();
+        double due = 0;
+        for (long ms = 0; ms < durationSeconds * 1_000L; ms++) {
+            due += Math.max(0, rate(ms / 1_000.0, durationSeconds)) / 1_000.0;
+            // The tolerance absorbs rounding in the running sum, so 5/s is exactly every 200 ms.
+            while (due >= 1 - 1e-9) {
+                starts.add(ms);
+                due -= 1;
+            }
+        }
+        return starts;
+    }
+}
@@ -0,0 +1,106 @@
+package com.edutest.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+
+/**
+ * One simulated user talking to the REST API: a bearer token once logged in, and its own
+ * {@code X-Forwarded-For} address so the server's per-IP limits (login, register) see a
+ * crowd of machines instead of one load generator. Every call is timed into
+ * {@link Metrics} under its endpoint template.
+ */
+final class EduTestClient {
+
+    /** Thrown for a non-2xx response or a failed exchange, after it has been recorded. */
+    static final class RequestFailedException extends RuntimeException {
+        final int status;
+
+        RequestFailedException(String endpoint, int status, String detail) {
+            super(endpoint + " -> " + (status > 0 ? "HTTP " + status : "no response") + ": " + detail);
+            this.status = status;
+        }
+    }
+
+    private final HttpClient http;
+    private final ObjectMapper json;
+    private final Metrics metrics;
+    private final String baseUrl;
+    private final String forwardedFor;
+    private final Duration timeout;
+    private String token;
+
+    EduTestClient(HttpClient http, ObjectMapper json, Metrics metrics, String baseUrl, String forwardedFor,
+                  Duration timeout) {
+        this.http = http;
+        this.json = json;
+        this.metrics = metrics;
+        this.baseUrl = baseUrl;
+        this.forwardedFor = forwardedFor;
+        this.timeout = timeout;
+    }
+
+    void login(String username, String password) {
+        JsonNode response = post("POST /auth/login", "/auth/login",
+                json.createObjectNode().put("username", username).put("password", password));
+        token = response.path("accessToken").asText();
+    }
+
+    JsonNode get(String endpoint, String path) {
+        return send(endpoint, HttpRequest.newBuilder(uri(path)).GET());
+    }
+
+    JsonNode post(String endpoint, String path, Object body) {
+        try {
+            return send(endpoint, HttpRequest.newBuilder(uri(path))
+                    .header("Content-Type", "application/json")
+                    .POST(body == null
+                            ? HttpRequest.BodyPublishers.noBody()
+                            : HttpRequest.BodyPublishers.ofByteArray(json.writeValueAsBytes(body))));
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Cannot serialize request body for " + endpoint, e);
+        }
+    }
+
+    private JsonNode send(String endpoint, HttpRequest.Builder request) {
+        request.timeout(timeout).header("Accept", "application/json").header("X-Forwarded-For", forwardedFor);
+        if (token != null) {
+            request.header("Authorization", "Bearer " + token);
+        }
+        long start = System.nanoTime();
+        HttpResponse<byte[]> response;
+        try {
+            response = http.send(request.build(), HttpResponse.BodyHandlers.ofByteArray());
+        } catch (IOException e) {
+            metrics.record(endpoint, System.nanoTime() - start, Metrics.Outcome.ERROR);
+            throw new RequestFailedException(endpoint, 0, e.toString());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RequestFailedException(endpoint, 0, "interrupted");
+        }
+        long elapsed = System.nanoTime() - start;
+        int status = response.statusCode();
+        if (status / 100 != 2) {
+            metrics.record(endpoint, elapsed, status == 429 ? Metrics.Outcome.THROTTLED : Metrics.Outcome.ERROR);
+            throw new RequestFailedException(endpoint, status,
+                    new String(response.body(), StandardCharsets.UTF_8));
+        }
+        metrics.record(endpoint, elapsed, Metrics.Outcome.OK);
+        try {
+            return response.body().length == 0 ? json.missingNode() : json.readTree(response.body());
+        } catch (IOException e) {
+            throw new RequestFailedException(endpoint, status, "unreadable body: " + e.getMessage());
+        }
+    }
+
+    private URI uri(String path) {
+        return URI.create(baseUrl + path);
+    }
+}
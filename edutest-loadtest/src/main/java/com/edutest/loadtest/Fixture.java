@@ -0,0 +1,129 @@
+package com.edutest.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+
+/**
+ * What a run needs on the server, created through the API before the clock starts: a
+ * teacher, one student account per scheduled session (a student starts a test only once),
+ * a group with all of them, and an open test with one coding assignment whose test cases
+ * expect their own input — a program that echoes stdin passes them, and so does every
+ * submission under the server's {@code echo} backend.
+ *
+ * <p>Groups can only be created by an admin, hence the admin account in the settings.
+ */
+final class Fixture {
+
+    static final String LANGUAGE = "python";
+    static final String PASSWORD = "loadtest-secret";
+
+    record Student(String username, String address) {
+    }
+
+    final long testId;
+    final long assignmentId;
+    final List<Student> students;
+
+    private Fixture(long testId, long assignmentId, List<Student> students) {
+        this.testId = testId;
+        this.assignmentId = assignmentId;
+        this.students = students;
+    }
+
+    /**
+     * @param clients makes a client for the given {@code X-Forwarded-For} address
+     * @param tag     unique per run, keeps usernames apart from earlier runs
+     */
+    static Fixture create(EduTestClient admin, Function<String, EduTestClient> clients, ObjectMapper json,
+                          String tag, int studentCount, int testCases) throws Exception {
+        long teacherId = register(clients.apply(address(0)), json, "lt" + tag + "t", "TEACHER");
+
+        List<Student> students = new ArrayList<>(studentCount);
+        List<Long> studentIds = new ArrayList<>(studentCount);
+        try (ExecutorService pool = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<Long>> ids = new ArrayList<>(studentCount);
+            for (int i = 1; i <= studentCount; i++) {
+                Student student = new Student("lt" + tag + "s" + i, address(i));
+                students.add(student);
+                ids.add(pool.submit(() -> register(clients.apply(student.address()), json, student.username(), "STUDENT")));
+            }
+            for (Future<Long> id : ids) {
+                studentIds.add(id.get());
+            }
+        }
+
+        ObjectNode group = json.createObjectNode()
+                .put("name", "Load test " + tag)
+                .put("description", "Created by edutest-loadtest");
+        group.putArray("teacherIds").add(teacherId);
+        long groupId = admin.post("POST /groups", "/groups", group).path("id").asLong();
+        ObjectNode members = json.createObjectNode();
+        ArrayNode ids = members.putArray("studentIds");
+        studentIds.forEach(ids::add);
+        admin.post("POST /groups/{groupId}/students/batch", "/groups/" + groupId + "/students/batch", members);
+
+        EduTestClient teacher = clients.apply(address(0));
+        teacher.login("lt" + tag + "t", PASSWORD);
+        OffsetDateTime now = OffsetDateTime.now();
+        long testId = teacher.post("POST /tests", "/tests", json.createObjectNode()
+                        .put("title", "Load test " + tag)
+                        .put("description", "Created by edutest-loadtest")
+                        .put("startDate", now.minusMinutes(5).toString())
+                        .put("endDate", now.plusDays(1).toString())
+                        .put("timeLimit", 24 * 60)
+                        .put("allowNavigation", true)
+                        .put("randomizeOrder", false))
+                .path("id").asLong();
+
+        ObjectNode assignment = json.createObjectNode()
+                .put("type", "CODING")
+                .put("title", "Echo")
+                .put("points", 10)
+                .put("timeLimitMs", 2_000)
+                .put("memoryLimitMb", 128)
+                .put("allowedLanguages", LANGUAGE)
+                .put("stopOnFirstFailure", false);
+        ArrayNode cases = assignment.putArray("testCases");
+        for (int i = 0; i < testCases; i++) {
+            cases.addObject()
+                    .put("inputData", String.valueOf(i))
+                    .put("expectedOutput", String.valueOf(i))
+                    .put("isPublic", i < testCases / 2)
+                    .put("weight", 1)
+                    .put("checkerMode", "TOKENS");
+        }
+        long assignmentId = teacher.post("POST /tests/{testId}/assignments", "/tests/" + testId + "/assignments",
+                assignment).path("id").asLong();
+        teacher.post("POST /tests/{testId}/groups", "/tests/" + testId + "/groups",
+                json.createObjectNode().put("groupId", groupId));
+
+        return new Fixture(testId, assignmentId, students);
+    }
+
+    private static long register(EduTestClient client, ObjectMapper json, String username, String role) {
+        JsonNode response = client.post("POST /auth/register", "/auth/register", json.createObjectNode()
+                .put("username", username)
+                .put("email", username + "@loadtest.invalid")
+                .put("password", PASSWORD)
+                .put("firstName", "Load")
+                .put("lastName", username)
+                .put("role", role)
+                .put("studentNumber", username.length() > 20 ? username.substring(username.length() - 20) : username));
+        return response.path("user").path("id").asLong();
+    }
+
+    /** A private-range address per simulated machine; 0 is the teacher's. */
+    static String address(int n) {
+        return "10." + ((n >> 16) & 255) + "." + ((n >> 8) & 255) + "." + (n & 255);
+    }
+}
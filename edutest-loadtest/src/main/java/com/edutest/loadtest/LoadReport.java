@@ -0,0 +1,156 @@
+package com.edutest.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * The JSON report of a run and its comparison with an earlier one.
+ *
+ * <pre>
+ * { "settings":  { arrivals, durationSeconds, runsPerSession, testCases, thinkTimeMs, pollIntervalMs },
+ *   "sessions":  { scheduled, started, completed, failed },
+ *   "endpoints": { "POST /tests/{testId}/start": { requests, ok, throttled, errors, errorRatePercent,
+ *                                                 perSecond, meanMs, p50Ms, p95Ms, p99Ms, maxMs }, ... },
+ *   "executionQueue": { samples, maxActive, meanActive, maxQueued: {SUBMIT: n, ...}, meanQueued: {...} } }
+ * </pre>
+ *
+ * A comparison only makes sense between runs with the same settings against comparable
+ * hardware; it checks p95, p99 and error rate per endpoint and the mean queue depth per
+ * priority class. Latencies and queue depths regressed when they grew by more than the
+ * threshold and by at least 1 ms or 1 task (below that is noise); the error rate when it
+ * rose by more than one percentage point. Endpoints only present in one run are skipped.
+ */
+final class LoadReport {
+
+    private LoadReport() {
+    }
+
+    record Delta(String subject, String metric, double baseline, double current, boolean regressed) {
+
+        double changePercent() {
+            return baseline == 0 ? 0 : (current - baseline) / baseline * 100;
+        }
+    }
+
+    static ObjectNode build(ObjectMapper json, LoadTestConfig config, int scheduled, Metrics metrics,
+                            double elapsedSeconds) {
+        ObjectNode report = json.createObjectNode();
+        report.putObject("settings")
+                .put("arrivals", config.arrivals().toString())
+                .put("durationSeconds", config.durationSeconds())
+                .put("runsPerSession", config.runsPerSession())
+                .put("testCases", config.testCases())
+                .put("thinkTimeMs", config.thinkTimeMs())
+                .put("pollIntervalMs", config.pollIntervalMs());
+        report.putObject("sessions")
+                .put("scheduled", scheduled)
+                .put("started", metrics.sessionsStarted.get())
+                .put("completed", metrics.sessionsCompleted.get())
+                .put("failed", metrics.sessionsFailed.get());
+
+        ObjectNode endpoints = report.putObject("endpoints");
+        new TreeMap<>(metrics.endpoints()).forEach((name, stats) -> {
+            long requests = stats.requests();
+            LatencyHistogram latency = stats.latency;
+            endpoints.putObject(name)
+                    .put("requests", requests)
+                    .put("ok", stats.ok.get())
+                    .put("throttled", stats.throttled.get())
+                    .put("errors", stats.errors.get())
+                    .put("errorRatePercent", round(requests == 0 ? 0 : stats.errors.get() * 100.0 / requests))
+                    .put("perSecond", round(elapsedSeconds <= 0 ? 0 : requests / elapsedSeconds))
+                    .put("meanMs", round(latency.meanMillis()))
+                    .put("p50Ms", round(latency.percentileMillis(50)))
+                    .put("p95Ms", round(latency.percentileMillis(95)))
+                    .put("p99Ms", round(latency.percentileMillis(99)))
+                    .put("maxMs", round(latency.maxMillis()));
+        });
+
+        List<Metrics.QueueSample> samples = metrics.queueSamples();
+        ObjectNode queue = report.putObject("executionQueue");
+        queue.put("samples", samples.size())
+                .put("maxActive", samples.stream().mapToInt(Metrics.QueueSample::active).max().orElse(0))
+                .put("meanActive", round(samples.stream().mapToInt(Metrics.QueueSample::active).average().orElse(0)));
+        Map<String, List<Integer>> byClass = new TreeMap<>();
+        samples.forEach(s -> s.queued().forEach((cls, n) -> byClass.computeIfAbsent(cls, c -> new ArrayList<>()).add(n)));
+        ObjectNode max = queue.putObject("maxQueued");
+        ObjectNode mean = queue.putObject("meanQueued");
+        byClass.forEach((cls, depths) -> {
+            max.put(cls, depths.stream().mapToInt(Integer::intValue).max().orElse(0));
+            mean.put(cls, round(depths.stream().mapToInt(Integer::intValue).average().orElse(0)));
+        });
+        return report;
+    }
+
+    /** @param thresholdPercent how much worse a latency or queue depth may get before it counts */
+    static List<Delta> compare(JsonNode baseline, JsonNode current, double thresholdPercent) {
+        double factor = 1 + thresholdPercent / 100;
+        List<Delta> deltas = new ArrayList<>();
+        current.path("endpoints").properties().forEach(entry -> {
+            JsonNode before = baseline.path("endpoints").path(entry.getKey());
+            if (before.isMissingNode()) {
+                return;
+            }
+            JsonNode now = entry.getValue();
+            for (String metric : List.of("p95Ms", "p99Ms")) {
+                double a = before.path(metric).asDouble();
+                double b = now.path(metric).asDouble();
+                deltas.add(new Delta(entry.getKey(), metric, a, b, b > a * factor && b - a >= 1));
+            }
+            double a = before.path("errorRatePercent").asDouble();
+            double b = now.path("errorRatePercent").asDouble();
+            deltas.add(new Delta(entry.getKey(), "errorRatePercent", a, b, b - a > 1));
+        });
+        current.path("executionQueue").path("meanQueued").properties().forEach(entry -> {
+            JsonNode before = baseline.path("executionQueue").path("meanQueued").path(entry.getKey());
+            if (before.isNumber()) {
+                double a = before.asDouble();
+                double b = entry.getValue().asDouble();
+                deltas.add(new Delta("execution queue " + entry.getKey(), "meanQueued", a, b, b > a * factor && b - a >= 1));
+            }
+        });
+        return deltas;
+    }
+
+    static String format(List<Delta> deltas) {
+        int width = deltas.stream().mapToInt(d -> d.subject().length()).max().orElse(7);
+        StringBuilder out = new StringBuilder(String.format(Locale.ROOT, "%-" + width + "s  %-16s %12s %12s %9s%n",
+                "Subject", "Metric", "Baseline", "Current", "Change"));
+        for (Delta d : deltas) {
+            out.append(String.format(Locale.ROOT, "%-" + width + "s  %-16s %12.2f %12.2f %+8.1f%%%s%n",
+                    d.subject(), d.metric(), d.baseline(), d.current(), d.changePercent(),
+                    d.regressed() ? "  REGRESSED" : ""));
+        }
+        return out.toString();
+    }
+
+    /** One line per endpoint, for the console at the end of a run. */
+    static String summary(JsonNode report) {
+        StringBuilder out = new StringBuilder(String.format(Locale.ROOT, "%-48s %8s %7s %7s %9s %9s %9s%n",
+                "Endpoint", "Requests", "Err %", "429s", "p50 ms", "p95 ms", "p99 ms"));
+        report.path("endpoints").properties().forEach(e -> {
+            JsonNode s = e.getValue();
+            out.append(String.format(Locale.ROOT, "%-48s %8d %7.2f %7d %9.1f %9.1f %9.1f%n", e.getKey(),
+                    s.path("requests").asLong(), s.path("errorRatePercent").asDouble(), s.path("throttled").asLong(),
+                    s.path("p50Ms").asDouble(), s.path("p95Ms").asDouble(), s.path("p99Ms").asDouble()));
+        });
+        JsonNode sessions = report.path("sessions");
+        JsonNode queue = report.path("executionQueue");
+        out.append(String.format(Locale.ROOT, "Sessions: %d scheduled, %d completed, %d failed; "
+                        + "execution queue: max %d active, max queued %s%n",
+                sessions.path("scheduled").asLong(), sessions.path("completed").asLong(),
+                sessions.path("failed").asLong(), queue.path("maxActive").asInt(), queue.path("maxQueued")));
+        return out.toString();
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 100) / 100.0;
+    }
+}
@@ -0,0 +1,75 @@
+package com.edutest.loadtest;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Properties;
+
+/**
+ * Settings of one run, from {@code -config <file>} (a properties file, see
+ * {@code loadtest.properties}) overridden by {@code key=value} arguments.
+ */
+record LoadTestConfig(
+        String baseUrl,
+        String adminUsername,
+        String adminPassword,
+        ArrivalCurve arrivals,
+        int durationSeconds,
+        int runsPerSession,
+        int testCases,
+        long thinkTimeMs,
+        long pollIntervalMs,
+        long requestTimeoutMs,
+        long sessionTimeoutSeconds,
+        long queueSampleMs,
+        String report,
+        String baseline,
+        double thresholdPercent) {
+
+    static LoadTestConfig fromArgs(String[] args) throws IOException {
+        Properties props = new Properties();
+        for (int i = 0; i < args.length; i++) {
+            if ("-config".equals(args[i])) {
+                if (++i >= args.length) {
+                    throw new IllegalArgumentException("-config needs a file");
+                }
+                try (Reader reader = Files.newBufferedReader(Path.of(args[i]))) {
+                    props.load(reader);
+                }
+            } else if (args[i].contains("=")) {
+                props.setProperty(args[i].substring(0, args[i].indexOf('=')), args[i].substring(args[i].indexOf('=') + 1));
+            } else {
+                throw new IllegalArgumentException("Unexpected argument '" + args[i] + "', expected key=value");
+            }
+        }
+        return from(props);
+    }
+
+    static LoadTestConfig from(Properties props) {
+        return new LoadTestConfig(
+                props.getProperty("base-url", "http://localhost:8081/api"),
+                required(props, "admin.username"),
+                required(props, "admin.password"),
+                ArrivalCurve.parse(props.getProperty("arrivals", "constant:1")),
+                Integer.parseInt(props.getProperty("duration-seconds", "60")),
+                Integer.parseInt(props.getProperty("runs-per-session", "3")),
+                Integer.parseInt(props.getProperty("test-cases", "10")),
+                Long.parseLong(props.getProperty("think-time-ms", "1000")),
+                Long.parseLong(props.getProperty("poll-interval-ms", "500")),
+                Long.parseLong(props.getProperty("request-timeout-ms", "30000")),
+                Long.parseLong(props.getProperty("session-timeout-seconds", "300")),
+                Long.parseLong(props.getProperty("queue-sample-ms", "1000")),
+                props.getProperty("report", "loadtest-report.json"),
+                props.getProperty("baseline", ""),
+                Double.parseDouble(props.getProperty("threshold-percent", "10")));
+    }
+
+    private static String required(Properties props, String key) {
+        String value = props.getProperty(key, "");
+        if (value.isBlank()) {
+            throw new IllegalArgumentException(key + " is required");
+        }
+        return value;
+    }
+}
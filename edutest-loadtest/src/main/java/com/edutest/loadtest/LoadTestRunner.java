@@ -0,0 +1,147 @@
+package com.edutest.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.io.File;
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.time.LocalTime;
+import java.time.temporal.ChronoUnit;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Generates student load against a running server over the real REST flow and writes a
+ * report that can be compared between releases.
+ *
+ * <p>Start the server as for production, but with {@code coding.execution.backend=echo}
+ * (no code runs, each case takes {@code coding.execution.echo.case-latency-ms}) so the
+ * numbers show the application rather than the compilers, and with
+ * {@code RATE_LIMIT_ENABLED=false} unless the rate limiter is under test — with it on,
+ * 429s are counted per endpoint, apart from errors. Then:
+ * <ol>
+ *   <li>the fixture (a teacher, one student per scheduled session, a group, a coding test)
+ *       is created through the API with the admin account from the settings;</li>
+ *   <li>sessions start on the {@link ArrivalCurve} schedule, each on its own virtual thread
+ *       and as its own client address, and run a {@link StudentSession};</li>
+ *   <li>meanwhile the admin client samples {@code GET /admin/code-execution/scheduler} for
+ *       the execution queue depth;</li>
+ *   <li>once every session is done (or {@code session-timeout-seconds} after the last
+ *       start), the report is written — see {@link LoadReport} — and, with
+ *       {@code baseline=<earlier report>}, compared; any regression beyond
+ *       {@code threshold-percent} makes the exit status 1.</li>
+ * </ol>
+ */
+public final class LoadTestRunner {
+
+    private LoadTestRunner() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadTestConfig config = LoadTestConfig.fromArgs(args);
+        ObjectMapper json = new ObjectMapper();
+        // HTTP/1.1 as browsers talk to the server here; no h2c upgrade attempts in the timings.
+        HttpClient http = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(10))
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .build();
+        Duration timeout = Duration.ofMillis(config.requestTimeoutMs());
+
+        List<Long> starts = config.arrivals().startTimesMs(config.durationSeconds());
+        if (starts.isEmpty()) {
+            throw new IllegalArgumentException("The arrival curve schedules no session in "
+                    + config.durationSeconds() + " s");
+        }
+
+        // Setup traffic is measured separately, it isn't part of the load.
+        Metrics setupMetrics = new Metrics();
+        EduTestClient setupAdmin = new EduTestClient(http, json, setupMetrics, config.baseUrl(), "127.0.0.1", timeout);
+        setupAdmin.login(config.adminUsername(), config.adminPassword());
+        String tag = Long.toString(System.currentTimeMillis(), 36);
+        log("Creating " + starts.size() + " students and test 'Load test " + tag + "'");
+        Fixture fixture = Fixture.create(setupAdmin,
+                address -> new EduTestClient(http, json, setupMetrics, config.baseUrl(), address, timeout),
+                json, tag, starts.size(), config.testCases());
+
+        Metrics metrics = new Metrics();
+        EduTestClient admin = new EduTestClient(http, json, new Metrics(), config.baseUrl(), "127.0.0.1", timeout);
+        admin.login(config.adminUsername(), config.adminPassword());
+
+        log("Running " + starts.size() + " sessions over " + config.durationSeconds() + " s, arrivals "
+                + config.arrivals());
+        long begin = System.nanoTime();
+        Thread sampler = Thread.ofVirtual().name("queue-sampler").start(() -> sampleQueue(admin, metrics, begin, config));
+        try (ExecutorService sessions = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < starts.size(); i++) {
+                long waitNanos = begin + starts.get(i) * 1_000_000L - System.nanoTime();
+                if (waitNanos > 0) {
+                    TimeUnit.NANOSECONDS.sleep(waitNanos);
+                }
+                Fixture.Student student = fixture.students.get(i);
+                EduTestClient client = new EduTestClient(http, json, metrics, config.baseUrl(), student.address(), timeout);
+                sessions.submit(new StudentSession(client, json, metrics, config, fixture, student));
+            }
+            sessions.shutdown();
+            if (!sessions.awaitTermination(config.sessionTimeoutSeconds(), TimeUnit.SECONDS)) {
+                log("Sessions still running after " + config.sessionTimeoutSeconds() + " s, stopping them");
+                sessions.shutdownNow();
+            }
+        }
+        double elapsedSeconds = (System.nanoTime() - begin) / 1e9;
+        sampler.interrupt();
+        sampler.join();
+
+        ObjectNode report = LoadReport.build(json, config, starts.size(), metrics, elapsedSeconds);
+        json.writerWithDefaultPrettyPrinter().writeValue(new File(config.report()), report);
+        System.out.println();
+        System.out.print(LoadReport.summary(report));
+        System.out.println("Report: " + config.report());
+
+        if (!config.baseline().isBlank()) {
+            JsonNode baseline = json.readTree(new File(config.baseline()));
+            List<LoadReport.Delta> deltas = LoadReport.compare(baseline, report, config.thresholdPercent());
+            System.out.println();
+            System.out.println("Compared with " + config.baseline() + ":");
+            System.out.print(LoadReport.format(deltas));
+            long regressed = deltas.stream().filter(LoadReport.Delta::regressed).count();
+            System.out.printf("%d of %d metrics regressed%n", regressed, deltas.size());
+            if (regressed > 0) {
+                System.exit(1);
+            }
+        }
+    }
+
+    private static void sampleQueue(EduTestClient admin, Metrics metrics, long begin, LoadTestConfig config) {
+        boolean warned = false;
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                JsonNode stats = admin.get("GET /admin/code-execution/scheduler", "/admin/code-execution/scheduler");
+                Map<String, Integer> queued = new LinkedHashMap<>();
+                stats.path("classes").properties().forEach(c -> queued.put(c.getKey(), c.getValue().path("queued").asInt()));
+                metrics.recordQueue(new Metrics.QueueSample((System.nanoTime() - begin) / 1_000_000,
+                        stats.path("active").asInt(), queued));
+            } catch (EduTestClient.RequestFailedException e) {
+                if (!warned) {
+                    log("Queue sampling failed (is the admin account an ADMIN?): " + e.getMessage());
+                    warned = true;
+                }
+            }
+            try {
+                Thread.sleep(config.queueSampleMs());
+            } catch (InterruptedException e) {
+                return;
+            }
+        }
+    }
+
+    static void log(String message) {
+        System.out.println(LocalTime.now().truncatedTo(ChronoUnit.SECONDS) + " " + message);
+    }
+}
@@ -0,0 +1,73 @@
+package com.edutest.loadtest;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Everything a run measures, shared by all sessions. Endpoints are keyed by method and
+ * path template ({@code POST /tests/{testId}/start}), so they aggregate across students.
+ */
+final class Metrics {
+
+    /** Outcome of one request, as counted per endpoint. */
+    enum Outcome {
+        OK,
+        /** 429 from the rate limiter — load shed on purpose, kept apart from errors. */
+        THROTTLED,
+        /** Any other non-2xx status, or no response at all. */
+        ERROR
+    }
+
+    static final class EndpointStats {
+        final LatencyHistogram latency = new LatencyHistogram();
+        final AtomicLong ok = new AtomicLong();
+        final AtomicLong throttled = new AtomicLong();
+        final AtomicLong errors = new AtomicLong();
+
+        long requests() {
+            return ok.get() + throttled.get() + errors.get();
+        }
+    }
+
+    /**
+     * One poll of the server's execution scheduler: workers busy and tasks waiting per
+     * priority class ({@code SUBMIT}, {@code PREVIEW}, {@code TEACHER_RERUN}).
+     */
+    record QueueSample(long atMs, int active, Map<String, Integer> queued) {
+    }
+
+    private final Map<String, EndpointStats> endpoints = new ConcurrentHashMap<>();
+    private final List<QueueSample> queueSamples = new CopyOnWriteArrayList<>();
+    final AtomicLong sessionsStarted = new AtomicLong();
+    final AtomicLong sessionsCompleted = new AtomicLong();
+    final AtomicLong sessionsFailed = new AtomicLong();
+
+    void record(String endpoint, long nanos, Outcome outcome) {
+        EndpointStats stats = endpoint(endpoint);
+        stats.latency.recordNanos(nanos);
+        switch (outcome) {
+            case OK -> stats.ok.incrementAndGet();
+            case THROTTLED -> stats.throttled.incrementAndGet();
+            case ERROR -> stats.errors.incrementAndGet();
+        }
+    }
+
+    EndpointStats endpoint(String endpoint) {
+        return endpoints.computeIfAbsent(endpoint, e -> new EndpointStats());
+    }
+
+    Map<String, EndpointStats> endpoints() {
+        return endpoints;
+    }
+
+    void recordQueue(QueueSample sample) {
+        queueSamples.add(sample);
+    }
+
+    List<QueueSample> queueSamples() {
+        return queueSamples;
+    }
+}
@@ -0,0 +1,107 @@
+package com.edutest.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * One student taking the test, the way the frontend drives it: log in, start the attempt,
+ * then a few rounds of "edit the code, save it, press Run, poll until the preview is
+ * back", and finally submit and poll until grading is done. Runs on its own virtual thread.
+ *
+ * <p>Besides the per-request latencies, two end-to-end figures are recorded as
+ * pseudo-endpoints: {@code run (until DONE)}, from pressing Run to the result, and
+ * {@code submit (until DONE)}, from submitting to the graded attempt — what the student
+ * actually waits for, queueing in the execution scheduler included.
+ */
+final class StudentSession implements Runnable {
+
+    static final String RUN_TURNAROUND = "run (until DONE)";
+    static final String SUBMIT_TURNAROUND = "submit (until DONE)";
+
+    private final EduTestClient client;
+    private final ObjectMapper json;
+    private final Metrics metrics;
+    private final LoadTestConfig config;
+    private final Fixture fixture;
+    private final Fixture.Student student;
+
+    StudentSession(EduTestClient client, ObjectMapper json, Metrics metrics, LoadTestConfig config,
+                   Fixture fixture, Fixture.Student student) {
+        this.client = client;
+        this.json = json;
+        this.metrics = metrics;
+        this.config = config;
+        this.fixture = fixture;
+        this.student = student;
+    }
+
+    @Override
+    public void run() {
+        metrics.sessionsStarted.incrementAndGet();
+        try {
+            client.login(student.username(), Fixture.PASSWORD);
+            String test = "/tests/" + fixture.testId;
+            long attemptId = client.post("POST /tests/{testId}/start", test + "/start", null).path("id").asLong();
+            String attempt = test + "/attempts/" + attemptId;
+            String answer = attempt + "/answers/" + fixture.assignmentId;
+
+            for (int round = 1; round <= config.runsPerSession(); round++) {
+                think();
+                save(answer, round);
+                long start = System.nanoTime();
+                client.post("POST .../answers/{assignmentId}/run", answer + "/run", null);
+                awaitDone("GET .../answers/{assignmentId}/run-status", answer + "/run-status");
+                metrics.record(RUN_TURNAROUND, System.nanoTime() - start, Metrics.Outcome.OK);
+            }
+
+            think();
+            save(answer, 0);
+            long start = System.nanoTime();
+            client.post("POST .../attempts/{attemptId}/submit", attempt + "/submit", null);
+            awaitDone("GET .../attempts/{attemptId}/submit-status", attempt + "/submit-status");
+            metrics.record(SUBMIT_TURNAROUND, System.nanoTime() - start, Metrics.Outcome.OK);
+            metrics.sessionsCompleted.incrementAndGet();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            metrics.sessionsFailed.incrementAndGet();
+        } catch (RuntimeException e) {
+            metrics.sessionsFailed.incrementAndGet();
+            LoadTestRunner.log(student.username() + ": " + e.getMessage());
+        }
+    }
+
+    /** Every round saves slightly different code, so runs aren't answered from a cache. */
+    private void save(String answer, int round) {
+        client.post("POST .../answers/{assignmentId}", answer, json.createObjectNode()
+                .put("programmingLanguage", Fixture.LANGUAGE)
+                .put("sourceCode", "# " + student.username() + " round " + round + "\n"
+                        + "import sys\nsys.stdout.write(sys.stdin.read())\n"));
+    }
+
+    private void awaitDone(String endpoint, String path) throws InterruptedException {
+        long deadline = System.nanoTime() + config.sessionTimeoutSeconds() * 1_000_000_000L;
+        while (true) {
+            Thread.sleep(config.pollIntervalMs());
+            JsonNode status = client.get(endpoint, path);
+            switch (status.path("status").asText()) {
+                case "DONE" -> {
+                    return;
+                }
+                case "PENDING" -> {
+                    if (System.nanoTime() > deadline) {
+                        throw new IllegalStateException(path + " still PENDING after "
+                                + config.sessionTimeoutSeconds() + " s");
+                    }
+                }
+                default -> throw new IllegalStateException(path + " ended " + status.path("status").asText()
+                        + ": " + status.path("error").asText());
+            }
+        }
+    }
+
+    private void think() throws InterruptedException {
+        if (config.thinkTimeMs() > 0) {
+            Thread.sleep(config.thinkTimeMs());
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.edutest.loadtest;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ArrivalCurveTest {
+
+    @Test
+    @DisplayName("A constant rate spaces the sessions evenly")
+    void constant() {
+        List<Long> starts = ArrivalCurve.parse("constant:5").startTimesMs(10);
+
+        assertThat(starts).hasSize(50);
+        assertThat(starts.get(1) - starts.get(0)).isEqualTo(200);
+    }
+
+    @Test
+    @DisplayName("A ramp schedules its average rate, more of it towards the end")
+    void ramp() {
+        List<Long> starts = ArrivalCurve.parse("ramp:0:10").startTimesMs(10);
+
+        // 12.5 sessions in the first half, 37.5 in the second.
+        assertThat(starts).hasSizeBetween(49, 50);
+        assertThat(starts.stream().filter(t -> t < 5_000).count()).isBetween(12L, 13L);
+    }
+
+    @Test
+    @DisplayName("Bursts run at the peak rate for their length in every period")
+    void burst() {
+        List<Long> starts = ArrivalCurve.parse("burst:1:20:10:2").startTimesMs(20);
+
+        // Two periods of 2 s at 20/s plus 8 s at 1/s.
+        assertThat(starts).hasSize(2 * (40 + 8));
+        assertThat(starts.stream().filter(t -> t >= 10_000 && t < 12_000).count()).isEqualTo(40);
+    }
+
+    @Test
+    @DisplayName("Malformed specs are rejected with the expected forms")
+    void invalid() {
+        assertThatThrownBy(() -> ArrivalCurve.parse("ramp:1"))
+                .isInstanceOf(IllegalArgumentException.class).hasMessageContaining("constant:R");
+        assertThatThrownBy(() -> ArrivalCurve.parse("constant:fast"))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
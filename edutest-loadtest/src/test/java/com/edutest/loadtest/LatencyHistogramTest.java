@@ -0,0 +1,40 @@
+package com.edutest.loadtest;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class LatencyHistogramTest {
+
+    @Test
+    @DisplayName("Percentiles are accurate to the bucket resolution, about 3%")
+    void percentiles() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int ms = 1; ms <= 1_000; ms++) {
+            histogram.recordNanos(ms * 1_000_000L);
+        }
+
+        assertThat(histogram.count()).isEqualTo(1_000);
+        assertThat(histogram.percentileMillis(50)).isCloseTo(500, within(500 * 0.035));
+        assertThat(histogram.percentileMillis(95)).isCloseTo(950, within(950 * 0.035));
+        assertThat(histogram.percentileMillis(99)).isCloseTo(990, within(990 * 0.035));
+        assertThat(histogram.percentileMillis(100)).isEqualTo(1_000);
+        assertThat(histogram.meanMillis()).isEqualTo(500.5);
+        assertThat(histogram.maxMillis()).isEqualTo(1_000);
+    }
+
+    @Test
+    @DisplayName("Every value falls in a bucket whose upper bound is at most 1/32 above it")
+    void buckets() {
+        for (long micros : new long[]{0, 1, 31, 32, 33, 63, 64, 65, 1_000, 123_456, 9_999_999}) {
+            long upper = LatencyHistogram.upperBound(LatencyHistogram.index(micros));
+            assertThat(upper).isGreaterThanOrEqualTo(micros);
+            assertThat(upper - micros).isLessThanOrEqualTo(micros / 32);
+        }
+        // Anything past the range lands in the last bucket instead of overflowing.
+        assertThat(LatencyHistogram.index(Long.MAX_VALUE)).isEqualTo(LatencyHistogram.index((1L << 41) - 1));
+        assertThat(new LatencyHistogram().percentileMillis(99)).isZero();
+    }
+}
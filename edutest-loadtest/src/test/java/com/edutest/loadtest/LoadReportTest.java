@@ -0,0 +1,81 @@
+package com.edutest.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LoadReportTest {
+
+    private final ObjectMapper json = new ObjectMapper();
+
+    @Test
+    @DisplayName("The report has per-endpoint latency percentiles and error rates, sessions and queue depths")
+    void buildsReport() {
+        Metrics metrics = new Metrics();
+        for (int i = 1; i <= 100; i++) {
+            metrics.record("POST /tests/{testId}/start", i * 1_000_000L,
+                    i <= 95 ? Metrics.Outcome.OK : i <= 98 ? Metrics.Outcome.ERROR : Metrics.Outcome.THROTTLED);
+        }
+        metrics.sessionsStarted.set(3);
+        metrics.sessionsCompleted.set(2);
+        metrics.sessionsFailed.set(1);
+        metrics.recordQueue(new Metrics.QueueSample(0, 6, Map.of("SUBMIT", 4, "PREVIEW", 0)));
+        metrics.recordQueue(new Metrics.QueueSample(1_000, 2, Map.of("SUBMIT", 0, "PREVIEW", 1)));
+
+        JsonNode report = LoadReport.build(json, config(), 3, metrics, 10);
+
+        JsonNode start = report.path("endpoints").path("POST /tests/{testId}/start");
+        assertThat(start.path("requests").asLong()).isEqualTo(100);
+        assertThat(start.path("errors").asLong()).isEqualTo(3);
+        assertThat(start.path("throttled").asLong()).isEqualTo(2);
+        assertThat(start.path("errorRatePercent").asDouble()).isEqualTo(3.0);
+        assertThat(start.path("perSecond").asDouble()).isEqualTo(10.0);
+        assertThat(start.path("p99Ms").asDouble()).isBetween(96.0, 100.0);
+        assertThat(report.path("sessions").path("failed").asLong()).isEqualTo(1);
+        assertThat(report.path("executionQueue").path("maxActive").asInt()).isEqualTo(6);
+        assertThat(report.path("executionQueue").path("maxQueued").path("SUBMIT").asInt()).isEqualTo(4);
+        assertThat(report.path("executionQueue").path("meanQueued").path("PREVIEW").asDouble()).isEqualTo(0.5);
+        assertThat(LoadReport.summary(report)).contains("POST /tests/{testId}/start").contains("1 failed");
+    }
+
+    @Test
+    @DisplayName("Latency, error rate and queue depth regressions beyond the noise floor are flagged")
+    void comparesReports() throws Exception {
+        JsonNode baseline = json.readTree("""
+                {"endpoints": {
+                   "POST /auth/login": {"p95Ms": 20.0, "p99Ms": 40.0, "errorRatePercent": 0.0},
+                   "GET /x": {"p95Ms": 0.2, "p99Ms": 0.3, "errorRatePercent": 0.5}},
+                 "executionQueue": {"meanQueued": {"SUBMIT": 2.0, "PREVIEW": 0.1}}}
+                """);
+        JsonNode current = json.readTree("""
+                {"endpoints": {
+                   "POST /auth/login": {"p95Ms": 21.0, "p99Ms": 60.0, "errorRatePercent": 2.5},
+                   "GET /x": {"p95Ms": 0.6, "p99Ms": 0.9, "errorRatePercent": 1.0},
+                   "GET /new": {"p95Ms": 5.0, "p99Ms": 9.0, "errorRatePercent": 0.0}},
+                 "executionQueue": {"meanQueued": {"SUBMIT": 4.0, "PREVIEW": 0.5}}}
+                """);
+
+        List<LoadReport.Delta> deltas = LoadReport.compare(baseline, current, 10);
+
+        assertThat(deltas).filteredOn(LoadReport.Delta::regressed)
+                .extracting(d -> d.subject() + " " + d.metric())
+                .containsExactly("POST /auth/login p99Ms", "POST /auth/login errorRatePercent",
+                        "execution queue SUBMIT meanQueued");
+        assertThat(deltas).noneMatch(d -> d.subject().equals("GET /new"));
+        assertThat(LoadReport.format(deltas)).contains("REGRESSED").contains("+50.0%");
+    }
+
+    private static LoadTestConfig config() {
+        Properties props = new Properties();
+        props.setProperty("admin.username", "admin");
+        props.setProperty("admin.password", "secret");
+        return LoadTestConfig.from(props);
+    }
+}
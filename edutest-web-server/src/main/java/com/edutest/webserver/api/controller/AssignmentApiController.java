@@ -5,6 +5,7 @@ import com.edutest.api.model.AssignmentResponse;
 import com.edutest.api.model.ChoiceOptionRequest;
 import com.edutest.api.model.CreateAssignmentRequest;
 import com.edutest.api.model.MoveAssignmentRequest;
+import com.edutest.api.model.RegradeStatus;
 import com.edutest.api.model.TestCaseRequest;
 import com.edutest.api.model.UpdateAssignmentRequest;
 import com.edutest.domain.assignment.Assignment;
@@ -12,7 +13,9 @@ import com.edutest.domain.assignment.coding.CodingAssignment;
 import com.edutest.domain.assignment.coding.TestCase;
 import com.edutest.domain.assignment.common.ChoiceOption;
 import com.edutest.service.assignmentservice.AssignmentService;
+import com.edutest.service.teacher.AssignmentRegradeService;
 import com.edutest.util.AssignmentMapper;
+import com.edutest.util.TeacherMapper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.ResponseEntity;
@@ -32,6 +35,8 @@ public class AssignmentApiController implements AssignmentsApi {
 
     private final AssignmentService assignmentService;
     private final AssignmentMapper assignmentMapper;
+    private final AssignmentRegradeService regradeService;
+    private final TeacherMapper teacherMapper;
 
     @Override
     public ResponseEntity<List<AssignmentResponse>> getAssignments(Long testId) {
@@ -73,7 +78,7 @@ public class AssignmentApiController implements AssignmentsApi {
                         testId, request.getTitle(), request.getDescription(),
                         request.getPoints(), request.getTimeLimitMs(), request.getMemoryLimitMb(),
                         request.getAllowedLanguages(), request.getStarterCode(),
-                        request.getSolutionTemplate(), testCases);
+                        request.getSolutionTemplate(), request.getStopOnFirstFailure(), testCases);
             }
             default -> throw new IllegalArgumentException("Unknown assignment type: " + request.getType());
         };
@@ -100,7 +105,7 @@ public class AssignmentApiController implements AssignmentsApi {
                     request.getTitle(), request.getDescription(), request.getPoints(),
                     request.getTimeLimitMs(), request.getMemoryLimitMb(),
                     request.getAllowedLanguages(), request.getStarterCode(),
-                    request.getSolutionTemplate(), testCases);
+                    request.getSolutionTemplate(), request.getStopOnFirstFailure(), testCases);
         } else {
             updated = assignmentService.updateAssignment(
                     assignmentId, request.getTitle(), request.getDescription(), request.getPoints());
@@ -129,6 +134,26 @@ public class AssignmentApiController implements AssignmentsApi {
         return ResponseEntity.status(201).body(assignmentMapper.toApiResponse(duplicate));
     }
 
+    @Override
+    public ResponseEntity<RegradeStatus> startRegrade(Long testId, Long assignmentId) {
+        log.info("Starting re-grade of assignmentId={} in testId={}", assignmentId, testId);
+        return ResponseEntity.accepted().body(
+                teacherMapper.toApiRegradeStatus(regradeService.startRegrade(testId, assignmentId)));
+    }
+
+    @Override
+    public ResponseEntity<RegradeStatus> getRegradeStatus(Long testId, Long assignmentId) {
+        return ResponseEntity.ok(
+                teacherMapper.toApiRegradeStatus(regradeService.getStatus(testId, assignmentId)));
+    }
+
+    @Override
+    public ResponseEntity<RegradeStatus> cancelRegrade(Long testId, Long assignmentId) {
+        log.info("Cancelling re-grade of assignmentId={} in testId={}", assignmentId, testId);
+        return ResponseEntity.accepted().body(
+                teacherMapper.toApiRegradeStatus(regradeService.cancelRegrade(testId, assignmentId)));
+    }
+
     private List<ChoiceOption> mapChoiceOptions(List<ChoiceOptionRequest> dtos) {
         if (dtos == null) return Collections.emptyList();
         List<ChoiceOption> options = new java.util.ArrayList<>();
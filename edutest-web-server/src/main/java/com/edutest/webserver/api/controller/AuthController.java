@@ -8,6 +8,8 @@ import com.edutest.api.model.UserProfile;
 import com.edutest.api.model.UserRole;
 import com.edutest.api.model.UserSecurity;
 import com.edutest.commons.security.JwtTokenProvider;
+import com.edutest.commons.security.LoginUserDetailsService;
+import com.edutest.commons.security.TokenRevocationRegistry;
 import com.edutest.persistance.entity.auth.RefreshTokenEntity;
 import com.edutest.persistance.entity.user.UserEntity;
 import com.edutest.persistance.entity.user.UserEntityRole;
@@ -17,6 +19,7 @@ import com.edutest.service.auth.RefreshTokenService;
 import com.edutest.service.security.LoginAndRegisterFacade;
 import com.edutest.service.security.UserProfileMapper;
 import com.edutest.util.UserMapper;
+import io.jsonwebtoken.Claims;
 import lombok.Data;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Qualifier;
@@ -47,6 +50,7 @@ public class AuthController implements AuthenticationApi {
     private final RefreshTokenService refreshTokenService;
     private final UserMapper userMapper;
     private final PasswordResetService passwordResetService;
+    private final TokenRevocationRegistry tokenRevocationRegistry;
 
     @Value("${app.jwtExpirationMs:86400000}")
     private long jwtExpirationMs;
@@ -59,7 +63,8 @@ public class AuthController implements AuthenticationApi {
             @Qualifier("securityUserProfileMapper") UserProfileMapper userProfileMapper,
             RefreshTokenService refreshTokenService,
             UserMapper userMapper,
-            PasswordResetService passwordResetService) {
+            PasswordResetService passwordResetService,
+            TokenRevocationRegistry tokenRevocationRegistry) {
         this.authenticationManager = authenticationManager;
         this.tokenProvider = tokenProvider;
         this.loginAndRegisterFacade = loginAndRegisterFacade;
@@ -68,6 +73,7 @@ public class AuthController implements AuthenticationApi {
         this.refreshTokenService = refreshTokenService;
         this.userMapper = userMapper;
         this.passwordResetService = passwordResetService;
+        this.tokenRevocationRegistry = tokenRevocationRegistry;
     }
 
     @Override
@@ -120,8 +126,19 @@ public class AuthController implements AuthenticationApi {
         return refreshTokenService.findByToken(requestRefreshToken)
                 .map(refreshTokenService::verifyExpiration)
                 .map(RefreshTokenEntity::getUser)
+                // Deactivation revokes refresh tokens too; this also covers tokens issued before it did.
+                .filter(user -> {
+                    boolean usable = Boolean.TRUE.equals(user.getIsActive()) && user.getDeletedAt() == null;
+                    if (!usable) {
+                        log.warn("Refresh token of inactive user {} rejected", user.getUsername());
+                    }
+                    return usable;
+                })
                 .map(user -> {
-                    String jwt = tokenProvider.generateJwtToken(user.getUsername());
+                    String jwt = loginAndRegisterFacade.findUserByUsername(user.getUsername())
+                            .map(LoginUserDetailsService.UserPrincipal::create)
+                            .map(tokenProvider::generateJwtToken)
+                            .orElseGet(() -> tokenProvider.generateJwtToken(user.getUsername()));
 
                     RefreshTokenEntity newRefreshToken = refreshTokenService.createRefreshToken(user);
                     UserProfile userProfile = userMapper.toUserProfile(user);
@@ -190,10 +207,18 @@ public class AuthController implements AuthenticationApi {
     }
 
     @PostMapping("/auth/logout")
-    public ResponseEntity<?> logout(@RequestBody(required = false) RefreshTokenRequest request) {
+    public ResponseEntity<?> logout(@RequestBody(required = false) RefreshTokenRequest request,
+                                    @RequestHeader(value = "Authorization", required = false) String authorization) {
         if (request != null && request.getRefreshToken() != null) {
             refreshTokenService.revokeToken(request.getRefreshToken());
         }
+        // The access token would otherwise stay usable until it expires.
+        if (authorization != null && authorization.startsWith("Bearer ")) {
+            Claims claims = tokenProvider.parseClaims(authorization.substring(7));
+            if (claims != null) {
+                tokenRevocationRegistry.revokeToken(claims);
+            }
+        }
         return ResponseEntity.ok(new MessageResponse("Logged out successfully"));
     }
 
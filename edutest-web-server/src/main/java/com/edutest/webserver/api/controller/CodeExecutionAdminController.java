@@ -0,0 +1,58 @@
+package com.edutest.webserver.api.controller;
+
+import com.edutest.codeexecution.async.PriorityExecutionScheduler;
+import com.edutest.codeexecution.cache.CompiledArtifactCache;
+import com.edutest.codeexecution.cache.ExecutionResultCache;
+import com.edutest.codeexecution.docker.DockerImageManager;
+import com.edutest.codeexecution.docker.SandboxContainerPool;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Operational counters of the code execution sandbox. Not part of the OpenAPI contract —
+ * meant for admins / monitoring scrapes. {@code /api/admin/**} is ADMIN-only in SecurityConfig.
+ */
+@RequiredArgsConstructor
+@RestController
+@RequestMapping("/api/admin/code-execution")
+public class CodeExecutionAdminController {
+
+    /** Absent with {@code coding.execution.backend=local}. */
+    private final ObjectProvider<SandboxContainerPool> containerPool;
+    private final ObjectProvider<DockerImageManager> imageManager;
+    private final CompiledArtifactCache artifactCache;
+    private final ExecutionResultCache resultCache;
+    private final PriorityExecutionScheduler scheduler;
+
+    @GetMapping("/pool")
+    public ResponseEntity<SandboxContainerPool.PoolStats> getPoolStats() {
+        SandboxContainerPool pool = containerPool.getIfAvailable();
+        return pool != null ? ResponseEntity.ok(pool.stats()) : ResponseEntity.notFound().build();
+    }
+
+    /** Per-image pull / warm-up state and the pinned IDs; {@code ready} once no run waits for an image. */
+    @GetMapping("/images")
+    public ResponseEntity<DockerImageManager.ImagesReport> getImages() {
+        DockerImageManager manager = imageManager.getIfAvailable();
+        return manager != null ? ResponseEntity.ok(manager.report()) : ResponseEntity.notFound().build();
+    }
+
+    @GetMapping("/artifact-cache")
+    public ResponseEntity<CompiledArtifactCache.CacheStats> getArtifactCacheStats() {
+        return ResponseEntity.ok(artifactCache.stats());
+    }
+
+    @GetMapping("/result-cache")
+    public ResponseEntity<ExecutionResultCache.CacheStats> getResultCacheStats() {
+        return ResponseEntity.ok(resultCache.stats());
+    }
+
+    @GetMapping("/scheduler")
+    public ResponseEntity<PriorityExecutionScheduler.SchedulerStats> getSchedulerStats() {
+        return ResponseEntity.ok(scheduler.stats());
+    }
+}
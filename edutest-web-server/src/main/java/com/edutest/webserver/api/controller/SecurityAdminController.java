@@ -0,0 +1,32 @@
+package com.edutest.webserver.api.controller;
+
+import com.edutest.commons.security.PrincipalCache;
+import com.edutest.commons.security.TokenRevocationRegistry;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Operational counters of request authentication. Not part of the OpenAPI contract —
+ * meant for admins / monitoring scrapes. {@code /api/admin/**} is ADMIN-only in SecurityConfig.
+ */
+@RequiredArgsConstructor
+@RestController
+@RequestMapping("/api/admin/security")
+public class SecurityAdminController {
+
+    private final PrincipalCache principalCache;
+    private final TokenRevocationRegistry revocationRegistry;
+
+    @GetMapping("/principal-cache")
+    public ResponseEntity<PrincipalCache.CacheStats> getPrincipalCacheStats() {
+        return ResponseEntity.ok(principalCache.stats());
+    }
+
+    @GetMapping("/token-revocations")
+    public ResponseEntity<TokenRevocationRegistry.RevocationStats> getTokenRevocationStats() {
+        return ResponseEntity.ok(revocationRegistry.stats());
+    }
+}
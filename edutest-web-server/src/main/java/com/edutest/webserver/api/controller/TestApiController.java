@@ -23,10 +23,12 @@ import com.edutest.service.attempt.TestAttemptManagementService;
 import com.edutest.service.answer.AnswerSubmissionService;
 import com.edutest.service.answer.AsyncTestSubmissionService;
 import com.edutest.service.answer.SubmitJobRegistry;
+import com.edutest.service.codeexecution.CodeRunJobRegistry;
 import com.edutest.service.incident.AttemptIncidentService;
 import com.edutest.service.answer.TestResultsService;
 import com.edutest.service.answer.TestSubmissionService;
 import com.edutest.service.teacher.ManualGradingService;
+import com.edutest.service.teacher.ResultsExportFormat;
 import com.edutest.service.teacher.TeacherAttemptService;
 import com.edutest.service.teacher.TestResultsExportService;
 import com.edutest.service.testservice.TestService;
@@ -39,18 +41,18 @@ import com.edutest.util.TeacherMapper;
 import com.edutest.util.UserMapper;
 import com.edutest.commons.SecurityContextHelper;
 import com.edutest.util.TestMapper;
+import com.edutest.webserver.sse.JobStatusStreams;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.core.io.ByteArrayResource;
-import org.springframework.core.io.Resource;
 import org.springframework.data.domain.Page;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
-import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
@@ -73,6 +75,8 @@ public class TestApiController implements TestsApi {
     private final TestSubmissionService testSubmissionService;
     private final AsyncTestSubmissionService asyncTestSubmissionService;
     private final SubmitJobRegistry submitJobRegistry;
+    private final CodeRunJobRegistry runJobRegistry;
+    private final JobStatusStreams statusStreams;
     private final TestResultsService testResultsService;
     private final AnswerMapper answerMapper;
     private final TeacherAttemptService teacherAttemptService;
@@ -309,6 +313,24 @@ public class TestApiController implements TestsApi {
         return ResponseEntity.ok(status);
     }
 
+    /**
+     * Push alternative to polling {@code run-status}: one {@code status} event per state
+     * change of the submission's preview run, closed once the run is DONE/FAILED (or NONE).
+     */
+    @GetMapping(path = "/tests/{testId}/attempts/{attemptId}/answers/{assignmentId}/run-status/stream",
+            produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamRunStatus(
+            @PathVariable Long testId,
+            @PathVariable Long attemptId,
+            @PathVariable Long assignmentId) {
+        UserEntity currentUser = securityContextHelper.getCurrentUserEntity();
+        Long submissionId = answerSubmissionService.getRunSubmissionId(
+                testId, attemptId, assignmentId, currentUser.getId());
+        return statusStreams.subscribe(JobStatusStreams.RUN, submissionId, currentUser.getId(),
+                () -> runJobRegistry.getStatus(submissionId),
+                status -> !"PENDING".equals(status.getStatus()));
+    }
+
     @Override
     public ResponseEntity<AnswerResponse> getAnswer(Long testId, Long attemptId, Long assignmentId) {
         UserEntity currentUser = securityContextHelper.getCurrentUserEntity();
@@ -349,7 +371,7 @@ public class TestApiController implements TestsApi {
         // come back as proper HTTP errors instead of being buried in the async job.
         testSubmissionService.assertSubmittable(testId, attemptId, currentUser.getId());
 
-        submitJobRegistry.markPending(attemptId);
+        submitJobRegistry.markPending(attemptId, testId, currentUser.getId());
         asyncTestSubmissionService.executeAsync(testId, attemptId, currentUser.getId());
 
         SubmitStatusDto status = submitJobRegistry.getStatus(attemptId);
@@ -364,6 +386,17 @@ public class TestApiController implements TestsApi {
         return ResponseEntity.ok(answerMapper.toApiSubmitStatus(status));
     }
 
+    /** Push alternative to polling {@code submit-status}, like {@link #streamRunStatus}. */
+    @GetMapping(path = "/tests/{testId}/attempts/{attemptId}/submit-status/stream",
+            produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamSubmitStatus(@PathVariable Long testId, @PathVariable Long attemptId) {
+        UserEntity currentUser = securityContextHelper.getCurrentUserEntity();
+        testSubmissionService.assertCanReadAttempt(testId, attemptId, currentUser.getId());
+        return statusStreams.subscribe(JobStatusStreams.SUBMIT, attemptId, currentUser.getId(),
+                () -> answerMapper.toApiSubmitStatus(submitJobRegistry.getStatus(attemptId)),
+                status -> status.getStatus() != SubmitStatus.StatusEnum.PENDING);
+    }
+
     @Override
     public ResponseEntity<TestResultResponse> getTestResults(Long testId, Long attemptId) {
         UserEntity currentUser = securityContextHelper.getCurrentUserEntity();
@@ -477,20 +510,42 @@ public class TestApiController implements TestsApi {
         return ResponseEntity.ok(teacherMapper.toApiAnswerReviewResponse(reviewDto));
     }
 
-    @Override
+    /**
+     * Results of one test as CSV ({@code format=csv}, default) or XLSX ({@code format=xlsx}),
+     * streamed to the response as the rows are read rather than built in memory first — which
+     * is why it's mapped here: the spec documents it, but the generated {@code ResultsExportApi}
+     * can only return a buffered Resource and is left unimplemented.
+     */
+    @GetMapping("/tests/{testId}/results/export")
     @PreAuthorize("hasRole('TEACHER')")
-    public ResponseEntity<Resource> exportTestResults(Long testId, String format) {
-        log.info("Exporting test results: testId={}, format={}", testId, format);
+    public ResponseEntity<StreamingResponseBody> exportTestResults(
+            @PathVariable Long testId,
+            @RequestParam(defaultValue = "csv") String format) {
+        return exportResults(List.of(testId), format);
+    }
+
+    /** Results of several tests in one download: a ZIP of CSVs, or one XLSX with a sheet per test. */
+    @GetMapping("/tests/results/export")
+    @PreAuthorize("hasRole('TEACHER')")
+    public ResponseEntity<StreamingResponseBody> exportResultsOfTests(
+            @RequestParam List<Long> testIds,
+            @RequestParam(defaultValue = "csv") String format) {
+        return exportResults(testIds.stream().distinct().toList(), format);
+    }
+
+    private ResponseEntity<StreamingResponseBody> exportResults(List<Long> testIds, String format) {
+        log.info("Exporting test results: testIds={}, format={}", testIds, format);
 
-        String csvContent = exportService.exportToCsv(testId);
+        ResultsExportFormat exportFormat = ResultsExportFormat.parse(format);
+        exportService.checkTestsExist(testIds);
 
-        byte[] bytes = csvContent.getBytes(StandardCharsets.UTF_8);
-        ByteArrayResource resource = new ByteArrayResource(bytes);
+        String fileName = (testIds.size() == 1 ? "test_" + testIds.get(0) + "_results" : "test_results")
+                + "." + exportFormat.fileExtension(testIds.size());
+        StreamingResponseBody body = out -> exportService.export(testIds, exportFormat, out);
 
         return ResponseEntity.ok()
-                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"test_" + testId + "_results.csv\"")
-                .contentType(MediaType.parseMediaType("text/csv"))
-                .contentLength(bytes.length)
-                .body(resource);
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + fileName + "\"")
+                .contentType(MediaType.parseMediaType(exportFormat.contentType(testIds.size())))
+                .body(body);
     }
 }
@@ -30,6 +30,10 @@ public class RateLimitConfig implements WebMvcConfigurer {
         registry.addInterceptor(new RateLimitInterceptor("run-status", rateLimitService, objectMapper))
                 .addPathPatterns("/api/tests/*/attempts/*/answers/*/run-status");
 
+        registry.addInterceptor(new RateLimitInterceptor("status-stream", rateLimitService, objectMapper))
+                .addPathPatterns("/api/tests/*/attempts/*/answers/*/run-status/stream",
+                        "/api/tests/*/attempts/*/submit-status/stream");
+
         // Brute-force protection on auth endpoints
         registry.addInterceptor(new RateLimitInterceptor("login", rateLimitService, objectMapper))
                 .addPathPatterns("/api/auth/login");
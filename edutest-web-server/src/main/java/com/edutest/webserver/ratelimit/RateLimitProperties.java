@@ -35,6 +35,8 @@ public class RateLimitProperties {
         r.put("run-code", new Rule(10, 60));
         // Polling status — relatively cheap but should still cap
         r.put("run-status", new Rule(120, 60));
+        // Opening a status stream — one per run/submit, reconnects after a timeout
+        r.put("status-stream", new Rule(30, 60));
         // Brute-force protection
         r.put("login", new Rule(5, 60));
         // Email spam protection
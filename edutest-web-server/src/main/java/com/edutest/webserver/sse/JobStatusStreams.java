@@ -0,0 +1,352 @@
+package com.edutest.webserver.sse;
+
+import com.edutest.event.RunStatusChangedEvent;
+import com.edutest.event.SubmitStatusChangedEvent;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.LongFunction;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Server-Sent Event streams of run/submit job status, so a waiting student gets each
+ * transition pushed instead of polling {@code run-status} / {@code submit-status}.
+ *
+ * <p>A stream watches one job. It gets the current status right away, then every change —
+ * signalled by the registries' {@link RunStatusChangedEvent} / {@link SubmitStatusChangedEvent}
+ * — as a {@code status} event with the same JSON as the poll endpoint, and is completed
+ * once the job is finished. Every {@code heartbeat-ms} each stream gets a keep-alive
+ * comment and its status is re-read, which also delivers changes made on another instance.
+ * The status is read once per job, however many streams watch it.
+ *
+ * <p>Listeners and the heartbeat only queue work; reads and writes run on a pool of
+ * {@code sender-threads}. A job is read by one thread at a time and a stream is written by
+ * one thread at a time, which keeps each stream's events in order; work queued meanwhile
+ * collapses into one more round, so a slow stream skips to the latest status instead of
+ * piling up events. A client that stops reading holds a sender thread until its write
+ * fails; once a write has taken longer than {@code send-timeout-ms} the stream is dropped,
+ * so it holds no more than that one. At most {@code max-connections-per-user} streams are
+ * open per user — a reloaded page leaves its old stream behind, so opening one more closes
+ * the oldest.
+ */
+@Slf4j
+@Component
+public class JobStatusStreams {
+
+    public static final String RUN = "run";
+    public static final String SUBMIT = "submit";
+
+    private final StatusStreamProperties properties;
+    private final LongFunction<SseEmitter> emitters;
+    private final Map<Topic, Watch<?>> byTopic = new ConcurrentHashMap<>();
+    private final Map<Long, Deque<Subscription<?>>> byUser = new ConcurrentHashMap<>();
+    private final ExecutorService senders;
+    private final ScheduledExecutorService heartbeats;
+
+    @Autowired
+    public JobStatusStreams(StatusStreamProperties properties) {
+        this(properties, SseEmitter::new);
+    }
+
+    /** @param emitters creates a stream's emitter from its timeout */
+    JobStatusStreams(StatusStreamProperties properties, LongFunction<SseEmitter> emitters) {
+        this.properties = properties;
+        this.emitters = emitters;
+        AtomicInteger threadNo = new AtomicInteger();
+        this.senders = Executors.newFixedThreadPool(properties.getSenderThreads(), r -> {
+            Thread t = new Thread(r, "status-streams-" + threadNo.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        this.heartbeats = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "status-streams-heartbeat");
+            t.setDaemon(true);
+            return t;
+        });
+        long heartbeatMs = properties.getHeartbeatMs();
+        if (heartbeatMs > 0) {
+            heartbeats.scheduleWithFixedDelay(this::heartbeat, heartbeatMs, heartbeatMs, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private record Topic(String kind, Long id) {
+    }
+
+    /** How a stream ended: {@code failure} is null when it completed normally. */
+    private record End(Exception failure) {
+    }
+
+    /**
+     * Runs {@link #drain} on the sender pool, one run at a time. Requests made while it runs
+     * collapse into a single further run.
+     */
+    private abstract class Serial implements Runnable {
+        private final AtomicInteger requests = new AtomicInteger();
+
+        final void request() {
+            if (requests.getAndIncrement() == 0) {
+                execute(this);
+            }
+        }
+
+        @Override
+        public final void run() {
+            int seen;
+            do {
+                seen = requests.get();
+                drain();
+            } while (requests.addAndGet(-seen) != 0);
+        }
+
+        abstract void drain();
+    }
+
+    /** One job and its open streams. Its status is read here and handed to each of them. */
+    private final class Watch<T> extends Serial {
+        private final Topic topic;
+        private final Supplier<T> status;
+        private final Predicate<T> finished;
+        private final Set<Subscription<T>> subscriptions = ConcurrentHashMap.newKeySet();
+        private final AtomicBoolean heartbeatDue = new AtomicBoolean();
+
+        private Watch(Topic topic, Supplier<T> status, Predicate<T> finished) {
+            this.topic = topic;
+            this.status = status;
+            this.finished = finished;
+        }
+
+        private void refresh(boolean heartbeat) {
+            if (heartbeat) {
+                heartbeatDue.set(true);
+            }
+            request();
+        }
+
+        @Override
+        void drain() {
+            boolean heartbeat = heartbeatDue.getAndSet(false);
+            T current;
+            try {
+                current = status.get();
+            } catch (RuntimeException e) {
+                subscriptions.forEach(subscription -> end(subscription, e));
+                return;
+            }
+            subscriptions.forEach(subscription -> subscription.offer(current, heartbeat));
+        }
+    }
+
+    private final class Subscription<T> extends Serial {
+        private final Watch<T> watch;
+        private final Long userId;
+        private final SseEmitter emitter;
+        private final AtomicBoolean heartbeatDue = new AtomicBoolean();
+        private final AtomicReference<End> end = new AtomicReference<>();
+        private volatile T latest;
+        /** {@link System#nanoTime} when the write in progress began, 0 when idle. */
+        private volatile long sendingSince;
+        /** Only touched while draining. */
+        private T lastSent;
+        private boolean completed;
+
+        private Subscription(Watch<T> watch, Long userId, SseEmitter emitter) {
+            this.watch = watch;
+            this.userId = userId;
+            this.emitter = emitter;
+        }
+
+        private void offer(T current, boolean heartbeat) {
+            latest = current;
+            if (heartbeat) {
+                heartbeatDue.set(true);
+            }
+            request();
+        }
+
+        /** Sends the latest status if it changed, else a pending keep-alive; completes an ended stream. */
+        @Override
+        void drain() {
+            if (end.get() == null) {
+                try {
+                    boolean heartbeat = heartbeatDue.getAndSet(false);
+                    T current = latest;
+                    if (current != null && !Objects.equals(current, lastSent)) {
+                        send(SseEmitter.event().name("status").data(current, MediaType.APPLICATION_JSON));
+                        lastSent = current;
+                        if (watch.finished.test(current)) {
+                            end(this, null);
+                        }
+                    } else if (heartbeat) {
+                        send(SseEmitter.event().comment("heartbeat"));
+                    }
+                } catch (IOException | RuntimeException e) {
+                    end(this, e);
+                }
+            }
+            End ended = end.get();
+            if (ended != null && !completed) {
+                completed = true;
+                if (ended.failure() != null) {
+                    emitter.completeWithError(ended.failure());
+                } else {
+                    emitter.complete();
+                }
+            }
+        }
+
+        private void send(SseEmitter.SseEventBuilder event) throws IOException {
+            sendingSince = System.nanoTime();
+            try {
+                emitter.send(event);
+            } finally {
+                sendingSince = 0;
+            }
+        }
+
+        private boolean stalled(long now, long timeoutNanos) {
+            long since = sendingSince;
+            return since != 0 && now - since > timeoutNanos;
+        }
+    }
+
+    /**
+     * Opens a stream of {@code status} for job {@code id} of {@code kind}. The caller has
+     * already checked that {@code userId} may read the job. Streams of one job share the
+     * status reads of the first one opened.
+     *
+     * @param finished whether a status is final — the stream completes after sending it
+     */
+    @SuppressWarnings("unchecked")
+    public <T> SseEmitter subscribe(String kind, Long id, Long userId, Supplier<T> status, Predicate<T> finished) {
+        SseEmitter emitter = emitters.apply(properties.getTimeoutMs());
+        Topic key = new Topic(kind, id);
+        Subscription<?>[] created = new Subscription<?>[1];
+        // Every stream of a topic watches the same job, so they all read the same status type.
+        Watch<T> watch = (Watch<T>) byTopic.compute(key, (topic, existing) -> {
+            Watch<T> open = existing != null ? (Watch<T>) existing : new Watch<>(topic, status, finished);
+            Subscription<T> subscription = new Subscription<>(open, userId, emitter);
+            open.subscriptions.add(subscription);
+            created[0] = subscription;
+            return open;
+        });
+        Subscription<?> subscription = created[0];
+        emitter.onCompletion(() -> remove(subscription));
+        emitter.onTimeout(() -> remove(subscription));
+        emitter.onError(e -> remove(subscription));
+
+        Deque<Subscription<?>> evicted = new ArrayDeque<>();
+        byUser.compute(userId, (user, streams) -> {
+            Deque<Subscription<?>> open = streams != null ? streams : new ArrayDeque<>();
+            open.addLast(subscription);
+            if (open.size() > properties.getMaxConnectionsPerUser()) {
+                evicted.add(open.pollFirst());
+            }
+            return open;
+        });
+        for (Subscription<?> oldest : evicted) {
+            log.debug("User {} has more than {} status streams, closing the oldest",
+                    userId, properties.getMaxConnectionsPerUser());
+            end(oldest, null);
+        }
+        watch.refresh(false);
+        return emitter;
+    }
+
+    @EventListener
+    public void onRunStatusChanged(RunStatusChangedEvent event) {
+        publish(new Topic(RUN, event.submissionId()));
+    }
+
+    @EventListener
+    public void onSubmitStatusChanged(SubmitStatusChangedEvent event) {
+        publish(new Topic(SUBMIT, event.attemptId()));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        heartbeats.shutdownNow();
+        senders.shutdownNow();
+        byTopic.values().forEach(watch -> watch.subscriptions.forEach(subscription -> {
+            if (subscription.end.compareAndSet(null, new End(null))) {
+                subscription.emitter.complete();
+            }
+        }));
+    }
+
+    private void publish(Topic topic) {
+        Watch<?> watch = byTopic.get(topic);
+        if (watch != null) {
+            watch.refresh(false);
+        }
+    }
+
+    private void heartbeat() {
+        long now = System.nanoTime();
+        long sendTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(properties.getSendTimeoutMs());
+        byTopic.values().forEach(watch -> {
+            watch.subscriptions.forEach(subscription -> {
+                if (subscription.stalled(now, sendTimeoutNanos)) {
+                    end(subscription, new IOException("Client did not read for over "
+                            + properties.getSendTimeoutMs() + " ms"));
+                }
+            });
+            watch.refresh(true);
+        });
+    }
+
+    /**
+     * Ends a stream: it gets no more events and its emitter is completed — with {@code failure}
+     * if the client went away or the status can't be read — by whichever thread writes to it.
+     */
+    private void end(Subscription<?> subscription, Exception failure) {
+        if (!subscription.end.compareAndSet(null, new End(failure))) {
+            return;
+        }
+        if (failure != null) {
+            log.debug("Dropping status stream {} of user {}: {}",
+                    subscription.watch.topic, subscription.userId, failure.getMessage());
+        }
+        remove(subscription);
+        subscription.request();
+    }
+
+    private void remove(Subscription<?> subscription) {
+        byTopic.computeIfPresent(subscription.watch.topic, (topic, watch) -> {
+            watch.subscriptions.remove(subscription);
+            return watch.subscriptions.isEmpty() ? null : watch;
+        });
+        byUser.computeIfPresent(subscription.userId, (user, streams) -> {
+            streams.remove(subscription);
+            return streams.isEmpty() ? null : streams;
+        });
+    }
+
+    private void execute(Runnable task) {
+        try {
+            senders.execute(task);
+        } catch (RejectedExecutionException ignore) {
+            // shutting down
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package com.edutest.webserver.sse;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Limits of the SSE status streams served by {@link JobStatusStreams}.
+ */
+@Configuration
+@ConfigurationProperties(prefix = "app.status-stream")
+@Getter
+@Setter
+public class StatusStreamProperties {
+
+    /**
+     * Interval of the keep-alive comment sent on every open stream, which also re-reads the
+     * job's status — the only way to see changes made by another instance (JDBC job store).
+     */
+    private long heartbeatMs = 15_000;
+
+    /** A stream is closed after this long; the client reconnects if it still waits. */
+    private long timeoutMs = 600_000;
+
+    /** Open streams per user; opening one more closes that user's oldest. */
+    private int maxConnectionsPerUser = 3;
+
+    /** Threads that read job statuses and write events; a client that stops reading holds one. */
+    private int senderThreads = 4;
+
+    /** A stream whose write has been blocked this long is dropped, checked on every heartbeat. */
+    private long sendTimeoutMs = 10_000;
+}
@@ -0,0 +1,9 @@
+-- Coding assignments: when set, a student's "Run tests" preview stops at the
+-- first failing public test case instead of running the rest. Submits always
+-- run every test case. Existing assignments keep running all of them.
+--
+-- IF NOT EXISTS makes this safe even on dev DBs where Hibernate ddl-auto=update
+-- already added the column.
+
+ALTER TABLE assignments
+    ADD COLUMN IF NOT EXISTS stop_on_first_failure BOOLEAN DEFAULT FALSE;
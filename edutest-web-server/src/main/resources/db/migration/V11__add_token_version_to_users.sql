@@ -0,0 +1,9 @@
+-- Access tokens carry the user's token version; raising it (deactivation, soft delete)
+-- makes every token issued before unusable. Existing users start at 0, like the tokens
+-- issued from now on.
+--
+-- IF NOT EXISTS makes this safe even on dev DBs where Hibernate ddl-auto=update
+-- already added the column.
+
+ALTER TABLE users
+    ADD COLUMN IF NOT EXISTS token_version INTEGER NOT NULL DEFAULT 0;
@@ -0,0 +1,8 @@
+-- Pending-grading counts of the teacher attempt list (TestAttemptJpaRepository.findAttemptList)
+-- aggregate the ungraded answers of a test's attempts in one grouped join. Only a small share
+-- of answers is ungraded at any time, so a partial index keeps that lookup cheap.
+-- Attempts of a test are already found through the UNIQUE (test_id, student_id) index.
+
+CREATE INDEX IF NOT EXISTS idx_assignment_answers_ungraded
+    ON assignment_answers (test_attempt_id)
+    WHERE is_graded = FALSE;
@@ -0,0 +1,14 @@
+-- Allow the OUTPUT_LIMIT_EXCEEDED execution status (program printed more than
+-- coding.execution.output-limit-bytes for a test case).
+--
+-- Hibernate 6 generates a CHECK constraint listing the enum values when it
+-- creates an @Enumerated(STRING) column, and ddl-auto=update never widens it,
+-- so inserts of the new value would fail on existing databases.
+
+ALTER TABLE IF EXISTS code_submissions
+    DROP CONSTRAINT IF EXISTS code_submissions_execution_status_check;
+
+ALTER TABLE IF EXISTS code_submissions
+    ADD CONSTRAINT code_submissions_execution_status_check CHECK (execution_status IN (
+        'NOT_EXECUTED', 'SUCCESS', 'RUNTIME_ERROR', 'TIME_LIMIT_EXCEEDED',
+        'MEMORY_LIMIT_EXCEEDED', 'OUTPUT_LIMIT_EXCEEDED', 'SYSTEM_ERROR'));
@@ -0,0 +1,13 @@
+-- Output checker per test case: how the program's output is compared with
+-- expected_output (see OutputCheckerEnum). Existing rows keep the former
+-- trimmed exact comparison.
+--
+-- IF NOT EXISTS makes this safe even on dev DBs where Hibernate ddl-auto=update
+-- already added the columns.
+
+ALTER TABLE test_cases
+    ADD COLUMN IF NOT EXISTS checker_mode VARCHAR(30) DEFAULT 'EXACT'
+        CHECK (checker_mode IN ('EXACT', 'TOKENS', 'FLOAT_TOLERANCE', 'UNORDERED_LINES'));
+
+ALTER TABLE test_cases
+    ADD COLUMN IF NOT EXISTS float_tolerance DOUBLE PRECISION;
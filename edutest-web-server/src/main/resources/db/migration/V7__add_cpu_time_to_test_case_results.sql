@@ -0,0 +1,9 @@
+-- CPU time (user + system) of each test case run, measured in the sandbox next
+-- to the wall time in execution_time_ms. NULL for results recorded before it was
+-- measured or when the sandbox image could not report it.
+--
+-- IF NOT EXISTS makes this safe even on dev DBs where Hibernate ddl-auto=update
+-- already added the column.
+
+ALTER TABLE test_case_results
+    ADD COLUMN IF NOT EXISTS cpu_time_ms BIGINT;
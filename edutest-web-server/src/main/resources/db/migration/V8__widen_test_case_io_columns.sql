@@ -0,0 +1,9 @@
+-- Test inputs and expected outputs are no longer capped at 2000 chars: the
+-- sandbox now stages them as a tar stream instead of shell arguments, so
+-- larger data sets work without command-line limits.
+
+ALTER TABLE test_cases
+    ALTER COLUMN input_data TYPE TEXT;
+
+ALTER TABLE test_cases
+    ALTER COLUMN expected_output TYPE TEXT;
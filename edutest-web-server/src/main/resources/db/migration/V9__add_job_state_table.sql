@@ -0,0 +1,27 @@
+-- Add job_state table for the JDBC job store (app.job-store.type=jdbc): state of async
+-- preview runs and test submits, shared by all web-server instances.
+--
+-- A PENDING job is leased by the instance running it (owner, lease_until); other instances
+-- claim it with FOR UPDATE SKIP LOCKED once the lease runs out. result/context are JSON.
+
+CREATE TABLE IF NOT EXISTS job_state (
+    kind VARCHAR(32) NOT NULL,
+    job_id BIGINT NOT NULL,
+    status VARCHAR(16) NOT NULL,
+    started_at TIMESTAMP NOT NULL,
+    completed_at TIMESTAMP,
+    result TEXT,
+    error TEXT,
+    context TEXT,
+    owner VARCHAR(64),
+    lease_until TIMESTAMP,
+    claims INT NOT NULL DEFAULT 0,
+    expires_at TIMESTAMP NOT NULL,
+    PRIMARY KEY (kind, job_id)
+);
+
+CREATE INDEX IF NOT EXISTS idx_job_state_expires_at
+    ON job_state (expires_at);
+
+CREATE INDEX IF NOT EXISTS idx_job_state_pending_lease
+    ON job_state (kind, lease_until) WHERE status = 'PENDING';
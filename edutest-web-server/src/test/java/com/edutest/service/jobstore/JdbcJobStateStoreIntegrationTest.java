@@ -0,0 +1,225 @@
+package com.edutest.service.jobstore;
+
+import com.edutest.webserver.EdutestWebServerApplication;
+import com.edutest.webserver.integration.BaseTestcontainersTest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * {@link JdbcJobStateStore} against PostgreSQL: several store instances on one table stand in
+ * for several web-server instances. Sweeps are driven by hand (sweep interval 0).
+ */
+@SpringBootTest(classes = EdutestWebServerApplication.class, webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class JdbcJobStateStoreIntegrationTest extends BaseTestcontainersTest {
+
+    private static final JobKind<String> KIND =
+            new JobKind<>("TEST", String.class, Duration.ofMinutes(5), Duration.ofHours(1));
+
+    @Autowired
+    private JdbcTemplate jdbc;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @BeforeEach
+    void createTable() {
+        // Flyway is off in integration tests and job_state has no entity.
+        new ResourceDatabasePopulator(new ClassPathResource("db/migration/V9__add_job_state_table.sql"))
+                .execute(jdbc.getDataSource());
+        jdbc.update("DELETE FROM job_state");
+    }
+
+    @Test
+    @DisplayName("Jobs written by one instance are read and updated by another")
+    void sharedBetweenInstances() {
+        JdbcJobStateStore first = store(100);
+        JdbcJobStateStore second = store(100);
+
+        first.put(KIND, 1L, JobRecord.pending(Map.of("studentId", 7L)));
+        second.update(KIND, 1L, job -> job.progress("half"));
+
+        assertThat(first.get(KIND, 1L)).hasValueSatisfying(job -> {
+            assertThat(job.status()).isEqualTo(JobRecord.Status.PENDING);
+            assertThat(job.result()).isEqualTo("half");
+            assertThat(job.context()).containsEntry("studentId", 7L);
+        });
+
+        first.update(KIND, 1L, job -> job.done("all"));
+        assertThat(second.get(KIND, 1L)).hasValueSatisfying(job -> {
+            assertThat(job.status()).isEqualTo(JobRecord.Status.DONE);
+            assertThat(job.result()).isEqualTo("all");
+        });
+
+        second.remove(KIND, 1L);
+        assertThat(first.get(KIND, 1L)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("A PENDING job is claimed by another instance only once its owner's lease ran out")
+    void claimsOrphanAfterLeaseExpires() {
+        JdbcJobStateStore owner = store(100);
+        JdbcJobStateStore survivor = store(100);
+        List<Long> recovered = new ArrayList<>();
+        survivor.onOrphaned(KIND, (id, job) -> recovered.add(id));
+        owner.put(KIND, 1L, JobRecord.pending(Map.of()));
+
+        survivor.sweep();
+        assertThat(recovered).isEmpty();
+
+        // The owner is alive: its sweep renews the lease before anyone claims it.
+        expireLeases();
+        owner.sweep();
+        survivor.sweep();
+        assertThat(recovered).isEmpty();
+
+        // The owner died: the lease runs out and the survivor takes the job over.
+        expireLeases();
+        survivor.sweep();
+        assertThat(recovered).containsExactly(1L);
+        assertThat(jdbc.queryForObject("SELECT claims FROM job_state WHERE job_id = 1", Integer.class)).isEqualTo(1);
+
+        // Now leased by the survivor, which renews it.
+        survivor.sweep();
+        assertThat(recovered).containsExactly(1L);
+    }
+
+    @Test
+    @DisplayName("A job interrupted more than MAX_CLAIMS times is marked FAILED instead of run again")
+    void givesUpAfterRepeatedClaims() {
+        JdbcJobStateStore owner = store(100);
+        JdbcJobStateStore survivor = store(100);
+        List<Long> recovered = new ArrayList<>();
+        survivor.onOrphaned(KIND, (id, job) -> recovered.add(id));
+        owner.put(KIND, 1L, JobRecord.pending(Map.of()));
+
+        for (int i = 0; i <= JdbcJobStateStore.MAX_CLAIMS; i++) {
+            expireLeases();
+            survivor.sweep();
+        }
+
+        assertThat(recovered).hasSize(JdbcJobStateStore.MAX_CLAIMS);
+        assertThat(owner.get(KIND, 1L)).hasValueSatisfying(job ->
+                assertThat(job.status()).isEqualTo(JobRecord.Status.FAILED));
+    }
+
+    @Test
+    @DisplayName("A claimed job stays readable through its updates even though it started long ago")
+    void claimedJobSurvivesUpdates() {
+        JdbcJobStateStore owner = store(100);
+        JdbcJobStateStore survivor = store(100);
+        survivor.onOrphaned(KIND, (id, job) -> { });
+        owner.put(KIND, 1L, JobRecord.pending(Map.of()));
+        // Started ten minutes ago; without the claim it would expire in a second.
+        jdbc.update("UPDATE job_state SET started_at = LOCALTIMESTAMP - INTERVAL '10 minutes',"
+                + " expires_at = LOCALTIMESTAMP + INTERVAL '1 second'");
+
+        expireLeases();
+        survivor.sweep();
+        survivor.update(KIND, 1L, job -> job.progress("half"));
+
+        assertThat(expiresInMinutes(1L)).isGreaterThan(4);
+        assertThat(owner.get(KIND, 1L)).hasValueSatisfying(job ->
+                assertThat(job.result()).isEqualTo("half"));
+
+        survivor.update(KIND, 1L, job -> job.done("all"));
+
+        assertThat(expiresInMinutes(1L)).isGreaterThan(59);
+        assertThat(owner.get(KIND, 1L)).hasValueSatisfying(job ->
+                assertThat(job.status()).isEqualTo(JobRecord.Status.DONE));
+    }
+
+    @Test
+    @DisplayName("Instances sweeping at the same time claim every orphan exactly once")
+    void claimsOnceUnderConcurrency() throws Exception {
+        JdbcJobStateStore owner = store(100);
+        for (long id = 1; id <= 50; id++) {
+            owner.put(KIND, id, JobRecord.pending(Map.of()));
+        }
+        expireLeases();
+
+        Queue<Long> recovered = new ConcurrentLinkedQueue<>();
+        List<JdbcJobStateStore> survivors = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            JdbcJobStateStore survivor = store(100);
+            survivor.onOrphaned(KIND, (id, job) -> recovered.add(id));
+            survivors.add(survivor);
+        }
+        ExecutorService pool = Executors.newFixedThreadPool(survivors.size());
+        CountDownLatch go = new CountDownLatch(1);
+        try {
+            List<Future<?>> sweeps = new ArrayList<>();
+            for (JdbcJobStateStore survivor : survivors) {
+                sweeps.add(pool.submit(() -> {
+                    go.await();
+                    survivor.sweep();
+                    return null;
+                }));
+            }
+            go.countDown();
+            for (Future<?> sweep : sweeps) {
+                sweep.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        assertThat(recovered).hasSize(50).doesNotHaveDuplicates();
+        assertThat(jdbc.queryForObject("SELECT MAX(claims) FROM job_state", Integer.class)).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Sweeps evict expired jobs and keep only the newest max-entries finished ones")
+    void evictsExpiredAndTrimsFinished() {
+        JdbcJobStateStore store = store(3);
+        LocalDateTime now = LocalDateTime.now();
+        for (long id = 1; id <= 6; id++) {
+            store.put(KIND, id, new JobRecord<>(JobRecord.Status.DONE, now, now, "r" + id, null, Map.of()));
+        }
+        store.put(KIND, 7L, JobRecord.pending(Map.of()));
+        // Finished two hours ago, readable for one: expired. The rest finished in id order.
+        jdbc.update("UPDATE job_state SET expires_at = LOCALTIMESTAMP - INTERVAL '1 hour' WHERE job_id = 1");
+        jdbc.update("UPDATE job_state SET expires_at = LOCALTIMESTAMP + job_id * INTERVAL '1 minute'"
+                + " WHERE job_id BETWEEN 2 AND 6");
+        assertThat(store.get(KIND, 1L)).isEmpty();
+
+        store.sweep();
+
+        assertThat(jdbc.queryForList("SELECT job_id FROM job_state ORDER BY job_id", Long.class))
+                .containsExactly(4L, 5L, 6L, 7L);
+    }
+
+    private JdbcJobStateStore store(int maxEntries) {
+        return new JdbcJobStateStore(jdbc, transactionManager, objectMapper, maxEntries, 0, 60_000);
+    }
+
+    private long expiresInMinutes(long id) {
+        return jdbc.queryForObject("SELECT EXTRACT(EPOCH FROM expires_at - LOCALTIMESTAMP) / 60 FROM job_state"
+                + " WHERE job_id = ?", Double.class, id).longValue();
+    }
+
+    private void expireLeases() {
+        jdbc.update("UPDATE job_state SET lease_until = LOCALTIMESTAMP - INTERVAL '1 second' WHERE status = 'PENDING'");
+    }
+}
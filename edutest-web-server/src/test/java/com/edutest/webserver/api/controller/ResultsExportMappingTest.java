@@ -0,0 +1,83 @@
+package com.edutest.webserver.api.controller;
+
+import com.edutest.api.ResultsExportApi;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.DefaultParameterNameDiscoverer;
+import org.springframework.core.MethodParameter;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ValueConstants;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The results exports are mapped by hand in {@link TestApiController} (they stream), while the
+ * spec's operations only become the unimplemented {@link ResultsExportApi}: this keeps the two
+ * from drifting apart.
+ */
+class ResultsExportMappingTest {
+
+    @Test
+    @DisplayName("Single-test export handler matches the spec's path, method and parameters")
+    void singleTestExportMatchesSpec() {
+        assertMatches("_exportTestResults", "exportTestResults");
+    }
+
+    @Test
+    @DisplayName("Several-tests export handler matches the spec's path, method and parameters")
+    void severalTestsExportMatchesSpec() {
+        assertMatches("_exportResultsOfTests", "exportResultsOfTests");
+    }
+
+    private static void assertMatches(String specMethod, String controllerMethod) {
+        Method spec = method(ResultsExportApi.class, specMethod);
+        Method handler = method(TestApiController.class, controllerMethod);
+
+        RequestMapping specMapping = AnnotatedElementUtils.findMergedAnnotation(spec, RequestMapping.class);
+        RequestMapping handlerMapping = AnnotatedElementUtils.findMergedAnnotation(handler, RequestMapping.class);
+        assertThat(handlerMapping).isNotNull();
+        assertThat(handlerMapping.path()).containsExactly(specMapping.path());
+        assertThat(handlerMapping.method()).containsExactly(specMapping.method());
+        assertThat(parameters(handler)).containsExactlyElementsOf(parameters(spec));
+    }
+
+    private static Method method(Class<?> type, String name) {
+        return Arrays.stream(type.getMethods())
+                .filter(method -> method.getName().equals(name))
+                .findFirst()
+                .orElseThrow(() -> new AssertionError(type.getSimpleName() + " has no method " + name));
+    }
+
+    /** One line per request parameter: where it comes from, its name, type, whether required and its default. */
+    private static List<String> parameters(Method method) {
+        List<String> parameters = new ArrayList<>();
+        for (int i = 0; i < method.getParameterCount(); i++) {
+            MethodParameter parameter = new MethodParameter(method, i);
+            parameter.initParameterNameDiscovery(new DefaultParameterNameDiscoverer());
+            String type = parameter.getGenericParameterType().getTypeName();
+            PathVariable path = parameter.getParameterAnnotation(PathVariable.class);
+            RequestParam query = parameter.getParameterAnnotation(RequestParam.class);
+            if (path != null) {
+                parameters.add("path " + name(path.name(), parameter) + " " + type);
+            } else if (query != null) {
+                boolean hasDefault = !ValueConstants.DEFAULT_NONE.equals(query.defaultValue());
+                parameters.add("query " + name(query.name(), parameter) + " " + type
+                        + (query.required() && !hasDefault ? " required" : " optional")
+                        + (hasDefault ? " default=" + query.defaultValue() : ""));
+            }
+        }
+        return parameters;
+    }
+
+    private static String name(String declared, MethodParameter parameter) {
+        return declared.isEmpty() ? parameter.getParameterName() : declared;
+    }
+}
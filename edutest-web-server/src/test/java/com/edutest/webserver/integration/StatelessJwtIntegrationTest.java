@@ -0,0 +1,68 @@
+package com.edutest.webserver.integration;
+
+import com.edutest.persistance.repository.RefreshTokenRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Stateless JWT mode end to end. Runs without the test transaction: the revocation
+ * registry only learns about a deactivation once it is committed.
+ */
+@TestPropertySource(properties = "app.security.stateless-jwt.enabled=true")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class StatelessJwtIntegrationTest extends BaseIntegrationTest {
+
+    @Autowired
+    private RefreshTokenRepository refreshTokenRepository;
+
+    @AfterEach
+    void cleanUp() {
+        refreshTokenRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    @DisplayName("A deactivated user can neither refresh nor use the tokens issued before")
+    void deactivatedUserCannotRefresh() throws Exception {
+        JsonNode student = login(STUDENT_USERNAME);
+        String accessToken = student.get("accessToken").asText();
+
+        mockMvc.perform(get("/api/student/tests")
+                        .header("Authorization", "Bearer " + accessToken))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(patch("/api/admin/users/" + studentUser.getId() + "/deactivate")
+                        .header("Authorization", "Bearer " + loginAndGetToken(ADMIN_USERNAME)))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(post("/api/auth/refresh")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"refreshToken\": \"" + student.get("refreshToken").asText() + "\"}"))
+                .andExpect(status().isUnauthorized());
+
+        mockMvc.perform(get("/api/student/tests")
+                        .header("Authorization", "Bearer " + accessToken))
+                .andExpect(status().isUnauthorized());
+    }
+
+    private JsonNode login(String username) throws Exception {
+        String response = mockMvc.perform(post("/api/auth/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"username\": \"" + username + "\", \"password\": \"" + DEFAULT_PASSWORD + "\"}"))
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+        return objectMapper.readTree(response);
+    }
+}
@@ -0,0 +1,254 @@
+package com.edutest.webserver.sse;
+
+import com.edutest.event.RunStatusChangedEvent;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class JobStatusStreamsTest {
+
+    private static final String HEARTBEAT = "heartbeat";
+    private static final Status PENDING = new Status("PENDING");
+    private static final Status DONE = new Status("DONE");
+
+    private final List<RecordingEmitter> emitters = new ArrayList<>();
+    private JobStatusStreams streams;
+
+    @AfterEach
+    void tearDown() {
+        streams.shutdown();
+    }
+
+    @Test
+    @DisplayName("Opening more than max-connections-per-user streams closes the user's oldest")
+    void evictsOldestStream() throws Exception {
+        streams = streams(0, 2);
+
+        RecordingEmitter oldest = subscribe(1L, 7L, () -> PENDING);
+        RecordingEmitter second = subscribe(2L, 7L, () -> PENDING);
+        RecordingEmitter otherUser = subscribe(3L, 8L, () -> PENDING);
+        RecordingEmitter third = subscribe(4L, 7L, () -> PENDING);
+
+        assertThat(oldest.completed.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(third.next()).isEqualTo("PENDING");
+        assertThat(second.completed.getCount()).isOne();
+        assertThat(otherUser.completed.getCount()).isOne();
+        assertThat(third.completed.getCount()).isOne();
+    }
+
+    @Test
+    @DisplayName("Pushes the status on every change and completes the stream after a final one")
+    void completesOnFinalStatus() throws Exception {
+        streams = streams(0, 3);
+        AtomicReference<Status> status = new AtomicReference<>(PENDING);
+        RecordingEmitter emitter = subscribe(1L, 7L, status::get);
+        assertThat(emitter.next()).isEqualTo("PENDING");
+
+        status.set(DONE);
+        streams.onRunStatusChanged(new RunStatusChangedEvent(1L));
+
+        assertThat(emitter.next()).isEqualTo("DONE");
+        assertThat(emitter.completed.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(emitter.error.get()).isNull();
+    }
+
+    @Test
+    @DisplayName("A stream whose client went away is dropped and never written again")
+    void dropsStreamOnIOException() throws Exception {
+        streams = streams(0, 3);
+        AtomicReference<Status> status = new AtomicReference<>(PENDING);
+        RecordingEmitter broken = subscribe(1L, 7L, status::get);
+        broken.failing = true;
+
+        // The initial push may have gone out before the failure was armed: force one more.
+        status.set(new Status("RUNNING"));
+        streams.onRunStatusChanged(new RunStatusChangedEvent(1L));
+        assertThat(broken.completed.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(broken.error.get()).isInstanceOf(IOException.class);
+        int attempts = broken.attempts.get();
+
+        RecordingEmitter healthy = subscribe(1L, 8L, status::get);
+        assertThat(healthy.next()).isEqualTo("RUNNING");
+        status.set(DONE);
+        streams.onRunStatusChanged(new RunStatusChangedEvent(1L));
+        assertThat(healthy.next()).isEqualTo("DONE");
+
+        assertThat(broken.attempts.get()).isEqualTo(attempts);
+    }
+
+    @Test
+    @DisplayName("Heartbeats re-read the status and push it only when it changed, otherwise a keep-alive comment")
+    void heartbeatPushesOnlyChanges() throws Exception {
+        streams = streams(20, 3);
+        AtomicReference<Status> status = new AtomicReference<>(PENDING);
+        RecordingEmitter emitter = subscribe(1L, 7L, status::get);
+        assertThat(emitter.next()).isEqualTo("PENDING");
+        assertThat(emitter.next()).isEqualTo(HEARTBEAT);
+        assertThat(emitter.next()).isEqualTo(HEARTBEAT);
+
+        // Changed on another instance: no event here, only the heartbeat's re-read sees it.
+        status.set(DONE);
+
+        String next;
+        do {
+            next = emitter.next();
+        } while (HEARTBEAT.equals(next));
+        assertThat(next).isEqualTo("DONE");
+        assertThat(emitter.completed.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(emitter.sent).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Streams of one job share a single status read per heartbeat")
+    void readsStatusOncePerJob() throws Exception {
+        streams = streams(20, 3);
+        AtomicInteger reads = new AtomicInteger();
+        Supplier<Status> status = () -> {
+            reads.incrementAndGet();
+            return PENDING;
+        };
+        RecordingEmitter first = subscribe(1L, 7L, status);
+        RecordingEmitter second = subscribe(1L, 8L, status);
+        assertThat(first.next()).isEqualTo("PENDING");
+        assertThat(second.next()).isEqualTo("PENDING");
+
+        for (int i = 0; i < 5; i++) {
+            assertThat(first.next()).isEqualTo(HEARTBEAT);
+            assertThat(second.next()).isEqualTo(HEARTBEAT);
+        }
+        streams.shutdown();
+        int sentToEach = Math.max(6 + first.sent.size(), 6 + second.sent.size());
+
+        // One read per event on each stream, plus the two subscribes and one cut short by
+        // the shutdown; reading per stream would take twice as many.
+        assertThat(reads.get()).isLessThanOrEqualTo(sentToEach + 3);
+    }
+
+    @Test
+    @DisplayName("A client that stops reading does not hold up other streams and is dropped after the send timeout")
+    void dropsStalledStream() throws Exception {
+        streams = streams(20, 3, 100);
+        AtomicReference<Status> status = new AtomicReference<>(PENDING);
+        RecordingEmitter stalled = subscribe(1L, 7L, status::get);
+        assertThat(stalled.next()).isEqualTo("PENDING");
+        CountDownLatch unblock = new CountDownLatch(1);
+        stalled.stalled = unblock;
+
+        AtomicReference<Status> other = new AtomicReference<>(PENDING);
+        RecordingEmitter healthy = subscribe(2L, 8L, other::get);
+        assertThat(healthy.next()).isEqualTo("PENDING");
+        other.set(DONE);
+        streams.onRunStatusChanged(new RunStatusChangedEvent(2L));
+        String next;
+        do {
+            next = healthy.next();
+        } while (HEARTBEAT.equals(next));
+        assertThat(next).isEqualTo("DONE");
+
+        // The stalled write returns only now; the stream was dropped meanwhile.
+        Thread.sleep(300);
+        unblock.countDown();
+        assertThat(stalled.completed.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(stalled.error.get()).isInstanceOf(IOException.class);
+        int attempts = stalled.attempts.get();
+        status.set(DONE);
+        streams.onRunStatusChanged(new RunStatusChangedEvent(1L));
+        Thread.sleep(100);
+        assertThat(stalled.attempts.get()).isEqualTo(attempts);
+    }
+
+    private JobStatusStreams streams(long heartbeatMs, int maxConnectionsPerUser) {
+        return streams(heartbeatMs, maxConnectionsPerUser, 10_000);
+    }
+
+    private JobStatusStreams streams(long heartbeatMs, int maxConnectionsPerUser, long sendTimeoutMs) {
+        StatusStreamProperties properties = new StatusStreamProperties();
+        properties.setHeartbeatMs(heartbeatMs);
+        properties.setMaxConnectionsPerUser(maxConnectionsPerUser);
+        properties.setSendTimeoutMs(sendTimeoutMs);
+        return new JobStatusStreams(properties, timeout -> {
+            RecordingEmitter emitter = new RecordingEmitter(timeout);
+            emitters.add(emitter);
+            return emitter;
+        });
+    }
+
+    private RecordingEmitter subscribe(Long submissionId, Long userId, Supplier<Status> status) {
+        streams.subscribe(JobStatusStreams.RUN, submissionId, userId, status, DONE::equals);
+        return emitters.get(emitters.size() - 1);
+    }
+
+    /** Stands in for the poll endpoint's status DTO. */
+    private record Status(String name) {
+    }
+
+    /** Records what the streams write instead of talking to a servlet response. */
+    private static final class RecordingEmitter extends SseEmitter {
+        private final BlockingQueue<String> sent = new LinkedBlockingQueue<>();
+        private final CountDownLatch completed = new CountDownLatch(1);
+        private final AtomicReference<Throwable> error = new AtomicReference<>();
+        private final AtomicInteger attempts = new AtomicInteger();
+        private volatile boolean failing;
+        /** While set, writes block until it opens — a client that stopped reading. */
+        private volatile CountDownLatch stalled;
+
+        private RecordingEmitter(Long timeout) {
+            super(timeout);
+        }
+
+        @Override
+        public void send(SseEventBuilder builder) throws IOException {
+            attempts.incrementAndGet();
+            if (failing) {
+                throw new IOException("Broken pipe");
+            }
+            CountDownLatch stall = stalled;
+            if (stall != null) {
+                try {
+                    stall.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            // A status event carries the status object, a keep-alive comment only text.
+            String event = builder.build().stream()
+                    .map(DataWithMediaType::getData)
+                    .filter(Status.class::isInstance)
+                    .map(data -> ((Status) data).name())
+                    .findFirst()
+                    .orElse(HEARTBEAT);
+            sent.add(event);
+        }
+
+        @Override
+        public void complete() {
+            completed.countDown();
+        }
+
+        @Override
+        public void completeWithError(Throwable ex) {
+            error.set(ex);
+            completed.countDown();
+        }
+
+        String next() throws InterruptedException {
+            String event = sent.poll(5, TimeUnit.SECONDS);
+            assertThat(event).as("event sent within 5s").isNotNull();
+            return event;
+        }
+    }
+}